@@ -0,0 +1,232 @@
+package br.com.healthgo;
+
+import br.com.healthgo.config.ModoThreads;
+import br.com.healthgo.model.AmostraSinais;
+import br.com.healthgo.model.DadosPaciente;
+import br.com.healthgo.service.DadosPacienteService;
+import br.com.healthgo.service.DeduplicacaoService;
+import br.com.healthgo.service.DiarioIngestao;
+import br.com.healthgo.service.ExecutorPorPaciente;
+import br.com.healthgo.service.IngestaoDadosService;
+import br.com.healthgo.service.MotorAlertasService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Componentes da aplicação montados sem o contexto Spring, para os benchmarks.
+ *
+ * As dependências {@code @Autowired} e {@code @Value} são preenchidas por reflexão,
+ * com os mesmos valores padrão do application.properties; nada depende de banco ou Redis.
+ */
+public final class AmbienteBenchmark {
+
+    private AmbienteBenchmark() {
+    }
+
+    /**
+     * ObjectMapper com a configuração padrão do Spring Boot
+     */
+    public static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    /**
+     * Threads de plataforma (spring.threads.virtual.enabled ausente)
+     */
+    public static ModoThreads modoThreads() {
+        ModoThreads modoThreads = new ModoThreads();
+        injetar(modoThreads, "environment", new StandardEnvironment());
+        return modoThreads;
+    }
+
+    /**
+     * Ingestão com a fila e a thread escritora reais e a gravação no banco substituída por
+     * um {@link DadosPacienteService} que descarta os lotes; com a fila cheia, descarta
+     */
+    public static IngestaoDadosService ingestaoSemBanco(MeterRegistry meterRegistry, ModoThreads modoThreads) {
+        IngestaoDadosService ingestao = new IngestaoDadosService();
+        injetar(ingestao, "capacidadeFila", 10_000);
+        injetar(ingestao, "tamanhoLote", 200);
+        injetar(ingestao, "intervaloFlushMs", 100L);
+        injetar(ingestao, "politicaFilaCheia", IngestaoDadosService.PoliticaFilaCheia.DESCARTAR);
+        injetar(ingestao, "timeoutBloqueioMs", 50L);
+        injetar(ingestao, "dadosPacienteService", new GravacaoDescartada());
+        injetar(ingestao, "meterRegistry", meterRegistry);
+        injetar(ingestao, "modoThreads", modoThreads);
+        ingestao.iniciar();
+        return ingestao;
+    }
+
+    /**
+     * Diário de ingestão em {@code pasta}, com segmentos de 64 MB
+     */
+    public static DiarioIngestao diario(Path pasta, MeterRegistry meterRegistry) throws IOException {
+        DiarioIngestao diario = new DiarioIngestao();
+        injetar(diario, "diretorio", pasta.toString());
+        injetar(diario, "tamanhoSegmentoMb", 64);
+        injetar(diario, "tamanhoMaximoMb", 2048L);
+        injetar(diario, "meterRegistry", meterRegistry);
+        diario.iniciar();
+        return diario;
+    }
+
+    /**
+     * Deduplicação com {@code chavesPorPaciente} horários por paciente, para até 10000 pacientes
+     */
+    public static DeduplicacaoService deduplicacao(int chavesPorPaciente, MeterRegistry meterRegistry) {
+        DeduplicacaoService deduplicacao = new DeduplicacaoService();
+        injetar(deduplicacao, "chavesPorPaciente", chavesPorPaciente);
+        injetar(deduplicacao, "maximoPacientes", 10_000);
+        injetar(deduplicacao, "meterRegistry", meterRegistry);
+        deduplicacao.iniciar();
+        return deduplicacao;
+    }
+
+    /**
+     * Raias reais por paciente, com {@code raias} threads consumidoras
+     */
+    public static ExecutorPorPaciente executorPorPaciente(int raias, MeterRegistry meterRegistry, ModoThreads modoThreads) {
+        ExecutorPorPaciente executor = new ExecutorPorPaciente();
+        injetar(executor, "quantidadeRaias", raias);
+        injetar(executor, "capacidadeRaia", 4096);
+        injetar(executor, "timeoutBloqueioMs", 50L);
+        injetar(executor, "meterRegistry", meterRegistry);
+        injetar(executor, "modoThreads", modoThreads);
+        executor.iniciar();
+        return executor;
+    }
+
+    /**
+     * Executor que roda cada tarefa na própria thread chamadora, para medir o caminho
+     * completo de um quadro sem a troca de thread das raias
+     */
+    public static ExecutorPorPaciente execucaoDireta() {
+        return new ExecucaoDireta();
+    }
+
+    /**
+     * Motor de alertas com {@code quantidade} regras: as regras padrão repetidas com limites deslocados
+     * e janelas de variação diferentes, para que cada cópia tenha o seu próprio estado
+     */
+    public static MotorAlertasService motorAlertas(int quantidade) throws IOException {
+        ObjectMapper objectMapper = objectMapper();
+        ArrayNode padrao;
+        try (InputStream entrada = new ClassPathResource("regras-alerta.json").getInputStream()) {
+            padrao = (ArrayNode) objectMapper.readTree(entrada);
+        }
+        ArrayNode regras = objectMapper.createArrayNode();
+        for (int i = 0; i < quantidade; i++) {
+            ObjectNode regra = ((ObjectNode) padrao.get(i % padrao.size())).deepCopy();
+            int copia = i / padrao.size();
+            regra.put("id", regra.get("id").asText() + "_" + copia);
+            if (regra.has("limite")) {
+                regra.put("limite", regra.get("limite").asDouble() + copia % 3);
+            }
+            if (regra.has("janela_segundos")) {
+                regra.put("janela_segundos", regra.get("janela_segundos").asInt() + 10 * copia);
+            }
+            regras.add(regra);
+        }
+        Path arquivo = Files.createTempFile("regras-alerta-benchmark", ".json");
+        arquivo.toFile().deleteOnExit();
+        objectMapper.writeValue(arquivo.toFile(), regras);
+
+        MotorAlertasService motor = new MotorAlertasService();
+        injetar(motor, "arquivoRegras", arquivo.toUri().toString());
+        injetar(motor, "amostrasPorSegundoMax", 10);
+        injetar(motor, "maximoEventosRecentes", 200);
+        injetar(motor, "objectMapper", objectMapper);
+        injetar(motor, "resourceLoader", new DefaultResourceLoader());
+        injetar(motor, "eventPublisher", (org.springframework.context.ApplicationEventPublisher) evento -> { });
+        injetar(motor, "meterRegistry", new SimpleMeterRegistry());
+        motor.recarregar();
+        return motor;
+    }
+
+    /**
+     * Amostras com sinais em faixas normais, distribuídas entre {@code pacientes} e espaçadas
+     * de forma que cada paciente receba cerca de 5 amostras por segundo
+     */
+    public static AmostraSinais[] amostras(int pacientes, int quantidade, boolean identificacao) {
+        Random aleatorio = new Random(42);
+        long inicio = AmostraSinais.agoraMs();
+        AmostraSinais[] amostras = new AmostraSinais[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            int paciente = i % pacientes;
+            amostras[i] = new AmostraSinais(
+                pacienteId(paciente),
+                (i / pacientes * 20) % 8_640_000,
+                null,
+                70 + aleatorio.nextInt(20),
+                94 + aleatorio.nextInt(5),
+                110 + aleatorio.nextInt(25),
+                70 + aleatorio.nextInt(15),
+                36.0 + aleatorio.nextInt(15) / 10.0,
+                14 + aleatorio.nextInt(6),
+                false,
+                inicio + (long) i / pacientes * 200,
+                identificacao ? "Paciente " + paciente : null,
+                identificacao ? String.format("%011d", 10_000_000_000L + paciente) : null);
+        }
+        return amostras;
+    }
+
+    public static String pacienteId(int paciente) {
+        return String.format("PAC%04d", paciente);
+    }
+
+    /**
+     * Quadro JSON no formato enviado pelo simulador
+     */
+    public static String quadroJson(AmostraSinais amostra) {
+        StringBuilder json = new StringBuilder(256)
+            .append("{\"timestamp\":\"").append(amostra.timestamp())
+            .append("\",\"paciente_id\":\"").append(amostra.pacienteId()).append('"');
+        if (amostra.pacienteNome() != null) {
+            json.append(",\"paciente_nome\":\"").append(amostra.pacienteNome())
+                .append("\",\"paciente_cpf\":\"").append(amostra.pacienteCpf()).append('"');
+        }
+        return json.append(",\"freq_cardiaca\":").append(amostra.freqCardiaca())
+            .append(",\"saturacao_o2\":").append(amostra.saturacaoO2())
+            .append(",\"pressao_sistolica\":").append(amostra.pressaoSistolica())
+            .append(",\"pressao_diastolica\":").append(amostra.pressaoDiastolica())
+            .append(",\"temperatura\":").append(amostra.temperatura())
+            .append(",\"freq_respiratoria\":").append(amostra.freqRespiratoria())
+            .append(",\"status\":\"").append(amostra.alerta() ? "ALERTA" : "NORMAL").append("\"}")
+            .toString();
+    }
+
+    private static final class GravacaoDescartada extends DadosPacienteService {
+        @Override
+        public List<DadosPaciente> salvarTodos(List<DadosPaciente> dados) {
+            return dados;
+        }
+    }
+
+    private static final class ExecucaoDireta extends ExecutorPorPaciente {
+        @Override
+        public boolean executar(String pacienteId, Runnable tarefa) {
+            tarefa.run();
+            return true;
+        }
+    }
+
+    public static void injetar(Object alvo, String campo, Object valor) {
+        ReflectionTestUtils.setField(alvo, campo, valor);
+    }
+}
@@ -0,0 +1,93 @@
+package br.com.healthgo.service;
+
+import br.com.healthgo.AmbienteBenchmark;
+import br.com.healthgo.model.AlteracoesRecentes;
+import br.com.healthgo.model.AmostraSinais;
+import br.com.healthgo.model.DadosPaciente;
+import br.com.healthgo.model.Paciente;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Último dado por paciente: atualização do {@link DadosRecentesCache} a cada lote gravado
+ * e a consulta de /api/pacientes/dados/recentes, com o nome e o CPF vindos do cadastro;
+ * {@code buscarAlteracoesSemMudanca} é a consulta por versão de um dashboard já em dia
+ * (sem If-None-Match, que responderia 304 sem percorrer os pacientes).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DadosRecentesBenchmark {
+
+    private static final int TAMANHO_LOTE = 200;
+
+    @Param({"10", "100", "1000"})
+    private int pacientes;
+
+    private DadosPacienteService dadosPacienteService;
+    private DadosRecentesCache dadosRecentesCache;
+    private List<List<DadosPaciente>> lotes;
+    private int proximo;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void preparar() {
+        dadosRecentesCache = new DadosRecentesCache();
+        RegistroPacientesService registroPacientesService = new RegistroPacientesService();
+        Map<String, Paciente> cadastro = (Map<String, Paciente>) ReflectionTestUtils.getField(registroPacientesService, "pacientes");
+        for (int i = 0; i < pacientes; i++) {
+            String pacienteId = AmbienteBenchmark.pacienteId(i);
+            cadastro.put(pacienteId, new Paciente(pacienteId, "Paciente " + i, String.format("%011d", 10_000_000_000L + i)));
+        }
+
+        dadosPacienteService = new DadosPacienteService();
+        AmbienteBenchmark.injetar(dadosPacienteService, "dadosRecentesCache", dadosRecentesCache);
+        AmbienteBenchmark.injetar(dadosPacienteService, "registroPacientesService", registroPacientesService);
+
+        // Lotes como os da thread escritora, percorrendo os pacientes em ordem
+        AmostraSinais[] amostras = AmbienteBenchmark.amostras(pacientes, Math.max(pacientes, TAMANHO_LOTE) * 10, false);
+        lotes = new ArrayList<>();
+        for (int inicio = 0; inicio + TAMANHO_LOTE <= amostras.length; inicio += TAMANHO_LOTE) {
+            List<DadosPaciente> lote = new ArrayList<>(TAMANHO_LOTE);
+            for (int i = inicio; i < inicio + TAMANHO_LOTE; i++) {
+                lote.add(amostras[i].paraDadosPaciente());
+            }
+            lotes.add(lote);
+        }
+        lotes.forEach(dadosRecentesCache::atualizarTodos);
+    }
+
+    @Benchmark
+    public void atualizarLote() {
+        dadosRecentesCache.atualizarTodos(lotes.get(proximo));
+        proximo = proximo + 1 == lotes.size() ? 0 : proximo + 1;
+    }
+
+    @Benchmark
+    public List<DadosPaciente> buscarDadosRecentes() {
+        return dadosPacienteService.buscarDadosRecentes();
+    }
+
+    @Benchmark
+    public AlteracoesRecentes buscarAlteracoesSemMudanca() {
+        return dadosPacienteService.buscarAlteracoesRecentes(dadosPacienteService.versaoDadosRecentes());
+    }
+}
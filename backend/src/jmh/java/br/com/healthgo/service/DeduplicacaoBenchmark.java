@@ -0,0 +1,78 @@
+package br.com.healthgo.service;
+
+import br.com.healthgo.AmbienteBenchmark;
+import br.com.healthgo.model.AmostraSinais;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo da deduplicação por amostra para 1000 pacientes: {@code nova} é o caso comum
+ * (horário acima da marca d'água, sem consulta ao anel) e {@code repetida} é o pior
+ * caso, um reenvio do horário mais antigo do anel, que percorre todas as posições.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeduplicacaoBenchmark {
+
+    private static final int PACIENTES = 1000;
+
+    @Param({"64", "256"})
+    private int chavesPorPaciente;
+
+    private DeduplicacaoService deduplicacao;
+    private AmostraSinais[] modelos;
+    private AmostraSinais[] repetidas;
+    private long chamadas;
+
+    @Setup
+    public void preparar() {
+        deduplicacao = AmbienteBenchmark.deduplicacao(chavesPorPaciente, new SimpleMeterRegistry());
+        modelos = AmbienteBenchmark.amostras(PACIENTES, PACIENTES, false);
+        repetidas = new AmostraSinais[PACIENTES];
+        // Anel cheio em todos os pacientes; o horário 0 é o mais antigo de cada um
+        for (int i = 0; i < chavesPorPaciente; i++) {
+            for (int paciente = 0; paciente < PACIENTES; paciente++) {
+                deduplicacao.aceitar(comHorario(modelos[paciente], i * 20));
+            }
+        }
+        for (int paciente = 0; paciente < PACIENTES; paciente++) {
+            repetidas[paciente] = comHorario(modelos[paciente], 0);
+        }
+        chamadas = (long) chavesPorPaciente * PACIENTES;
+    }
+
+    @Benchmark
+    public boolean nova() {
+        // O horário avança a cada volta pelos pacientes, como um monitor a 5 Hz
+        AmostraSinais amostra = comHorario(modelos[(int) (chamadas % PACIENTES)], (int) (chamadas / PACIENTES * 20 % 8_640_000));
+        chamadas++;
+        return deduplicacao.aceitar(amostra);
+    }
+
+    @Benchmark
+    public boolean repetida() {
+        return deduplicacao.aceitar(repetidas[(int) (chamadas++ % PACIENTES)]);
+    }
+
+    private static AmostraSinais comHorario(AmostraSinais a, int horarioCentesimos) {
+        return new AmostraSinais(a.pacienteId(), horarioCentesimos, null, a.freqCardiaca(), a.saturacaoO2(),
+            a.pressaoSistolica(), a.pressaoDiastolica(), a.temperatura(), a.freqRespiratoria(), false,
+            a.dataCriacaoMs(), null, null);
+    }
+}
@@ -0,0 +1,106 @@
+package br.com.healthgo.service;
+
+import br.com.healthgo.AmbienteBenchmark;
+import br.com.healthgo.model.AmostraSinais;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vazão do diário de ingestão: anexar amostras e relê-las em lotes de 200 com
+ * confirmação (checkpoint com fsync a cada lote), sem o banco.
+ *
+ * Cada chamada usa um diário novo em um diretório temporário, apagado em seguida,
+ * para que o disco ocupado não cresça com a duração do benchmark.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiarioIngestaoBenchmark {
+
+    private static final int REGISTROS = 100_000;
+    private static final int TAMANHO_LOTE = 200;
+
+    @State(Scope.Thread)
+    public static class Diario {
+
+        // Quadro com nome e CPF, como o primeiro de cada paciente
+        @Param({"false", "true"})
+        private boolean identificacao;
+
+        AmostraSinais[] amostras;
+        DiarioIngestao diario;
+        private Path pasta;
+
+        @Setup(Level.Trial)
+        public void prepararAmostras() {
+            amostras = AmbienteBenchmark.amostras(1000, REGISTROS, identificacao);
+        }
+
+        @Setup(Level.Invocation)
+        public void abrir() throws IOException {
+            pasta = Files.createTempDirectory("diario-benchmark");
+            diario = AmbienteBenchmark.diario(pasta, new SimpleMeterRegistry());
+        }
+
+        @TearDown(Level.Invocation)
+        public void apagar() throws IOException {
+            diario.encerrar();
+            FileSystemUtils.deleteRecursively(pasta);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class DiarioPreenchido extends Diario {
+
+        @Setup(Level.Invocation)
+        public void preencher() {
+            for (AmostraSinais amostra : amostras) {
+                diario.anexar(amostra);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REGISTROS)
+    public void anexar(Diario estado) {
+        for (AmostraSinais amostra : estado.amostras) {
+            estado.diario.anexar(amostra);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REGISTROS)
+    public int reler(DiarioPreenchido estado) throws Exception {
+        List<AmostraSinais> lote = new ArrayList<>(TAMANHO_LOTE);
+        int lidos = 0;
+        while (estado.diario.lerLote(lote, TAMANHO_LOTE, 0)) {
+            lidos += lote.size();
+            estado.diario.confirmar();
+            lote.clear();
+        }
+        return lidos;
+    }
+}
@@ -0,0 +1,83 @@
+package br.com.healthgo.service;
+
+import br.com.healthgo.AmbienteBenchmark;
+import br.com.healthgo.model.AmostraSinais;
+import br.com.healthgo.model.DadosPaciente;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agregação das estatísticas: contagem de cada lote gravado e as consultas de
+ * /api/pacientes/estatisticas (total por paciente e por minuto).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EstatisticasBenchmark {
+
+    @Param({"10", "1000"})
+    private int pacientes;
+
+    @Param({"200"})
+    private int tamanhoLote;
+
+    private EstatisticasService estatisticasService;
+    private List<DadosPaciente> lote;
+
+    @Setup
+    public void preparar() {
+        estatisticasService = new EstatisticasService();
+        AmbienteBenchmark.injetar(estatisticasService, "minutosRetidos", 1440);
+
+        // Uma hora de contagens já acumulada, para que as consultas percorram minutos e pacientes
+        AmostraSinais[] amostras = AmbienteBenchmark.amostras(pacientes, Math.max(pacientes, tamanhoLote), false);
+        LocalDateTime agora = LocalDateTime.now();
+        for (int minuto = 60; minuto > 0; minuto--) {
+            List<DadosPaciente> historico = new ArrayList<>(amostras.length);
+            for (AmostraSinais amostra : amostras) {
+                DadosPaciente dadosPaciente = amostra.paraDadosPaciente();
+                dadosPaciente.setDataCriacao(agora.minusMinutes(minuto));
+                historico.add(dadosPaciente);
+            }
+            estatisticasService.registrar(historico);
+        }
+
+        lote = new ArrayList<>(tamanhoLote);
+        for (int i = 0; i < tamanhoLote; i++) {
+            lote.add(amostras[i].paraDadosPaciente());
+        }
+    }
+
+    @Benchmark
+    public void registrarLote() {
+        estatisticasService.registrar(lote);
+    }
+
+    @Benchmark
+    public Map<String, Long> totalPorPaciente() {
+        return estatisticasService.getTotalPorPaciente();
+    }
+
+    @Benchmark
+    public Map<LocalDateTime, Long> totalPorMinuto() {
+        return estatisticasService.getTotalPorMinuto(60);
+    }
+}
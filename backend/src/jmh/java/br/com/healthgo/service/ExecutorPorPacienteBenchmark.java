@@ -0,0 +1,90 @@
+package br.com.healthgo.service;
+
+import br.com.healthgo.AmbienteBenchmark;
+import br.com.healthgo.model.AmostraSinais;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Vazão das raias por paciente com 1 a N raias: cada operação é a avaliação de
+ * uma amostra pelo motor de alertas, despachada para a raia do seu paciente.
+ *
+ * Cada chamada envia um lote de amostras de 1000 pacientes e espera todas serem
+ * processadas. A vazão só cresce com as raias até o número de processadores livres;
+ * para outras quantidades, use {@code -Djmh.args="ExecutorPorPaciente -p raias=1,2,4,8,16"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExecutorPorPacienteBenchmark {
+
+    private static final int PACIENTES = 1000;
+    private static final int LOTE = 2000;
+
+    @Param({"1", "2", "4"})
+    private int raias;
+
+    private ExecutorPorPaciente executor;
+    private MotorAlertasService motor;
+    private AmostraSinais[] amostras;
+    private long inicio;
+    private long chamadas;
+
+    @Setup
+    public void preparar() throws IOException {
+        executor = AmbienteBenchmark.executorPorPaciente(raias, new SimpleMeterRegistry(), AmbienteBenchmark.modoThreads());
+        motor = AmbienteBenchmark.motorAlertas(50);
+        amostras = AmbienteBenchmark.amostras(PACIENTES, PACIENTES * 50, false);
+        inicio = AmostraSinais.agoraMs();
+    }
+
+    @TearDown
+    public void encerrar() throws InterruptedException {
+        executor.encerrar();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOTE)
+    public void processarLote() throws InterruptedException {
+        AtomicInteger restantes = new AtomicInteger(LOTE);
+        CountDownLatch concluido = new CountDownLatch(1);
+        for (int i = 0; i < LOTE; i++) {
+            // O relógio avança sempre, como em MotorAlertasBenchmark, para que as janelas deslizem
+            AmostraSinais a = amostras[(int) (chamadas % amostras.length)];
+            AmostraSinais amostra = new AmostraSinais(a.pacienteId(), a.horarioCentesimos(), null, a.freqCardiaca(),
+                a.saturacaoO2(), a.pressaoSistolica(), a.pressaoDiastolica(), a.temperatura(), a.freqRespiratoria(),
+                false, inicio + chamadas * 200 / PACIENTES, null, null);
+            chamadas++;
+            boolean aceita = executor.executar(amostra.pacienteId(), () -> {
+                motor.avaliar(amostra);
+                if (restantes.decrementAndGet() == 0) {
+                    concluido.countDown();
+                }
+            });
+            if (!aceita && restantes.decrementAndGet() == 0) {
+                concluido.countDown();
+            }
+        }
+        concluido.await();
+    }
+}
@@ -0,0 +1,203 @@
+package br.com.healthgo.service;
+
+import br.com.healthgo.AmbienteBenchmark;
+import br.com.healthgo.model.AmostraSinais;
+import br.com.healthgo.model.DadosPaciente;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserções por segundo de {@code dados_pacientes} pelo Hibernate, antes e depois da
+ * sequência com pool: {@code identidade} grava como o mapeamento antigo (IDENTITY, um
+ * INSERT por linha com a leitura da chave gerada) e {@code sequencia} grava como
+ * {@link DadosPacienteService#salvarTodos} (ids da sequência em blocos de 50, batch JDBC
+ * de 50 com flush e clear entre os blocos).
+ *
+ * O contador {@code linhas} do resultado é a vazão em linhas por segundo. Por padrão usa
+ * H2 em memória no modo PostgreSQL; {@code -p url=...} aponta para um PostgreSQL, que deve
+ * ser um banco só do benchmark: as tabelas são recriadas no início e apagadas no fim.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsercaoDadosBenchmark {
+
+    private static final int TAMANHO_LOTE_JDBC = 50;
+
+    @State(Scope.Benchmark)
+    public static class Banco {
+
+        @Param({"jdbc:h2:mem:insercao;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"})
+        private String url;
+
+        @Param({"sa"})
+        private String usuario;
+
+        @Param({""})
+        private String senha;
+
+        @Param({"1000", "10000", "100000"})
+        private int registros;
+
+        AmostraSinais[] amostras;
+        SessionFactory sessoes;
+
+        @Setup(Level.Trial)
+        public void abrir() {
+            amostras = AmbienteBenchmark.amostras(1000, registros, false);
+            sessoes = new Configuration()
+                .addAnnotatedClass(DadosPaciente.class)
+                .addAnnotatedClass(DadosPacienteIdentidade.class)
+                .setProperty(AvailableSettings.URL, url)
+                .setProperty(AvailableSettings.USER, usuario)
+                .setProperty(AvailableSettings.PASS, senha)
+                .setProperty(AvailableSettings.POOL_SIZE, "2")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, Integer.toString(TAMANHO_LOTE_JDBC))
+                .setProperty(AvailableSettings.ORDER_INSERTS, "true")
+                .buildSessionFactory();
+        }
+
+        // Tabelas vazias a cada iteração, para que o tamanho dos índices não mude a comparação
+        @Setup(Level.Iteration)
+        public void esvaziar() {
+            try (Session sessao = sessoes.openSession()) {
+                Transaction transacao = sessao.beginTransaction();
+                sessao.createNativeMutationQuery("TRUNCATE TABLE dados_pacientes").executeUpdate();
+                sessao.createNativeMutationQuery("TRUNCATE TABLE dados_pacientes_identidade").executeUpdate();
+                transacao.commit();
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void fechar() {
+            sessoes.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Linhas {
+
+        public long linhas;
+
+        @Setup(Level.Iteration)
+        public void zerar() {
+            linhas = 0;
+        }
+    }
+
+    @Benchmark
+    public void identidade(Banco banco, Linhas contador) {
+        try (Session sessao = banco.sessoes.openSession()) {
+            Transaction transacao = sessao.beginTransaction();
+            for (AmostraSinais amostra : banco.amostras) {
+                sessao.persist(new DadosPacienteIdentidade(amostra.paraDadosPaciente()));
+            }
+            transacao.commit();
+        }
+        contador.linhas += banco.amostras.length;
+    }
+
+    @Benchmark
+    public void sequencia(Banco banco, Linhas contador) {
+        try (Session sessao = banco.sessoes.openSession()) {
+            Transaction transacao = sessao.beginTransaction();
+            for (int i = 0; i < banco.amostras.length; i++) {
+                sessao.persist(banco.amostras[i].paraDadosPaciente());
+                if ((i + 1) % TAMANHO_LOTE_JDBC == 0) {
+                    sessao.flush();
+                    sessao.clear();
+                }
+            }
+            transacao.commit();
+        }
+        contador.linhas += banco.amostras.length;
+    }
+
+    /**
+     * Mapeamento de {@code dados_pacientes} anterior à sequência, com id IDENTITY
+     */
+    @Entity
+    @Table(name = "dados_pacientes_identidade")
+    public static class DadosPacienteIdentidade {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+
+        @Column(name = "timestamp")
+        private String timestamp;
+
+        @Column(name = "paciente_id")
+        private String pacienteId;
+
+        @Column(name = "freq_cardiaca")
+        private Integer freqCardiaca;
+
+        @Column(name = "saturacao_o2")
+        private Integer saturacaoO2;
+
+        @Column(name = "pressao_sistolica")
+        private Integer pressaoSistolica;
+
+        @Column(name = "pressao_diastolica")
+        private Integer pressaoDiastolica;
+
+        @Column(name = "temperatura")
+        private Double temperatura;
+
+        @Column(name = "freq_respiratoria")
+        private Integer freqRespiratoria;
+
+        @Column(name = "status")
+        private String status;
+
+        @Column(name = "data_criacao")
+        private LocalDateTime dataCriacao;
+
+        protected DadosPacienteIdentidade() {
+        }
+
+        DadosPacienteIdentidade(DadosPaciente dados) {
+            timestamp = dados.getTimestamp();
+            pacienteId = dados.getPacienteId();
+            freqCardiaca = dados.getFreqCardiaca();
+            saturacaoO2 = dados.getSaturacaoO2();
+            pressaoSistolica = dados.getPressaoSistolica();
+            pressaoDiastolica = dados.getPressaoDiastolica();
+            temperatura = dados.getTemperatura();
+            freqRespiratoria = dados.getFreqRespiratoria();
+            status = dados.getStatus();
+            dataCriacao = dados.getDataCriacao();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package br.com.healthgo.service;
+
+import br.com.healthgo.AmbienteBenchmark;
+import br.com.healthgo.model.AmostraSinais;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Avaliação das regras de alerta por amostra, com cada paciente recebendo 5 amostras por segundo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MotorAlertasBenchmark {
+
+    @Param({"9", "50"})
+    private int regras;
+
+    @Param({"10", "1000"})
+    private int pacientes;
+
+    private MotorAlertasService motor;
+    private AmostraSinais[] amostras;
+    private long inicio;
+    private long chamadas;
+
+    @Setup
+    public void preparar() throws IOException {
+        motor = AmbienteBenchmark.motorAlertas(regras);
+        amostras = AmbienteBenchmark.amostras(pacientes, pacientes * 50, false);
+        inicio = AmostraSinais.agoraMs();
+    }
+
+    @Benchmark
+    public AmostraSinais avaliar() {
+        // O relógio avança sempre, mesmo ao reutilizar as amostras, para que as janelas deslizem
+        AmostraSinais a = amostras[(int) (chamadas % amostras.length)];
+        long tempoMs = inicio + chamadas * 200 / pacientes;
+        chamadas++;
+        return motor.avaliar(new AmostraSinais(a.pacienteId(), a.horarioCentesimos(), null, a.freqCardiaca(),
+            a.saturacaoO2(), a.pressaoSistolica(), a.pressaoDiastolica(), a.temperatura(), a.freqRespiratoria(),
+            false, tempoMs, null, null));
+    }
+}
@@ -0,0 +1,68 @@
+package br.com.healthgo.websocket;
+
+import br.com.healthgo.AmbienteBenchmark;
+import br.com.healthgo.model.AmostraSinais;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização de uma amostra para {@code sessoes} clientes web, metade em JSON e metade em binário.
+ *
+ * {@code compartilhado} é o que o {@link WebSocketHandler} faz ({@link QuadroDados} codifica cada
+ * formato uma vez); {@code porSessao} codifica de novo para cada sessão, como referência.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BroadcastBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int sessoes;
+
+    private CodificadorDados codificador;
+    private AmostraSinais amostra;
+    private FormatoMensagem[] formatos;
+
+    @Setup
+    public void preparar() {
+        codificador = new CodificadorDados(AmbienteBenchmark.objectMapper());
+        amostra = AmbienteBenchmark.amostras(1, 1, false)[0];
+        formatos = new FormatoMensagem[sessoes];
+        for (int i = 0; i < sessoes; i++) {
+            formatos[i] = i % 2 == 0 ? FormatoMensagem.JSON : FormatoMensagem.BINARIO;
+        }
+    }
+
+    @Benchmark
+    public void compartilhado(Blackhole blackhole) {
+        QuadroDados quadro = QuadroDados.deAmostra(codificador, amostra);
+        for (FormatoMensagem formato : formatos) {
+            blackhole.consume(quadro.mensagemPara(formato));
+        }
+    }
+
+    @Benchmark
+    public void porSessao(Blackhole blackhole) throws IOException {
+        for (FormatoMensagem formato : formatos) {
+            blackhole.consume(formato == FormatoMensagem.BINARIO
+                ? codificador.escreverBinario(amostra, false)
+                : codificador.escreverJson(amostra));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package br.com.healthgo.websocket;
+
+import br.com.healthgo.AmbienteBenchmark;
+import br.com.healthgo.model.AmostraSinais;
+import br.com.healthgo.model.DadosPaciente;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodificação e codificação de um quadro do simulador.
+ *
+ * {@code lerEntidadeJackson} é o caminho anterior (ObjectMapper direto para a entidade
+ * {@link DadosPaciente}), mantido como referência para o {@link CodificadorDados}.
+ * Com {@code identificacao}, o quadro leva nome e CPF, como no primeiro envio de cada paciente.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodificadorDadosBenchmark {
+
+    @Param({"false", "true"})
+    private boolean identificacao;
+
+    private CodificadorDados codificador;
+    private ObjectReader leitorEntidade;
+    private AmostraSinais amostra;
+    private String json;
+    private byte[] binario;
+
+    @Setup
+    public void preparar() throws IOException {
+        ObjectMapper objectMapper = AmbienteBenchmark.objectMapper();
+        codificador = new CodificadorDados(objectMapper);
+        leitorEntidade = objectMapper.readerFor(DadosPaciente.class);
+        amostra = AmbienteBenchmark.amostras(1, 1, identificacao)[0];
+        json = AmbienteBenchmark.quadroJson(amostra);
+        binario = codificador.escreverBinario(amostra, identificacao);
+    }
+
+    @Benchmark
+    public AmostraSinais lerJson() throws IOException {
+        return codificador.lerJson(json);
+    }
+
+    @Benchmark
+    public DadosPaciente lerEntidadeJackson() throws IOException {
+        return leitorEntidade.readValue(json);
+    }
+
+    @Benchmark
+    public AmostraSinais lerBinario() {
+        return codificador.lerBinario(ByteBuffer.wrap(binario));
+    }
+
+    @Benchmark
+    public String escreverJson() throws IOException {
+        return codificador.escreverJson(amostra);
+    }
+
+    @Benchmark
+    public byte[] escreverBinario() {
+        return codificador.escreverBinario(amostra, identificacao);
+    }
+}
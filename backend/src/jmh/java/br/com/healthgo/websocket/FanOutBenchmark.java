@@ -0,0 +1,100 @@
+package br.com.healthgo.websocket;
+
+import br.com.healthgo.AmbienteBenchmark;
+import br.com.healthgo.model.AmostraSinais;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distribuição de uma amostra às sessões inscritas no paciente, com {@code pacientesNaoRelacionados}
+ * outros pacientes acompanhados cada um por uma sessão própria.
+ *
+ * {@code indice} é o que o {@link WebSocketHandler} faz ({@link IndiceInscricoes}): o custo depende só
+ * das {@value #SESSOES_DO_PACIENTE} sessões do paciente e deve ficar constante com o parâmetro.
+ * {@code indiceViaRedis} parte do JSON recebido no canal do paciente, lido uma vez por quadro.
+ * {@code varredura} percorre todas as sessões testando a inscrição, como referência.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FanOutBenchmark {
+
+    private static final int SESSOES_DO_PACIENTE = 10;
+
+    @Param({"0", "100", "10000"})
+    private int pacientesNaoRelacionados;
+
+    private CodificadorDados codificador;
+    private AmostraSinais amostra;
+    private String json;
+    private IndiceInscricoes indice;
+    private final List<SessaoClienteWeb> todas = new ArrayList<>();
+
+    @Setup
+    public void preparar() {
+        codificador = new CodificadorDados(AmbienteBenchmark.objectMapper());
+        amostra = AmbienteBenchmark.amostras(1, 1, false)[0];
+        json = AmbienteBenchmark.quadroJson(amostra);
+        indice = new IndiceInscricoes();
+        for (int i = 0; i < SESSOES_DO_PACIENTE; i++) {
+            inscrever("paciente-" + i, i % 2 == 0 ? FormatoMensagem.JSON : FormatoMensagem.BINARIO, amostra.pacienteId());
+        }
+        for (int i = 0; i < pacientesNaoRelacionados; i++) {
+            inscrever("outro-" + i, FormatoMensagem.JSON, AmbienteBenchmark.pacienteId(i + 1));
+        }
+    }
+
+    @Benchmark
+    public void indice(Blackhole blackhole) {
+        distribuir(QuadroDados.deAmostra(codificador, amostra), blackhole);
+    }
+
+    @Benchmark
+    public void indiceViaRedis(Blackhole blackhole) {
+        distribuir(QuadroDados.deJson(codificador, amostra.pacienteId(), json), blackhole);
+    }
+
+    @Benchmark
+    public void varredura(Blackhole blackhole) {
+        QuadroDados quadro = QuadroDados.deAmostra(codificador, amostra);
+        for (SessaoClienteWeb sessao : todas) {
+            if (sessao.getPacientesInscritos().contains(quadro.getPacienteId())) {
+                blackhole.consume(quadro.isAlerta());
+                blackhole.consume(quadro.mensagemPara(sessao.getFormato()));
+            }
+        }
+    }
+
+    private void distribuir(QuadroDados quadro, Blackhole blackhole) {
+        indice.paraCadaInteressado(quadro.getPacienteId(), sessao -> {
+            blackhole.consume(quadro.isAlerta());
+            blackhole.consume(quadro.mensagemPara(sessao.getFormato()));
+        });
+    }
+
+    private void inscrever(String id, FormatoMensagem formato, String pacienteId) {
+        SessaoClienteWeb sessao = new SessaoClienteWeb(new SessaoSimulada(id, "ws://localhost/ws", "Mozilla"),
+            formato, 16, SessaoClienteWeb.PoliticaTransbordo.DESCARTAR_MAIS_ANTIGA, Runnable::run, 0);
+        indice.registrar(sessao);
+        indice.inscrever(sessao, Set.of(pacienteId));
+        todas.add(sessao);
+    }
+}
@@ -0,0 +1,142 @@
+package br.com.healthgo.websocket;
+
+import br.com.healthgo.AmbienteBenchmark;
+import br.com.healthgo.config.ModoThreads;
+import br.com.healthgo.model.AmostraSinais;
+import br.com.healthgo.service.IngestaoDadosService;
+import br.com.healthgo.service.JanelaSinaisService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caminho completo de um quadro do simulador em {@link WebSocketHandler#handleMessage}:
+ * decodificação, regras de alerta, janela em memória, fila de ingestão e broadcast
+ * para {@code sessoes} clientes web (metade JSON, metade binário).
+ *
+ * A gravação é simulada ({@link AmbienteBenchmark#ingestaoSemBanco}), então a thread
+ * escritora apenas esvazia a fila; o envio às sessões acontece nas threads de envio.
+ * As raias por paciente são substituídas por execução direta
+ * ({@link AmbienteBenchmark#execucaoDireta}), para que o tempo medido inclua todo o
+ * processamento; o custo das raias é medido em ExecutorPorPacienteBenchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HandleMessageBenchmark {
+
+    private static final int QUADROS_POR_PACIENTE = 50;
+
+    @Param({"10", "1000"})
+    private int pacientes;
+
+    @Param({"0", "10", "100"})
+    private int sessoes;
+
+    // Formato do quadro enviado pelo simulador (FormatoMensagem não é público para o código gerado pelo JMH)
+    @Param({"json", "binario"})
+    private String quadro;
+
+    private WebSocketHandler handler;
+    private IngestaoDadosService ingestao;
+    private SessaoSimulada simulador;
+    private final List<SessaoSimulada> clientes = new ArrayList<>();
+    private WebSocketMessage<?>[] mensagens;
+    private int proxima;
+
+    @Setup
+    public void preparar() throws Exception {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ModoThreads modoThreads = AmbienteBenchmark.modoThreads();
+        CodificadorDados codificador = new CodificadorDados(AmbienteBenchmark.objectMapper());
+        ingestao = AmbienteBenchmark.ingestaoSemBanco(meterRegistry, modoThreads);
+
+        JanelaSinaisService janelaSinais = new JanelaSinaisService();
+        AmbienteBenchmark.injetar(janelaSinais, "segundosRetidos", 300);
+        AmbienteBenchmark.injetar(janelaSinais, "amostrasPorSegundoMax", 5);
+        AmbienteBenchmark.injetar(janelaSinais, "maximoPacientes", 1000);
+        AmbienteBenchmark.injetar(janelaSinais, "meterRegistry", meterRegistry);
+        janelaSinais.iniciar();
+
+        handler = new WebSocketHandler();
+        AmbienteBenchmark.injetar(handler, "capacidadeFilaSessao", 256);
+        AmbienteBenchmark.injetar(handler, "politicaTransbordo", SessaoClienteWeb.PoliticaTransbordo.DESCARTAR_MAIS_ANTIGA);
+        AmbienteBenchmark.injetar(handler, "threadsEnvio", 4);
+        AmbienteBenchmark.injetar(handler, "taxaMaximaHz", 1.0);
+        AmbienteBenchmark.injetar(handler, "ingestaoDadosService", ingestao);
+        AmbienteBenchmark.injetar(handler, "motorAlertasService", AmbienteBenchmark.motorAlertas(9));
+        AmbienteBenchmark.injetar(handler, "janelaSinaisService", janelaSinais);
+        AmbienteBenchmark.injetar(handler, "executorPorPaciente", AmbienteBenchmark.execucaoDireta());
+        // Um único horário por paciente no anel: as voltas pelos mesmos quadros contam como
+        // atrasadas, não como repetidas, e seguem pelo caminho completo
+        AmbienteBenchmark.injetar(handler, "deduplicacaoService", AmbienteBenchmark.deduplicacao(1, meterRegistry));
+        AmbienteBenchmark.injetar(handler, "codificadorDados", codificador);
+        AmbienteBenchmark.injetar(handler, "meterRegistry", meterRegistry);
+        AmbienteBenchmark.injetar(handler, "modoThreads", modoThreads);
+        handler.iniciar();
+
+        simulador = new SessaoSimulada("simulador", "ws://localhost:8080/ws", "HealthGo-Desktop-Simulator");
+        handler.afterConnectionEstablished(simulador);
+        for (int i = 0; i < sessoes; i++) {
+            String formato = i % 2 == 0 ? "json" : "binario";
+            SessaoSimulada cliente = new SessaoSimulada("web-" + i, "ws://localhost:8080/ws?formato=" + formato, "Mozilla/5.0");
+            handler.afterConnectionEstablished(cliente);
+            clientes.add(cliente);
+        }
+
+        // Sem data de criação no quadro binário, para que o servidor use o horário de chegada, como no JSON
+        AmostraSinais[] amostras = AmbienteBenchmark.amostras(pacientes, pacientes * QUADROS_POR_PACIENTE, false);
+        mensagens = new WebSocketMessage<?>[amostras.length];
+        for (int i = 0; i < amostras.length; i++) {
+            AmostraSinais a = amostras[i];
+            mensagens[i] = FormatoMensagem.deParametro(quadro) == FormatoMensagem.BINARIO
+                ? new BinaryMessage(codificador.escreverBinario(new AmostraSinais(a.pacienteId(), a.horarioCentesimos(),
+                    null, a.freqCardiaca(), a.saturacaoO2(), a.pressaoSistolica(), a.pressaoDiastolica(), a.temperatura(),
+                    a.freqRespiratoria(), false, 0L, null, null), false))
+                : new TextMessage(AmbienteBenchmark.quadroJson(a));
+        }
+    }
+
+    @TearDown
+    public void encerrar() throws Exception {
+        for (SessaoSimulada cliente : clientes) {
+            handler.afterConnectionClosed(cliente, CloseStatus.NORMAL);
+        }
+        handler.afterConnectionClosed(simulador, CloseStatus.NORMAL);
+        handler.encerrar();
+        ingestao.encerrar();
+    }
+
+    @Benchmark
+    public void handleMessage() throws Exception {
+        // A leitura avança a posição do ByteBuffer, então cada chamada lê de uma cópia
+        WebSocketMessage<?> mensagem = mensagens[proxima];
+        proxima = proxima + 1 == mensagens.length ? 0 : proxima + 1;
+        if (mensagem instanceof BinaryMessage binaria) {
+            mensagem = new BinaryMessage(binaria.getPayload().duplicate());
+        }
+        handler.handleMessage(simulador, mensagem);
+    }
+}
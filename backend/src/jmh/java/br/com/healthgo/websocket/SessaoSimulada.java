@@ -0,0 +1,121 @@
+package br.com.healthgo.websocket;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sessão WebSocket em memória: o envio apenas conta as mensagens
+ */
+class SessaoSimulada implements WebSocketSession {
+
+    private final String id;
+    private final URI uri;
+    private final HttpHeaders cabecalhos = new HttpHeaders();
+    private final Map<String, Object> atributos = new ConcurrentHashMap<>();
+    private final LongAdder enviadas = new LongAdder();
+    private volatile boolean aberta = true;
+
+    SessaoSimulada(String id, String uri, String userAgent) {
+        this.id = id;
+        this.uri = URI.create(uri);
+        cabecalhos.add(HttpHeaders.USER_AGENT, userAgent);
+    }
+
+    long getEnviadas() {
+        return enviadas.sum();
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public URI getUri() {
+        return uri;
+    }
+
+    @Override
+    public HttpHeaders getHandshakeHeaders() {
+        return cabecalhos;
+    }
+
+    @Override
+    public Map<String, Object> getAttributes() {
+        return atributos;
+    }
+
+    @Override
+    public Principal getPrincipal() {
+        return null;
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+        return null;
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return null;
+    }
+
+    @Override
+    public String getAcceptedProtocol() {
+        return null;
+    }
+
+    @Override
+    public void setTextMessageSizeLimit(int messageSizeLimit) {
+    }
+
+    @Override
+    public int getTextMessageSizeLimit() {
+        return 64 * 1024;
+    }
+
+    @Override
+    public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+    }
+
+    @Override
+    public int getBinaryMessageSizeLimit() {
+        return 64 * 1024;
+    }
+
+    @Override
+    public List<WebSocketExtension> getExtensions() {
+        return List.of();
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) {
+        enviadas.increment();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return aberta;
+    }
+
+    @Override
+    public void close() {
+        aberta = false;
+    }
+
+    @Override
+    public void close(CloseStatus status) {
+        aberta = false;
+    }
+}
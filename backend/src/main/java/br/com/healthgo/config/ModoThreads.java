@@ -0,0 +1,71 @@
+package br.com.healthgo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Escolhe entre threads de plataforma e threads virtuais para as threads criadas pela aplicação.
+ *
+ * Segue {@code spring.threads.virtual.enabled}, que o Spring Boot já aplica ao Tomcat
+ * (requisições REST e quadros WebSocket) e às tarefas {@code @Scheduled}. Threads
+ * virtuais exigem Java 21; em Java 17 a propriedade é ignorada e tudo continua em
+ * threads de plataforma.
+ */
+@Component
+public class ModoThreads {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModoThreads.class);
+
+    @Autowired
+    private Environment environment;
+
+    public boolean isVirtual() {
+        return Threading.VIRTUAL.isActive(environment);
+    }
+
+    /**
+     * Fábrica de threads com o prefixo informado (threads de plataforma são daemon)
+     */
+    public ThreadFactory fabrica(String prefixo) {
+        if (isVirtual()) {
+            return new VirtualThreadTaskExecutor(prefixo).getVirtualThreadFactory();
+        }
+        CustomizableThreadFactory fabrica = new CustomizableThreadFactory(prefixo);
+        fabrica.setDaemon(true);
+        return fabrica;
+    }
+
+    /**
+     * Executor para tarefas que bloqueiam em I/O: uma thread virtual por tarefa,
+     * ou um pool fixo de {@code threadsPlataforma} threads
+     */
+    public Executor executor(String prefixo, int threadsPlataforma) {
+        if (isVirtual()) {
+            return new VirtualThreadTaskExecutor(prefixo);
+        }
+        return Executors.newFixedThreadPool(threadsPlataforma, fabrica(prefixo));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void registrarModo() {
+        boolean pedido = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        if (isVirtual()) {
+            logger.info("🧵 Threads virtuais habilitadas (Java {})", Runtime.version().feature());
+        } else if (pedido) {
+            logger.warn("⚠️ spring.threads.virtual.enabled=true ignorado: threads virtuais exigem Java 21 (em uso: Java {})",
+                Runtime.version().feature());
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package br.com.healthgo.config;
+
+import br.com.healthgo.service.ExclusaoPacienteService;
+import br.com.healthgo.service.ExecutorPorPaciente;
+import br.com.healthgo.service.SincronizacaoRedisService;
+import br.com.healthgo.websocket.AlertasWebSocketHandler;
+import br.com.healthgo.websocket.WebSocketHandler;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@ConditionalOnProperty(name = "healthgo.redis.habilitado", havingValue = "true")
+public class RedisConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisConfig.class);
+
+    @Value("${healthgo.redis.capacidade-fila:10000}")
+    private int capacidadeFila;
+
+    private ExecutorService despachante;
+
+    // Cada instância assina os canais de dados e de alertas e repassa para as suas próprias sessões web.
+    // As mensagens saem da conexão em ordem e passam por uma única thread; os quadros seguem para a
+    // raia do paciente, como os recebidos pelo WebSocket, e chegam à janela e às sessões na ordem publicada
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       WebSocketHandler webSocketHandler,
+                                                                       AlertasWebSocketHandler alertasWebSocketHandler,
+                                                                       ExclusaoPacienteService exclusaoPacienteService,
+                                                                       ExecutorPorPaciente executorPorPaciente,
+                                                                       ModoThreads modoThreads) {
+        despachante = criarDespachante(modoThreads);
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.setTaskExecutor(despachante);
+        container.addMessageListener(
+            (message, pattern) -> {
+                String canal = new String(message.getChannel(), StandardCharsets.UTF_8);
+                String pacienteId = canal.substring(SincronizacaoRedisService.PREFIXO_CANAL_DADOS.length());
+                String json = new String(message.getBody(), StandardCharsets.UTF_8);
+                if (!executorPorPaciente.executar(pacienteId, () -> webSocketHandler.enviarParaClientesWeb(pacienteId, json))) {
+                    logger.warn("⚠️ Raia de processamento cheia, dados do paciente {} recebidos do Redis descartados", pacienteId);
+                }
+            },
+            new PatternTopic(SincronizacaoRedisService.PREFIXO_CANAL_DADOS + "*"));
+        container.addMessageListener(
+            (message, pattern) -> alertasWebSocketHandler.enviarParaClientes(
+                new String(message.getBody(), StandardCharsets.UTF_8)),
+            new ChannelTopic(SincronizacaoRedisService.CANAL_ALERTAS));
+        // Exclusões feitas em outra instância: descarta o que esta instância guarda do paciente
+        container.addMessageListener(
+            (message, pattern) -> {
+                String[] corpo = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 2);
+                if (corpo.length == 2 && !SincronizacaoRedisService.INSTANCIA.equals(corpo[0])) {
+                    exclusaoPacienteService.aplicarExclusaoRemota(corpo[1],
+                        SincronizacaoRedisService.CANAL_EXCLUSAO_FIM.equals(
+                            new String(message.getChannel(), StandardCharsets.UTF_8)));
+                }
+            },
+            List.of(new ChannelTopic(SincronizacaoRedisService.CANAL_EXCLUSAO_INICIO),
+                new ChannelTopic(SincronizacaoRedisService.CANAL_EXCLUSAO_FIM)));
+        return container;
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        if (despachante != null) {
+            despachante.shutdown();
+        }
+    }
+
+    // Uma thread, para manter a ordem; com a fila cheia, a conexão espera em vez de reordenar ou descartar
+    private ExecutorService criarDespachante(ModoThreads modoThreads) {
+        return new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(capacidadeFila),
+            modoThreads.fabrica("healthgo-redis-"), (tarefa, executor) -> {
+                if (executor.isShutdown()) {
+                    throw new RejectedExecutionException("Despachante do Redis encerrado");
+                }
+                try {
+                    executor.getQueue().put(tarefa);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RejectedExecutionException(e);
+                }
+            });
+    }
+}
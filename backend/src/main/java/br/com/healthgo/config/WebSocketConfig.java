@@ -1,5 +1,6 @@
 package br.com.healthgo.config;
 
+import br.com.healthgo.websocket.AlertasWebSocketHandler;
 import br.com.healthgo.websocket.WebSocketHandler;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
@@ -14,9 +15,14 @@ public class WebSocketConfig implements WebSocketConfigurer {
     @Autowired
     private WebSocketHandler webSocketHandler;
 
+    @Autowired
+    private AlertasWebSocketHandler alertasWebSocketHandler;
+
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
         registry.addHandler(webSocketHandler, "/ws")
                 .setAllowedOrigins("*");
+        registry.addHandler(alertasWebSocketHandler, "/ws/alertas")
+                .setAllowedOrigins("*");
     }
 } 
\ No newline at end of file
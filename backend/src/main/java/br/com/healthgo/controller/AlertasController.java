@@ -0,0 +1,53 @@
+package br.com.healthgo.controller;
+
+import br.com.healthgo.model.EventoAlerta;
+import br.com.healthgo.model.RegraAlerta;
+import br.com.healthgo.service.MotorAlertasService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/alertas")
+@CrossOrigin(origins = "*")
+public class AlertasController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertasController.class);
+
+    @Autowired
+    private MotorAlertasService motorAlertasService;
+
+    /**
+     * Últimos alertas disparados, mais recentes primeiro
+     */
+    @GetMapping
+    public ResponseEntity<List<EventoAlerta>> listarAlertas() {
+        return ResponseEntity.ok(motorAlertasService.listarEventosRecentes());
+    }
+
+    /**
+     * Regras de alerta em uso
+     */
+    @GetMapping("/regras")
+    public ResponseEntity<List<RegraAlerta>> listarRegras() {
+        return ResponseEntity.ok(motorAlertasService.listarRegras());
+    }
+
+    /**
+     * Recarrega as regras do arquivo configurado
+     */
+    @PostMapping("/regras/recarregar")
+    public ResponseEntity<?> recarregarRegras() {
+        try {
+            return ResponseEntity.ok(motorAlertasService.recarregar());
+        } catch (Exception e) {
+            logger.error("❌ Erro ao recarregar regras de alerta: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("erro", e.getMessage()));
+        }
+    }
+}
@@ -1,34 +1,105 @@
 package br.com.healthgo.controller;
 
+import br.com.healthgo.model.AlteracoesRecentes;
+import br.com.healthgo.model.AmostraSinais;
+import br.com.healthgo.model.CursorDados;
 import br.com.healthgo.model.DadosPaciente;
+import br.com.healthgo.model.ExclusaoPaciente;
+import br.com.healthgo.model.Historico;
+import br.com.healthgo.model.Paciente;
+import br.com.healthgo.model.ResolucaoHistorico;
+import br.com.healthgo.model.ResultadoImportacao;
 import br.com.healthgo.service.DadosPacienteService;
+import br.com.healthgo.service.DeduplicacaoService;
+import br.com.healthgo.service.EstatisticasService;
+import br.com.healthgo.service.ExecutorPorPaciente;
+import br.com.healthgo.service.ExclusaoPacienteService;
+import br.com.healthgo.service.FalhasBanco;
+import br.com.healthgo.service.HistoricoService;
+import br.com.healthgo.service.ImportacaoDadosService;
+import br.com.healthgo.service.IngestaoDadosService;
+import br.com.healthgo.service.JanelaSinaisService;
+import br.com.healthgo.service.MotorAlertasService;
+import br.com.healthgo.service.RegistroPacientesService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
 
 @RestController
 @RequestMapping("/api/pacientes")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {"X-Proximo-Cursor", "ETag"})
 public class DadosPacienteController {
 
     private static final Logger logger = LoggerFactory.getLogger(DadosPacienteController.class);
+
+    private static final String CABECALHO_PROXIMO_CURSOR = "X-Proximo-Cursor";
+    private static final int LIMITE_MAXIMO_PAGINA = 5000;
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
     
     @Autowired
     private DadosPacienteService dadosPacienteService;
 
+    @Autowired
+    private EstatisticasService estatisticasService;
+
+    @Autowired
+    private HistoricoService historicoService;
+
+    @Autowired
+    private ExclusaoPacienteService exclusaoPacienteService;
+
+    @Autowired
+    private ImportacaoDadosService importacaoDadosService;
+
+    @Autowired
+    private RegistroPacientesService registroPacientesService;
+
+    @Autowired
+    private MotorAlertasService motorAlertasService;
+
+    @Autowired
+    private JanelaSinaisService janelaSinaisService;
+
+    @Autowired
+    private DeduplicacaoService deduplicacaoService;
+
+    @Autowired
+    private ExecutorPorPaciente executorPorPaciente;
+
+    @Autowired
+    private IngestaoDadosService ingestaoDadosService;
+
     /**
-     * Busca todos os dados de todos os pacientes
+     * Busca os dados de todos os pacientes, paginados por cursor (id)
      */
     @GetMapping("/dados")
-    public ResponseEntity<List<DadosPaciente>> buscarTodosDados() {
+    public ResponseEntity<List<DadosPaciente>> buscarTodosDados(
+            @RequestParam(required = false) Long aposId,
+            @RequestParam(defaultValue = "500") int limite) {
         try {
-            List<DadosPaciente> dados = dadosPacienteService.buscarTodos();
+            List<DadosPaciente> dados = dadosPacienteService.buscarPagina(aposId, limitar(limite));
             logger.info("📊 Retornados {} registros", dados.size());
-            return ResponseEntity.ok(dados);
+            return respostaPaginada(dados, limitar(limite), DadosPaciente::getId);
         } catch (Exception e) {
             logger.error("❌ Erro ao buscar todos os dados: {}", e.getMessage());
             return ResponseEntity.internalServerError().build();
@@ -36,14 +107,21 @@ public class DadosPacienteController {
     }
 
     /**
-     * Busca dados de um paciente específico
+     * Busca dados de um paciente específico, mais recentes primeiro, paginados por cursor (dataCriacao, id)
      */
     @GetMapping("/{pacienteId}/dados")
-    public ResponseEntity<List<DadosPaciente>> buscarDadosPorPaciente(@PathVariable String pacienteId) {
+    public ResponseEntity<List<DadosPaciente>> buscarDadosPorPaciente(
+            @PathVariable String pacienteId,
+            @RequestParam(required = false) String antesDe,
+            @RequestParam(defaultValue = "500") int limite) {
         try {
-            List<DadosPaciente> dados = dadosPacienteService.buscarPorPaciente(pacienteId);
+            List<DadosPaciente> dados = dadosPacienteService.buscarPorPaciente(
+                pacienteId, CursorDados.ler(antesDe), limitar(limite));
             logger.info("🔍 Retornados {} registros para paciente: {}", dados.size(), pacienteId);
-            return ResponseEntity.ok(dados);
+            return respostaPaginada(dados, limitar(limite), CursorDados::de);
+        } catch (IllegalArgumentException e) {
+            logger.warn("⚠️ {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.error("❌ Erro ao buscar dados do paciente {}: {}", pacienteId, e.getMessage());
             return ResponseEntity.internalServerError().build();
@@ -51,20 +129,127 @@ public class DadosPacienteController {
     }
 
     /**
-     * Busca dados recentes de todos os pacientes
+     * Busca dados de um paciente em um período, em ordem cronológica, paginados por cursor (dataCriacao, id)
+     */
+    @GetMapping("/{pacienteId}/dados/periodo")
+    public ResponseEntity<List<DadosPaciente>> buscarDadosPorPeriodo(
+            @PathVariable String pacienteId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim,
+            @RequestParam(required = false) String apos,
+            @RequestParam(defaultValue = "500") int limite) {
+        try {
+            List<DadosPaciente> dados = dadosPacienteService.buscarPorPeriodo(
+                pacienteId, inicio, fim, CursorDados.ler(apos), limitar(limite));
+            logger.info("🔍 Retornados {} registros para paciente {} no período", dados.size(), pacienteId);
+            return respostaPaginada(dados, limitar(limite), CursorDados::de);
+        } catch (IllegalArgumentException e) {
+            logger.warn("⚠️ {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            logger.error("❌ Erro ao buscar dados do paciente {} por período: {}", pacienteId, e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Últimos segundos de dados de um paciente, direto da janela em memória
+     */
+    @GetMapping("/{pacienteId}/janela")
+    public ResponseEntity<List<DadosPaciente>> buscarJanela(
+            @PathVariable String pacienteId,
+            @RequestParam(defaultValue = "60") int segundos) {
+        if (segundos <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(janelaSinaisService.buscar(pacienteId, segundos));
+    }
+
+    /**
+     * Busca o histórico de um paciente, em dados brutos ou agregados conforme o período;
+     * dados brutos vêm em páginas de até maximo-pontos, com o cursor da próxima no cabeçalho
+     */
+    @GetMapping("/{pacienteId}/historico")
+    public ResponseEntity<Historico> buscarHistorico(
+            @PathVariable String pacienteId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim,
+            @RequestParam(required = false) ResolucaoHistorico resolucao,
+            @RequestParam(required = false) String apos) {
+        if (fim.isBefore(inicio)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            Historico historico = historicoService.buscarHistorico(pacienteId, inicio, fim, resolucao, CursorDados.ler(apos));
+            if (historico.proximo() == null) {
+                return ResponseEntity.ok(historico);
+            }
+            return ResponseEntity.ok()
+                .header(CABECALHO_PROXIMO_CURSOR, historico.proximo().toString())
+                .body(historico);
+        } catch (IllegalArgumentException e) {
+            logger.warn("⚠️ {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            logger.error("❌ Erro ao buscar histórico do paciente {}: {}", pacienteId, e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Exporta os dados em NDJSON, em streaming, de todos os pacientes ou de um só
+     */
+    @GetMapping("/dados/exportar")
+    public ResponseEntity<StreamingResponseBody> exportarDados(@RequestParam(required = false) String pacienteId) {
+        StreamingResponseBody corpo = saida -> dadosPacienteService.exportarNdjson(pacienteId, saida);
+        return ResponseEntity.ok().contentType(NDJSON).body(corpo);
+    }
+
+    /**
+     * Busca dados recentes de todos os pacientes; a versão atual vai no ETag, e um
+     * If-None-Match com ela responde 304 sem ler os dados
      */
     @GetMapping("/dados/recentes")
-    public ResponseEntity<List<DadosPaciente>> buscarDadosRecentes() {
+    public ResponseEntity<List<DadosPaciente>> buscarDadosRecentes(
+            @RequestHeader(value = "If-None-Match", required = false) String etagCliente) {
         try {
+            String etag = etag(dadosPacienteService.versaoDadosRecentes());
+            if (etag.equals(etagCliente)) {
+                return naoModificado(etag);
+            }
             List<DadosPaciente> dadosRecentes = dadosPacienteService.buscarDadosRecentes();
             logger.info("📊 Retornados dados recentes de {} pacientes", dadosRecentes.size());
-            return ResponseEntity.ok(dadosRecentes);
+            return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(dadosRecentes);
         } catch (Exception e) {
             logger.error("❌ Erro ao buscar dados recentes: {}", e.getMessage());
             return ResponseEntity.internalServerError().build();
         }
     }
 
+    /**
+     * Dados recentes só dos pacientes alterados depois da versão {@code desde} (a {@code versao}
+     * da resposta anterior, ou 0 na primeira consulta). Com If-None-Match igual à versão atual
+     * responde 304, sem percorrer os pacientes
+     */
+    @GetMapping(value = "/dados/recentes", params = "desde")
+    public ResponseEntity<AlteracoesRecentes> buscarAlteracoesRecentes(
+            @RequestParam long desde,
+            @RequestHeader(value = "If-None-Match", required = false) String etagCliente) {
+        try {
+            String etag = etag(dadosPacienteService.versaoDadosRecentes());
+            if (etag.equals(etagCliente)) {
+                return naoModificado(etag);
+            }
+            AlteracoesRecentes alteracoes = dadosPacienteService.buscarAlteracoesRecentes(desde);
+            logger.debug("📊 Retornados dados recentes de {} pacientes alterados desde a versão {}",
+                alteracoes.dados().size(), desde);
+            return ResponseEntity.ok().eTag(etag(alteracoes.versao())).cacheControl(CacheControl.noCache()).body(alteracoes);
+        } catch (Exception e) {
+            logger.error("❌ Erro ao buscar alterações dos dados recentes: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     /**
      * Busca dados por ID específico
      */
@@ -96,29 +281,108 @@ public class DadosPacienteController {
     }
 
     /**
-     * Salva novos dados de paciente
+     * Salva novos dados de paciente; alertas e janela passam pela raia do paciente,
+     * na mesma ordem dos dados recebidos pelo WebSocket. Dados incompletos são recusados
+     * com 400. Com o banco indisponível e o diário de ingestão habilitado, os dados ficam
+     * no diário e a resposta é 202. Um reenvio (mesmo paciente e horário) é confirmado
+     * com 200 sem gravar de novo
      */
     @PostMapping("/dados")
     public ResponseEntity<DadosPaciente> salvarDados(@RequestBody DadosPaciente dadosPaciente) {
+        String motivo = motivoInvalido(dadosPaciente);
+        if (motivo != null) {
+            logger.warn("⚠️ Dados do paciente {} recusados: {}", dadosPaciente.getPacienteId(), motivo);
+            return ResponseEntity.badRequest().build();
+        }
         try {
+            if (!avaliarNaRaia(dadosPaciente).join()) {
+                logger.debug("🔁 Dados repetidos do paciente {} ignorados", dadosPaciente.getPacienteId());
+                return ResponseEntity.ok(dadosPaciente);
+            }
             DadosPaciente dadosSalvos = dadosPacienteService.salvarDados(dadosPaciente);
             logger.info("💾 Dados salvos para paciente: {}", dadosPaciente.getPacienteId());
             return ResponseEntity.ok(dadosSalvos);
+        } catch (CompletionException e) {
+            return falhaNaRaia(e);
         } catch (Exception e) {
+            // Com o diário em disco, o dado já avaliado fica guardado para gravação quando o banco
+            // voltar; só para falhas transitórias, porque o replay regravaria um registro recusado
+            if (FalhasBanco.isTransitoria(e) && ingestaoDadosService.isDuravel()
+                    && ingestaoDadosService.enfileirar(AmostraSinais.deDadosPaciente(dadosPaciente))) {
+                logger.warn("⚠️ Banco indisponível, dados do paciente {} guardados no diário: {}",
+                    dadosPaciente.getPacienteId(), e.getMessage());
+                return ResponseEntity.accepted().body(dadosPaciente);
+            }
             logger.error("❌ Erro ao salvar dados: {}", e.getMessage());
             return ResponseEntity.internalServerError().build();
         }
     }
 
     /**
-     * Deleta dados de um paciente específico
+     * Salva um lote de dados de pacientes; os repetidos ficam fora da gravação e da resposta.
+     * Um lote com dados incompletos é recusado inteiro com 400
+     */
+    @PostMapping("/dados/lote")
+    public ResponseEntity<List<DadosPaciente>> salvarLote(@RequestBody List<DadosPaciente> dados) {
+        for (int i = 0; i < dados.size(); i++) {
+            String motivo = motivoInvalido(dados.get(i));
+            if (motivo != null) {
+                logger.warn("⚠️ Lote recusado, registro {}: {}", i, motivo);
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        try {
+            List<CompletableFuture<Boolean>> avaliacoes = dados.stream().map(this::avaliarNaRaia).toList();
+            CompletableFuture.allOf(avaliacoes.toArray(CompletableFuture[]::new)).join();
+            List<DadosPaciente> novos = new ArrayList<>(dados.size());
+            for (int i = 0; i < dados.size(); i++) {
+                if (avaliacoes.get(i).join()) {
+                    novos.add(dados.get(i));
+                }
+            }
+            List<DadosPaciente> dadosSalvos = dadosPacienteService.salvarTodos(novos);
+            logger.info("💾 Lote de {} registros salvo ({} repetidos ignorados)", dadosSalvos.size(), dados.size() - novos.size());
+            return ResponseEntity.ok(dadosSalvos);
+        } catch (CompletionException e) {
+            return falhaNaRaia(e);
+        } catch (Exception e) {
+            logger.error("❌ Erro ao salvar lote: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Importa histórico em CSV (layout de simulador-desktop/dados) pelo COPY do PostgreSQL, lendo
+     * o corpo aos poucos; aceita o corpo compactado (Content-Encoding: gzip). {@code data} é o dia
+     * da primeira linha de cada paciente (padrão: hoje)
+     */
+    @PostMapping(value = "/dados/importacao", consumes = "text/csv")
+    public ResponseEntity<ResultadoImportacao> importarCsv(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data,
+            @RequestHeader(value = "Content-Encoding", required = false) String codificacao,
+            InputStream corpo) {
+        try {
+            InputStream entrada = "gzip".equalsIgnoreCase(codificacao) ? new GZIPInputStream(corpo, 1 << 16) : corpo;
+            return ResponseEntity.ok(importacaoDadosService.importar(entrada, data == null ? LocalDate.now() : data));
+        } catch (IllegalStateException e) {
+            logger.warn("⚠️ {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            logger.error("❌ Erro ao importar CSV: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Agenda a exclusão dos dados de um paciente, feita em lotes em segundo plano
      */
     @DeleteMapping("/{pacienteId}/dados")
-    public ResponseEntity<Void> deletarDadosPorPaciente(@PathVariable String pacienteId) {
+    public ResponseEntity<ExclusaoPaciente> deletarDadosPorPaciente(@PathVariable String pacienteId) {
         try {
-            dadosPacienteService.deletarPorPaciente(pacienteId);
-            logger.info("🗑️ Dados deletados para paciente: {}", pacienteId);
-            return ResponseEntity.ok().build();
+            ExclusaoPaciente exclusao = exclusaoPacienteService.deletarPorPaciente(pacienteId);
+            return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest().path("/exclusao").build().toUri())
+                .body(exclusao);
         } catch (Exception e) {
             logger.error("❌ Erro ao deletar dados do paciente {}: {}", pacienteId, e.getMessage());
             return ResponseEntity.internalServerError().build();
@@ -126,20 +390,47 @@ public class DadosPacienteController {
     }
 
     /**
-     * Retorna estatísticas do sistema
+     * Andamento da exclusão dos dados de um paciente
+     */
+    @GetMapping("/{pacienteId}/dados/exclusao")
+    public ResponseEntity<ExclusaoPaciente> buscarExclusao(@PathVariable String pacienteId) {
+        ExclusaoPaciente exclusao = exclusaoPacienteService.buscarExclusao(pacienteId);
+        return exclusao == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(exclusao);
+    }
+
+    /**
+     * Lista o cadastro de pacientes (nome e CPF)
+     */
+    @GetMapping("/cadastro")
+    public ResponseEntity<List<Paciente>> listarCadastro() {
+        return ResponseEntity.ok(registroPacientesService.listar());
+    }
+
+    /**
+     * Busca o cadastro de um paciente
+     */
+    @GetMapping("/{pacienteId}/cadastro")
+    public ResponseEntity<Paciente> buscarCadastro(@PathVariable String pacienteId) {
+        return registroPacientesService.buscar(pacienteId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Retorna estatísticas do sistema, a partir dos contadores mantidos em memória
      */
     @GetMapping("/estatisticas")
     public ResponseEntity<EstatisticasResponse> buscarEstatisticas() {
         try {
-            long totalRegistros = dadosPacienteService.contarRegistros();
-            long registrosNormais = dadosPacienteService.buscarPorStatus("NORMAL").size();
-            long registrosAlertas = dadosPacienteService.buscarPorStatus("ALERTA").size();
+            long totalRegistros = estatisticasService.getTotal();
+            long registrosNormais = estatisticasService.getTotalPorStatus("NORMAL");
+            long registrosAlertas = estatisticasService.getTotalPorStatus("ALERTA");
             
             EstatisticasResponse estatisticas = new EstatisticasResponse(
                 totalRegistros, registrosNormais, registrosAlertas
             );
             
-            logger.info("📊 Estatísticas: Total={}, Normais={}, Alertas={}", 
+            logger.debug("📊 Estatísticas: Total={}, Normais={}, Alertas={}", 
                 totalRegistros, registrosNormais, registrosAlertas);
             
             return ResponseEntity.ok(estatisticas);
@@ -149,6 +440,23 @@ public class DadosPacienteController {
         }
     }
 
+    /**
+     * Retorna a quantidade de registros de cada paciente
+     */
+    @GetMapping("/estatisticas/pacientes")
+    public ResponseEntity<Map<String, Long>> buscarEstatisticasPorPaciente() {
+        return ResponseEntity.ok(estatisticasService.getTotalPorPaciente());
+    }
+
+    /**
+     * Retorna a quantidade de registros por minuto nos últimos minutos
+     */
+    @GetMapping("/estatisticas/minutos")
+    public ResponseEntity<Map<LocalDateTime, Long>> buscarEstatisticasPorMinuto(
+            @RequestParam(defaultValue = "60") int minutos) {
+        return ResponseEntity.ok(estatisticasService.getTotalPorMinuto(minutos));
+    }
+
     /**
      * Health check endpoint
      */
@@ -157,6 +465,57 @@ public class DadosPacienteController {
         return ResponseEntity.ok("🏥 HealthGo Backend funcionando!");
     }
 
+    // Só a parte em memória roda na raia; a gravação síncrona fica na thread da requisição.
+    // O resultado é false quando os dados são repetidos e não devem ser gravados
+    private CompletableFuture<Boolean> avaliarNaRaia(DadosPaciente dadosPaciente) {
+        return executorPorPaciente.submeter(dadosPaciente.getPacienteId(), () -> {
+            if (!deduplicacaoService.aceitar(dadosPaciente)) {
+                return false;
+            }
+            motorAlertasService.avaliar(dadosPaciente);
+            janelaSinaisService.registrar(dadosPaciente);
+            return true;
+        });
+    }
+
+    private static String motivoInvalido(DadosPaciente dadosPaciente) {
+        return dadosPaciente == null ? "registro vazio" : AmostraSinais.deDadosPaciente(dadosPaciente).motivoInvalida();
+    }
+
+    // Raia cheia vira 503, para o cliente tentar de novo; demais falhas, 500
+    private static <T> ResponseEntity<T> falhaNaRaia(CompletionException e) {
+        if (e.getCause() instanceof RejectedExecutionException) {
+            logger.warn("⚠️ {}", e.getCause().getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        logger.error("❌ Erro ao processar dados na raia do paciente: {}", e.getCause().getMessage());
+        return ResponseEntity.internalServerError().build();
+    }
+
+    private static int limitar(int limite) {
+        return Math.max(1, Math.min(limite, LIMITE_MAXIMO_PAGINA));
+    }
+
+    private static String etag(long versao) {
+        return "\"" + versao + "\"";
+    }
+
+    private static <T> ResponseEntity<T> naoModificado(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+    }
+
+    // Página cheia indica que pode haver mais dados: o cursor da próxima página vai no cabeçalho
+    private static ResponseEntity<List<DadosPaciente>> respostaPaginada(List<DadosPaciente> dados, int limite,
+                                                                        Function<DadosPaciente, Object> cursor) {
+        if (dados.size() < limite) {
+            return ResponseEntity.ok(dados);
+        }
+        Object proximoCursor = cursor.apply(dados.get(dados.size() - 1));
+        return ResponseEntity.ok()
+            .header(CABECALHO_PROXIMO_CURSOR, String.valueOf(proximoCursor))
+            .body(dados);
+    }
+
     // Classe interna para resposta de estatísticas
     public static class EstatisticasResponse {
         private long totalRegistros;
@@ -0,0 +1,18 @@
+package br.com.healthgo.model;
+
+import java.util.List;
+
+/**
+ * Dados recentes alterados desde uma versão informada pelo cliente.
+ *
+ * {@code versao} é a versão a informar na próxima consulta. Com {@code completo}, a versão
+ * informada não é desta série (backend reiniciado, Redis limpo ou versão desconhecida) e
+ * {@code dados} traz todos os pacientes, substituindo a lista do cliente; sem ele, traz só
+ * os pacientes alterados, e {@code removidos} os que deixaram de existir.
+ */
+public record AlteracoesRecentes(
+        long versao,
+        boolean completo,
+        List<DadosPaciente> dados,
+        List<String> removidos) {
+}
@@ -0,0 +1,186 @@
+package br.com.healthgo.model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.TimeZone;
+
+/**
+ * Amostra de sinais vitais recebida pelo WebSocket, com campos primitivos e imutável.
+ *
+ * É o que circula entre a decodificação do quadro, o broadcast e a fila de ingestão;
+ * a entidade {@link DadosPaciente} só é criada na gravação.
+ *
+ * Sinais ausentes são {@link #AUSENTE} (ou NaN na temperatura). O horário do dispositivo
+ * ("12:00:01.20") é guardado em centésimos de segundo do dia; quando não segue esse
+ * formato, o texto original fica em {@code timestampTexto}. A data de criação é o
+ * horário local em milissegundos tratado como UTC, o mesmo referencial do formato binário.
+ */
+public record AmostraSinais(
+        String pacienteId,
+        int horarioCentesimos,
+        String timestampTexto,
+        int freqCardiaca,
+        int saturacaoO2,
+        int pressaoSistolica,
+        int pressaoDiastolica,
+        double temperatura,
+        int freqRespiratoria,
+        boolean alerta,
+        long dataCriacaoMs,
+        String pacienteNome,
+        String pacienteCpf) {
+
+    public static final int AUSENTE = Integer.MIN_VALUE;
+    public static final int HORARIO_AUSENTE = -1;
+
+    private static final TimeZone FUSO = TimeZone.getDefault();
+
+    // Limites das colunas de dados_pacientes e pacientes
+    private static final int TAMANHO_MAXIMO_PACIENTE_ID = 20;
+    private static final int TAMANHO_MAXIMO_TIMESTAMP = 20;
+    private static final int TAMANHO_MAXIMO_NOME = 100;
+    private static final int TAMANHO_MAXIMO_CPF = 20;
+
+    /**
+     * Data de criação para uma amostra recebida agora
+     */
+    public static long agoraMs() {
+        long agora = System.currentTimeMillis();
+        return agora + FUSO.getOffset(agora);
+    }
+
+    /**
+     * Converte "HH:mm:ss.cc" (ou "HH:mm:ss") em centésimos de segundo do dia;
+     * retorna {@link #HORARIO_AUSENTE} se o texto não segue o formato
+     */
+    public static int lerHorario(char[] texto, int inicio, int tamanho) {
+        if (tamanho != 8 && tamanho != 11) {
+            return HORARIO_AUSENTE;
+        }
+        int horas = digitos(texto[inicio], texto[inicio + 1]);
+        int minutos = digitos(texto[inicio + 3], texto[inicio + 4]);
+        int segundos = digitos(texto[inicio + 6], texto[inicio + 7]);
+        int centesimos = tamanho == 11 ? digitos(texto[inicio + 9], texto[inicio + 10]) : 0;
+        if (horas < 0 || minutos < 0 || segundos < 0 || centesimos < 0
+                || texto[inicio + 2] != ':' || texto[inicio + 5] != ':' || (tamanho == 11 && texto[inicio + 8] != '.')) {
+            return HORARIO_AUSENTE;
+        }
+        return ((horas * 60 + minutos) * 60 + segundos) * 100 + centesimos;
+    }
+
+    /**
+     * Escreve o horário no formato "HH:mm:ss.cc" em {@code destino}, retornando a quantidade de caracteres (11)
+     */
+    public static int escreverHorario(int horarioCentesimos, char[] destino) {
+        int segundosDoDia = horarioCentesimos / 100;
+        escreverDigitos(destino, 0, segundosDoDia / 3600);
+        destino[2] = ':';
+        escreverDigitos(destino, 3, segundosDoDia / 60 % 60);
+        destino[5] = ':';
+        escreverDigitos(destino, 6, segundosDoDia % 60);
+        destino[8] = '.';
+        escreverDigitos(destino, 9, horarioCentesimos % 100);
+        return 11;
+    }
+
+    public String timestamp() {
+        if (horarioCentesimos == HORARIO_AUSENTE) {
+            return timestampTexto;
+        }
+        char[] texto = new char[11];
+        return new String(texto, 0, escreverHorario(horarioCentesimos, texto));
+    }
+
+    /**
+     * Motivo pelo qual a amostra não pode ser gravada (sinal ausente, ou identificação e horário
+     * fora dos limites das colunas), ou null se ela é válida. Conferido antes de aceitar a amostra:
+     * uma amostra que o banco recusaria não entra na fila nem no diário
+     */
+    public String motivoInvalida() {
+        if (pacienteId == null || pacienteId.isBlank() || pacienteId.length() > TAMANHO_MAXIMO_PACIENTE_ID) {
+            return "paciente_id ausente ou com mais de " + TAMANHO_MAXIMO_PACIENTE_ID + " caracteres";
+        }
+        if (horarioCentesimos == HORARIO_AUSENTE
+                && (timestampTexto == null || timestampTexto.length() > TAMANHO_MAXIMO_TIMESTAMP)) {
+            return "timestamp ausente ou com mais de " + TAMANHO_MAXIMO_TIMESTAMP + " caracteres";
+        }
+        if (freqCardiaca == AUSENTE || saturacaoO2 == AUSENTE || pressaoSistolica == AUSENTE
+                || pressaoDiastolica == AUSENTE || freqRespiratoria == AUSENTE || !Double.isFinite(temperatura)) {
+            return "sinal vital ausente";
+        }
+        if ((pacienteNome != null && pacienteNome.length() > TAMANHO_MAXIMO_NOME)
+                || (pacienteCpf != null && pacienteCpf.length() > TAMANHO_MAXIMO_CPF)) {
+            return "nome ou CPF maior que o cadastro comporta";
+        }
+        return null;
+    }
+
+    public String status() {
+        return alerta ? "ALERTA" : "NORMAL";
+    }
+
+    public LocalDateTime dataCriacao() {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(dataCriacaoMs, 1000L),
+            (int) Math.floorMod(dataCriacaoMs, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    /**
+     * Amostra equivalente a uma entidade recebida pela API REST
+     */
+    public static AmostraSinais deDadosPaciente(DadosPaciente dados) {
+        char[] horario = dados.getTimestamp() == null ? new char[0] : dados.getTimestamp().toCharArray();
+        int horarioCentesimos = lerHorario(horario, 0, horario.length);
+        LocalDateTime dataCriacao = dados.getDataCriacao();
+        return new AmostraSinais(dados.getPacienteId(), horarioCentesimos,
+            horarioCentesimos == HORARIO_AUSENTE ? dados.getTimestamp() : null,
+            paraInt(dados.getFreqCardiaca()), paraInt(dados.getSaturacaoO2()), paraInt(dados.getPressaoSistolica()),
+            paraInt(dados.getPressaoDiastolica()), dados.getTemperatura() == null ? Double.NaN : dados.getTemperatura(),
+            paraInt(dados.getFreqRespiratoria()), "ALERTA".equals(dados.getStatus()),
+            dataCriacao == null ? agoraMs() : dataCriacao.toInstant(ZoneOffset.UTC).toEpochMilli(),
+            dados.getPacienteNome(), dados.getPacienteCpf());
+    }
+
+    /**
+     * A mesma amostra com status ALERTA
+     */
+    public AmostraSinais comAlerta() {
+        if (alerta) {
+            return this;
+        }
+        return new AmostraSinais(pacienteId, horarioCentesimos, timestampTexto, freqCardiaca, saturacaoO2,
+            pressaoSistolica, pressaoDiastolica, temperatura, freqRespiratoria, true, dataCriacaoMs,
+            pacienteNome, pacienteCpf);
+    }
+
+    /**
+     * Cria a entidade para gravação
+     */
+    public DadosPaciente paraDadosPaciente() {
+        DadosPaciente dadosPaciente = new DadosPaciente(timestamp(), pacienteId, pacienteNome, pacienteCpf,
+            paraInteger(freqCardiaca), paraInteger(saturacaoO2), paraInteger(pressaoSistolica),
+            paraInteger(pressaoDiastolica), Double.isNaN(temperatura) ? null : temperatura,
+            paraInteger(freqRespiratoria), status());
+        dadosPaciente.setDataCriacao(dataCriacao());
+        return dadosPaciente;
+    }
+
+    private static Integer paraInteger(int valor) {
+        return valor == AUSENTE ? null : valor;
+    }
+
+    private static int paraInt(Integer valor) {
+        return valor == null ? AUSENTE : valor;
+    }
+
+    private static int digitos(char dezena, char unidade) {
+        if (dezena < '0' || dezena > '9' || unidade < '0' || unidade > '9') {
+            return -1;
+        }
+        return (dezena - '0') * 10 + (unidade - '0');
+    }
+
+    private static void escreverDigitos(char[] destino, int posicao, int valor) {
+        destino[posicao] = (char) ('0' + valor / 10);
+        destino[posicao + 1] = (char) ('0' + valor % 10);
+    }
+}
@@ -0,0 +1,44 @@
+package br.com.healthgo.model;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Posição de um registro na ordem (dataCriacao, id), usada nas paginações por paciente.
+ *
+ * Os ids vêm da sequência em blocos por instância e não seguem a ordem de gravação, então
+ * a data de criação vem primeiro e o id só desempata. No texto (cabeçalho
+ * {@code X-Proximo-Cursor}) fica como {@code <dataCriacao ISO>_<id>}.
+ */
+public record CursorDados(LocalDateTime dataCriacao, long id) {
+
+    private static final char SEPARADOR = '_';
+
+    public static CursorDados de(DadosPaciente dadosPaciente) {
+        return new CursorDados(dadosPaciente.getDataCriacao(), dadosPaciente.getId());
+    }
+
+    /**
+     * Lê o cursor informado pelo cliente; nulo ou vazio é o início da paginação
+     */
+    public static CursorDados ler(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return null;
+        }
+        int separador = texto.lastIndexOf(SEPARADOR);
+        if (separador < 0) {
+            throw new IllegalArgumentException("Cursor inválido: " + texto);
+        }
+        try {
+            return new CursorDados(LocalDateTime.parse(texto.substring(0, separador)),
+                Long.parseLong(texto.substring(separador + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + texto);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return dataCriacao.toString() + SEPARADOR + id;
+    }
+}
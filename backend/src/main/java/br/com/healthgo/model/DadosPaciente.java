@@ -2,14 +2,23 @@ package br.com.healthgo.model;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ResultCheckStyle;
+import org.hibernate.annotations.SQLInsert;
+
 import java.time.LocalDateTime;
 
+// Reenvios de uma amostra já gravada são ignorados pelo índice único (paciente_id, timestamp) de cada
+// partição; as colunas seguem a ordem do insert gerado pelo Hibernate (atributos em ordem alfabética, id por último)
 @Entity
 @Table(name = "dados_pacientes")
+@SQLInsert(sql = "insert into dados_pacientes (data_criacao, freq_cardiaca, freq_respiratoria, paciente_id, "
+    + "pressao_diastolica, pressao_sistolica, saturacao_o2, status, temperatura, timestamp, id) "
+    + "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) on conflict do nothing", check = ResultCheckStyle.NONE)
 public class DadosPaciente {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "dados_pacientes_seq")
+    @SequenceGenerator(name = "dados_pacientes_seq", sequenceName = "dados_pacientes_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "timestamp")
@@ -19,12 +28,13 @@ public class DadosPaciente {
     @Column(name = "paciente_id")
     private String pacienteId;
 
+    // Nome e CPF ficam no cadastro (Paciente); aqui só são preenchidos na entrada e nas respostas da API
     @JsonProperty("paciente_nome")
-    @Column(name = "paciente_nome")
+    @Transient
     private String pacienteNome;
 
     @JsonProperty("paciente_cpf")
-    @Column(name = "paciente_cpf")
+    @Transient
     private String pacienteCpf;
 
     @JsonProperty("freq_cardiaca")
@@ -55,7 +65,8 @@ public class DadosPaciente {
     @Column(name = "status")
     private String status;
 
-    @Column(name = "data_criacao")
+    // Chave de partição de dados_pacientes
+    @Column(name = "data_criacao", nullable = false, updatable = false)
     private LocalDateTime dataCriacao;
 
     // Construtores
@@ -0,0 +1,21 @@
+package br.com.healthgo.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+
+/**
+ * Disparo de uma regra de alerta para um paciente, publicado no canal de alertas.
+ *
+ * É emitido uma vez quando a condição passa a valer; a regra só dispara de novo
+ * depois que a condição deixar de valer.
+ */
+public record EventoAlerta(
+        @JsonProperty("paciente_id") String pacienteId,
+        @JsonProperty("regra") String regra,
+        @JsonProperty("descricao") String descricao,
+        @JsonProperty("severidade") RegraAlerta.Severidade severidade,
+        @JsonProperty("sinal") SinalVital sinal,
+        @JsonProperty("valor") double valor,
+        @JsonProperty("data_hora") LocalDateTime dataHora) {
+}
@@ -0,0 +1,88 @@
+package br.com.healthgo.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+
+/**
+ * Andamento da exclusão dos dados de um paciente (eliminação LGPD), feita em lotes em segundo plano
+ */
+public class ExclusaoPaciente {
+
+    public enum Status {
+        EM_ANDAMENTO,
+        CONCLUIDA,
+        FALHA
+    }
+
+    @JsonProperty("paciente_id")
+    private final String pacienteId;
+
+    @JsonProperty("registros_estimados")
+    private final long registrosEstimados;
+
+    @JsonProperty("inicio")
+    private final LocalDateTime inicio;
+
+    private volatile Status status = Status.EM_ANDAMENTO;
+    private volatile long registrosRemovidos;
+    private volatile LocalDateTime fim;
+    private volatile String erro;
+
+    public ExclusaoPaciente(String pacienteId, long registrosEstimados) {
+        this.pacienteId = pacienteId;
+        this.registrosEstimados = registrosEstimados;
+        this.inicio = LocalDateTime.now();
+    }
+
+    public String getPacienteId() {
+        return pacienteId;
+    }
+
+    public long getRegistrosEstimados() {
+        return registrosEstimados;
+    }
+
+    public LocalDateTime getInicio() {
+        return inicio;
+    }
+
+    @JsonProperty("status")
+    public Status getStatus() {
+        return status;
+    }
+
+    @JsonProperty("registros_removidos")
+    public long getRegistrosRemovidos() {
+        return registrosRemovidos;
+    }
+
+    public void setRegistrosRemovidos(long registrosRemovidos) {
+        this.registrosRemovidos = registrosRemovidos;
+    }
+
+    @JsonProperty("fim")
+    public LocalDateTime getFim() {
+        return fim;
+    }
+
+    @JsonProperty("erro")
+    public String getErro() {
+        return erro;
+    }
+
+    public boolean isEmAndamento() {
+        return status == Status.EM_ANDAMENTO;
+    }
+
+    public void concluir() {
+        this.fim = LocalDateTime.now();
+        this.status = Status.CONCLUIDA;
+    }
+
+    public void falhar(String erro) {
+        this.erro = erro;
+        this.fim = LocalDateTime.now();
+        this.status = Status.FALHA;
+    }
+}
@@ -0,0 +1,22 @@
+package br.com.healthgo.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Histórico de um paciente em um período, com a resolução escolhida para a consulta.
+ * Em dados brutos, {@code proximo} é o cursor da página seguinte (nulo na última),
+ * enviado no cabeçalho {@code X-Proximo-Cursor}
+ */
+public record Historico(
+        @JsonProperty("paciente_id") String pacienteId,
+        ResolucaoHistorico resolucao,
+        List<PontoHistorico> pontos,
+        @JsonIgnore CursorDados proximo) {
+
+    public Historico(String pacienteId, ResolucaoHistorico resolucao, List<PontoHistorico> pontos) {
+        this(pacienteId, resolucao, pontos, null);
+    }
+}
@@ -0,0 +1,83 @@
+package br.com.healthgo.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Cadastro de um paciente. Nome e CPF ficam apenas aqui; as amostras em
+ * dados_pacientes guardam somente o paciente_id.
+ */
+@Entity
+@Table(name = "pacientes")
+public class Paciente {
+
+    @Id
+    @JsonProperty("paciente_id")
+    @Column(name = "paciente_id")
+    private String pacienteId;
+
+    @JsonProperty("paciente_nome")
+    @Column(name = "nome")
+    private String nome;
+
+    @JsonProperty("paciente_cpf")
+    @Column(name = "cpf")
+    private String cpf;
+
+    @JsonProperty("data_atualizacao")
+    @Column(name = "data_atualizacao")
+    private LocalDateTime dataAtualizacao;
+
+    // Construtores
+    public Paciente() {
+    }
+
+    public Paciente(String pacienteId, String nome, String cpf) {
+        this.pacienteId = pacienteId;
+        this.nome = nome;
+        this.cpf = cpf;
+        this.dataAtualizacao = LocalDateTime.now();
+    }
+
+    // Getters e Setters
+    public String getPacienteId() {
+        return pacienteId;
+    }
+
+    public void setPacienteId(String pacienteId) {
+        this.pacienteId = pacienteId;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public void setNome(String nome) {
+        this.nome = nome;
+    }
+
+    public String getCpf() {
+        return cpf;
+    }
+
+    public void setCpf(String cpf) {
+        this.cpf = cpf;
+    }
+
+    public LocalDateTime getDataAtualizacao() {
+        return dataAtualizacao;
+    }
+
+    public void setDataAtualizacao(LocalDateTime dataAtualizacao) {
+        this.dataAtualizacao = dataAtualizacao;
+    }
+
+    @Override
+    public String toString() {
+        return "Paciente{" +
+                "pacienteId='" + pacienteId + '\'' +
+                ", nome='" + nome + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,40 @@
+package br.com.healthgo.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+
+/**
+ * Um ponto do histórico de um paciente: uma amostra bruta ou um intervalo agregado.
+ * Em amostras brutas mínimo, máximo e média são o próprio valor.
+ */
+public record PontoHistorico(
+        LocalDateTime periodo,
+        int quantidade,
+        int alertas,
+        @JsonProperty("freq_cardiaca") Faixa freqCardiaca,
+        @JsonProperty("saturacao_o2") Faixa saturacaoO2,
+        @JsonProperty("pressao_sistolica") Faixa pressaoSistolica,
+        @JsonProperty("pressao_diastolica") Faixa pressaoDiastolica,
+        @JsonProperty("temperatura") Faixa temperatura,
+        @JsonProperty("freq_respiratoria") Faixa freqRespiratoria) {
+
+    public record Faixa(Double min, Double max, Double media) {
+
+        public static Faixa deValor(Number valor) {
+            Double v = valor == null ? null : valor.doubleValue();
+            return new Faixa(v, v, v);
+        }
+    }
+
+    public static PontoHistorico deDados(DadosPaciente dados) {
+        return new PontoHistorico(
+            dados.getDataCriacao(), 1, "ALERTA".equals(dados.getStatus()) ? 1 : 0,
+            Faixa.deValor(dados.getFreqCardiaca()),
+            Faixa.deValor(dados.getSaturacaoO2()),
+            Faixa.deValor(dados.getPressaoSistolica()),
+            Faixa.deValor(dados.getPressaoDiastolica()),
+            Faixa.deValor(dados.getTemperatura()),
+            Faixa.deValor(dados.getFreqRespiratoria()));
+    }
+}
@@ -0,0 +1,50 @@
+package br.com.healthgo.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Regra de alerta clínico avaliada a cada amostra recebida.
+ *
+ * LIMITE dispara quando o sinal fica abaixo/acima do limite por {@code duracaoSegundos}
+ * seguidos (0 = na primeira amostra). VARIACAO dispara quando o sinal sobe (variação
+ * positiva) ou cai (negativa) pelo menos {@code variacao} em relação ao mínimo/máximo
+ * dos últimos {@code janelaSegundos}.
+ */
+@JsonInclude(JsonInclude.Include.NON_DEFAULT)
+public record RegraAlerta(
+        @JsonProperty("id") String id,
+        @JsonProperty("descricao") String descricao,
+        @JsonProperty("sinal") SinalVital sinal,
+        @JsonProperty("tipo") Tipo tipo,
+        @JsonProperty("operador") Operador operador,
+        @JsonProperty("limite") double limite,
+        @JsonProperty("duracao_segundos") int duracaoSegundos,
+        @JsonProperty("variacao") double variacao,
+        @JsonProperty("janela_segundos") int janelaSegundos,
+        @JsonProperty("severidade") Severidade severidade) {
+
+    public enum Tipo { LIMITE, VARIACAO }
+
+    public enum Operador { ABAIXO, ACIMA }
+
+    public enum Severidade { MEDIA, ALTA, CRITICA }
+
+    public RegraAlerta {
+        if (id == null || id.isBlank()) {
+            throw new IllegalArgumentException("Regra sem id");
+        }
+        if (sinal == null || tipo == null) {
+            throw new IllegalArgumentException("Regra " + id + " sem sinal ou tipo");
+        }
+        if (tipo == Tipo.LIMITE && (operador == null || duracaoSegundos < 0)) {
+            throw new IllegalArgumentException("Regra " + id + ": LIMITE exige operador e duracao_segundos >= 0");
+        }
+        if (tipo == Tipo.VARIACAO && (variacao == 0 || janelaSegundos <= 0)) {
+            throw new IllegalArgumentException("Regra " + id + ": VARIACAO exige variacao != 0 e janela_segundos > 0");
+        }
+        if (severidade == null) {
+            severidade = Severidade.ALTA;
+        }
+    }
+}
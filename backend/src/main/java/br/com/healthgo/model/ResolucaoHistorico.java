@@ -0,0 +1,33 @@
+package br.com.healthgo.model;
+
+import java.time.Duration;
+
+/**
+ * Resolução de uma consulta de histórico: dados brutos ou agregados por minuto/hora.
+ */
+public enum ResolucaoHistorico {
+
+    // O simulador envia cerca de 5 amostras por segundo por paciente
+    BRUTO("dados_pacientes", Duration.ofMillis(200)),
+    MINUTO("dados_pacientes_1m", Duration.ofMinutes(1)),
+    HORA("dados_pacientes_1h", Duration.ofHours(1));
+
+    private final String tabela;
+    private final Duration intervalo;
+
+    ResolucaoHistorico(String tabela, Duration intervalo) {
+        this.tabela = tabela;
+        this.intervalo = intervalo;
+    }
+
+    public String getTabela() {
+        return tabela;
+    }
+
+    /**
+     * Quantidade estimada de pontos para um período com esta resolução
+     */
+    public long estimarPontos(Duration periodo) {
+        return periodo.toMillis() / intervalo.toMillis() + 1;
+    }
+}
@@ -0,0 +1,25 @@
+package br.com.healthgo.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Resultado de uma importação de histórico em CSV.
+ *
+ * Repetidas são linhas de paciente e horário já gravados (no banco ou antes no mesmo arquivo);
+ * inválidas ficam de fora, com as primeiras mensagens de erro em {@code erros}.
+ */
+public record ResultadoImportacao(
+        @JsonProperty("linhas_lidas") long linhasLidas,
+        @JsonProperty("linhas_gravadas") long linhasGravadas,
+        @JsonProperty("linhas_repetidas") long linhasRepetidas,
+        @JsonProperty("linhas_invalidas") long linhasInvalidas,
+        int pacientes,
+        @JsonProperty("primeira_data") LocalDateTime primeiraData,
+        @JsonProperty("ultima_data") LocalDateTime ultimaData,
+        @JsonProperty("duracao_ms") long duracaoMs,
+        @JsonProperty("linhas_por_segundo") long linhasPorSegundo,
+        List<String> erros) {
+}
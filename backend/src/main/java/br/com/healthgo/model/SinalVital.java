@@ -0,0 +1,53 @@
+package br.com.healthgo.model;
+
+/**
+ * Sinal vital avaliado pelas regras de alerta, lido direto dos campos primitivos da amostra.
+ */
+public enum SinalVital {
+
+    FREQ_CARDIACA {
+        @Override
+        public double valor(AmostraSinais amostra) {
+            return inteiro(amostra.freqCardiaca());
+        }
+    },
+    SATURACAO_O2 {
+        @Override
+        public double valor(AmostraSinais amostra) {
+            return inteiro(amostra.saturacaoO2());
+        }
+    },
+    PRESSAO_SISTOLICA {
+        @Override
+        public double valor(AmostraSinais amostra) {
+            return inteiro(amostra.pressaoSistolica());
+        }
+    },
+    PRESSAO_DIASTOLICA {
+        @Override
+        public double valor(AmostraSinais amostra) {
+            return inteiro(amostra.pressaoDiastolica());
+        }
+    },
+    TEMPERATURA {
+        @Override
+        public double valor(AmostraSinais amostra) {
+            return amostra.temperatura();
+        }
+    },
+    FREQ_RESPIRATORIA {
+        @Override
+        public double valor(AmostraSinais amostra) {
+            return inteiro(amostra.freqRespiratoria());
+        }
+    };
+
+    /**
+     * Valor do sinal na amostra, ou NaN se ausente
+     */
+    public abstract double valor(AmostraSinais amostra);
+
+    private static double inteiro(int valor) {
+        return valor == AmostraSinais.AUSENTE ? Double.NaN : valor;
+    }
+}
@@ -0,0 +1,224 @@
+package br.com.healthgo.repository;
+
+import br.com.healthgo.model.PontoHistorico;
+import br.com.healthgo.model.PontoHistorico.Faixa;
+import br.com.healthgo.model.ResolucaoHistorico;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Acesso às partições de dados_pacientes e às tabelas de agregados
+ * (dados_pacientes_1m e dados_pacientes_1h), via SQL nativo do PostgreSQL.
+ */
+@Repository
+public class AgregadosRepository {
+
+    public static final String PREFIXO_PARTICAO = "dados_pacientes_p";
+
+    private static final String[] SINAIS = {
+        "freq_cardiaca", "saturacao_o2", "pressao_sistolica",
+        "pressao_diastolica", "temperatura", "freq_respiratoria"
+    };
+
+    private static final String COLUNAS_AGREGADO = "paciente_id, periodo, quantidade, alertas, " + colunasSinais();
+
+    private static final String CONFLITO_AGREGADO = " ON CONFLICT (paciente_id, periodo) DO UPDATE SET " +
+        Arrays.stream(COLUNAS_AGREGADO.split(", "))
+            .skip(2)
+            .map(coluna -> coluna + " = EXCLUDED." + coluna)
+            .collect(Collectors.joining(", "));
+
+    // Amostras brutas -> minuto
+    private static final String AGREGAR_MINUTO =
+        "INSERT INTO dados_pacientes_1m (" + COLUNAS_AGREGADO + ") " +
+        "SELECT paciente_id, date_trunc('minute', data_criacao), COUNT(*), COUNT(*) FILTER (WHERE status = 'ALERTA'), " +
+        Arrays.stream(SINAIS)
+            .map(s -> "MIN(" + s + "), MAX(" + s + "), AVG(" + s + ")")
+            .collect(Collectors.joining(", ")) +
+        " FROM dados_pacientes WHERE data_criacao >= ? AND data_criacao < ? GROUP BY 1, 2" +
+        CONFLITO_AGREGADO;
+
+    // Minuto -> hora; a média da hora é ponderada pela quantidade de amostras de cada minuto
+    private static final String AGREGAR_HORA =
+        "INSERT INTO dados_pacientes_1h (" + COLUNAS_AGREGADO + ") " +
+        "SELECT paciente_id, date_trunc('hour', periodo), SUM(quantidade), SUM(alertas), " +
+        Arrays.stream(SINAIS)
+            .map(s -> "MIN(" + s + "_min), MAX(" + s + "_max), SUM(" + s + "_media * quantidade) / SUM(quantidade)")
+            .collect(Collectors.joining(", ")) +
+        " FROM dados_pacientes_1m WHERE periodo >= ? AND periodo < ? GROUP BY 1, 2" +
+        CONFLITO_AGREGADO;
+
+    private static final RowMapper<PontoHistorico> MAPEADOR_PONTO = (rs, linha) -> new PontoHistorico(
+        rs.getTimestamp("periodo").toLocalDateTime(),
+        rs.getInt("quantidade"),
+        rs.getInt("alertas"),
+        lerFaixa(rs, "freq_cardiaca"),
+        lerFaixa(rs, "saturacao_o2"),
+        lerFaixa(rs, "pressao_sistolica"),
+        lerFaixa(rs, "pressao_diastolica"),
+        lerFaixa(rs, "temperatura"),
+        lerFaixa(rs, "freq_respiratoria"));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Cria (se não existir) a partição diária do dia informado
+     */
+    public void criarParticao(LocalDate dia) {
+        jdbcTemplate.queryForRowSet("SELECT criar_particao_dados(?)", dia);
+    }
+
+    /**
+     * Nomes das partições diárias de dados_pacientes
+     */
+    public List<String> listarParticoes() {
+        return jdbcTemplate.queryForList(
+            "SELECT c.relname FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid " +
+            "JOIN pg_class p ON p.oid = i.inhparent " +
+            "WHERE p.relname = 'dados_pacientes' AND c.relname LIKE '" + PREFIXO_PARTICAO + "%'",
+            String.class);
+    }
+
+    /**
+     * Remove a partição e seus dados
+     */
+    public void descartarParticao(String particao) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + particao);
+    }
+
+    /**
+     * Desanexa a partição, mantendo a tabela para arquivamento fora de dados_pacientes
+     */
+    public void arquivarParticao(String particao) {
+        jdbcTemplate.execute("ALTER TABLE dados_pacientes DETACH PARTITION " + particao);
+    }
+
+    /**
+     * Partições diárias arquivadas (desanexadas de dados_pacientes pela retenção)
+     */
+    public List<String> listarParticoesArquivadas() {
+        return jdbcTemplate.queryForList(
+            "SELECT relname FROM pg_class WHERE relkind = 'r' AND NOT relispartition " +
+            "AND relname ~ '^" + PREFIXO_PARTICAO + "[0-9]{8}$'",
+            String.class);
+    }
+
+    /**
+     * Remove os registros do paciente de uma partição arquivada
+     */
+    public int removerPacienteDaParticao(String particao, String pacienteId) {
+        return jdbcTemplate.update("DELETE FROM " + particao + " WHERE paciente_id = ?", pacienteId);
+    }
+
+    /**
+     * Advisory lock do PostgreSQL, liberado ao fim da transação corrente
+     */
+    public boolean tentarBloquear(long chave) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, chave));
+    }
+
+    /**
+     * Como {@link #tentarBloquear}, mas aguarda o lock ser liberado
+     */
+    public void bloquear(long chave) {
+        jdbcTemplate.queryForRowSet("SELECT pg_advisory_xact_lock(?)", chave);
+    }
+
+    public LocalDateTime primeiroPeriodo(ResolucaoHistorico resolucao) {
+        return paraLocalDateTime(jdbcTemplate.queryForObject(
+            "SELECT MIN(periodo) FROM " + resolucao.getTabela(), Timestamp.class));
+    }
+
+    public LocalDateTime ultimoPeriodo(ResolucaoHistorico resolucao) {
+        return paraLocalDateTime(jdbcTemplate.queryForObject(
+            "SELECT MAX(periodo) FROM " + resolucao.getTabela(), Timestamp.class));
+    }
+
+    public LocalDateTime primeiraDataCriacao() {
+        return paraLocalDateTime(jdbcTemplate.queryForObject(
+            "SELECT MIN(data_criacao) FROM dados_pacientes", Timestamp.class));
+    }
+
+    /**
+     * Marca um período com amostras gravadas depois de a agregação ter passado por ele
+     */
+    public void marcarReagregacao(LocalDateTime inicio, LocalDateTime fim) {
+        jdbcTemplate.update("INSERT INTO dados_pacientes_reagregar (inicio, fim) VALUES (?, ?)", inicio, fim);
+    }
+
+    /**
+     * Consome as marcas de reagregação já confirmadas, retornando o período que as cobre
+     * ({@code [início, fim]}), ou null se não houver nenhuma
+     */
+    public LocalDateTime[] consumirReagregacao() {
+        return jdbcTemplate.queryForObject(
+            "WITH removidos AS (DELETE FROM dados_pacientes_reagregar RETURNING inicio, fim) " +
+            "SELECT MIN(inicio), MAX(fim) FROM removidos",
+            (rs, linha) -> rs.getTimestamp(1) == null ? null
+                : new LocalDateTime[] {rs.getTimestamp(1).toLocalDateTime(), rs.getTimestamp(2).toLocalDateTime()});
+    }
+
+    public int agregarMinutos(LocalDateTime inicio, LocalDateTime fim) {
+        return jdbcTemplate.update(AGREGAR_MINUTO, inicio, fim);
+    }
+
+    public int agregarHoras(LocalDateTime inicio, LocalDateTime fim) {
+        return jdbcTemplate.update(AGREGAR_HORA, inicio, fim);
+    }
+
+    /**
+     * Remove agregados anteriores ao limite
+     */
+    public int descartarAgregados(ResolucaoHistorico resolucao, LocalDateTime limite) {
+        return jdbcTemplate.update("DELETE FROM " + resolucao.getTabela() + " WHERE periodo < ?", limite);
+    }
+
+    /**
+     * Remove todos os agregados de um paciente
+     */
+    public int removerPaciente(String pacienteId) {
+        return jdbcTemplate.update("DELETE FROM dados_pacientes_1m WHERE paciente_id = ?", pacienteId)
+            + jdbcTemplate.update("DELETE FROM dados_pacientes_1h WHERE paciente_id = ?", pacienteId);
+    }
+
+    /**
+     * Agregados de um paciente em um período, em ordem cronológica
+     */
+    public List<PontoHistorico> buscarAgregados(ResolucaoHistorico resolucao, String pacienteId,
+                                                LocalDateTime inicio, LocalDateTime fim) {
+        return jdbcTemplate.query(
+            "SELECT " + COLUNAS_AGREGADO + " FROM " + resolucao.getTabela() +
+            " WHERE paciente_id = ? AND periodo >= ? AND periodo <= ? ORDER BY periodo",
+            MAPEADOR_PONTO, pacienteId, inicio, fim);
+    }
+
+    private static Faixa lerFaixa(ResultSet rs, String sinal) throws SQLException {
+        return new Faixa(
+            rs.getObject(sinal + "_min", Double.class),
+            rs.getObject(sinal + "_max", Double.class),
+            rs.getObject(sinal + "_media", Double.class));
+    }
+
+    private static String colunasSinais() {
+        return Arrays.stream(SINAIS)
+            .map(s -> s + "_min, " + s + "_max, " + s + "_media")
+            .collect(Collectors.joining(", "));
+    }
+
+    private static LocalDateTime paraLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+}
@@ -1,11 +1,18 @@
 package br.com.healthgo.repository;
 
 import br.com.healthgo.model.DadosPaciente;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface DadosPacienteRepository extends JpaRepository<DadosPaciente, Long> {
@@ -15,11 +22,6 @@ public interface DadosPacienteRepository extends JpaRepository<DadosPaciente, Lo
      */
     List<DadosPaciente> findByPacienteIdOrderByDataCriacaoDesc(String pacienteId);
 
-    /**
-     * Busca todos os dados de um paciente
-     */
-    List<DadosPaciente> findByPacienteId(String pacienteId);
-
     /**
      * Busca dados por status
      */
@@ -35,9 +37,90 @@ public interface DadosPacienteRepository extends JpaRepository<DadosPaciente, Lo
     /**
      * Busca dados de um paciente em um período específico
      */
-    @Query("SELECT d FROM DadosPaciente d WHERE d.pacienteId = ?1 AND d.dataCriacao BETWEEN ?2 AND ?3")
+    @Query("SELECT d FROM DadosPaciente d WHERE d.pacienteId = ?1 AND d.dataCriacao BETWEEN ?2 AND ?3 ORDER BY d.dataCriacao")
     List<DadosPaciente> findByPacienteIdAndPeriodo(String pacienteId, java.time.LocalDateTime inicio, java.time.LocalDateTime fim);
 
+    /**
+     * Página de dados com id maior que o cursor, em ordem crescente de id
+     */
+    @Query("SELECT d FROM DadosPaciente d WHERE d.id > ?1 ORDER BY d.id")
+    List<DadosPaciente> findPaginaAposId(Long aposId, Pageable pageable);
+
+    /**
+     * Ids da lista que existem no banco, com data de criação no intervalo (poda as partições)
+     */
+    @Query("SELECT d.id FROM DadosPaciente d WHERE d.id IN ?1 AND d.dataCriacao BETWEEN ?2 AND ?3")
+    List<Long> findIdsExistentes(java.util.Collection<Long> ids, java.time.LocalDateTime inicio, java.time.LocalDateTime fim);
+
+    /**
+     * Primeira página de dados de um paciente, mais recentes primeiro
+     */
+    @Query("SELECT d FROM DadosPaciente d WHERE d.pacienteId = ?1 ORDER BY d.dataCriacao DESC, d.id DESC")
+    List<DadosPaciente> findPaginaPorPaciente(String pacienteId, Pageable pageable);
+
+    /**
+     * Página de dados de um paciente antes do cursor (dataCriacao, id), mais recentes primeiro;
+     * o limite em data_criacao sozinho permite usar o índice (paciente_id, data_criacao) e podar partições
+     */
+    @Query("SELECT d FROM DadosPaciente d WHERE d.pacienteId = ?1 AND d.dataCriacao <= ?2 " +
+           "AND (d.dataCriacao < ?2 OR d.id < ?3) ORDER BY d.dataCriacao DESC, d.id DESC")
+    List<DadosPaciente> findPaginaPorPacienteAntesDe(String pacienteId, java.time.LocalDateTime dataCriacao, Long id, Pageable pageable);
+
+    /**
+     * Página de dados de um paciente no período, depois do cursor (dataCriacao, id), em ordem cronológica
+     */
+    @Query("SELECT d FROM DadosPaciente d WHERE d.pacienteId = ?1 AND d.dataCriacao BETWEEN ?2 AND ?3 " +
+           "AND d.dataCriacao >= ?4 AND (d.dataCriacao > ?4 OR d.id > ?5) ORDER BY d.dataCriacao, d.id")
+    List<DadosPaciente> findPaginaPorPeriodo(String pacienteId, java.time.LocalDateTime inicio, java.time.LocalDateTime fim,
+                                             java.time.LocalDateTime aposData, Long aposId, Pageable pageable);
+
+    /**
+     * Percorre todos os dados em streaming, sem carregar o resultado inteiro em memória
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT d FROM DadosPaciente d ORDER BY d.id")
+    Stream<DadosPaciente> streamTodos();
+
+    /**
+     * Percorre os dados de um paciente em streaming
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT d FROM DadosPaciente d WHERE d.pacienteId = ?1 ORDER BY d.id")
+    Stream<DadosPaciente> streamPorPaciente(String pacienteId);
+
+    /**
+     * Contagem de registros agrupada por status: [status, quantidade]
+     */
+    @Query("SELECT d.status, COUNT(d) FROM DadosPaciente d GROUP BY d.status")
+    List<Object[]> countAgrupadoPorStatus();
+
+    /**
+     * Contagem de registros agrupada por paciente: [pacienteId, quantidade]
+     */
+    @Query("SELECT d.pacienteId, COUNT(d) FROM DadosPaciente d GROUP BY d.pacienteId")
+    List<Object[]> countAgrupadoPorPaciente();
+
+    /**
+     * Contagem de registros por minuto a partir de uma data: [minuto, quantidade]
+     */
+    @Query(value = "SELECT date_trunc('minute', data_criacao) AS minuto, COUNT(*) FROM dados_pacientes " +
+                   "WHERE data_criacao >= ?1 GROUP BY 1", nativeQuery = true)
+    List<Object[]> countAgrupadoPorMinuto(java.time.LocalDateTime inicio);
+
+    /**
+     * Contagem de registros de um paciente agrupada por status: [status, quantidade]
+     */
+    @Query("SELECT d.status, COUNT(d) FROM DadosPaciente d WHERE d.pacienteId = ?1 GROUP BY d.status")
+    List<Object[]> countAgrupadoPorStatusDoPaciente(String pacienteId);
+
+    /**
+     * Remove até {@code limite} registros de um paciente em um único DELETE, sem carregar entidades
+     */
+    @Modifying
+    @Query(value = "DELETE FROM dados_pacientes WHERE paciente_id = ?1 AND (id, data_criacao) IN " +
+                   "(SELECT id, data_criacao FROM dados_pacientes WHERE paciente_id = ?1 LIMIT ?2)", nativeQuery = true)
+    int deletarLotePorPaciente(String pacienteId, int limite);
+
     /**
      * Conta registros por paciente
      */
@@ -0,0 +1,9 @@
+package br.com.healthgo.repository;
+
+import br.com.healthgo.model.Paciente;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PacienteRepository extends JpaRepository<Paciente, String> {
+}
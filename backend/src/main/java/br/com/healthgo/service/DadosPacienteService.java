@@ -1,29 +1,81 @@
 package br.com.healthgo.service;
 
+import br.com.healthgo.model.AlteracoesRecentes;
+import br.com.healthgo.model.CursorDados;
 import br.com.healthgo.model.DadosPaciente;
+import br.com.healthgo.repository.AgregadosRepository;
 import br.com.healthgo.repository.DadosPacienteRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 public class DadosPacienteService {
 
     private static final Logger logger = LoggerFactory.getLogger(DadosPacienteService.class);
+
+    // Deve acompanhar hibernate.jdbc.batch_size e o allocationSize da sequência
+    private static final int TAMANHO_LOTE_JDBC = 50;
+    private static final int TAMANHO_CONSULTA_IDS = 1000;
+
+    // Amostras mais antigas que isso podem cair em um minuto que a agregação já processou
+    private static final long MARGEM_AGREGACAO_MINUTOS = 2;
     
     @Autowired
     private DadosPacienteRepository dadosPacienteRepository;
 
+    @Autowired
+    private AgregadosRepository agregadosRepository;
+
+    @Autowired
+    private DadosRecentesCache dadosRecentesCache;
+
+    @Autowired
+    private EstatisticasService estatisticasService;
+
+    @Autowired
+    private RegistroPacientesService registroPacientesService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     /**
      * Salva os dados de um paciente no banco de dados
      */
     public DadosPaciente salvarDados(DadosPaciente dadosPaciente) {
         try {
-            DadosPaciente dadosSalvos = dadosPacienteRepository.save(dadosPaciente);
+            registroPacientesService.registrarTodos(List.of(dadosPaciente));
+            DadosPaciente dadosSalvos = registroPacientesService.enriquecer(dadosPacienteRepository.save(dadosPaciente));
+            if (gravados(List.of(dadosSalvos)).isEmpty()) {
+                logger.debug("🔁 Amostra do paciente {} já gravada, ignorada", dadosPaciente.getPacienteId());
+                return dadosSalvos;
+            }
+            dadosRecentesCache.atualizar(dadosSalvos);
+            estatisticasService.registrar(List.of(dadosSalvos));
             logger.info("💾 Dados salvos para paciente: {} - ID: {}", 
                 dadosPaciente.getPacienteId(), dadosSalvos.getId());
             return dadosSalvos;
@@ -35,12 +87,90 @@ public class DadosPacienteService {
     }
 
     /**
-     * Busca todos os dados de um paciente específico
+     * Salva uma lista de dados em batch JDBC, limpando o contexto de persistência
+     * a cada lote para manter o consumo de memória constante
+     */
+    @Transactional
+    public List<DadosPaciente> salvarTodos(List<DadosPaciente> dados) {
+        try {
+            registroPacientesService.registrarTodos(dados);
+            for (int inicio = 0; inicio < dados.size(); inicio += TAMANHO_LOTE_JDBC) {
+                int fim = Math.min(inicio + TAMANHO_LOTE_JDBC, dados.size());
+                dadosPacienteRepository.saveAll(dados.subList(inicio, fim));
+                entityManager.flush();
+                entityManager.clear();
+            }
+            List<DadosPaciente> gravados = gravados(dados);
+            marcarAtrasados(gravados);
+            dadosRecentesCache.atualizarTodos(registroPacientesService.enriquecer(gravados));
+            estatisticasService.registrar(gravados);
+            logger.debug("💾 Lote de {} registros salvo ({} já gravados)", gravados.size(), dados.size() - gravados.size());
+            return gravados;
+        } catch (Exception e) {
+            logger.error("❌ Erro ao salvar lote de {} registros: {}", dados.size(), e.getMessage());
+            throw e;
+        }
+    }
+
+    // Amostras ignoradas pelo ON CONFLICT DO NOTHING (já gravadas) recebem id do Hibernate mesmo
+    // sem chegar ao banco, e o batch JDBC não informa quais foram: confere os ids e limpa os ausentes
+    private List<DadosPaciente> gravados(List<DadosPaciente> dados) {
+        Set<Long> existentes = new HashSet<>(dados.size());
+        for (int inicio = 0; inicio < dados.size(); inicio += TAMANHO_CONSULTA_IDS) {
+            List<DadosPaciente> parte = dados.subList(inicio, Math.min(inicio + TAMANHO_CONSULTA_IDS, dados.size()));
+            List<Long> ids = new ArrayList<>(parte.size());
+            LocalDateTime primeira = null;
+            LocalDateTime ultima = null;
+            for (DadosPaciente dadosPaciente : parte) {
+                ids.add(dadosPaciente.getId());
+                LocalDateTime dataCriacao = dadosPaciente.getDataCriacao();
+                primeira = primeira == null || dataCriacao.isBefore(primeira) ? dataCriacao : primeira;
+                ultima = ultima == null || dataCriacao.isAfter(ultima) ? dataCriacao : ultima;
+            }
+            existentes.addAll(dadosPacienteRepository.findIdsExistentes(ids, primeira, ultima));
+        }
+        if (existentes.size() == dados.size()) {
+            return dados;
+        }
+        List<DadosPaciente> gravados = new ArrayList<>(existentes.size());
+        for (DadosPaciente dadosPaciente : dados) {
+            if (existentes.contains(dadosPaciente.getId())) {
+                gravados.add(dadosPaciente);
+            } else {
+                dadosPaciente.setId(null);
+            }
+        }
+        return gravados;
+    }
+
+    // Amostras gravadas com atraso (ex: replay do diário depois de o banco voltar) marcam o seu
+    // período para a manutenção reagregar, na mesma transação: a agregação não volta atrás sozinha
+    private void marcarAtrasados(List<DadosPaciente> dados) {
+        LocalDateTime limite = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES).minusMinutes(MARGEM_AGREGACAO_MINUTOS);
+        LocalDateTime inicio = null;
+        LocalDateTime fim = null;
+        for (DadosPaciente dadosPaciente : dados) {
+            LocalDateTime dataCriacao = dadosPaciente.getDataCriacao();
+            if (dataCriacao != null && dataCriacao.isBefore(limite)) {
+                inicio = inicio == null || dataCriacao.isBefore(inicio) ? dataCriacao : inicio;
+                fim = fim == null || dataCriacao.isAfter(fim) ? dataCriacao : fim;
+            }
+        }
+        if (inicio != null) {
+            agregadosRepository.marcarReagregacao(inicio, fim);
+        }
+    }
+
+    /**
+     * Busca uma página de dados de um paciente (mais recentes primeiro), antes do cursor
      */
-    public List<DadosPaciente> buscarPorPaciente(String pacienteId) {
+    public List<DadosPaciente> buscarPorPaciente(String pacienteId, CursorDados antesDe, int limite) {
         try {
-            List<DadosPaciente> dados = dadosPacienteRepository.findByPacienteIdOrderByDataCriacaoDesc(pacienteId);
-            logger.info("🔍 Buscados {} registros para paciente: {}", dados.size(), pacienteId);
+            List<DadosPaciente> dados = registroPacientesService.enriquecer(antesDe == null
+                ? dadosPacienteRepository.findPaginaPorPaciente(pacienteId, PageRequest.ofSize(limite))
+                : dadosPacienteRepository.findPaginaPorPacienteAntesDe(
+                    pacienteId, antesDe.dataCriacao(), antesDe.id(), PageRequest.ofSize(limite)));
+            logger.debug("🔍 Buscados {} registros para paciente: {}", dados.size(), pacienteId);
             return dados;
         } catch (Exception e) {
             logger.error("❌ Erro ao buscar dados do paciente {}: {}", pacienteId, e.getMessage());
@@ -49,12 +179,30 @@ public class DadosPacienteService {
     }
 
     /**
-     * Busca os dados mais recentes de todos os pacientes
+     * Busca uma página de dados de um paciente em um período (em ordem cronológica), depois do cursor
+     */
+    public List<DadosPaciente> buscarPorPeriodo(String pacienteId, LocalDateTime inicio, LocalDateTime fim,
+                                                CursorDados apos, int limite) {
+        try {
+            // Sem cursor, começa no início do período (qualquer id)
+            CursorDados posicao = apos == null ? new CursorDados(inicio, Long.MIN_VALUE) : apos;
+            List<DadosPaciente> dados = registroPacientesService.enriquecer(dadosPacienteRepository.findPaginaPorPeriodo(
+                pacienteId, inicio, fim, posicao.dataCriacao(), posicao.id(), PageRequest.ofSize(limite)));
+            logger.debug("🔍 Buscados {} registros para paciente {} entre {} e {}", dados.size(), pacienteId, inicio, fim);
+            return dados;
+        } catch (Exception e) {
+            logger.error("❌ Erro ao buscar dados do paciente {} por período: {}", pacienteId, e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Busca os dados mais recentes de todos os pacientes, a partir do cache em memória
      */
     public List<DadosPaciente> buscarDadosRecentes() {
         try {
-            List<DadosPaciente> dadosRecentes = dadosPacienteRepository.findDadosRecentes();
-            logger.info("📊 Buscados dados recentes de {} pacientes", dadosRecentes.size());
+            List<DadosPaciente> dadosRecentes = registroPacientesService.enriquecer(dadosRecentesCache.listar());
+            logger.debug("📊 Buscados dados recentes de {} pacientes", dadosRecentes.size());
             return dadosRecentes;
         } catch (Exception e) {
             logger.error("❌ Erro ao buscar dados recentes: {}", e.getMessage());
@@ -62,12 +210,31 @@ public class DadosPacienteService {
         }
     }
 
+    /**
+     * Versão atual dos dados recentes, usada como ETag
+     */
+    public long versaoDadosRecentes() {
+        return dadosRecentesCache.versao();
+    }
+
+    /**
+     * Dados recentes dos pacientes alterados depois da versão {@code desde}
+     */
+    public AlteracoesRecentes buscarAlteracoesRecentes(long desde) {
+        AlteracoesRecentes alteracoes = dadosRecentesCache.alteracoesDesde(desde);
+        if (alteracoes.dados().isEmpty()) {
+            return alteracoes;
+        }
+        return new AlteracoesRecentes(alteracoes.versao(), alteracoes.completo(),
+            registroPacientesService.enriquecer(alteracoes.dados()), alteracoes.removidos());
+    }
+
     /**
      * Busca dados de um paciente por ID específico
      */
     public Optional<DadosPaciente> buscarPorId(Long id) {
         try {
-            Optional<DadosPaciente> dados = dadosPacienteRepository.findById(id);
+            Optional<DadosPaciente> dados = dadosPacienteRepository.findById(id).map(registroPacientesService::enriquecer);
             if (dados.isPresent()) {
                 logger.info("🔍 Dados encontrados para ID: {}", id);
             } else {
@@ -81,31 +248,47 @@ public class DadosPacienteService {
     }
 
     /**
-     * Busca todos os dados de todos os pacientes
+     * Busca uma página de dados de todos os pacientes, com id maior que o cursor
      */
-    public List<DadosPaciente> buscarTodos() {
+    public List<DadosPaciente> buscarPagina(Long aposId, int limite) {
         try {
-            List<DadosPaciente> todosDados = dadosPacienteRepository.findAll();
-            logger.info("📋 Total de registros: {}", todosDados.size());
-            return todosDados;
+            List<DadosPaciente> dados = registroPacientesService.enriquecer(dadosPacienteRepository.findPaginaAposId(
+                aposId == null ? 0L : aposId, PageRequest.ofSize(limite)));
+            logger.debug("📋 Página com {} registros após id {}", dados.size(), aposId);
+            return dados;
         } catch (Exception e) {
-            logger.error("❌ Erro ao buscar todos os dados: {}", e.getMessage());
+            logger.error("❌ Erro ao buscar página de dados: {}", e.getMessage());
             throw e;
         }
     }
 
     /**
-     * Deleta dados de um paciente específico
+     * Exporta os dados em NDJSON (um objeto JSON por linha) com memória constante:
+     * o resultado é lido em streaming e cada entidade é descartada após ser escrita
      */
-    public void deletarPorPaciente(String pacienteId) {
-        try {
-            List<DadosPaciente> dadosParaDeletar = dadosPacienteRepository.findByPacienteId(pacienteId);
-            dadosPacienteRepository.deleteAll(dadosParaDeletar);
-            logger.info("🗑️ Deletados {} registros do paciente: {}", dadosParaDeletar.size(), pacienteId);
-        } catch (Exception e) {
-            logger.error("❌ Erro ao deletar dados do paciente {}: {}", pacienteId, e.getMessage());
-            throw e;
+    @Transactional(readOnly = true)
+    public long exportarNdjson(String pacienteId, OutputStream saida) {
+        ObjectWriter escritor = objectMapper.writerFor(DadosPaciente.class)
+            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        long total = 0;
+        try (Stream<DadosPaciente> dados = pacienteId == null
+                ? dadosPacienteRepository.streamTodos()
+                : dadosPacienteRepository.streamPorPaciente(pacienteId)) {
+            Iterator<DadosPaciente> iterador = dados.iterator();
+            while (iterador.hasNext()) {
+                DadosPaciente dadosPaciente = iterador.next();
+                escritor.writeValue(saida, registroPacientesService.enriquecer(dadosPaciente));
+                saida.write('\n');
+                entityManager.detach(dadosPaciente);
+                total++;
+            }
+            saida.flush();
+        } catch (IOException e) {
+            logger.error("❌ Erro ao exportar dados: {}", e.getMessage());
+            throw new UncheckedIOException(e);
         }
+        logger.info("📤 Exportados {} registros", total);
+        return total;
     }
 
     /**
@@ -127,7 +310,7 @@ public class DadosPacienteService {
      */
     public List<DadosPaciente> buscarPorStatus(String status) {
         try {
-            List<DadosPaciente> dados = dadosPacienteRepository.findByStatus(status);
+            List<DadosPaciente> dados = registroPacientesService.enriquecer(dadosPacienteRepository.findByStatus(status));
             logger.info("🔍 Buscados {} registros com status: {}", dados.size(), status);
             return dados;
         } catch (Exception e) {
@@ -0,0 +1,247 @@
+package br.com.healthgo.service;
+
+import br.com.healthgo.model.AlteracoesRecentes;
+import br.com.healthgo.model.DadosPaciente;
+import br.com.healthgo.repository.DadosPacienteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Último dado recebido de cada paciente, mantido em memória.
+ *
+ * Atualizado a cada ingestão e aquecido a partir do banco na inicialização,
+ * permite responder os dados recentes em O(pacientes) sem consultar o histórico.
+ * Com o Redis habilitado, o estado é replicado em um hash compartilhado entre
+ * as instâncias e as leituras passam a vir dele.
+ *
+ * Cada alteração recebe uma versão crescente (relógio híbrido: o maior entre a versão anterior
+ * + 1 e o horário atual em microssegundos), gravada com o dado do paciente. Um dashboard
+ * que informa a última versão recebida consulta só os pacientes alterados depois dela, e a
+ * versão atual serve de ETag. Por partir do relógio, a versão continua crescendo após um
+ * reinício, e uma versão anterior ao início do cache é reconhecida como de outra série.
+ *
+ * As remoções de pacientes ficam registradas por {@code retencao-removidos-ms}; um dashboard
+ * com versão anterior à última remoção esquecida recebe a lista completa.
+ */
+@Component
+public class DadosRecentesCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(DadosRecentesCache.class);
+
+    private final ConcurrentMap<String, Entrada> ultimosDados = new ConcurrentHashMap<>();
+
+    // Versão da remoção de cada paciente excluído, para os dashboards que consultam alterações
+    private final ConcurrentMap<String, Long> removidos = new ConcurrentHashMap<>();
+
+    @Value("${healthgo.dados-recentes.retencao-removidos-ms:3600000}")
+    private long retencaoRemovidosMs;
+
+    // Serializa as escritas: a versão só é publicada depois que os dados dela estão no mapa
+    private final Object escrita = new Object();
+
+    private final long versaoInicial = proximaVersao(0);
+    private volatile long versao = versaoInicial;
+    // Menor versão respondida só com as alterações: remoções até ela podem ter sido esquecidas
+    private volatile long versaoMinima = versaoInicial;
+
+    @Autowired
+    private DadosPacienteRepository dadosPacienteRepository;
+
+    @Autowired(required = false)
+    private SincronizacaoRedisService sincronizacaoRedisService;
+
+    /**
+     * Carrega o último dado de cada paciente a partir do banco
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void aquecer() {
+        try {
+            List<DadosPaciente> dadosRecentes = dadosPacienteRepository.findDadosRecentes();
+            registrar(dadosRecentes);
+            logger.info("🔥 Cache de dados recentes aquecido com {} pacientes", dadosRecentes.size());
+        } catch (Exception e) {
+            logger.error("❌ Erro ao aquecer cache de dados recentes: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Registra um novo dado, mantendo sempre o mais recente por paciente
+     */
+    public void atualizar(DadosPaciente dadosPaciente) {
+        atualizarTodos(List.of(dadosPaciente));
+    }
+
+    /**
+     * Registra um lote de dados; no Redis, apenas o mais recente de cada paciente é gravado
+     */
+    public void atualizarTodos(Collection<DadosPaciente> dados) {
+        Map<String, DadosPaciente> alterados = registrar(dados);
+
+        if (sincronizacaoRedisService != null && !alterados.isEmpty()) {
+            try {
+                sincronizacaoRedisService.salvarUltimos(alterados.values());
+            } catch (Exception e) {
+                logger.error("❌ Erro ao gravar dados recentes no Redis: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Remove o paciente do cache
+     */
+    public void remover(String pacienteId) {
+        synchronized (escrita) {
+            if (ultimosDados.remove(pacienteId) != null) {
+                long nova = proximaVersao(versao);
+                expirarRemovidos(nova);
+                removidos.put(pacienteId, nova);
+                versao = nova;
+            }
+        }
+        if (sincronizacaoRedisService != null) {
+            sincronizacaoRedisService.removerUltimo(pacienteId);
+        }
+    }
+
+    /**
+     * Último dado de cada paciente
+     */
+    public List<DadosPaciente> listar() {
+        if (sincronizacaoRedisService != null) {
+            try {
+                return sincronizacaoRedisService.listarUltimos();
+            } catch (Exception e) {
+                logger.error("❌ Erro ao ler dados recentes do Redis, usando cache local: {}", e.getMessage());
+            }
+        }
+        return listarLocal();
+    }
+
+    /**
+     * Versão atual dos dados recentes; com o Redis, a versão compartilhada entre as instâncias
+     */
+    public long versao() {
+        if (sincronizacaoRedisService != null) {
+            try {
+                return sincronizacaoRedisService.versaoUltimos();
+            } catch (Exception e) {
+                logger.error("❌ Erro ao ler versão dos dados recentes no Redis, usando cache local: {}", e.getMessage());
+            }
+        }
+        return versao;
+    }
+
+    /**
+     * Pacientes alterados e removidos depois da versão {@code desde}; todos, se a versão
+     * não for desta série
+     */
+    public AlteracoesRecentes alteracoesDesde(long desde) {
+        if (sincronizacaoRedisService != null) {
+            try {
+                return sincronizacaoRedisService.alteracoesDesde(desde);
+            } catch (Exception e) {
+                logger.error("❌ Erro ao ler alterações do Redis, usando cache local: {}", e.getMessage());
+            }
+        }
+
+        // Lida antes de percorrer o mapa: o que for gravado durante a leitura volta na próxima consulta
+        long atual = versao;
+        if (desde < versaoMinima || desde > atual) {
+            return new AlteracoesRecentes(atual, true, listarLocal(), List.of());
+        }
+        List<DadosPaciente> alterados = new ArrayList<>();
+        for (Entrada entrada : ultimosDados.values()) {
+            if (entrada.versao() > desde) {
+                alterados.add(entrada.dados());
+            }
+        }
+        List<String> pacientesRemovidos = new ArrayList<>();
+        removidos.forEach((pacienteId, versaoRemocao) -> {
+            if (versaoRemocao > desde) {
+                pacientesRemovidos.add(pacienteId);
+            }
+        });
+        // Uma remoção que interessava a este cliente pode ter expirado durante a leitura
+        if (desde < versaoMinima) {
+            return new AlteracoesRecentes(atual, true, listarLocal(), List.of());
+        }
+        return new AlteracoesRecentes(atual, false, alterados, pacientesRemovidos);
+    }
+
+    // Grava os dados mais recentes que os do cache com uma nova versão e retorna os alterados
+    private Map<String, DadosPaciente> registrar(Collection<DadosPaciente> dados) {
+        Map<String, DadosPaciente> alterados = new HashMap<>();
+        synchronized (escrita) {
+            long nova = proximaVersao(versao);
+            expirarRemovidos(nova);
+            for (DadosPaciente dadosPaciente : dados) {
+                Entrada atual = ultimosDados.get(dadosPaciente.getPacienteId());
+                if (atual == null || maisRecente(atual.dados(), dadosPaciente) == dadosPaciente) {
+                    ultimosDados.put(dadosPaciente.getPacienteId(), new Entrada(dadosPaciente, nova));
+                    removidos.remove(dadosPaciente.getPacienteId());
+                    alterados.put(dadosPaciente.getPacienteId(), dadosPaciente);
+                }
+            }
+            if (!alterados.isEmpty()) {
+                versao = nova;
+            }
+        }
+        return alterados;
+    }
+
+    // Com o lock de escrita: esquece as remoções mais antigas que a retenção, subindo antes a versão
+    // mínima até a mais recente delas (versões são microssegundos do relógio)
+    private void expirarRemovidos(long nova) {
+        if (removidos.isEmpty()) {
+            return;
+        }
+        long limite = nova - retencaoRemovidosMs * 1000;
+        long maisRecenteExpirada = Long.MIN_VALUE;
+        for (long versaoRemocao : removidos.values()) {
+            if (versaoRemocao <= limite) {
+                maisRecenteExpirada = Math.max(maisRecenteExpirada, versaoRemocao);
+            }
+        }
+        if (maisRecenteExpirada != Long.MIN_VALUE) {
+            versaoMinima = Math.max(versaoMinima, maisRecenteExpirada);
+            removidos.values().removeIf(versaoRemocao -> versaoRemocao <= limite);
+        }
+    }
+
+    private List<DadosPaciente> listarLocal() {
+        List<DadosPaciente> dados = new ArrayList<>(ultimosDados.size());
+        ultimosDados.values().forEach(entrada -> dados.add(entrada.dados()));
+        return dados;
+    }
+
+    /**
+     * Próxima versão depois de {@code anterior}: avança com o relógio (microssegundos desde 1970,
+     * abaixo de 2^53 e portanto exata também em JavaScript) e nunca repete nem volta
+     */
+    private static long proximaVersao(long anterior) {
+        return Math.max(anterior + 1, System.currentTimeMillis() * 1000);
+    }
+
+    private static DadosPaciente maisRecente(DadosPaciente atual, DadosPaciente novo) {
+        if (atual.getDataCriacao() == null || novo.getDataCriacao() == null) {
+            return novo;
+        }
+        return novo.getDataCriacao().isBefore(atual.getDataCriacao()) ? atual : novo;
+    }
+
+    private record Entrada(DadosPaciente dados, long versao) {
+    }
+}
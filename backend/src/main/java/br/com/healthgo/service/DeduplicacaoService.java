@@ -0,0 +1,210 @@
+package br.com.healthgo.service;
+
+import br.com.healthgo.model.AmostraSinais;
+import br.com.healthgo.model.DadosPaciente;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Descarta amostras repetidas (mesmo paciente e mesmo horário do dispositivo) antes
+ * dos alertas, da gravação e do broadcast.
+ *
+ * Cada paciente tem uma marca d'água (o maior horário já recebido) e um anel com os
+ * últimos {@code chaves-por-paciente} horários. Uma amostra acima da marca é nova sem
+ * consulta nenhuma; só as que chegam com horário igual ou anterior (reenvio após
+ * reconexão, ou fora de ordem) são procuradas no anel. Uma repetição mais antiga que o
+ * anel, ou após o reinício do backend, é barrada no banco pelo índice único de
+ * (paciente_id, timestamp) de cada partição diária.
+ *
+ * Acima de {@code maximo-pacientes}, os pacientes sem amostras há mais tempo são removidos
+ * em bloco ({@value #FRACAO_REMOCAO_PERCENTUAL}% do limite de uma vez), para que a varredura
+ * do mapa não se repita a cada paciente novo.
+ */
+@Service
+public class DeduplicacaoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeduplicacaoService.class);
+
+    // Meio dia em centésimos: uma queda maior que isso no horário é a virada para o dia seguinte
+    static final int MEIO_DIA_CENTESIMOS = 12 * 60 * 60 * 100;
+
+    private static final int FRACAO_REMOCAO_PERCENTUAL = 10;
+
+    @Value("${healthgo.deduplicacao.chaves-por-paciente:256}")
+    private int chavesPorPaciente;
+
+    @Value("${healthgo.deduplicacao.maximo-pacientes:10000}")
+    private int maximoPacientes;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, ChavesRecentes> pacientes = new ConcurrentHashMap<>();
+    // Uma remoção em bloco por vez; as demais threads seguem sem esperar
+    private final AtomicBoolean removendo = new AtomicBoolean();
+
+    private Counter duplicadas;
+    private Counter atrasadas;
+
+    @PostConstruct
+    public void iniciar() {
+        duplicadas = Counter.builder("healthgo.deduplicacao.duplicadas")
+            .description("Amostras repetidas descartadas antes da gravação e do broadcast")
+            .register(meterRegistry);
+        atrasadas = Counter.builder("healthgo.deduplicacao.atrasadas")
+            .description("Amostras aceitas com horário anterior ao último recebido do paciente")
+            .register(meterRegistry);
+        Gauge.builder("healthgo.deduplicacao.pacientes", pacientes, Map::size)
+            .register(meterRegistry);
+        logger.info("🔁 Deduplicação em memória: {} horários por paciente, até {} pacientes",
+            chavesPorPaciente, maximoPacientes);
+    }
+
+    /**
+     * Registra o horário da amostra e retorna false se ela já foi recebida.
+     * Amostras sem paciente ou sem horário reconhecido são sempre aceitas
+     */
+    public boolean aceitar(AmostraSinais amostra) {
+        if (amostra.pacienteId() == null || amostra.horarioCentesimos() == AmostraSinais.HORARIO_AUSENTE) {
+            return true;
+        }
+        // Criação e registro no mesmo compute: dois quadros do mesmo paciente novo não passam juntos
+        Resultado[] resultado = new Resultado[1];
+        pacientes.compute(amostra.pacienteId(), (id, chaves) -> {
+            ChavesRecentes atuais = chaves != null ? chaves : new ChavesRecentes(chavesPorPaciente);
+            resultado[0] = atuais.registrar(amostra.horarioCentesimos());
+            return atuais;
+        });
+        if (pacientes.size() > maximoPacientes) {
+            removerMaisAntigos();
+        }
+        switch (resultado[0]) {
+            case DUPLICADA -> {
+                duplicadas.increment();
+                logger.debug("🔁 Amostra repetida do paciente {} descartada: {}", amostra.pacienteId(), amostra.timestamp());
+                return false;
+            }
+            case ATRASADA -> atrasadas.increment();
+            default -> { }
+        }
+        return true;
+    }
+
+    public boolean aceitar(DadosPaciente dadosPaciente) {
+        return aceitar(AmostraSinais.deDadosPaciente(dadosPaciente));
+    }
+
+    /**
+     * Descarta os horários do paciente (eliminação LGPD)
+     */
+    public void removerPaciente(String pacienteId) {
+        pacientes.remove(pacienteId);
+    }
+
+    int getPacientes() {
+        return pacientes.size();
+    }
+
+    // Remove de uma vez a fração do limite sem amostras há mais tempo: a varredura e a ordenação
+    // se pagam pelos próximos pacientes novos, que entram sem remoção
+    private void removerMaisAntigos() {
+        if (!removendo.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int remover = pacientes.size() - maximoPacientes + Math.max(1, maximoPacientes * FRACAO_REMOCAO_PERCENTUAL / 100);
+            long[] tempos = pacientes.values().stream().mapToLong(chaves -> chaves.ultimoTempo).sorted().toArray();
+            if (tempos.length == 0) {
+                return;
+            }
+            long limite = tempos[Math.min(remover, tempos.length) - 1];
+            int antes = pacientes.size();
+            // Um paciente que recebeu amostra durante a varredura já tem tempo maior e fica
+            pacientes.values().removeIf(chaves -> chaves.ultimoTempo <= limite);
+            logger.debug("🔁 Deduplicação acima de {} pacientes: {} inativos há mais tempo removidos",
+                maximoPacientes, antes - pacientes.size());
+        } finally {
+            removendo.set(false);
+        }
+    }
+
+    private enum Resultado {
+        NOVA,
+        ATRASADA,
+        DUPLICADA
+    }
+
+    /**
+     * Marca d'água e anel dos últimos horários de um paciente.
+     *
+     * Registrado sempre dentro do compute do mapa, que serializa as chamadas do mesmo paciente.
+     */
+    private static final class ChavesRecentes {
+
+        private final int[] horarios;
+        private int proxima;
+        private int quantidade;
+        private int marcaDagua = AmostraSinais.HORARIO_AUSENTE;
+        private volatile long ultimoTempo;
+
+        ChavesRecentes(int capacidade) {
+            horarios = new int[capacidade];
+        }
+
+        Resultado registrar(int horario) {
+            // Instante do processamento, não da amostra: um reenvio antigo não torna o paciente inativo
+            ultimoTempo = System.nanoTime();
+            int diferenca = horario - marcaDagua;
+            if (marcaDagua == AmostraSinais.HORARIO_AUSENTE || (diferenca > 0 && diferenca <= MEIO_DIA_CENTESIMOS)) {
+                marcaDagua = horario;
+                adicionar(horario);
+                return Resultado.NOVA;
+            }
+            if (diferenca < -MEIO_DIA_CENTESIMOS) {
+                // Virou o dia: os horários de ontem não se repetem nas chaves de hoje
+                quantidade = 0;
+                proxima = 0;
+                marcaDagua = horario;
+                adicionar(horario);
+                return Resultado.NOVA;
+            }
+            // Horário igual ou anterior à marca (ou atrasado do dia anterior): só o anel decide
+            if (contem(horario)) {
+                return Resultado.DUPLICADA;
+            }
+            adicionar(horario);
+            return Resultado.ATRASADA;
+        }
+
+        private void adicionar(int horario) {
+            horarios[proxima] = horario;
+            proxima = (proxima + 1) % horarios.length;
+            if (quantidade < horarios.length) {
+                quantidade++;
+            }
+        }
+
+        // As posições ocupadas são sempre as primeiras 'quantidade' do vetor, então a busca
+        // percorre o vetor em ordem, sem calcular a posição no anel
+        private boolean contem(int horario) {
+            for (int i = 0; i < quantidade; i++) {
+                if (horarios[i] == horario) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,617 @@
+package br.com.healthgo.service;
+
+import br.com.healthgo.model.AmostraSinais;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Diário de ingestão em disco local (write-ahead log), em segmentos mapeados em memória.
+ *
+ * Cada amostra aceita é anexada ao segmento atual antes de qualquer acesso ao banco;
+ * a thread de gravação da {@link IngestaoDadosService} lê o diário a partir do
+ * checkpoint, grava em lote e só então avança o checkpoint. Se o banco estiver lento
+ * ou fora, as amostras continuam no diário e são regravadas quando ele voltar, inclusive
+ * depois de um reinício. Segmentos inteiramente confirmados são apagados.
+ *
+ * Posições são lógicas: {@code índice do segmento × tamanho do segmento + deslocamento}.
+ * Cada registro é {@code [tamanho][CRC32C][amostra]}; um registro incompleto ou com CRC
+ * inválido marca o fim dos dados válidos na recuperação. A gravação é "pelo menos uma vez":
+ * uma queda entre o commit do lote e o checkpoint regrava o último lote. Registros que o
+ * banco recusa de forma definitiva vão para o arquivo de descartados, no mesmo formato,
+ * para que o checkpoint possa passar por eles.
+ *
+ * O diário guarda só o paciente_id: nome e CPF não vão para o disco local. A exclusão de um
+ * paciente (LGPD) fica registrada aqui até o checkpoint passar das amostras dele já anexadas,
+ * para que não sejam gravadas depois da exclusão, nem após um reinício.
+ */
+@Component
+@ConditionalOnProperty(name = "healthgo.diario.habilitado", havingValue = "true", matchIfMissing = true)
+public class DiarioIngestao {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiarioIngestao.class);
+
+    private static final String EXTENSAO_SEGMENTO = ".seg";
+    private static final String ARQUIVO_CHECKPOINT = "checkpoint";
+    private static final String ARQUIVO_DESCARTADOS = "descartados";
+    private static final String ARQUIVO_EXCLUSOES = "exclusoes";
+    private static final int CABECALHO = 8;
+    private static final int FIM_SEGMENTO = -1;
+    private static final byte VERSAO_REGISTRO = 2;
+    // Versão anterior, com nome e CPF: lida apenas para regravar diários antigos
+    private static final byte VERSAO_REGISTRO_COM_IDENTIFICACAO = 1;
+    private static final long VERIFICACAO_CHECKPOINT = 0x4845414C5448474FL;
+    private static final long ESPERA_LOTE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Value("${healthgo.diario.diretorio:./diario}")
+    private String diretorio;
+
+    @Value("${healthgo.diario.tamanho-segmento-mb:64}")
+    private int tamanhoSegmentoMb;
+
+    @Value("${healthgo.diario.tamanho-maximo-mb:2048}")
+    private long tamanhoMaximoMb;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ConcurrentSkipListMap<Long, Segmento> segmentos = new ConcurrentSkipListMap<>();
+    private final AtomicLong registrosPendentes = new AtomicLong();
+    private final ConcurrentMap<String, Exclusao> exclusoes = new ConcurrentHashMap<>();
+    private Path pasta;
+    private long tamanhoSegmento;
+    private FileChannel canalCheckpoint;
+    private FileChannel canalDescartados;
+
+    // Escrita: protegida pelo monitor do diário; a posição publicada libera a leitura
+    private Segmento segmentoEscrita;
+    private long posicaoEscrita;
+    private volatile long posicaoPublicada;
+    private boolean cheio;
+
+    // Leitura: usada apenas pela thread de gravação
+    private Segmento segmentoLeitura;
+    private long posicaoLeitura;
+    private long registrosLidos;
+    private volatile long checkpoint;
+    private volatile Thread leitorAguardando;
+
+    private Counter registrosAnexados;
+    private Counter registrosRejeitados;
+    private Counter segmentosCorrompidos;
+    private Counter registrosDescartados;
+
+    @PostConstruct
+    public void iniciar() throws IOException {
+        pasta = Path.of(diretorio);
+        Files.createDirectories(pasta);
+        tamanhoSegmento = tamanhoSegmentoMb * 1024L * 1024L;
+        canalCheckpoint = FileChannel.open(pasta.resolve(ARQUIVO_CHECKPOINT),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        canalDescartados = FileChannel.open(pasta.resolve(ARQUIVO_DESCARTADOS),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+
+        recuperar();
+        lerExclusoes();
+        registrarMetricas();
+
+        logger.info("📓 Diário de ingestão em {} - segmentos: {}, pendentes: {}, segmento: {} MB, máximo: {} MB",
+            pasta.toAbsolutePath(), segmentos.size(), registrosPendentes.get(), tamanhoSegmentoMb, tamanhoMaximoMb);
+    }
+
+    @PreDestroy
+    public void encerrar() throws IOException {
+        synchronized (this) {
+            segmentoEscrita.buffer.force();
+        }
+        for (Segmento segmento : segmentos.values()) {
+            segmento.canal.close();
+        }
+        canalCheckpoint.close();
+        canalDescartados.close();
+        logger.info("🛑 Diário de ingestão fechado - pendentes: {}", registrosPendentes.get());
+    }
+
+    /**
+     * Anexa a amostra ao diário. Retorna false quando o diário atingiu o tamanho máximo.
+     */
+    public boolean anexar(AmostraSinais amostra) {
+        byte[] dados = codificar(amostra);
+        CRC32C crc = new CRC32C();
+        crc.update(dados);
+        int tamanhoRegistro = CABECALHO + dados.length;
+
+        synchronized (this) {
+            long deslocamento = posicaoEscrita - segmentoEscrita.inicio;
+            if (deslocamento + tamanhoRegistro > tamanhoSegmento && !rotacionar()) {
+                registrosRejeitados.increment();
+                return false;
+            }
+            int posicao = (int) (posicaoEscrita - segmentoEscrita.inicio);
+            MappedByteBuffer buffer = segmentoEscrita.buffer;
+            buffer.putInt(posicao + 4, (int) crc.getValue());
+            buffer.put(posicao + CABECALHO, dados);
+            // O tamanho por último: até aqui o registro é lido como incompleto na recuperação
+            buffer.putInt(posicao, dados.length);
+            posicaoEscrita += tamanhoRegistro;
+            registrosPendentes.incrementAndGet();
+            posicaoPublicada = posicaoEscrita;
+        }
+        registrosAnexados.increment();
+
+        Thread leitor = leitorAguardando;
+        if (leitor != null) {
+            LockSupport.unpark(leitor);
+        }
+        return true;
+    }
+
+    /**
+     * Lê, a partir da última posição lida, até {@code maximo} amostras, aguardando
+     * até {@code esperaMs} para completar o lote. Retorna false se nada foi lido.
+     */
+    public boolean lerLote(List<AmostraSinais> destino, int maximo, long esperaMs) throws InterruptedException {
+        long prazo = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(esperaMs);
+        while (true) {
+            lerDisponiveis(destino, maximo);
+            long restante = prazo - System.nanoTime();
+            if (destino.size() >= maximo || restante <= 0) {
+                return !destino.isEmpty();
+            }
+            if (destino.isEmpty()) {
+                // Anuncia a espera antes de conferir de novo, para não perder o unpark do produtor
+                leitorAguardando = Thread.currentThread();
+                if (posicaoLeitura == posicaoPublicada) {
+                    LockSupport.parkNanos(this, restante);
+                }
+                leitorAguardando = null;
+            } else {
+                LockSupport.parkNanos(this, Math.min(restante, ESPERA_LOTE_NANOS));
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    /**
+     * Confirma a gravação de tudo que foi lido: avança o checkpoint e apaga os segmentos já confirmados
+     */
+    public void confirmar() throws IOException {
+        gravarCheckpoint(posicaoLeitura);
+        checkpoint = posicaoLeitura;
+        registrosPendentes.addAndGet(-registrosLidos);
+        registrosLidos = 0;
+        if (!exclusoes.isEmpty()) {
+            synchronized (exclusoes) {
+                if (exclusoes.values().removeIf(exclusao -> exclusao.posicao() <= checkpoint)) {
+                    gravarExclusoes();
+                }
+            }
+        }
+
+        Map<Long, Segmento> confirmados = segmentos.headMap(segmentoLeitura.indice);
+        for (Segmento segmento : confirmados.values()) {
+            segmentos.remove(segmento.indice);
+            segmento.canal.close();
+            Files.deleteIfExists(segmento.arquivo);
+            logger.debug("🗑️ Segmento {} do diário confirmado e removido", segmento.indice);
+        }
+    }
+
+    /**
+     * Guarda no arquivo de descartados uma amostra lida que o banco recusa de forma definitiva;
+     * o próximo {@link #confirmar()} passa por ela como se tivesse sido gravada
+     */
+    public void descartar(AmostraSinais amostra) throws IOException {
+        byte[] dados = codificar(amostra);
+        CRC32C crc = new CRC32C();
+        crc.update(dados);
+        ByteBuffer registro = ByteBuffer.allocate(CABECALHO + dados.length)
+            .putInt(dados.length)
+            .putInt((int) crc.getValue())
+            .put(dados)
+            .flip();
+        synchronized (canalDescartados) {
+            while (registro.hasRemaining()) {
+                canalDescartados.write(registro);
+            }
+            canalDescartados.force(false);
+        }
+        registrosDescartados.increment();
+    }
+
+    /**
+     * Registra a exclusão do paciente: as amostras dele anexadas até agora, com data de criação
+     * até {@code instanteMs}, não devem mais ser gravadas. Vale até o checkpoint passar delas
+     */
+    public void registrarExclusao(String pacienteId, long instanteMs) throws IOException {
+        synchronized (exclusoes) {
+            exclusoes.put(pacienteId, new Exclusao(instanteMs, posicaoPublicada));
+            gravarExclusoes();
+        }
+    }
+
+    /**
+     * Instante da exclusão do paciente ainda pendente no diário, ou null se não houver
+     */
+    public Long instanteExclusao(String pacienteId) {
+        Exclusao exclusao = exclusoes.get(pacienteId);
+        return exclusao == null ? null : exclusao.instanteMs();
+    }
+
+    /**
+     * Descarta a leitura não confirmada: a próxima leitura recomeça no checkpoint
+     */
+    public void voltarAoCheckpoint() {
+        posicaoLeitura = checkpoint;
+        segmentoLeitura = segmentos.floorEntry(checkpoint / tamanhoSegmento).getValue();
+        registrosLidos = 0;
+    }
+
+    /**
+     * Amostras anexadas e ainda não confirmadas
+     */
+    public long getRegistrosPendentes() {
+        return registrosPendentes.get();
+    }
+
+    public boolean temPendentes() {
+        return posicaoLeitura < posicaoPublicada;
+    }
+
+    /**
+     * Força a escrita do segmento atual em disco; sem isso, uma queda do sistema
+     * operacional (não só do processo) pode perder os últimos segundos
+     */
+    @Scheduled(fixedDelayString = "${healthgo.diario.intervalo-sincronizacao-ms:1000}")
+    public void sincronizar() {
+        Segmento segmento;
+        synchronized (this) {
+            segmento = segmentoEscrita;
+        }
+        try {
+            segmento.buffer.force();
+        } catch (UncheckedIOException e) {
+            logger.error("❌ Erro ao sincronizar o diário de ingestão: {}", e.getMessage());
+        }
+    }
+
+    private void lerDisponiveis(List<AmostraSinais> destino, int maximo) {
+        while (destino.size() < maximo && posicaoLeitura < posicaoPublicada) {
+            int posicao = (int) (posicaoLeitura - segmentoLeitura.inicio);
+            int tamanho = posicao + 4 > tamanhoSegmento ? FIM_SEGMENTO : segmentoLeitura.buffer.getInt(posicao);
+            if (tamanho == FIM_SEGMENTO) {
+                avancarSegmento();
+                continue;
+            }
+            byte[] dados = lerRegistro(segmentoLeitura, posicao, tamanho);
+            if (dados == null) {
+                segmentosCorrompidos.increment();
+                logger.error("❌ Registro inválido no segmento {} do diário (posição {}), restante do segmento ignorado",
+                    segmentoLeitura.indice, posicao);
+                avancarSegmento();
+                continue;
+            }
+            destino.add(decodificar(dados));
+            posicaoLeitura += CABECALHO + tamanho;
+            registrosLidos++;
+        }
+    }
+
+    private void avancarSegmento() {
+        Map.Entry<Long, Segmento> proximo = segmentos.higherEntry(segmentoLeitura.indice);
+        if (proximo == null) {
+            // Só acontece se o segmento de escrita estiver corrompido: não há mais o que ler
+            posicaoLeitura = posicaoPublicada;
+            return;
+        }
+        segmentoLeitura = proximo.getValue();
+        posicaoLeitura = segmentoLeitura.inicio;
+    }
+
+    // Registro completo e com CRC válido, ou null
+    private byte[] lerRegistro(Segmento segmento, int posicao, int tamanho) {
+        if (tamanho <= 0 || (long) posicao + CABECALHO + tamanho > tamanhoSegmento) {
+            return null;
+        }
+        byte[] dados = new byte[tamanho];
+        segmento.buffer.get(posicao + CABECALHO, dados);
+        CRC32C crc = new CRC32C();
+        crc.update(dados);
+        return (int) crc.getValue() == segmento.buffer.getInt(posicao + 4) ? dados : null;
+    }
+
+    // Chamado com o monitor do diário: fecha o segmento atual e abre o próximo, se houver espaço
+    private boolean rotacionar() {
+        long ocupados = segmentoEscrita.indice - segmentos.firstKey() + 2;
+        if (ocupados * tamanhoSegmento > tamanhoMaximoMb * 1024L * 1024L) {
+            if (!cheio) {
+                logger.warn("⚠️ Diário de ingestão cheio ({} MB), amostras rejeitadas até o banco confirmar as pendentes",
+                    tamanhoMaximoMb);
+                cheio = true;
+            }
+            return false;
+        }
+        cheio = false;
+        try {
+            int posicao = (int) (posicaoEscrita - segmentoEscrita.inicio);
+            if (posicao + 4 <= tamanhoSegmento) {
+                segmentoEscrita.buffer.putInt(posicao, FIM_SEGMENTO);
+            }
+            segmentoEscrita.buffer.force();
+            Segmento novo = abrir(segmentoEscrita.indice + 1);
+            segmentos.put(novo.indice, novo);
+            segmentoEscrita = novo;
+            posicaoEscrita = novo.inicio;
+            posicaoPublicada = posicaoEscrita;
+            return true;
+        } catch (IOException e) {
+            logger.error("❌ Erro ao criar segmento do diário de ingestão: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    // Abre os segmentos existentes, descarta os já confirmados e encontra o fim dos dados válidos
+    private void recuperar() throws IOException {
+        try (Stream<Path> arquivos = Files.list(pasta)) {
+            for (Path arquivo : arquivos.filter(a -> a.toString().endsWith(EXTENSAO_SEGMENTO)).toList()) {
+                String nome = arquivo.getFileName().toString();
+                long indice = Long.parseLong(nome.substring(0, nome.length() - EXTENSAO_SEGMENTO.length()));
+                segmentos.put(indice, abrir(indice));
+            }
+        }
+        if (segmentos.isEmpty()) {
+            segmentos.put(0L, abrir(0));
+        }
+
+        long posicao = lerCheckpoint();
+        if (posicao < 0 || !segmentos.containsKey(posicao / tamanhoSegmento)) {
+            posicao = segmentos.firstKey() * tamanhoSegmento;
+        }
+        checkpoint = posicao;
+        posicaoLeitura = posicao;
+        segmentoLeitura = segmentos.get(posicao / tamanhoSegmento);
+        for (Segmento segmento : segmentos.headMap(segmentoLeitura.indice).values()) {
+            segmentos.remove(segmento.indice);
+            segmento.canal.close();
+            Files.deleteIfExists(segmento.arquivo);
+        }
+
+        // Percorre os registros pendentes; o fim do último segmento é onde a escrita continua
+        Segmento segmento = segmentoLeitura;
+        int deslocamento = (int) (posicao - segmento.inicio);
+        while (true) {
+            int tamanho = deslocamento + 4 > tamanhoSegmento ? FIM_SEGMENTO : segmento.buffer.getInt(deslocamento);
+            byte[] dados = tamanho == FIM_SEGMENTO ? null : lerRegistro(segmento, deslocamento, tamanho);
+            if (dados != null) {
+                registrosPendentes.incrementAndGet();
+                deslocamento += CABECALHO + tamanho;
+                continue;
+            }
+            Map.Entry<Long, Segmento> proximo = segmentos.higherEntry(segmento.indice);
+            if (proximo == null) {
+                break;
+            }
+            segmento = proximo.getValue();
+            deslocamento = 0;
+        }
+        segmentoEscrita = segmento;
+        posicaoEscrita = segmento.inicio + deslocamento;
+        posicaoPublicada = posicaoEscrita;
+    }
+
+    private Segmento abrir(long indice) throws IOException {
+        Path arquivo = pasta.resolve(String.format("%020d%s", indice, EXTENSAO_SEGMENTO));
+        FileChannel canal = FileChannel.open(arquivo,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (canal.size() > tamanhoSegmento) {
+            canal.close();
+            throw new IllegalStateException("Segmento " + arquivo + " maior que healthgo.diario.tamanho-segmento-mb;"
+                + " o tamanho do segmento não pode mudar enquanto houver segmentos pendentes");
+        }
+        return new Segmento(indice, indice * tamanhoSegmento, arquivo, canal,
+            canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanhoSegmento));
+    }
+
+    // Checkpoint com a posição e uma cópia de verificação; inválido ou ausente, retorna -1
+    private long lerCheckpoint() throws IOException {
+        ByteBuffer conteudo = ByteBuffer.allocate(16);
+        if (canalCheckpoint.read(conteudo, 0) < 16) {
+            return -1;
+        }
+        long posicao = conteudo.getLong(0);
+        return (posicao ^ VERIFICACAO_CHECKPOINT) == conteudo.getLong(8) ? posicao : -1;
+    }
+
+    private void gravarCheckpoint(long posicao) throws IOException {
+        ByteBuffer conteudo = ByteBuffer.allocate(16);
+        conteudo.putLong(posicao).putLong(posicao ^ VERIFICACAO_CHECKPOINT).flip();
+        canalCheckpoint.write(conteudo, 0);
+        canalCheckpoint.force(false);
+    }
+
+    // Exclusões pendentes: quantidade e, para cada uma, paciente, instante e posição
+    private void lerExclusoes() throws IOException {
+        Path arquivo = pasta.resolve(ARQUIVO_EXCLUSOES);
+        if (!Files.exists(arquivo)) {
+            return;
+        }
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(arquivo)))) {
+            int quantidade = entrada.readInt();
+            for (int i = 0; i < quantidade; i++) {
+                String pacienteId = entrada.readUTF();
+                Exclusao exclusao = new Exclusao(entrada.readLong(), entrada.readLong());
+                if (exclusao.posicao() > checkpoint) {
+                    exclusoes.put(pacienteId, exclusao);
+                }
+            }
+        }
+        if (!exclusoes.isEmpty()) {
+            logger.info("🗑️ {} exclusões de pacientes pendentes no diário", exclusoes.size());
+        }
+    }
+
+    // Chamado com o monitor das exclusões: grava em um temporário e troca, para nunca deixar o arquivo pela metade
+    private void gravarExclusoes() throws IOException {
+        Path temporario = pasta.resolve(ARQUIVO_EXCLUSOES + ".tmp");
+        try (FileOutputStream arquivo = new FileOutputStream(temporario.toFile());
+             DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(arquivo))) {
+            saida.writeInt(exclusoes.size());
+            for (Map.Entry<String, Exclusao> entrada : exclusoes.entrySet()) {
+                saida.writeUTF(entrada.getKey());
+                saida.writeLong(entrada.getValue().instanteMs());
+                saida.writeLong(entrada.getValue().posicao());
+            }
+            saida.flush();
+            arquivo.getFD().sync();
+        }
+        Files.move(temporario, pasta.resolve(ARQUIVO_EXCLUSOES),
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void registrarMetricas() {
+        Gauge.builder("healthgo.diario.pendentes", registrosPendentes, AtomicLong::get)
+            .description("Amostras no diário aguardando confirmação da gravação no banco")
+            .register(meterRegistry);
+        Gauge.builder("healthgo.diario.bytes", segmentos, s -> (double) s.size() * tamanhoSegmento)
+            .description("Espaço em disco ocupado pelos segmentos do diário")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder("healthgo.diario.bytes.maximo", this, diario -> tamanhoMaximoMb * 1024.0 * 1024.0)
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        registrosAnexados = Counter.builder("healthgo.diario.anexados").register(meterRegistry);
+        registrosRejeitados = Counter.builder("healthgo.diario.rejeitados")
+            .description("Amostras rejeitadas com o diário cheio")
+            .register(meterRegistry);
+        segmentosCorrompidos = Counter.builder("healthgo.diario.corrompidos")
+            .description("Registros inválidos encontrados na leitura do diário")
+            .register(meterRegistry);
+        registrosDescartados = Counter.builder("healthgo.diario.descartados")
+            .description("Amostras recusadas pelo banco e movidas para o arquivo de descartados")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Registro de uma amostra: versão, campos primitivos e textos (tamanho + UTF-8, -1 para nulo).
+     * Nome e CPF ficam de fora: vão para o cadastro ao aceitar a amostra, não para o disco local
+     */
+    static byte[] codificar(AmostraSinais amostra) {
+        byte[] pacienteId = utf8(amostra.pacienteId());
+        byte[] timestampTexto = utf8(amostra.timestampTexto());
+        int tamanho = 1 + 8 + 4 * 6 + 8 + 1 + tamanhoTexto(pacienteId) + tamanhoTexto(timestampTexto);
+        ByteBuffer buffer = ByteBuffer.allocate(tamanho)
+            .put(VERSAO_REGISTRO)
+            .putLong(amostra.dataCriacaoMs())
+            .putInt(amostra.horarioCentesimos())
+            .putInt(amostra.freqCardiaca())
+            .putInt(amostra.saturacaoO2())
+            .putInt(amostra.pressaoSistolica())
+            .putInt(amostra.pressaoDiastolica())
+            .putInt(amostra.freqRespiratoria())
+            .putDouble(amostra.temperatura())
+            .put((byte) (amostra.alerta() ? 1 : 0));
+        escreverTexto(buffer, pacienteId);
+        escreverTexto(buffer, timestampTexto);
+        return buffer.array();
+    }
+
+    static AmostraSinais decodificar(byte[] dados) {
+        ByteBuffer buffer = ByteBuffer.wrap(dados);
+        byte versao = buffer.get();
+        if (versao != VERSAO_REGISTRO && versao != VERSAO_REGISTRO_COM_IDENTIFICACAO) {
+            throw new IllegalStateException("Versão de registro do diário desconhecida: " + versao);
+        }
+        long dataCriacaoMs = buffer.getLong();
+        int horarioCentesimos = buffer.getInt();
+        int freqCardiaca = buffer.getInt();
+        int saturacaoO2 = buffer.getInt();
+        int pressaoSistolica = buffer.getInt();
+        int pressaoDiastolica = buffer.getInt();
+        int freqRespiratoria = buffer.getInt();
+        double temperatura = buffer.getDouble();
+        boolean alerta = buffer.get() == 1;
+        String pacienteId = lerTexto(buffer);
+        String timestampTexto = lerTexto(buffer);
+        String pacienteNome = versao == VERSAO_REGISTRO_COM_IDENTIFICACAO ? lerTexto(buffer) : null;
+        String pacienteCpf = versao == VERSAO_REGISTRO_COM_IDENTIFICACAO ? lerTexto(buffer) : null;
+        return new AmostraSinais(pacienteId, horarioCentesimos, timestampTexto, freqCardiaca, saturacaoO2,
+            pressaoSistolica, pressaoDiastolica, temperatura, freqRespiratoria, alerta, dataCriacaoMs,
+            pacienteNome, pacienteCpf);
+    }
+
+    private static byte[] utf8(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Texto da amostra grande demais para o diário: " + bytes.length + " bytes");
+        }
+        return bytes;
+    }
+
+    private static int tamanhoTexto(byte[] texto) {
+        return 2 + (texto == null ? 0 : texto.length);
+    }
+
+    private static void escreverTexto(ByteBuffer buffer, byte[] texto) {
+        if (texto == null) {
+            buffer.putShort((short) -1);
+        } else {
+            buffer.putShort((short) texto.length).put(texto);
+        }
+    }
+
+    private static String lerTexto(ByteBuffer buffer) {
+        short tamanho = buffer.getShort();
+        if (tamanho < 0) {
+            return null;
+        }
+        byte[] texto = new byte[tamanho];
+        buffer.get(texto);
+        return new String(texto, StandardCharsets.UTF_8);
+    }
+
+    private record Exclusao(long instanteMs, long posicao) {
+    }
+
+    private record Segmento(long indice, long inicio, Path arquivo, FileChannel canal, MappedByteBuffer buffer) {
+    }
+}
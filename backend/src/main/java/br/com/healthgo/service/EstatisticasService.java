@@ -0,0 +1,207 @@
+package br.com.healthgo.service;
+
+import br.com.healthgo.model.DadosPaciente;
+import br.com.healthgo.repository.DadosPacienteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de registros mantidos incrementalmente a cada ingestão:
+ * total, por status, por paciente e por minuto.
+ *
+ * Na inicialização (e após exclusões) os contadores são recarregados com
+ * COUNT agrupados no banco; depois disso as consultas respondem em tempo
+ * constante, independente do tamanho de dados_pacientes. A recarga monta um
+ * novo conjunto de contadores e o troca de uma vez, somando o que foi registrado
+ * no conjunto antigo enquanto as consultas rodavam.
+ *
+ * Com o Redis, cada instância conta o que ela mesma grava sobre a carga do banco:
+ * os contadores de uma instância não incluem o que as demais gravaram desde a
+ * última recarga dela. São uma visão aproximada para o painel; os números exatos
+ * vêm do banco (recarga, ou agregados do histórico).
+ */
+@Service
+public class EstatisticasService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EstatisticasService.class);
+
+    @Value("${healthgo.estatisticas.minutos-retidos:1440}")
+    private int minutosRetidos;
+
+    @Autowired
+    private DadosPacienteRepository dadosPacienteRepository;
+
+    private volatile Contadores contadores = new Contadores();
+
+    /**
+     * Carrega os contadores a partir do banco
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void recarregar() {
+        try {
+            Contadores atuais = contadores;
+            Retrato antes = atuais.retrato();
+
+            LocalDateTime inicioJanela = LocalDateTime.now().minusMinutes(minutosRetidos);
+            List<Object[]> contagemStatus = dadosPacienteRepository.countAgrupadoPorStatus();
+            List<Object[]> contagemPaciente = dadosPacienteRepository.countAgrupadoPorPaciente();
+            List<Object[]> contagemMinuto = dadosPacienteRepository.countAgrupadoPorMinuto(inicioJanela);
+
+            Contadores novos = new Contadores();
+            for (Object[] linha : contagemStatus) {
+                contador(novos.porStatus, (String) linha[0]).add(((Number) linha[1]).longValue());
+                novos.total.add(((Number) linha[1]).longValue());
+            }
+            for (Object[] linha : contagemPaciente) {
+                contador(novos.porPaciente, (String) linha[0]).add(((Number) linha[1]).longValue());
+            }
+            for (Object[] linha : contagemMinuto) {
+                LocalDateTime minuto = linha[0] instanceof Timestamp timestamp
+                    ? timestamp.toLocalDateTime() : (LocalDateTime) linha[0];
+                contador(novos.porMinuto, paraMinuto(minuto)).add(((Number) linha[1]).longValue());
+            }
+
+            // Registrado durante as consultas e, depois, durante a troca
+            Retrato depois = atuais.retrato();
+            novos.somarDiferenca(antes, depois);
+            contadores = novos;
+            novos.somarDiferenca(depois, atuais.retrato());
+            logger.info("📊 Estatísticas carregadas do banco - Total: {}, Pacientes: {}",
+                novos.total.sum(), novos.porPaciente.size());
+        } catch (Exception e) {
+            logger.error("❌ Erro ao carregar estatísticas do banco: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Contabiliza registros recém gravados
+     */
+    public void registrar(Collection<DadosPaciente> dados) {
+        Contadores atuais = contadores;
+        for (DadosPaciente dadosPaciente : dados) {
+            atuais.total.increment();
+            if (dadosPaciente.getStatus() != null) {
+                contador(atuais.porStatus, dadosPaciente.getStatus()).increment();
+            }
+            contador(atuais.porPaciente, dadosPaciente.getPacienteId()).increment();
+            if (dadosPaciente.getDataCriacao() != null) {
+                contador(atuais.porMinuto, paraMinuto(dadosPaciente.getDataCriacao())).increment();
+            }
+        }
+    }
+
+    /**
+     * Desconta os registros removidos de um paciente, informados por status.
+     * A contagem por minuto não é corrigida e se ajusta conforme a janela avança.
+     */
+    public synchronized void removerPaciente(String pacienteId, Map<String, Long> removidosPorStatus) {
+        Contadores atuais = contadores;
+        atuais.porPaciente.remove(pacienteId);
+        removidosPorStatus.forEach((status, quantidade) -> {
+            atuais.total.add(-quantidade);
+            if (status != null) {
+                contador(atuais.porStatus, status).add(-quantidade);
+            }
+        });
+    }
+
+    public long getTotal() {
+        return contadores.total.sum();
+    }
+
+    public long getTotalPorStatus(String status) {
+        LongAdder contador = contadores.porStatus.get(status);
+        return contador == null ? 0 : contador.sum();
+    }
+
+    public Map<String, Long> getTotalPorPaciente() {
+        return somar(contadores.porPaciente);
+    }
+
+    /**
+     * Registros por minuto nos últimos minutos informados
+     */
+    public Map<LocalDateTime, Long> getTotalPorMinuto(int minutos) {
+        long inicio = paraMinuto(LocalDateTime.now()) - minutos;
+        Map<LocalDateTime, Long> resultado = new TreeMap<>();
+        contadores.porMinuto.forEach((minuto, contador) -> {
+            if (minuto > inicio) {
+                resultado.put(LocalDateTime.ofEpochSecond(minuto * 60, 0, ZoneOffset.UTC), contador.sum());
+            }
+        });
+        return resultado;
+    }
+
+    // Descarta os minutos fora da janela retida
+    @Scheduled(fixedRate = 60000)
+    public void descartarMinutosAntigos() {
+        long limite = paraMinuto(LocalDateTime.now()) - minutosRetidos;
+        contadores.porMinuto.keySet().removeIf(minuto -> minuto < limite);
+    }
+
+    private static <K> LongAdder contador(ConcurrentMap<K, LongAdder> contadores, K chave) {
+        return contadores.computeIfAbsent(chave, k -> new LongAdder());
+    }
+
+    private static <K> Map<K, Long> somar(ConcurrentMap<K, LongAdder> contadores) {
+        Map<K, Long> resultado = new TreeMap<>();
+        contadores.forEach((chave, contador) -> resultado.put(chave, contador.sum()));
+        return resultado;
+    }
+
+    private static long paraMinuto(LocalDateTime dataHora) {
+        return dataHora.truncatedTo(ChronoUnit.MINUTES).toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    // Conjunto de contadores trocado inteiro na recarga
+    private static final class Contadores {
+        final LongAdder total = new LongAdder();
+        final ConcurrentMap<String, LongAdder> porStatus = new ConcurrentHashMap<>();
+        final ConcurrentMap<String, LongAdder> porPaciente = new ConcurrentHashMap<>();
+        // Chave: minuto em epoch (UTC)
+        final ConcurrentMap<Long, LongAdder> porMinuto = new ConcurrentHashMap<>();
+
+        Retrato retrato() {
+            return new Retrato(total.sum(), somar(porStatus), somar(porPaciente), somar(porMinuto));
+        }
+
+        // Soma o que os contadores de origem registraram entre os dois retratos
+        void somarDiferenca(Retrato antes, Retrato depois) {
+            total.add(depois.total() - antes.total());
+            somarDiferenca(porStatus, antes.porStatus(), depois.porStatus());
+            somarDiferenca(porPaciente, antes.porPaciente(), depois.porPaciente());
+            somarDiferenca(porMinuto, antes.porMinuto(), depois.porMinuto());
+        }
+
+        private static <K> void somarDiferenca(ConcurrentMap<K, LongAdder> destino, Map<K, Long> antes, Map<K, Long> depois) {
+            depois.forEach((chave, valor) -> {
+                long diferenca = valor - antes.getOrDefault(chave, 0L);
+                if (diferenca != 0) {
+                    contador(destino, chave).add(diferenca);
+                }
+            });
+        }
+    }
+
+    private record Retrato(long total, Map<String, Long> porStatus, Map<String, Long> porPaciente,
+                           Map<Long, Long> porMinuto) {
+    }
+}
@@ -0,0 +1,209 @@
+package br.com.healthgo.service;
+
+import br.com.healthgo.model.ExclusaoPaciente;
+import br.com.healthgo.repository.AgregadosRepository;
+import br.com.healthgo.repository.DadosPacienteRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Exclusão dos dados de um paciente (eliminação LGPD) em segundo plano.
+ *
+ * Os registros são removidos em lotes, cada um com um DELETE em sua própria
+ * transação, sem carregar entidades; assim os locks duram pouco e a ingestão
+ * dos demais pacientes segue normalmente. O andamento fica disponível por paciente.
+ *
+ * Além de dados_pacientes, a exclusão alcança as partições arquivadas pela retenção,
+ * os agregados, o cadastro, as amostras ainda não gravadas (fila e diário de ingestão) e
+ * o estado em memória (dados recentes, alertas recentes, janelas, deduplicação). Com o
+ * Redis, as demais instâncias são avisadas no início, para não gravarem mais amostras do
+ * paciente, e no fim, para descartarem o que guardam dele em memória.
+ */
+@Service
+public class ExclusaoPacienteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExclusaoPacienteService.class);
+
+    @Value("${healthgo.exclusao.tamanho-lote:5000}")
+    private int tamanhoLote;
+
+    @Value("${healthgo.exclusao.pausa-entre-lotes-ms:10}")
+    private long pausaEntreLotesMs;
+
+    @Autowired
+    private DadosPacienteRepository dadosPacienteRepository;
+
+    @Autowired
+    private AgregadosRepository agregadosRepository;
+
+    @Autowired
+    private DadosRecentesCache dadosRecentesCache;
+
+    @Autowired
+    private EstatisticasService estatisticasService;
+
+    @Autowired
+    private RegistroPacientesService registroPacientesService;
+
+    @Autowired
+    private MotorAlertasService motorAlertasService;
+
+    @Autowired
+    private JanelaSinaisService janelaSinaisService;
+
+    @Autowired
+    private DeduplicacaoService deduplicacaoService;
+
+    @Autowired
+    private IngestaoDadosService ingestaoDadosService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired(required = false)
+    private SincronizacaoRedisService sincronizacaoRedisService;
+
+    private final ConcurrentMap<String, ExclusaoPaciente> exclusoes = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void iniciar() {
+        CustomizableThreadFactory fabrica = new CustomizableThreadFactory("healthgo-exclusao-");
+        fabrica.setDaemon(true);
+        executor = Executors.newSingleThreadExecutor(fabrica);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Agenda a exclusão dos dados do paciente; se já houver uma em andamento, retorna a existente
+     */
+    public ExclusaoPaciente deletarPorPaciente(String pacienteId) {
+        Long estimados = estatisticasService.getTotalPorPaciente().get(pacienteId);
+        ExclusaoPaciente nova = new ExclusaoPaciente(pacienteId, estimados == null ? 0 : estimados);
+        ExclusaoPaciente exclusao = exclusoes.compute(pacienteId,
+            (id, atual) -> atual != null && atual.isEmAndamento() ? atual : nova);
+        // Agendada fora do compute, que mantém o lock da entrada do mapa
+        if (exclusao == nova) {
+            executor.execute(() -> executar(exclusao));
+            logger.info("🗑️ Exclusão agendada para paciente {} (~{} registros)", pacienteId, exclusao.getRegistrosEstimados());
+        }
+        return exclusao;
+    }
+
+    /**
+     * Exclusão feita por outra instância: no início, descarta as amostras do paciente ainda não
+     * gravadas por esta; no fim, o que esta instância guarda dele em memória
+     */
+    public void aplicarExclusaoRemota(String pacienteId, boolean concluida) {
+        try {
+            if (!concluida) {
+                ingestaoDadosService.excluirPaciente(pacienteId);
+                return;
+            }
+            removerDaMemoria(pacienteId);
+            registroPacientesService.esquecer(pacienteId);
+            // Os contadores desta instância também contavam o paciente: recontados no banco
+            estatisticasService.recarregar();
+            logger.info("🗑️ Paciente {} excluído por outra instância, removido da memória", pacienteId);
+        } catch (Exception e) {
+            logger.error("❌ Erro ao aplicar exclusão do paciente {} feita por outra instância: {}", pacienteId, e.getMessage());
+        }
+    }
+
+    /**
+     * Andamento da última exclusão do paciente, ou null se não houver
+     */
+    public ExclusaoPaciente buscarExclusao(String pacienteId) {
+        return exclusoes.get(pacienteId);
+    }
+
+    private long deletarEmLotes(ExclusaoPaciente exclusao, long removidos) throws InterruptedException {
+        int lote;
+        do {
+            lote = transactionTemplate.execute(status ->
+                dadosPacienteRepository.deletarLotePorPaciente(exclusao.getPacienteId(), tamanhoLote));
+            removidos += lote;
+            exclusao.setRegistrosRemovidos(removidos);
+            if (lote == tamanhoLote && pausaEntreLotesMs > 0) {
+                Thread.sleep(pausaEntreLotesMs);
+            }
+        } while (lote == tamanhoLote);
+        return removidos;
+    }
+
+    private void removerDaMemoria(String pacienteId) {
+        dadosRecentesCache.remover(pacienteId);
+        motorAlertasService.removerPaciente(pacienteId);
+        janelaSinaisService.removerPaciente(pacienteId);
+        deduplicacaoService.removerPaciente(pacienteId);
+    }
+
+    private void publicarExclusao(String pacienteId, boolean concluida) {
+        if (sincronizacaoRedisService == null) {
+            return;
+        }
+        try {
+            sincronizacaoRedisService.publicarExclusao(pacienteId, concluida);
+        } catch (Exception e) {
+            logger.error("❌ Erro ao avisar as demais instâncias da exclusão do paciente {}: {}", pacienteId, e.getMessage());
+        }
+    }
+
+    private void executar(ExclusaoPaciente exclusao) {
+        String pacienteId = exclusao.getPacienteId();
+        try {
+            // Antes dos DELETEs: as amostras ainda na fila ou no diário não chegam mais ao banco
+            ingestaoDadosService.excluirPaciente(pacienteId);
+            publicarExclusao(pacienteId, false);
+
+            Map<String, Long> removidosPorStatus = new HashMap<>();
+            for (Object[] linha : dadosPacienteRepository.countAgrupadoPorStatusDoPaciente(pacienteId)) {
+                removidosPorStatus.put((String) linha[0], ((Number) linha[1]).longValue());
+            }
+
+            long removidos = deletarEmLotes(exclusao, 0);
+            for (String particao : agregadosRepository.listarParticoesArquivadas()) {
+                removidos += transactionTemplate.execute(status ->
+                    agregadosRepository.removerPacienteDaParticao(particao, pacienteId));
+                exclusao.setRegistrosRemovidos(removidos);
+            }
+
+            transactionTemplate.executeWithoutResult(status -> {
+                agregadosRepository.removerPaciente(pacienteId);
+                registroPacientesService.remover(pacienteId);
+            });
+            // Amostras que outras instâncias gravaram antes de receber o aviso de exclusão
+            removidos = deletarEmLotes(exclusao, removidos);
+
+            removerDaMemoria(pacienteId);
+            estatisticasService.removerPaciente(pacienteId, removidosPorStatus);
+            publicarExclusao(pacienteId, true);
+            exclusao.concluir();
+            logger.info("🗑️ Deletados {} registros do paciente: {}", removidos, pacienteId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exclusao.falhar("Exclusão interrompida");
+        } catch (Exception e) {
+            logger.error("❌ Erro ao deletar dados do paciente {}: {}", pacienteId, e.getMessage());
+            exclusao.falhar(e.getMessage());
+        }
+    }
+}
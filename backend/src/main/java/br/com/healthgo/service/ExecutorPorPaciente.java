@@ -0,0 +1,231 @@
+package br.com.healthgo.service;
+
+import br.com.healthgo.config.ModoThreads;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Executa o processamento das amostras em raias particionadas por paciente.
+ *
+ * Cada paciente cai sempre na mesma raia, e cada raia tem uma única thread
+ * consumidora: as amostras de um paciente são processadas na ordem de chegada
+ * (alertas, janela, gravação e broadcast), enquanto pacientes de raias
+ * diferentes são processados em paralelo. Os produtores (threads do WebSocket
+ * e do REST) só enfileiram, sem lock; a thread da raia dorme quando não há trabalho.
+ */
+@Component
+public class ExecutorPorPaciente {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutorPorPaciente.class);
+
+    private static final long PAUSA_FILA_CHEIA_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    // 0 = uma raia por processador disponível
+    @Value("${healthgo.raias.quantidade:0}")
+    private int quantidadeRaias;
+
+    @Value("${healthgo.raias.capacidade:4096}")
+    private int capacidadeRaia;
+
+    @Value("${healthgo.raias.timeout-bloqueio-ms:50}")
+    private long timeoutBloqueioMs;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ModoThreads modoThreads;
+
+    private Raia[] raias;
+    private volatile boolean ativo;
+
+    @PostConstruct
+    public void iniciar() {
+        int quantidade = quantidadeRaias > 0 ? quantidadeRaias : Runtime.getRuntime().availableProcessors();
+        raias = new Raia[quantidade];
+        ativo = true;
+        Gauge.builder("healthgo.raias.capacidade", this, executor -> capacidadeRaia)
+            .description("Capacidade da fila de cada raia")
+            .register(meterRegistry);
+        for (int i = 0; i < quantidade; i++) {
+            raias[i] = new Raia(capacidadeRaia);
+            registrarMetricas(i, raias[i]);
+            raias[i].thread = modoThreads.fabrica("healthgo-raia-" + i + "-").newThread(raias[i]::executar);
+            raias[i].thread.start();
+        }
+        logger.info("🛤️ Processamento por paciente iniciado - raias: {}, capacidade por raia: {}", quantidade, capacidadeRaia);
+    }
+
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        ativo = false;
+        for (Raia raia : raias) {
+            LockSupport.unpark(raia.thread);
+        }
+        int pendentes = 0;
+        for (Raia raia : raias) {
+            raia.thread.join(TimeUnit.SECONDS.toMillis(5));
+            pendentes += raia.pendentes.get();
+        }
+        logger.info("🛑 Processamento por paciente encerrado - pendentes: {}", pendentes);
+    }
+
+    /**
+     * Enfileira a tarefa na raia do paciente, aguardando até timeout-bloqueio-ms
+     * se a raia estiver cheia. Retorna false quando a tarefa foi rejeitada.
+     */
+    public boolean executar(String pacienteId, Runnable tarefa) {
+        Raia raia = raias[indiceRaia(pacienteId)];
+        if (raia.oferecer(tarefa)) {
+            return true;
+        }
+        long prazo = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutBloqueioMs);
+        while (System.nanoTime() < prazo && ativo) {
+            LockSupport.parkNanos(PAUSA_FILA_CHEIA_NANOS);
+            if (raia.oferecer(tarefa)) {
+                return true;
+            }
+        }
+        raia.rejeitadas.increment();
+        return false;
+    }
+
+    /**
+     * Executa na raia do paciente e devolve o resultado; com a raia cheia, o futuro
+     * termina com {@link RejectedExecutionException}
+     */
+    public <T> CompletableFuture<T> submeter(String pacienteId, Supplier<T> tarefa) {
+        CompletableFuture<T> resultado = new CompletableFuture<>();
+        boolean aceita = executar(pacienteId, () -> {
+            try {
+                resultado.complete(tarefa.get());
+            } catch (Throwable e) {
+                resultado.completeExceptionally(e);
+            }
+        });
+        if (!aceita) {
+            resultado.completeExceptionally(
+                new RejectedExecutionException("Raia do paciente " + pacienteId + " cheia"));
+        }
+        return resultado;
+    }
+
+    public int getQuantidadeRaias() {
+        return raias.length;
+    }
+
+    /**
+     * Tarefas aguardando em todas as raias
+     */
+    public int getPendentes() {
+        int pendentes = 0;
+        for (Raia raia : raias) {
+            pendentes += raia.pendentes.get();
+        }
+        return pendentes;
+    }
+
+    // Espalha os bits altos do hash, como o HashMap, antes de escolher a raia
+    int indiceRaia(String pacienteId) {
+        int hash = pacienteId == null ? 0 : pacienteId.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), raias.length);
+    }
+
+    private void registrarMetricas(int indice, Raia raia) {
+        String tag = String.valueOf(indice);
+        Gauge.builder("healthgo.raias.pendentes", raia, r -> r.pendentes.get())
+            .tag("raia", tag)
+            .description("Tarefas aguardando processamento na raia")
+            .register(meterRegistry);
+        FunctionCounter.builder("healthgo.raias.processadas", raia, r -> r.processadas.sum())
+            .tag("raia", tag)
+            .register(meterRegistry);
+        FunctionCounter.builder("healthgo.raias.rejeitadas", raia, r -> r.rejeitadas.sum())
+            .tag("raia", tag)
+            .description("Tarefas rejeitadas com a raia cheia")
+            .register(meterRegistry);
+        FunctionCounter.builder("healthgo.raias.falhas", raia, r -> r.falhas.sum())
+            .tag("raia", tag)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Fila de uma raia: vários produtores e um único consumidor.
+     *
+     * A fila é a {@link ConcurrentLinkedQueue} (sem lock); a capacidade é controlada
+     * pelo contador de pendentes. O consumidor só é acordado (unpark) quando anuncia
+     * que vai dormir, o que evita uma chamada ao sistema por tarefa com a raia ocupada.
+     */
+    private final class Raia {
+
+        private final ConcurrentLinkedQueue<Runnable> fila = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendentes = new AtomicInteger();
+        private final LongAdder processadas = new LongAdder();
+        private final LongAdder rejeitadas = new LongAdder();
+        private final LongAdder falhas = new LongAdder();
+        private final int capacidade;
+        private volatile boolean dormindo;
+        private Thread thread;
+
+        Raia(int capacidade) {
+            this.capacidade = capacidade;
+        }
+
+        boolean oferecer(Runnable tarefa) {
+            if (pendentes.incrementAndGet() > capacidade) {
+                pendentes.decrementAndGet();
+                return false;
+            }
+            fila.offer(tarefa);
+            if (dormindo) {
+                LockSupport.unpark(thread);
+            }
+            return true;
+        }
+
+        // Laço da thread da raia: processa em ordem até o encerramento e drena o que restou
+        void executar() {
+            while (true) {
+                Runnable tarefa = fila.poll();
+                if (tarefa == null) {
+                    if (!ativo) {
+                        return;
+                    }
+                    // Anuncia antes de conferir a fila de novo, para não perder um unpark
+                    dormindo = true;
+                    if (fila.isEmpty() && ativo) {
+                        LockSupport.park(this);
+                    }
+                    dormindo = false;
+                    continue;
+                }
+                try {
+                    tarefa.run();
+                } catch (Throwable e) {
+                    falhas.increment();
+                    logger.error("❌ Erro no processamento da raia: {}", e.getMessage());
+                } finally {
+                    pendentes.decrementAndGet();
+                    processadas.increment();
+                }
+            }
+        }
+    }
+}
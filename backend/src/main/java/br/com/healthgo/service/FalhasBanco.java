@@ -0,0 +1,73 @@
+package br.com.healthgo.service;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.net.ConnectException;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+
+/**
+ * Classificação das falhas de gravação no banco.
+ *
+ * Transitórias (conexão, recursos, deadlock) passam sozinhas e justificam guardar a amostra
+ * no diário e tentar de novo; um registro recusado (violação de restrição ou dado inválido)
+ * falha igual em toda tentativa. As exceções do Hibernate no flush não passam pela tradução
+ * do Spring, então o SQLState da causa também é consultado.
+ */
+public final class FalhasBanco {
+
+    private FalhasBanco() {
+    }
+
+    /**
+     * Falha que tende a passar sozinha: conexão perdida, banco reiniciando, sem recursos, deadlock
+     */
+    public static boolean isTransitoria(Throwable falha) {
+        for (Throwable causa = falha; causa != null; causa = causa.getCause()) {
+            if (causa instanceof TransientDataAccessException || causa instanceof RecoverableDataAccessException
+                    || causa instanceof DataAccessResourceFailureException
+                    || causa instanceof CannotCreateTransactionException
+                    || causa instanceof SQLTransientException || causa instanceof SQLRecoverableException
+                    || causa instanceof ConnectException) {
+                return true;
+            }
+            // 08: conexão; 40: deadlock/serialização; 53: recursos insuficientes; 57: banco encerrando
+            String classe = classeSqlState(causa);
+            if ("08".equals(classe) || "40".equals(classe) || "53".equals(classe) || "57".equals(classe)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * O banco recusou algum registro (restrição violada ou valor inválido): a mesma gravação
+     * falhará de novo em qualquer tentativa
+     */
+    public static boolean isRegistroRecusado(Throwable falha) {
+        for (Throwable causa = falha; causa != null; causa = causa.getCause()) {
+            if (causa instanceof DataIntegrityViolationException) {
+                return true;
+            }
+            // 22: dado inválido (ex: texto longo demais); 23: violação de restrição (ex: NOT NULL)
+            String classe = classeSqlState(causa);
+            if ("22".equals(classe) || "23".equals(classe)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String classeSqlState(Throwable causa) {
+        if (causa instanceof SQLException sqlException && sqlException.getSQLState() != null
+                && sqlException.getSQLState().length() >= 2) {
+            return sqlException.getSQLState().substring(0, 2);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,98 @@
+package br.com.healthgo.service;
+
+import br.com.healthgo.model.CursorDados;
+import br.com.healthgo.model.DadosPaciente;
+import br.com.healthgo.model.Historico;
+import br.com.healthgo.model.PontoHistorico;
+import br.com.healthgo.model.ResolucaoHistorico;
+import br.com.healthgo.repository.AgregadosRepository;
+import br.com.healthgo.repository.DadosPacienteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Consultas de histórico direcionadas à tabela adequada ao período:
+ * dados brutos para períodos curtos e recentes, agregados por minuto ou
+ * por hora para períodos longos ou além da retenção dos dados brutos.
+ *
+ * Nenhuma resolução devolve mais que maximo-pontos pontos: os dados brutos,
+ * pedidos explicitamente ou em quantidade acima da estimada, vêm em páginas
+ * pelo cursor (dataCriacao, id) de {@link CursorDados}.
+ */
+@Service
+public class HistoricoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoricoService.class);
+
+    @Value("${healthgo.historico.maximo-pontos:2000}")
+    private int maximoPontos;
+
+    @Value("${healthgo.retencao.dados-brutos-dias:30}")
+    private int retencaoBrutosDias;
+
+    @Value("${healthgo.retencao.agregados-minuto-dias:365}")
+    private int retencaoMinutoDias;
+
+    @Autowired
+    private DadosPacienteRepository dadosPacienteRepository;
+
+    @Autowired
+    private AgregadosRepository agregadosRepository;
+
+    /**
+     * Busca o histórico; sem resolução informada, usa a mais fina que caiba em maximo-pontos.
+     * O cursor {@code apos} só existe para dados brutos e continua a partir dele
+     */
+    public Historico buscarHistorico(String pacienteId, LocalDateTime inicio, LocalDateTime fim,
+                                     ResolucaoHistorico resolucao, CursorDados apos) {
+        if (apos != null && resolucao != null && resolucao != ResolucaoHistorico.BRUTO) {
+            throw new IllegalArgumentException("Cursor só se aplica à resolução BRUTO");
+        }
+        ResolucaoHistorico escolhida = apos != null ? ResolucaoHistorico.BRUTO
+            : resolucao != null ? resolucao : escolherResolucao(inicio, fim);
+        if (escolhida == ResolucaoHistorico.BRUTO) {
+            return buscarBrutos(pacienteId, inicio, fim, apos);
+        }
+        List<PontoHistorico> pontos = agregadosRepository.buscarAgregados(escolhida, pacienteId, inicio, fim);
+        logger.debug("🔍 Histórico do paciente {} em {}: {} pontos", pacienteId, escolhida, pontos.size());
+        return new Historico(pacienteId, escolhida, pontos);
+    }
+
+    // Uma página de maximo-pontos amostras; o registro a mais só indica que há outra página
+    private Historico buscarBrutos(String pacienteId, LocalDateTime inicio, LocalDateTime fim, CursorDados apos) {
+        CursorDados posicao = apos == null ? new CursorDados(inicio, Long.MIN_VALUE) : apos;
+        List<DadosPaciente> dados = dadosPacienteRepository.findPaginaPorPeriodo(pacienteId, inicio, fim,
+            posicao.dataCriacao(), posicao.id(), PageRequest.ofSize(maximoPontos + 1));
+        CursorDados proximo = null;
+        if (dados.size() > maximoPontos) {
+            dados = dados.subList(0, maximoPontos);
+            proximo = CursorDados.de(dados.get(maximoPontos - 1));
+        }
+        List<PontoHistorico> pontos = dados.stream().map(PontoHistorico::deDados).toList();
+        logger.debug("🔍 Histórico do paciente {} em BRUTO: {} pontos{}", pacienteId, pontos.size(),
+            proximo != null ? ", há mais páginas" : "");
+        return new Historico(pacienteId, ResolucaoHistorico.BRUTO, pontos, proximo);
+    }
+
+    ResolucaoHistorico escolherResolucao(LocalDateTime inicio, LocalDateTime fim) {
+        Duration periodo = Duration.between(inicio, fim);
+        LocalDateTime agora = LocalDateTime.now();
+        if (!inicio.isBefore(agora.minusDays(retencaoBrutosDias))
+                && ResolucaoHistorico.BRUTO.estimarPontos(periodo) <= maximoPontos) {
+            return ResolucaoHistorico.BRUTO;
+        }
+        if (!inicio.isBefore(agora.minusDays(retencaoMinutoDias))
+                && ResolucaoHistorico.MINUTO.estimarPontos(periodo) <= maximoPontos) {
+            return ResolucaoHistorico.MINUTO;
+        }
+        return ResolucaoHistorico.HORA;
+    }
+}
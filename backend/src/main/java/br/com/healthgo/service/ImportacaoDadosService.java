@@ -0,0 +1,454 @@
+package br.com.healthgo.service;
+
+import br.com.healthgo.model.AmostraSinais;
+import br.com.healthgo.model.DadosPaciente;
+import br.com.healthgo.model.ResultadoImportacao;
+import br.com.healthgo.repository.AgregadosRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Importação de histórico em CSV (layout de simulador-desktop/dados) pelo COPY do PostgreSQL.
+ *
+ * O CSV é lido linha a linha, e cada linha válida segue para o banco pelo COPY enquanto o
+ * arquivo ainda está sendo lido: a memória usada não depende do tamanho do arquivo. A cada
+ * {@code linhas-por-lote} linhas, o lote copiado para uma tabela temporária passa para
+ * dados_pacientes com ON CONFLICT DO NOTHING e é confirmado, então uma importação repetida
+ * ou interrompida pode ser refeita sem duplicar amostras.
+ *
+ * O CSV só traz o horário do dia: a data da primeira linha de cada paciente é informada, e
+ * avança quando o horário do paciente volta mais de meio dia (virada da meia-noite).
+ */
+@Service
+public class ImportacaoDadosService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportacaoDadosService.class);
+
+    private static final String COLUNAS = "timestamp, paciente_id, freq_cardiaca, saturacao_o2, pressao_sistolica, "
+        + "pressao_diastolica, temperatura, freq_respiratoria, status, data_criacao";
+
+    // Uma por conexão; ON COMMIT DELETE ROWS esvazia a tabela a cada lote confirmado
+    private static final String CRIAR_TABELA_TEMPORARIA = "CREATE TEMPORARY TABLE IF NOT EXISTS importacao_dados ("
+        + "timestamp VARCHAR(20), paciente_id VARCHAR(20), freq_cardiaca INTEGER, saturacao_o2 INTEGER, "
+        + "pressao_sistolica INTEGER, pressao_diastolica INTEGER, temperatura DOUBLE PRECISION, "
+        + "freq_respiratoria INTEGER, status VARCHAR(10), data_criacao TIMESTAMP) ON COMMIT DELETE ROWS";
+
+    private static final String COPIAR = "COPY importacao_dados (" + COLUNAS + ") FROM STDIN";
+
+    // O id vem do valor padrão da coluna (sequência), como nas gravações do Hibernate
+    private static final String TRANSFERIR = "INSERT INTO dados_pacientes (" + COLUNAS + ") SELECT " + COLUNAS
+        + " FROM importacao_dados ON CONFLICT DO NOTHING";
+
+    // timestamp,paciente_id,paciente_nome,paciente_cpf,hr,spo2,pressao_sys,pressao_dia,temp,resp_freq,status
+    private static final int CAMPOS = 11;
+    private static final int MEIO_DIA_CENTESIMOS = 12 * 60 * 60 * 100;
+    private static final int MAXIMO_ERROS = 20;
+    private static final int TAMANHO_BUFFER = 1 << 16;
+
+    @Value("${healthgo.importacao.linhas-por-lote:50000}")
+    private int linhasPorLote;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private AgregadosRepository agregadosRepository;
+
+    @Autowired
+    private RegistroPacientesService registroPacientesService;
+
+    @Autowired
+    private EstatisticasService estatisticasService;
+
+    @Autowired
+    private DadosRecentesCache dadosRecentesCache;
+
+    @Autowired(required = false)
+    private ManutencaoDadosService manutencaoDadosService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Uma importação por vez: cada uma ocupa uma conexão do pool durante toda a leitura
+    private final Semaphore emAndamento = new Semaphore(1);
+
+    private Counter linhasGravadas;
+    private Counter linhasRepetidas;
+    private Counter linhasInvalidas;
+
+    @PostConstruct
+    public void iniciar() {
+        linhasGravadas = contador("gravadas");
+        linhasRepetidas = contador("repetidas");
+        linhasInvalidas = contador("invalidas");
+    }
+
+    /**
+     * Importa o CSV lido de {@code entrada}, sendo {@code dataInicial} o dia da primeira linha
+     * de cada paciente. Lança {@link IllegalStateException} se já houver uma importação em andamento
+     */
+    public ResultadoImportacao importar(InputStream entrada, LocalDate dataInicial) throws IOException, SQLException {
+        if (!emAndamento.tryAcquire()) {
+            throw new IllegalStateException("Já existe uma importação em andamento");
+        }
+        try (Connection conexao = dataSource.getConnection()) {
+            Importacao importacao = new Importacao(conexao, dataInicial);
+            importacao.executar(new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8), TAMANHO_BUFFER));
+            ResultadoImportacao resultado = importacao.resultado();
+            logger.info("📥 Importação concluída - {} linhas lidas, {} gravadas, {} repetidas, {} inválidas em {} ms ({} linhas/s)",
+                resultado.linhasLidas(), resultado.linhasGravadas(), resultado.linhasRepetidas(),
+                resultado.linhasInvalidas(), resultado.duracaoMs(), resultado.linhasPorSegundo());
+            if (resultado.linhasGravadas() > 0) {
+                atualizarDerivados(resultado);
+            }
+            return resultado;
+        } finally {
+            emAndamento.release();
+        }
+    }
+
+    // Agregados do período importado (a agregação periódica só avança) e contadores em memória
+    private void atualizarDerivados(ResultadoImportacao resultado) {
+        try {
+            if (manutencaoDadosService != null) {
+                manutencaoDadosService.agregarPeriodo(resultado.primeiraData(), resultado.ultimaData());
+            }
+            estatisticasService.recarregar();
+            dadosRecentesCache.aquecer();
+        } catch (Exception e) {
+            logger.error("❌ Erro ao atualizar agregados e estatísticas após a importação: {}", e.getMessage());
+        }
+    }
+
+    private Counter contador(String resultado) {
+        return Counter.builder("healthgo.importacao.linhas")
+            .tag("resultado", resultado)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Divide uma linha do CSV nos seus campos, aceitando campos entre aspas ("" para aspas
+     * dentro do texto); retorna null se a linha não tem exatamente {@value #CAMPOS} campos
+     */
+    static String[] dividir(String linha) {
+        String[] campos = new String[CAMPOS];
+        int quantidade = 0;
+        int posicao = 0;
+        int tamanho = linha.length();
+        while (true) {
+            if (quantidade == CAMPOS) {
+                return null;
+            }
+            if (posicao < tamanho && linha.charAt(posicao) == '"') {
+                StringBuilder texto = new StringBuilder();
+                posicao++;
+                while (true) {
+                    if (posicao >= tamanho) {
+                        return null;
+                    }
+                    char c = linha.charAt(posicao++);
+                    if (c != '"') {
+                        texto.append(c);
+                    } else if (posicao < tamanho && linha.charAt(posicao) == '"') {
+                        texto.append('"');
+                        posicao++;
+                    } else {
+                        break;
+                    }
+                }
+                if (posicao < tamanho && linha.charAt(posicao) != ',') {
+                    return null;
+                }
+                campos[quantidade++] = texto.toString();
+            } else {
+                int fim = linha.indexOf(',', posicao);
+                if (fim < 0) {
+                    fim = tamanho;
+                }
+                campos[quantidade++] = linha.substring(posicao, fim);
+                posicao = fim;
+            }
+            if (posicao >= tamanho) {
+                return quantidade == CAMPOS ? campos : null;
+            }
+            posicao++;
+        }
+    }
+
+    /**
+     * Estado de uma importação: conexão com o COPY do lote atual, dia corrente de cada
+     * paciente e contagens. Lotes já confirmados permanecem no banco se a importação falhar
+     */
+    private final class Importacao {
+
+        private final Connection conexao;
+        private final LocalDate dataInicial;
+        private final long inicio = System.nanoTime();
+        private final Map<String, DiaPaciente> dias = new HashMap<>();
+        private final Set<LocalDate> particoes = new HashSet<>();
+        private final List<DadosPaciente> cadastros = new ArrayList<>();
+        private final List<String> erros = new ArrayList<>();
+        private final char[] horario = new char[11];
+
+        private PGCopyOutputStream copia;
+        private Writer saida;
+        private int linhasNoLote;
+        private long numeroLinha;
+        private long lidas;
+        private long gravadas;
+        private long repetidas;
+        private long invalidas;
+        private LocalDateTime primeiraData;
+        private LocalDateTime ultimaData;
+
+        Importacao(Connection conexao, LocalDate dataInicial) {
+            this.conexao = conexao;
+            this.dataInicial = dataInicial;
+        }
+
+        void executar(BufferedReader leitor) throws IOException, SQLException {
+            conexao.setAutoCommit(false);
+            try (Statement comando = conexao.createStatement()) {
+                comando.execute(CRIAR_TABELA_TEMPORARIA);
+            }
+            conexao.commit();
+            try {
+                String linha;
+                while ((linha = leitor.readLine()) != null) {
+                    numeroLinha++;
+                    if (numeroLinha == 1 && linha.startsWith("\uFEFF")) {
+                        linha = linha.substring(1);
+                    }
+                    if (linha.isBlank() || (numeroLinha == 1 && linha.startsWith("timestamp"))) {
+                        continue;
+                    }
+                    lidas++;
+                    ler(linha);
+                    if (linhasNoLote >= linhasPorLote) {
+                        gravarLote();
+                    }
+                }
+                gravarLote();
+            } catch (IOException | SQLException | RuntimeException e) {
+                cancelarLote();
+                logger.error("❌ Importação interrompida na linha {} ({} linhas já gravadas): {}",
+                    numeroLinha, gravadas, e.getMessage());
+                throw e;
+            }
+        }
+
+        ResultadoImportacao resultado() {
+            long duracaoMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+            return new ResultadoImportacao(lidas, gravadas, repetidas, invalidas, dias.size(),
+                primeiraData, ultimaData, duracaoMs, lidas * 1000 / duracaoMs, erros);
+        }
+
+        private void ler(String linha) throws IOException, SQLException {
+            String[] campos = dividir(linha);
+            if (campos == null) {
+                invalida("esperados " + CAMPOS + " campos");
+                return;
+            }
+            String texto = campos[0].trim();
+            if (texto.length() > horario.length) {
+                invalida("horário inválido: " + texto);
+                return;
+            }
+            texto.getChars(0, texto.length(), horario, 0);
+            int horarioCentesimos = AmostraSinais.lerHorario(horario, 0, texto.length());
+            // lerHorario só confere o formato; horas, minutos e segundos fora da faixa não chegam ao banco
+            if (horarioCentesimos == AmostraSinais.HORARIO_AUSENTE || horario[0] > '2' || (horario[0] == '2' && horario[1] > '3')
+                    || horario[3] > '5' || horario[6] > '5') {
+                invalida("horário inválido: " + texto);
+                return;
+            }
+            String pacienteId = campos[1].trim();
+            if (pacienteId.isEmpty() || pacienteId.length() > 20 || pacienteId.indexOf('\t') >= 0 || pacienteId.indexOf('\\') >= 0) {
+                invalida("paciente_id inválido: " + pacienteId);
+                return;
+            }
+            String status = campos[10].trim();
+            if (!"NORMAL".equals(status) && !"ALERTA".equals(status)) {
+                invalida("status inválido: " + status);
+                return;
+            }
+            int freqCardiaca;
+            int saturacaoO2;
+            int pressaoSistolica;
+            int pressaoDiastolica;
+            double temperatura;
+            int freqRespiratoria;
+            try {
+                freqCardiaca = Integer.parseInt(campos[4].trim());
+                saturacaoO2 = Integer.parseInt(campos[5].trim());
+                pressaoSistolica = Integer.parseInt(campos[6].trim());
+                pressaoDiastolica = Integer.parseInt(campos[7].trim());
+                temperatura = Double.parseDouble(campos[8].trim());
+                freqRespiratoria = Integer.parseInt(campos[9].trim());
+            } catch (NumberFormatException e) {
+                invalida("sinal vital inválido");
+                return;
+            }
+            if (!Double.isFinite(temperatura)) {
+                invalida("temperatura inválida");
+                return;
+            }
+
+            DiaPaciente dia = dias.get(pacienteId);
+            if (dia == null) {
+                dia = new DiaPaciente(dataInicial);
+                dias.put(pacienteId, dia);
+                String nome = campos[2].trim();
+                String cpf = campos[3].trim();
+                if (!nome.isEmpty() || !cpf.isEmpty()) {
+                    cadastros.add(new DadosPaciente(null, pacienteId, nome.isEmpty() ? null : nome,
+                        cpf.isEmpty() ? null : cpf, null, null, null, null, null, null, null));
+                }
+            }
+            dia.avancar(horarioCentesimos);
+            // Partição criada antes do COPY, em outra conexão, para não ir para a partição padrão
+            if (particoes.add(dia.dia)) {
+                agregadosRepository.criarParticao(dia.dia);
+            }
+            LocalDateTime dataCriacao = dia.dia.atStartOfDay().plus(horarioCentesimos * 10L, ChronoUnit.MILLIS);
+            if (primeiraData == null || dataCriacao.isBefore(primeiraData)) {
+                primeiraData = dataCriacao;
+            }
+            if (ultimaData == null || dataCriacao.isAfter(ultimaData)) {
+                ultimaData = dataCriacao;
+            }
+
+            if (copia == null) {
+                copia = new PGCopyOutputStream(conexao.unwrap(PGConnection.class), COPIAR, TAMANHO_BUFFER);
+                saida = new BufferedWriter(new OutputStreamWriter(copia, StandardCharsets.UTF_8), TAMANHO_BUFFER);
+            }
+            // Formato texto do COPY: campos separados por tabulação; nenhum valor contém tabulação ou barra invertida
+            int tamanhoHorario = AmostraSinais.escreverHorario(horarioCentesimos, horario);
+            saida.write(horario, 0, tamanhoHorario);
+            saida.write('\t');
+            saida.write(pacienteId);
+            saida.write('\t');
+            saida.write(Integer.toString(freqCardiaca));
+            saida.write('\t');
+            saida.write(Integer.toString(saturacaoO2));
+            saida.write('\t');
+            saida.write(Integer.toString(pressaoSistolica));
+            saida.write('\t');
+            saida.write(Integer.toString(pressaoDiastolica));
+            saida.write('\t');
+            saida.write(Double.toString(temperatura));
+            saida.write('\t');
+            saida.write(Integer.toString(freqRespiratoria));
+            saida.write('\t');
+            saida.write(status);
+            saida.write('\t');
+            saida.write(dia.texto);
+            saida.write(' ');
+            saida.write(horario, 0, tamanhoHorario);
+            saida.write('\n');
+            linhasNoLote++;
+        }
+
+        private void gravarLote() throws IOException, SQLException {
+            if (copia == null) {
+                return;
+            }
+            saida.flush();
+            long copiadas = copia.endCopy();
+            copia = null;
+            saida = null;
+            int inseridas;
+            try (Statement comando = conexao.createStatement()) {
+                inseridas = comando.executeUpdate(TRANSFERIR);
+            }
+            if (!cadastros.isEmpty()) {
+                registroPacientesService.registrarTodos(cadastros);
+                cadastros.clear();
+            }
+            conexao.commit();
+
+            gravadas += inseridas;
+            repetidas += copiadas - inseridas;
+            linhasGravadas.increment(inseridas);
+            linhasRepetidas.increment(copiadas - inseridas);
+            linhasNoLote = 0;
+            long segundos = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - inicio));
+            logger.info("📥 Importação: {} linhas lidas, {} gravadas, {} repetidas, {} inválidas ({} linhas/s)",
+                lidas, gravadas, repetidas, invalidas, lidas / segundos);
+        }
+
+        private void cancelarLote() {
+            try {
+                if (copia != null && copia.isActive()) {
+                    copia.cancelCopy();
+                }
+                conexao.rollback();
+            } catch (SQLException e) {
+                logger.warn("⚠️ Erro ao desfazer o lote da importação: {}", e.getMessage());
+            }
+        }
+
+        private void invalida(String motivo) {
+            invalidas++;
+            linhasInvalidas.increment();
+            if (erros.size() < MAXIMO_ERROS) {
+                erros.add("linha " + numeroLinha + ": " + motivo);
+            }
+        }
+    }
+
+    /**
+     * Dia corrente de um paciente no arquivo
+     */
+    private static final class DiaPaciente {
+
+        private LocalDate dia;
+        private String texto;
+        private int ultimoHorario = AmostraSinais.HORARIO_AUSENTE;
+
+        DiaPaciente(LocalDate dia) {
+            this.dia = dia;
+            this.texto = dia.toString();
+        }
+
+        void avancar(int horarioCentesimos) {
+            if (ultimoHorario != AmostraSinais.HORARIO_AUSENTE && ultimoHorario - horarioCentesimos > MEIO_DIA_CENTESIMOS) {
+                dia = dia.plusDays(1);
+                texto = dia.toString();
+            }
+            ultimoHorario = horarioCentesimos;
+        }
+    }
+}
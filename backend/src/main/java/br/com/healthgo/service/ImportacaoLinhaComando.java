@@ -0,0 +1,100 @@
+package br.com.healthgo.service;
+
+import br.com.healthgo.model.ResultadoImportacao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Importação de histórico pela linha de comando (perfil Spring {@code importacao}).
+ *
+ * Importa os arquivos de {@code healthgo.importacao.arquivos} (CSV, CSV compactado .gz ou
+ * diretórios, dos quais são lidos os .csv e .csv.gz) e encerra o processo, com código de
+ * saída 1 se algum arquivo falhar. Cada arquivo começa no dia {@code healthgo.importacao.data}.
+ */
+@Component
+@Profile("importacao")
+public class ImportacaoLinhaComando implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportacaoLinhaComando.class);
+
+    @Value("${healthgo.importacao.arquivos:}")
+    private String[] arquivos;
+
+    @Value("${healthgo.importacao.data:}")
+    private String data;
+
+    @Autowired
+    private ImportacaoDadosService importacaoDadosService;
+
+    @Autowired
+    private ConfigurableApplicationContext contexto;
+
+    @Override
+    public void run(ApplicationArguments argumentos) throws IOException {
+        LocalDate dia = data.isBlank() ? LocalDate.now() : LocalDate.parse(data);
+        List<Path> caminhos = listarArquivos();
+        if (caminhos.isEmpty()) {
+            logger.error("❌ Nenhum arquivo CSV em healthgo.importacao.arquivos");
+        }
+
+        int falhas = caminhos.isEmpty() ? 1 : 0;
+        for (Path arquivo : caminhos) {
+            try (InputStream entrada = abrir(arquivo)) {
+                ResultadoImportacao resultado = importacaoDadosService.importar(entrada, dia);
+                logger.info("📥 {}: {} linhas gravadas, {} repetidas, {} inválidas ({} linhas/s)", arquivo,
+                    resultado.linhasGravadas(), resultado.linhasRepetidas(), resultado.linhasInvalidas(),
+                    resultado.linhasPorSegundo());
+                resultado.erros().forEach(erro -> logger.warn("⚠️ {}: {}", arquivo, erro));
+            } catch (Exception e) {
+                falhas++;
+                logger.error("❌ Erro ao importar {}: {}", arquivo, e.getMessage());
+            }
+        }
+
+        int codigoSaida = falhas == 0 ? 0 : 1;
+        System.exit(SpringApplication.exit(contexto, () -> codigoSaida));
+    }
+
+    private List<Path> listarArquivos() throws IOException {
+        List<Path> caminhos = new ArrayList<>();
+        for (String arquivo : arquivos) {
+            Path caminho = Path.of(arquivo.trim());
+            if (Files.isDirectory(caminho)) {
+                try (Stream<Path> conteudo = Files.list(caminho)) {
+                    conteudo.filter(ImportacaoLinhaComando::isCsv).sorted().forEach(caminhos::add);
+                }
+            } else if (!arquivo.isBlank()) {
+                caminhos.add(caminho);
+            }
+        }
+        return caminhos;
+    }
+
+    private static boolean isCsv(Path caminho) {
+        String nome = caminho.getFileName().toString();
+        return nome.endsWith(".csv") || nome.endsWith(".csv.gz");
+    }
+
+    private static InputStream abrir(Path arquivo) throws IOException {
+        InputStream entrada = Files.newInputStream(arquivo);
+        return arquivo.getFileName().toString().endsWith(".gz") ? new GZIPInputStream(entrada, 1 << 16) : entrada;
+    }
+}
@@ -0,0 +1,425 @@
+package br.com.healthgo.service;
+
+import br.com.healthgo.config.ModoThreads;
+import br.com.healthgo.model.AmostraSinais;
+import br.com.healthgo.model.DadosPaciente;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Fila de ingestão assíncrona dos dados recebidos pelo WebSocket.
+ *
+ * Os produtores (threads do WebSocket) apenas enfileiram; uma thread escritora
+ * agrupa as amostras em micro-lotes (por tamanho ou por tempo) e grava cada lote
+ * via {@link DadosPacienteService#salvarTodos}, em batch JDBC. As entidades JPA
+ * só são criadas nesse momento, na thread escritora.
+ *
+ * Sem o diário, um lote que falha no banco é regravado algumas vezes, com intervalo crescente;
+ * se continuar falhando, ou se o banco o recusar, é descartado e os pacientes afetados vão para o log.
+ *
+ * Com o {@link DiarioIngestao} habilitado, o diário em disco substitui a fila em memória:
+ * a amostra é aceita quando chega ao diário, e um lote que falha no banco continua lá
+ * e é regravado, com intervalo crescente entre as tentativas, até o banco voltar. Um lote
+ * que o banco recusa é dividido até isolar os registros recusados, que vão para os
+ * descartados do diário sem travar o restante.
+ *
+ * Nome e CPF não vão para o diário: ficam pendentes no {@link RegistroPacientesService} e são
+ * gravados no cadastro junto com o próximo lote. Depois da exclusão de um paciente, as amostras
+ * dele ainda não gravadas (na fila ou no diário) são descartadas na gravação.
+ */
+@Service
+public class IngestaoDadosService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestaoDadosService.class);
+
+    /**
+     * Comportamento do produtor quando a fila está cheia
+     */
+    public enum PoliticaFilaCheia {
+        BLOQUEAR,
+        DESCARTAR
+    }
+
+    @Value("${healthgo.ingestao.capacidade-fila:10000}")
+    private int capacidadeFila;
+
+    @Value("${healthgo.ingestao.tamanho-lote:200}")
+    private int tamanhoLote;
+
+    @Value("${healthgo.ingestao.intervalo-flush-ms:100}")
+    private long intervaloFlushMs;
+
+    @Value("${healthgo.ingestao.politica-fila-cheia:BLOQUEAR}")
+    private PoliticaFilaCheia politicaFilaCheia;
+
+    @Value("${healthgo.ingestao.timeout-bloqueio-ms:50}")
+    private long timeoutBloqueioMs;
+
+    @Value("${healthgo.ingestao.intervalo-maximo-retentativa-ms:5000}")
+    private long intervaloMaximoRetentativaMs;
+
+    @Value("${healthgo.ingestao.tentativas-sem-diario:3}")
+    private int tentativasSemDiario;
+
+    @Autowired
+    private DadosPacienteService dadosPacienteService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ModoThreads modoThreads;
+
+    @Autowired
+    private RegistroPacientesService registroPacientesService;
+
+    @Autowired(required = false)
+    private DiarioIngestao diarioIngestao;
+
+    // Exclusões de pacientes sem diário (com o diário, ficam nele): ficam até a escritora resolver,
+    // gravando ou descartando, todas as amostras aceitas até a exclusão
+    private final ConcurrentMap<String, Exclusao> exclusoes = new ConcurrentHashMap<>();
+    // Sem o diário: amostras aceitas na fila e amostras de lotes já gravados ou descartados
+    private final AtomicLong amostrasAceitas = new AtomicLong();
+    private volatile long amostrasResolvidas;
+    // Mantida durante a gravação de cada lote: a exclusão espera o lote em andamento terminar
+    private final ReentrantLock gravacao = new ReentrantLock();
+
+    private BlockingQueue<AmostraSinais> fila;
+    private Thread escritor;
+    private volatile boolean ativo;
+
+    private Timer latenciaFlush;
+    private Timer atrasoGravacao;
+    private DistributionSummary tamanhoLotes;
+    private Counter registrosGravados;
+    private Counter registrosDescartados;
+    private Counter falhasGravacao;
+    private Counter registrosRecusados;
+
+    @PostConstruct
+    public void iniciar() {
+        if (diarioIngestao == null) {
+            fila = new ArrayBlockingQueue<>(capacidadeFila);
+            Gauge.builder("healthgo.ingestao.fila.capacidade", fila, f -> capacidadeFila)
+                .register(meterRegistry);
+        }
+        Gauge.builder("healthgo.ingestao.fila.tamanho", this, IngestaoDadosService::getTamanhoFila)
+            .description("Quantidade de dados aguardando gravação")
+            .register(meterRegistry);
+        latenciaFlush = Timer.builder("healthgo.ingestao.flush")
+            .description("Tempo de gravação de cada lote no banco")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        atrasoGravacao = Timer.builder("healthgo.ingestao.atraso")
+            .description("Tempo entre o recebimento da amostra mais antiga do lote e o fim da gravação")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        tamanhoLotes = DistributionSummary.builder("healthgo.ingestao.lote.tamanho")
+            .description("Registros por lote gravado")
+            .register(meterRegistry);
+        registrosGravados = Counter.builder("healthgo.ingestao.gravados").register(meterRegistry);
+        registrosDescartados = Counter.builder("healthgo.ingestao.descartados").register(meterRegistry);
+        falhasGravacao = Counter.builder("healthgo.ingestao.falhas").register(meterRegistry);
+        registrosRecusados = Counter.builder("healthgo.ingestao.recusados")
+            .description("Amostras recusadas pelo banco, separadas do lote no replay do diário")
+            .register(meterRegistry);
+
+        ativo = true;
+        escritor = modoThreads.fabrica("healthgo-ingestao-escritor-")
+            .newThread(diarioIngestao == null ? this::executarEscritor : this::executarReplayDiario);
+        escritor.start();
+
+        if (diarioIngestao == null) {
+            logger.info("🚚 Ingestão assíncrona iniciada - capacidade: {}, lote: {}, flush: {}ms, política: {}",
+                capacidadeFila, tamanhoLote, intervaloFlushMs, politicaFilaCheia);
+        } else {
+            logger.info("🚚 Ingestão assíncrona iniciada com diário em disco - lote: {}, flush: {}ms, pendentes: {}",
+                tamanhoLote, intervaloFlushMs, diarioIngestao.getRegistrosPendentes());
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        ativo = false;
+        LockSupport.unpark(escritor);
+        escritor.join(TimeUnit.SECONDS.toMillis(10));
+        logger.info("🛑 Ingestão assíncrona encerrada - pendentes: {}", getTamanhoFila());
+    }
+
+    /**
+     * Enfileira os dados para gravação assíncrona (no diário, se habilitado).
+     * Retorna false quando a fila está cheia e os dados foram descartados.
+     */
+    public boolean enfileirar(AmostraSinais amostra) {
+        boolean aceito;
+        if (diarioIngestao != null) {
+            registroPacientesService.registrarPendente(amostra.pacienteId(), amostra.pacienteNome(), amostra.pacienteCpf());
+            aceito = diarioIngestao.anexar(amostra);
+        } else if (politicaFilaCheia == PoliticaFilaCheia.BLOQUEAR) {
+            try {
+                aceito = fila.offer(amostra, timeoutBloqueioMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                aceito = false;
+            }
+        } else {
+            aceito = fila.offer(amostra);
+        }
+
+        if (aceito && diarioIngestao == null) {
+            amostrasAceitas.incrementAndGet();
+        }
+        if (!aceito) {
+            registrosDescartados.increment();
+            logger.warn("⚠️ Fila de ingestão cheia, dados do paciente {} descartados", amostra.pacienteId());
+        }
+        return aceito;
+    }
+
+    /**
+     * Descarta as amostras do paciente aceitas até agora e ainda não gravadas. Retorna depois
+     * que o lote em gravação termina: a partir daí, nenhuma delas chega ao banco
+     */
+    public void excluirPaciente(String pacienteId) throws IOException {
+        long instante = AmostraSinais.agoraMs();
+        if (diarioIngestao != null) {
+            diarioIngestao.registrarExclusao(pacienteId, instante);
+        } else {
+            exclusoes.put(pacienteId, new Exclusao(instante, amostrasAceitas.get()));
+        }
+        gravacao.lock();
+        gravacao.unlock();
+    }
+
+    /**
+     * Quantidade de dados aguardando gravação
+     */
+    public int getTamanhoFila() {
+        return diarioIngestao == null ? fila.size() : (int) Math.min(diarioIngestao.getRegistrosPendentes(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Se os dados aceitos sobrevivem a uma falha do banco ou a um reinício (diário em disco)
+     */
+    public boolean isDuravel() {
+        return diarioIngestao != null;
+    }
+
+    // Laço da thread escritora: drena a fila em lotes até o encerramento
+    private void executarEscritor() {
+        List<AmostraSinais> lote = new ArrayList<>(tamanhoLote);
+        while (ativo || !fila.isEmpty()) {
+            try {
+                removerExclusoesResolvidas();
+                AmostraSinais primeiro = fila.poll(intervaloFlushMs, TimeUnit.MILLISECONDS);
+                if (primeiro == null) {
+                    continue;
+                }
+                lote.add(primeiro);
+                completarLote(lote);
+                gravarComRetentativas(lote);
+                amostrasResolvidas += lote.size();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    // Sem o diário, o lote só existe em memória: a falha transitória é regravada até
+    // tentativasSemDiario vezes; depois disso, ou com o lote recusado, ele é descartado
+    private void gravarComRetentativas(List<AmostraSinais> lote) {
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                gravarLote(lote);
+                if (tentativa > 1) {
+                    logger.info("✅ Lote de {} registros gravado na tentativa {}", lote.size(), tentativa);
+                }
+                return;
+            } catch (RuntimeException e) {
+                falhasGravacao.increment();
+                if (isRecusaDefinitiva(e) || tentativa >= tentativasSemDiario) {
+                    registrosDescartados.increment(lote.size());
+                    logger.error("❌ Lote de {} registros descartado após {} tentativa(s): {} - amostras perdidas por paciente: {}",
+                        lote.size(), tentativa, e.getMessage(), contarPorPaciente(lote));
+                    return;
+                }
+                long espera = Math.min(intervaloMaximoRetentativaMs, intervaloFlushMs << Math.min(tentativa, 10));
+                logger.warn("⚠️ Erro ao gravar lote de {} registros; nova tentativa em {}ms: {}",
+                    lote.size(), espera, e.getMessage());
+                if (ativo) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(espera));
+                }
+            }
+        }
+    }
+
+    // A fila é FIFO: resolvidas as amostras aceitas até a exclusão, nenhuma anterior a ela pode chegar
+    private void removerExclusoesResolvidas() {
+        if (!exclusoes.isEmpty()) {
+            long resolvidas = amostrasResolvidas;
+            exclusoes.values().removeIf(exclusao -> exclusao.aceitasAte() <= resolvidas);
+        }
+    }
+
+    private static Map<String, Long> contarPorPaciente(List<AmostraSinais> lote) {
+        return lote.stream().collect(Collectors.groupingBy(AmostraSinais::pacienteId, TreeMap::new, Collectors.counting()));
+    }
+
+    // Laço da thread escritora com o diário: lê a partir do checkpoint, grava e confirma.
+    // No encerramento, grava o que ainda houver, a menos que o banco esteja falhando.
+    private void executarReplayDiario() {
+        List<AmostraSinais> lote = new ArrayList<>(tamanhoLote);
+        int falhasSeguidas = 0;
+        while (ativo || (falhasSeguidas == 0 && diarioIngestao.temPendentes())) {
+            try {
+                if (!diarioIngestao.lerLote(lote, tamanhoLote, intervaloFlushMs)) {
+                    continue;
+                }
+                try {
+                    gravarLote(lote);
+                } catch (RuntimeException e) {
+                    if (!isRecusaDefinitiva(e)) {
+                        throw e;
+                    }
+                    isolarRecusados(lote);
+                }
+                diarioIngestao.confirmar();
+                if (falhasSeguidas > 0) {
+                    logger.info("✅ Gravação no banco restabelecida após {} tentativas", falhasSeguidas);
+                }
+                falhasSeguidas = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                falhasGravacao.increment();
+                falhasSeguidas++;
+                diarioIngestao.voltarAoCheckpoint();
+                long espera = Math.min(intervaloMaximoRetentativaMs, intervaloFlushMs << Math.min(falhasSeguidas, 10));
+                logger.error("❌ Erro ao gravar lote de {} registros, mantidos no diário; nova tentativa em {}ms: {}",
+                    lote.size(), espera, e.getMessage());
+                if (ativo) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(espera));
+                }
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    // Lote recusado pelo banco: grava cada metade separadamente e divide de novo a que falhar,
+    // até isolar os registros recusados, que vão para os descartados do diário
+    private void isolarRecusados(List<AmostraSinais> lote) throws IOException {
+        if (lote.size() == 1) {
+            AmostraSinais amostra = lote.get(0);
+            diarioIngestao.descartar(amostra);
+            registrosRecusados.increment();
+            logger.error("❌ Amostra do paciente {} ({}) recusada pelo banco, movida para os descartados do diário",
+                amostra.pacienteId(), amostra.timestamp());
+            return;
+        }
+        int meio = lote.size() / 2;
+        for (List<AmostraSinais> metade : List.of(lote.subList(0, meio), lote.subList(meio, lote.size()))) {
+            try {
+                gravarLote(metade);
+            } catch (RuntimeException e) {
+                if (!isRecusaDefinitiva(e)) {
+                    throw e;
+                }
+                isolarRecusados(metade);
+            }
+        }
+    }
+
+    // Amostra criada até a exclusão do paciente
+    private boolean isExcluida(AmostraSinais amostra) {
+        Long instante;
+        if (diarioIngestao != null) {
+            instante = diarioIngestao.instanteExclusao(amostra.pacienteId());
+        } else {
+            Exclusao exclusao = exclusoes.get(amostra.pacienteId());
+            instante = exclusao == null ? null : exclusao.instante();
+        }
+        return instante != null && amostra.dataCriacaoMs() <= instante;
+    }
+
+    private static boolean isRecusaDefinitiva(Throwable falha) {
+        return FalhasBanco.isRegistroRecusado(falha) && !FalhasBanco.isTransitoria(falha);
+    }
+
+    // Aguarda até o lote encher ou o intervalo de flush expirar
+    private void completarLote(List<AmostraSinais> lote) throws InterruptedException {
+        long prazo = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(intervaloFlushMs);
+        while (lote.size() < tamanhoLote) {
+            fila.drainTo(lote, tamanhoLote - lote.size());
+            long restante = prazo - System.nanoTime();
+            if (lote.size() >= tamanhoLote || restante <= 0) {
+                return;
+            }
+            AmostraSinais proximo = fila.poll(restante, TimeUnit.NANOSECONDS);
+            if (proximo == null) {
+                return;
+            }
+            lote.add(proximo);
+        }
+    }
+
+    // Conta como gravadas só as amostras inseridas: sem as de pacientes excluídos e as ignoradas
+    // pelo ON CONFLICT (já gravadas), conforme o retorno de salvarTodos
+    private void gravarLote(List<AmostraSinais> lote) {
+        int gravadas = 0;
+        gravacao.lock();
+        try {
+            List<DadosPaciente> entidades = new ArrayList<>(lote.size());
+            for (AmostraSinais amostra : lote) {
+                if (!isExcluida(amostra)) {
+                    entidades.add(amostra.paraDadosPaciente());
+                }
+            }
+            if (entidades.size() < lote.size()) {
+                logger.debug("🗑️ {} amostras de pacientes excluídos descartadas do lote", lote.size() - entidades.size());
+            }
+            if (!entidades.isEmpty()) {
+                gravadas = latenciaFlush.record(() -> dadosPacienteService.salvarTodos(entidades)).size();
+            }
+        } finally {
+            gravacao.unlock();
+        }
+        atrasoGravacao.record(Math.max(0, AmostraSinais.agoraMs() - lote.get(0).dataCriacaoMs()), TimeUnit.MILLISECONDS);
+        tamanhoLotes.record(lote.size());
+        registrosGravados.increment(gravadas);
+    }
+
+    // Instante da exclusão e quantas amostras a fila tinha aceitado até ela
+    private record Exclusao(long instante, long aceitasAte) {
+    }
+}
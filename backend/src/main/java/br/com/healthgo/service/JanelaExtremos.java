@@ -0,0 +1,63 @@
+package br.com.healthgo.service;
+
+/**
+ * Mínimo (ou máximo) de um sinal nos últimos N milissegundos, em O(1) amortizado por amostra.
+ *
+ * Fila monotônica sobre um buffer circular de primitivos: cada amostra entra e sai
+ * no máximo uma vez, e o extremo está sempre na frente. Se chegarem mais amostras
+ * do que a capacidade dentro da janela, as mais antigas são descartadas primeiro.
+ * Não é thread-safe; o estado de cada paciente é protegido pelo chamador.
+ */
+final class JanelaExtremos {
+
+    private final long janelaMs;
+    private final boolean minimo;
+    private final long[] tempos;
+    private final double[] valores;
+    private int inicio;
+    private int quantidade;
+
+    JanelaExtremos(long janelaMs, int capacidade, boolean minimo) {
+        this.janelaMs = janelaMs;
+        this.minimo = minimo;
+        this.tempos = new long[capacidade];
+        this.valores = new double[capacidade];
+    }
+
+    /**
+     * Inclui a amostra e retorna o extremo da janela que termina nela
+     */
+    double adicionar(long tempoMs, double valor) {
+        // Valores que nunca mais serão o extremo saem pelo fim
+        while (quantidade > 0 && dominado(valores[indice(quantidade - 1)], valor)) {
+            quantidade--;
+        }
+        if (quantidade == tempos.length) {
+            removerInicio();
+        }
+        int fim = indice(quantidade);
+        tempos[fim] = tempoMs;
+        valores[fim] = valor;
+        quantidade++;
+
+        long limite = tempoMs - janelaMs;
+        while (tempos[inicio] < limite) {
+            removerInicio();
+        }
+        return valores[inicio];
+    }
+
+    private boolean dominado(double anterior, double novo) {
+        return minimo ? anterior >= novo : anterior <= novo;
+    }
+
+    private void removerInicio() {
+        inicio = indice(1);
+        quantidade--;
+    }
+
+    private int indice(int deslocamento) {
+        int i = inicio + deslocamento;
+        return i >= tempos.length ? i - tempos.length : i;
+    }
+}
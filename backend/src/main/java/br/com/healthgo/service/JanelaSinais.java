@@ -0,0 +1,114 @@
+package br.com.healthgo.service;
+
+import br.com.healthgo.model.AmostraSinais;
+import br.com.healthgo.model.DadosPaciente;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Últimas amostras de um paciente em um buffer circular de primitivos.
+ *
+ * Os sinais ficam em {@code short} (temperatura em décimos de grau, como no formato
+ * binário), então cada posição ocupa {@link #BYTES_POR_AMOSTRA} bytes e o consumo de
+ * memória é fixo desde a criação. Quando o buffer enche, a amostra mais antiga é sobrescrita.
+ */
+final class JanelaSinais {
+
+    // data de criação (8) + horário (4) + 6 sinais (2 cada) + status (1)
+    static final int BYTES_POR_AMOSTRA = 25;
+
+    private static final short AUSENTE = Short.MIN_VALUE;
+
+    private final long[] tempos;
+    private final int[] horarios;
+    private final short[] freqCardiaca;
+    private final short[] saturacaoO2;
+    private final short[] pressaoSistolica;
+    private final short[] pressaoDiastolica;
+    private final short[] temperatura;
+    private final short[] freqRespiratoria;
+    private final boolean[] alertas;
+    private int proxima;
+    private int quantidade;
+
+    JanelaSinais(int capacidade) {
+        tempos = new long[capacidade];
+        horarios = new int[capacidade];
+        freqCardiaca = new short[capacidade];
+        saturacaoO2 = new short[capacidade];
+        pressaoSistolica = new short[capacidade];
+        pressaoDiastolica = new short[capacidade];
+        temperatura = new short[capacidade];
+        freqRespiratoria = new short[capacidade];
+        alertas = new boolean[capacidade];
+    }
+
+    synchronized void adicionar(AmostraSinais amostra) {
+        int i = proxima;
+        tempos[i] = amostra.dataCriacaoMs();
+        horarios[i] = amostra.horarioCentesimos();
+        freqCardiaca[i] = paraShort(amostra.freqCardiaca());
+        saturacaoO2[i] = paraShort(amostra.saturacaoO2());
+        pressaoSistolica[i] = paraShort(amostra.pressaoSistolica());
+        pressaoDiastolica[i] = paraShort(amostra.pressaoDiastolica());
+        temperatura[i] = Double.isNaN(amostra.temperatura()) ? AUSENTE : (short) Math.round(amostra.temperatura() * 10);
+        freqRespiratoria[i] = paraShort(amostra.freqRespiratoria());
+        alertas[i] = amostra.alerta();
+        proxima = i + 1 == tempos.length ? 0 : i + 1;
+        if (quantidade < tempos.length) {
+            quantidade++;
+        }
+    }
+
+    /**
+     * Preenche a janela com amostras em ordem cronológica (lidas do banco) se ela ainda estiver
+     * vazia; com uma amostra já recebida, as do banco chegariam fora de ordem e são ignoradas
+     */
+    synchronized boolean preencherSeVazia(List<AmostraSinais> amostras) {
+        if (quantidade > 0) {
+            return false;
+        }
+        amostras.forEach(this::adicionar);
+        return true;
+    }
+
+    /**
+     * Amostras com data de criação a partir de {@code desdeMs}, em ordem cronológica
+     */
+    synchronized List<DadosPaciente> copiar(String pacienteId, long desdeMs) {
+        // Do fim para o começo até sair da janela, então devolve na ordem de chegada
+        int encontradas = 0;
+        while (encontradas < quantidade && tempos[indiceDoFim(encontradas)] >= desdeMs) {
+            encontradas++;
+        }
+        List<DadosPaciente> dados = new ArrayList<>(encontradas);
+        for (int n = encontradas - 1; n >= 0; n--) {
+            int i = indiceDoFim(n);
+            dados.add(new AmostraSinais(pacienteId, horarios[i], null,
+                paraInt(freqCardiaca[i]), paraInt(saturacaoO2[i]), paraInt(pressaoSistolica[i]),
+                paraInt(pressaoDiastolica[i]), temperatura[i] == AUSENTE ? Double.NaN : temperatura[i] / 10.0,
+                paraInt(freqRespiratoria[i]), alertas[i], tempos[i], null, null).paraDadosPaciente());
+        }
+        return dados;
+    }
+
+    synchronized long getUltimoTempo() {
+        return quantidade == 0 ? Long.MIN_VALUE : tempos[indiceDoFim(0)];
+    }
+
+    // Posição da n-ésima amostra mais recente (0 = a última)
+    private int indiceDoFim(int n) {
+        int i = proxima - 1 - n;
+        return i < 0 ? i + tempos.length : i;
+    }
+
+    private static short paraShort(int valor) {
+        return valor == AmostraSinais.AUSENTE || valor < Short.MIN_VALUE + 1 || valor > Short.MAX_VALUE
+            ? AUSENTE : (short) valor;
+    }
+
+    private static int paraInt(short valor) {
+        return valor == AUSENTE ? AmostraSinais.AUSENTE : valor;
+    }
+}
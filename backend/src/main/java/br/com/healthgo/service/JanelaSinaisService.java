@@ -0,0 +1,191 @@
+package br.com.healthgo.service;
+
+import br.com.healthgo.model.AmostraSinais;
+import br.com.healthgo.model.DadosPaciente;
+import br.com.healthgo.repository.DadosPacienteRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Últimos minutos de sinais de cada paciente, em memória, preenchidos na ingestão.
+ *
+ * Atende os gráficos de tendência recente sem consultar o banco. Cada paciente tem
+ * uma {@link JanelaSinais} com {@code segundos-retidos × amostras-por-segundo-max}
+ * posições, e no máximo {@code maximo-pacientes} são mantidos (o paciente sem dados
+ * há mais tempo sai primeiro), então a memória total é limitada pela configuração.
+ *
+ * Com o Redis, a janela é preenchida pelos quadros do canal {@code healthgo:dados:*},
+ * que trazem as amostras de todas as instâncias. Paciente sem amostras na janela
+ * (instância recém iniciada, dados só via REST em outra instância) é buscado no banco,
+ * e o resultado preenche a janela; um paciente sem dados no banco não é consultado de
+ * novo antes de {@code intervalo-consulta-banco-ms}.
+ */
+@Service
+public class JanelaSinaisService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JanelaSinaisService.class);
+
+    @Value("${healthgo.janela.segundos-retidos:300}")
+    private int segundosRetidos;
+
+    @Value("${healthgo.janela.amostras-por-segundo-max:5}")
+    private int amostrasPorSegundoMax;
+
+    @Value("${healthgo.janela.maximo-pacientes:1000}")
+    private int maximoPacientes;
+
+    @Value("${healthgo.janela.intervalo-consulta-banco-ms:5000}")
+    private long intervaloConsultaBancoMs;
+
+    @Autowired
+    private RegistroPacientesService registroPacientesService;
+
+    @Autowired
+    private DadosPacienteRepository dadosPacienteRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, JanelaSinais> janelas = new ConcurrentHashMap<>();
+    // Pacientes sem dados recentes no banco → instante até o qual não são consultados de novo
+    private final ConcurrentMap<String, Long> semDadosNoBanco = new ConcurrentHashMap<>();
+
+    private int capacidade;
+
+    @PostConstruct
+    public void iniciar() {
+        capacidade = segundosRetidos * amostrasPorSegundoMax;
+        Gauge.builder("healthgo.janela.pacientes", janelas, Map::size)
+            .register(meterRegistry);
+        Gauge.builder("healthgo.janela.memoria", janelas, mapa -> (double) mapa.size() * capacidade * JanelaSinais.BYTES_POR_AMOSTRA)
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        logger.info("🪟 Janela em memória: {} s por paciente, até {} pacientes ({} KB por paciente)",
+            segundosRetidos, maximoPacientes, (long) capacidade * JanelaSinais.BYTES_POR_AMOSTRA / 1024);
+    }
+
+    /**
+     * Inclui a amostra na janela do paciente
+     */
+    public void registrar(AmostraSinais amostra) {
+        if (amostra.pacienteId() == null) {
+            return;
+        }
+        janela(amostra.pacienteId()).adicionar(amostra);
+    }
+
+    public void registrar(DadosPaciente dadosPaciente) {
+        registrar(AmostraSinais.deDadosPaciente(dadosPaciente));
+    }
+
+    /**
+     * Amostras do paciente nos últimos {@code segundos} (limitado a segundos-retidos), em ordem cronológica
+     */
+    public List<DadosPaciente> buscar(String pacienteId, int segundos) {
+        long agoraMs = AmostraSinais.agoraMs();
+        long desdeMs = agoraMs - Math.min(segundos, segundosRetidos) * 1000L;
+        JanelaSinais janela = janelas.get(pacienteId);
+        List<DadosPaciente> dados = janela == null ? List.of() : janela.copiar(pacienteId, desdeMs);
+        if (dados.isEmpty()) {
+            dados = buscarNoBanco(pacienteId, desdeMs, agoraMs);
+        }
+        return registroPacientesService.enriquecer(dados);
+    }
+
+    public int getSegundosRetidos() {
+        return segundosRetidos;
+    }
+
+    /**
+     * Descarta a janela do paciente (eliminação LGPD)
+     */
+    public void removerPaciente(String pacienteId) {
+        janelas.remove(pacienteId);
+        semDadosNoBanco.remove(pacienteId);
+    }
+
+    private JanelaSinais janela(String pacienteId) {
+        JanelaSinais janela = janelas.get(pacienteId);
+        if (janela == null) {
+            if (janelas.size() >= maximoPacientes) {
+                removerMaisAntigo();
+            }
+            janela = janelas.computeIfAbsent(pacienteId, id -> new JanelaSinais(capacidade));
+        }
+        return janela;
+    }
+
+    // Amostras que não passaram por esta instância: lê todo o período retido, que preenche a
+    // janela para as próximas consultas, e devolve só o período pedido
+    private List<DadosPaciente> buscarNoBanco(String pacienteId, long desdeMs, long agoraMs) {
+        Long proximaConsulta = semDadosNoBanco.get(pacienteId);
+        if (proximaConsulta != null && proximaConsulta > agoraMs) {
+            return List.of();
+        }
+        List<DadosPaciente> dados;
+        try {
+            dados = dadosPacienteRepository.findByPacienteIdAndPeriodo(
+                pacienteId, paraDataHora(agoraMs - segundosRetidos * 1000L), paraDataHora(agoraMs));
+        } catch (Exception e) {
+            logger.error("❌ Erro ao buscar sinais recentes do paciente {} no banco: {}", pacienteId, e.getMessage());
+            return List.of();
+        }
+        if (dados.isEmpty()) {
+            lembrarSemDados(pacienteId, agoraMs + intervaloConsultaBancoMs);
+            return dados;
+        }
+        semDadosNoBanco.remove(pacienteId);
+        List<AmostraSinais> amostras = dados.stream().map(AmostraSinais::deDadosPaciente).toList();
+        if (janela(pacienteId).preencherSeVazia(amostras)) {
+            logger.debug("🪟 Janela do paciente {} preenchida com {} amostras do banco", pacienteId, amostras.size());
+        }
+        LocalDateTime desde = paraDataHora(desdeMs);
+        return dados.stream().filter(d -> !d.getDataCriacao().isBefore(desde)).toList();
+    }
+
+    // Ids vêm do cliente: acima de maximo-pacientes, descarta os vencidos e, se preciso, todos
+    private void lembrarSemDados(String pacienteId, long ate) {
+        if (semDadosNoBanco.size() >= maximoPacientes) {
+            long agoraMs = AmostraSinais.agoraMs();
+            semDadosNoBanco.values().removeIf(expira -> expira <= agoraMs);
+            if (semDadosNoBanco.size() >= maximoPacientes) {
+                semDadosNoBanco.clear();
+            }
+        }
+        semDadosNoBanco.put(pacienteId, ate);
+    }
+
+    private static LocalDateTime paraDataHora(long ms) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(ms, 1000L), (int) Math.floorMod(ms, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    // Abre espaço para um paciente novo; percorre o mapa, mas só ocorre quando o limite é atingido
+    private void removerMaisAntigo() {
+        String maisAntigo = null;
+        long tempoMaisAntigo = Long.MAX_VALUE;
+        for (Map.Entry<String, JanelaSinais> entrada : janelas.entrySet()) {
+            long ultimo = entrada.getValue().getUltimoTempo();
+            if (ultimo < tempoMaisAntigo) {
+                tempoMaisAntigo = ultimo;
+                maisAntigo = entrada.getKey();
+            }
+        }
+        if (maisAntigo != null) {
+            janelas.remove(maisAntigo);
+            logger.debug("🪟 Janela do paciente {} descartada: limite de {} pacientes", maisAntigo, maximoPacientes);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package br.com.healthgo.service;
+
+import br.com.healthgo.model.ResolucaoHistorico;
+import br.com.healthgo.repository.AgregadosRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.function.BiFunction;
+
+/**
+ * Manutenção periódica de dados_pacientes:
+ * cria as partições diárias dos próximos dias, agrega as amostras brutas
+ * em dados_pacientes_1m e dados_pacientes_1h e aplica a retenção de cada nível.
+ * A agregação avança a partir do último minuto agregado; amostras gravadas depois
+ * disso com data de criação anterior (replay do diário) deixam uma marca em
+ * dados_pacientes_reagregar, e o período marcado é reagregado na execução seguinte.
+ *
+ * Cada execução roda em uma transação com advisory lock, de modo que apenas
+ * uma instância do backend faz a manutenção por vez.
+ */
+@Service
+@ConditionalOnProperty(name = "healthgo.manutencao.habilitado", havingValue = "true", matchIfMissing = true)
+public class ManutencaoDadosService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ManutencaoDadosService.class);
+
+    private static final long CHAVE_BLOQUEIO = 0x4845414c5448L;
+    private static final DateTimeFormatter FORMATO_PARTICAO = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    /**
+     * O que fazer com partições de dados brutos expiradas
+     */
+    public enum AcaoRetencao {
+        DESCARTAR,
+        // Desanexa a partição de dados_pacientes, mantendo a tabela para backup/exportação
+        ARQUIVAR
+    }
+
+    @Value("${healthgo.particoes.dias-futuros:3}")
+    private int diasFuturos;
+
+    @Value("${healthgo.retencao.dados-brutos-dias:30}")
+    private int retencaoBrutosDias;
+
+    @Value("${healthgo.retencao.agregados-minuto-dias:365}")
+    private int retencaoMinutoDias;
+
+    @Value("${healthgo.retencao.agregados-hora-dias:1825}")
+    private int retencaoHoraDias;
+
+    @Value("${healthgo.retencao.acao:DESCARTAR}")
+    private AcaoRetencao acaoRetencao;
+
+    @Autowired
+    private AgregadosRepository agregadosRepository;
+
+    @Autowired
+    private EstatisticasService estatisticasService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Agrega as amostras brutas por minuto e os minutos por hora
+     */
+    @Scheduled(fixedDelayString = "${healthgo.manutencao.intervalo-agregacao-ms:60000}")
+    public void agregar() {
+        executarComBloqueio("agregação", this::agregarPendentes);
+    }
+
+    /**
+     * Cria as partições futuras e aplica a retenção
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${healthgo.manutencao.cron-particoes:0 0 * * * *}")
+    public void manterParticoes() {
+        executarComBloqueio("manutenção de partições", () -> {
+            LocalDate hoje = LocalDate.now();
+            for (int dia = 0; dia <= diasFuturos; dia++) {
+                agregadosRepository.criarParticao(hoje.plusDays(dia));
+            }
+
+            // Garante que nada é descartado antes de ser agregado
+            agregarPendentes();
+            int particoesExpiradas = aplicarRetencaoBrutos(hoje.minusDays(retencaoBrutosDias));
+
+            LocalDateTime agora = LocalDateTime.now();
+            int minutos = agregadosRepository.descartarAgregados(ResolucaoHistorico.MINUTO, agora.minusDays(retencaoMinutoDias));
+            int horas = agregadosRepository.descartarAgregados(ResolucaoHistorico.HORA, agora.minusDays(retencaoHoraDias));
+
+            logger.info("🗂️ Partições mantidas - Expiradas: {} ({}), agregados removidos: {} minutos, {} horas",
+                particoesExpiradas, acaoRetencao, minutos, horas);
+            if (particoesExpiradas > 0) {
+                estatisticasService.recarregar();
+            }
+        });
+    }
+
+    /**
+     * Reagrega um período passado, que a agregação periódica não revisita (ex: histórico
+     * importado). Aguarda a manutenção em andamento em outra instância, em vez de pular
+     */
+    public void agregarPeriodo(LocalDateTime inicio, LocalDateTime fim) {
+        transactionTemplate.executeWithoutResult(status -> {
+            agregadosRepository.bloquear(CHAVE_BLOQUEIO);
+            reagregar(inicio, fim);
+        });
+    }
+
+    // Minutos e horas inteiros, para não gravar um período com só parte das amostras
+    private void reagregar(LocalDateTime inicio, LocalDateTime fim) {
+        LocalDateTime fimMinutos = fim.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        int minutos = agregarEmPassos(inicio.truncatedTo(ChronoUnit.MINUTES), fimMinutos,
+            agregadosRepository::agregarMinutos);
+        int horas = agregarEmPassos(inicio.truncatedTo(ChronoUnit.HOURS), fim.truncatedTo(ChronoUnit.HOURS).plusHours(1),
+            agregadosRepository::agregarHoras);
+        logger.info("📈 Período de {} a {} reagregado - {} minutos e {} horas", inicio, fim, minutos, horas);
+    }
+
+    private void agregarPendentes() {
+        // Amostras gravadas com atraso, em minutos que a agregação já tinha passado
+        LocalDateTime[] atrasados = agregadosRepository.consumirReagregacao();
+        if (atrasados != null) {
+            reagregar(atrasados[0], atrasados[1]);
+        }
+
+        LocalDateTime fim = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+
+        // Reprocessa o último minuto/hora já agregado, que pode ter sido parcial
+        LocalDateTime inicioMinutos = agregadosRepository.ultimoPeriodo(ResolucaoHistorico.MINUTO);
+        if (inicioMinutos == null) {
+            inicioMinutos = agregadosRepository.primeiraDataCriacao();
+        }
+        if (inicioMinutos == null) {
+            return;
+        }
+        int minutos = agregarEmPassos(inicioMinutos.truncatedTo(ChronoUnit.MINUTES), fim,
+            agregadosRepository::agregarMinutos);
+
+        LocalDateTime inicioHoras = agregadosRepository.ultimoPeriodo(ResolucaoHistorico.HORA);
+        if (inicioHoras == null) {
+            inicioHoras = agregadosRepository.primeiroPeriodo(ResolucaoHistorico.MINUTO);
+        }
+        int horas = inicioHoras == null ? 0 : agregarEmPassos(inicioHoras.truncatedTo(ChronoUnit.HOURS), fim,
+            agregadosRepository::agregarHoras);
+
+        logger.debug("📈 Agregação concluída - {} minutos e {} horas atualizados", minutos, horas);
+    }
+
+    // Processa no máximo um dia por comando, para não montar um único INSERT gigante no primeiro ciclo
+    private static int agregarEmPassos(LocalDateTime inicio, LocalDateTime fim,
+                                       BiFunction<LocalDateTime, LocalDateTime, Integer> agregacao) {
+        int total = 0;
+        while (inicio.isBefore(fim)) {
+            LocalDateTime passo = inicio.plusDays(1).isBefore(fim) ? inicio.plusDays(1) : fim;
+            total += agregacao.apply(inicio, passo);
+            inicio = passo;
+        }
+        return total;
+    }
+
+    private int aplicarRetencaoBrutos(LocalDate limite) {
+        LocalDateTime ultimoAgregado = agregadosRepository.ultimoPeriodo(ResolucaoHistorico.MINUTO);
+        int expiradas = 0;
+        for (String particao : agregadosRepository.listarParticoes()) {
+            LocalDate dia;
+            try {
+                dia = LocalDate.parse(particao.substring(AgregadosRepository.PREFIXO_PARTICAO.length()), FORMATO_PARTICAO);
+            } catch (DateTimeParseException e) {
+                continue;
+            }
+            // A partição cobre [dia, dia + 1)
+            LocalDate fimParticao = dia.plusDays(1);
+            if (fimParticao.isAfter(limite)) {
+                continue;
+            }
+            if (ultimoAgregado == null || ultimoAgregado.isBefore(fimParticao.atStartOfDay())) {
+                logger.warn("⚠️ Partição {} expirada ainda não foi agregada, mantida até a próxima execução", particao);
+                continue;
+            }
+            if (acaoRetencao == AcaoRetencao.ARQUIVAR) {
+                agregadosRepository.arquivarParticao(particao);
+            } else {
+                agregadosRepository.descartarParticao(particao);
+            }
+            expiradas++;
+        }
+        return expiradas;
+    }
+
+    private void executarComBloqueio(String tarefa, Runnable acao) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!agregadosRepository.tentarBloquear(CHAVE_BLOQUEIO)) {
+                    logger.debug("⏭️ {} em execução por outra instância", tarefa);
+                    return;
+                }
+                acao.run();
+            });
+        } catch (Exception e) {
+            logger.error("❌ Erro na {} de dados_pacientes: {}", tarefa, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package br.com.healthgo.service;
+
+import br.com.healthgo.model.AmostraSinais;
+import br.com.healthgo.model.DadosPaciente;
+import br.com.healthgo.model.EventoAlerta;
+import br.com.healthgo.model.RegraAlerta;
+import br.com.healthgo.model.SinalVital;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Avaliação das regras de alerta clínico no momento da ingestão.
+ *
+ * Cada paciente tem seu estado por regra (início da violação e se já disparou) e uma
+ * {@link JanelaExtremos} por combinação de sinal, janela e sentido usada pelas regras de
+ * variação, compartilhada entre elas; cada amostra custa O(1) por regra, sem consultar o banco. Os disparos viram {@link EventoAlerta} publicados como
+ * evento da aplicação e repassados ao canal /ws/alertas.
+ *
+ * As regras vêm de um arquivo JSON recarregado quando ele muda (ou pela API); o estado
+ * dos pacientes é recriado na primeira amostra depois de uma troca de regras.
+ */
+@Service
+public class MotorAlertasService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MotorAlertasService.class);
+
+    private static final long SEM_VIOLACAO = Long.MIN_VALUE;
+    private static final SinalVital[] SINAIS = SinalVital.values();
+
+    @Value("${healthgo.alertas.arquivo-regras:classpath:regras-alerta.json}")
+    private String arquivoRegras;
+
+    // Dimensiona as janelas das regras de variação (amostras por segundo por paciente)
+    @Value("${healthgo.alertas.amostras-por-segundo-max:10}")
+    private int amostrasPorSegundoMax;
+
+    @Value("${healthgo.alertas.eventos-recentes:200}")
+    private int maximoEventosRecentes;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private volatile ConjuntoRegras conjunto = ConjuntoRegras.de(List.of());
+    private volatile long ultimaModificacao;
+
+    private final ConcurrentMap<String, EstadoPaciente> estados = new ConcurrentHashMap<>();
+    private final Deque<EventoAlerta> eventosRecentes = new ArrayDeque<>();
+
+    @PostConstruct
+    public void iniciar() {
+        try {
+            recarregar();
+        } catch (Exception e) {
+            logger.error("❌ Erro ao carregar regras de alerta de {}: {}", arquivoRegras, e.getMessage());
+        }
+    }
+
+    /**
+     * Recarrega as regras se o arquivo foi alterado (apenas para arquivos no sistema de arquivos)
+     */
+    @Scheduled(fixedDelayString = "${healthgo.alertas.intervalo-verificacao-ms:5000}")
+    public void verificarAlteracoes() {
+        try {
+            Resource recurso = resourceLoader.getResource(arquivoRegras);
+            if (recurso.isFile() && recurso.lastModified() != ultimaModificacao) {
+                recarregar();
+            }
+        } catch (Exception e) {
+            logger.error("❌ Erro ao recarregar regras de alerta de {}: {}", arquivoRegras, e.getMessage());
+        }
+    }
+
+    /**
+     * Lê o arquivo de regras e troca o conjunto em uso; em caso de erro, as regras atuais são mantidas
+     */
+    public synchronized List<RegraAlerta> recarregar() throws IOException {
+        Resource recurso = resourceLoader.getResource(arquivoRegras);
+        // Registrada antes da leitura para não repetir o erro a cada verificação
+        ultimaModificacao = recurso.isFile() ? recurso.lastModified() : 0;
+
+        List<RegraAlerta> regras;
+        try (InputStream entrada = recurso.getInputStream()) {
+            regras = objectMapper.readValue(entrada, new TypeReference<List<RegraAlerta>>() {});
+        }
+        Set<String> ids = new HashSet<>();
+        for (RegraAlerta regra : regras) {
+            if (!ids.add(regra.id())) {
+                throw new IllegalArgumentException("Regra duplicada: " + regra.id());
+            }
+        }
+
+        conjunto = ConjuntoRegras.de(regras);
+        logger.info("🚨 {} regras de alerta carregadas de {}", regras.size(), arquivoRegras);
+        return regras;
+    }
+
+    /**
+     * Avalia as regras para a amostra, retornando-a com status ALERTA se alguma regra estiver violada
+     */
+    public AmostraSinais avaliar(AmostraSinais amostra) {
+        ConjuntoRegras atual = conjunto;
+        RegraAlerta[] regras = atual.regras();
+        if (regras.length == 0 || amostra.pacienteId() == null) {
+            return amostra;
+        }
+
+        EstadoPaciente estado = estados.get(amostra.pacienteId());
+        if (estado == null) {
+            estado = estados.computeIfAbsent(amostra.pacienteId(), id -> new EstadoPaciente());
+        }
+
+        List<EventoAlerta> disparos = null;
+        boolean emAlerta = false;
+        synchronized (estado) {
+            if (estado.conjunto != atual) {
+                estado.reiniciar(atual, amostrasPorSegundoMax);
+            }
+            // Cada sinal é lido uma vez por amostra, não uma vez por regra
+            double[] valores = estado.valores;
+            for (int s = 0; s < SINAIS.length; s++) {
+                valores[s] = SINAIS[s].valor(amostra);
+            }
+            long tempoMs = amostra.dataCriacaoMs();
+            RegraAlerta[] janelas = atual.janelas();
+            for (int j = 0; j < janelas.length; j++) {
+                double valor = valores[janelas[j].sinal().ordinal()];
+                estado.extremos[j] = Double.isNaN(valor) ? Double.NaN : estado.janelas[j].adicionar(tempoMs, valor);
+            }
+            for (int i = 0; i < regras.length; i++) {
+                RegraAlerta regra = regras[i];
+                double valor = valores[regra.sinal().ordinal()];
+                if (Double.isNaN(valor)) {
+                    continue;
+                }
+                boolean violada = regra.tipo() == RegraAlerta.Tipo.LIMITE
+                    ? avaliarLimite(estado, i, regra, valor, tempoMs)
+                    : avaliarVariacao(regra, valor, estado.extremos[atual.janelaDaRegra()[i]]);
+
+                if (violada && !estado.disparadas[i]) {
+                    if (disparos == null) {
+                        disparos = new ArrayList<>(2);
+                    }
+                    disparos.add(new EventoAlerta(amostra.pacienteId(), regra.id(), regra.descricao(),
+                        regra.severidade(), regra.sinal(), valor, amostra.dataCriacao()));
+                }
+                estado.disparadas[i] = violada;
+                emAlerta |= violada;
+            }
+        }
+
+        if (disparos != null) {
+            disparos.forEach(this::emitir);
+        }
+        return emAlerta ? amostra.comAlerta() : amostra;
+    }
+
+    /**
+     * Avalia uma amostra recebida pela API REST, marcando o status como ALERTA se alguma regra estiver violada
+     */
+    public DadosPaciente avaliar(DadosPaciente dadosPaciente) {
+        if (avaliar(AmostraSinais.deDadosPaciente(dadosPaciente)).alerta()) {
+            dadosPaciente.setStatus("ALERTA");
+        }
+        return dadosPaciente;
+    }
+
+    private boolean avaliarLimite(EstadoPaciente estado, int i, RegraAlerta regra, double valor, long tempoMs) {
+        boolean fora = regra.operador() == RegraAlerta.Operador.ABAIXO ? valor < regra.limite() : valor > regra.limite();
+        if (!fora) {
+            estado.inicioViolacao[i] = SEM_VIOLACAO;
+            return false;
+        }
+        if (estado.inicioViolacao[i] == SEM_VIOLACAO) {
+            estado.inicioViolacao[i] = tempoMs;
+        }
+        return tempoMs - estado.inicioViolacao[i] >= regra.duracaoSegundos() * 1000L;
+    }
+
+    // Subida: compara com o mínimo da janela; queda: com o máximo
+    private boolean avaliarVariacao(RegraAlerta regra, double valor, double referencia) {
+        return regra.variacao() > 0
+            ? valor - referencia >= regra.variacao()
+            : valor - referencia <= regra.variacao();
+    }
+
+    private void emitir(EventoAlerta evento) {
+        logger.warn("🚨 Alerta {} para paciente {}: {} ({} = {})", evento.severidade(), evento.pacienteId(),
+            evento.descricao(), evento.sinal(), evento.valor());
+        meterRegistry.counter("healthgo.alertas.disparados",
+            "regra", evento.regra(), "severidade", evento.severidade().name()).increment();
+        synchronized (eventosRecentes) {
+            eventosRecentes.addFirst(evento);
+            while (eventosRecentes.size() > maximoEventosRecentes) {
+                eventosRecentes.removeLast();
+            }
+        }
+        try {
+            eventPublisher.publishEvent(evento);
+        } catch (Exception e) {
+            logger.error("❌ Erro ao publicar alerta do paciente {}: {}", evento.pacienteId(), e.getMessage());
+        }
+    }
+
+    public List<RegraAlerta> listarRegras() {
+        return List.of(conjunto.regras());
+    }
+
+    /**
+     * Últimos alertas disparados, mais recentes primeiro
+     */
+    public List<EventoAlerta> listarEventosRecentes() {
+        synchronized (eventosRecentes) {
+            return new ArrayList<>(eventosRecentes);
+        }
+    }
+
+    /**
+     * Descarta o estado das regras e os alertas recentes do paciente (eliminação LGPD)
+     */
+    public void removerPaciente(String pacienteId) {
+        estados.remove(pacienteId);
+        synchronized (eventosRecentes) {
+            eventosRecentes.removeIf(evento -> pacienteId.equals(evento.pacienteId()));
+        }
+    }
+
+    /**
+     * Regras em uso e as janelas distintas das regras de variação; {@code janelas[j]} é a
+     * primeira regra com aquele sinal, janela e sentido, e {@code janelaDaRegra[i]} aponta
+     * a janela da regra i (-1 nas regras de limite)
+     */
+    private record ConjuntoRegras(RegraAlerta[] regras, int[] janelaDaRegra, RegraAlerta[] janelas) {
+
+        static ConjuntoRegras de(List<RegraAlerta> lista) {
+            RegraAlerta[] regras = lista.toArray(new RegraAlerta[0]);
+            int[] janelaDaRegra = new int[regras.length];
+            List<RegraAlerta> janelas = new ArrayList<>();
+            for (int i = 0; i < regras.length; i++) {
+                janelaDaRegra[i] = -1;
+                if (regras[i].tipo() != RegraAlerta.Tipo.VARIACAO) {
+                    continue;
+                }
+                for (int j = 0; j < janelas.size() && janelaDaRegra[i] < 0; j++) {
+                    RegraAlerta outra = janelas.get(j);
+                    if (outra.sinal() == regras[i].sinal() && outra.janelaSegundos() == regras[i].janelaSegundos()
+                            && (outra.variacao() > 0) == (regras[i].variacao() > 0)) {
+                        janelaDaRegra[i] = j;
+                    }
+                }
+                if (janelaDaRegra[i] < 0) {
+                    janelaDaRegra[i] = janelas.size();
+                    janelas.add(regras[i]);
+                }
+            }
+            return new ConjuntoRegras(regras, janelaDaRegra, janelas.toArray(new RegraAlerta[0]));
+        }
+    }
+
+    // Estado das regras de um paciente, na mesma ordem do conjunto de regras
+    private static final class EstadoPaciente {
+
+        private ConjuntoRegras conjunto;
+        private long[] inicioViolacao;
+        private boolean[] disparadas;
+        private JanelaExtremos[] janelas;
+        private double[] extremos;
+        private final double[] valores = new double[SINAIS.length];
+
+        private void reiniciar(ConjuntoRegras novoConjunto, int amostrasPorSegundo) {
+            RegraAlerta[] regras = novoConjunto.regras();
+            conjunto = novoConjunto;
+            inicioViolacao = new long[regras.length];
+            Arrays.fill(inicioViolacao, SEM_VIOLACAO);
+            disparadas = new boolean[regras.length];
+            janelas = new JanelaExtremos[novoConjunto.janelas().length];
+            extremos = new double[janelas.length];
+            for (int j = 0; j < janelas.length; j++) {
+                RegraAlerta regra = novoConjunto.janelas()[j];
+                janelas[j] = new JanelaExtremos(regra.janelaSegundos() * 1000L,
+                    regra.janelaSegundos() * amostrasPorSegundo + 1, regra.variacao() > 0);
+            }
+        }
+    }
+}
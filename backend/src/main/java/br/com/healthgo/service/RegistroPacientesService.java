@@ -0,0 +1,188 @@
+package br.com.healthgo.service;
+
+import br.com.healthgo.model.DadosPaciente;
+import br.com.healthgo.model.Paciente;
+import br.com.healthgo.repository.PacienteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cadastro de pacientes (nome e CPF), mantido em memória.
+ *
+ * O cadastro é gravado apenas quando um paciente novo aparece ou quando nome/CPF
+ * mudam; as amostras guardam só o paciente_id e são enriquecidas com nome e CPF
+ * a partir daqui ao serem devolvidas pela API. Na ingestão assíncrona, a identificação
+ * fica pendente em memória e é gravada com o próximo lote, sem passar pelo diário em disco.
+ *
+ * A memória é um cache do banco: um paciente que não está nela (cadastrado por outra
+ * instância, ou com o banco fora na carga inicial) é buscado no banco e guardado. Pacientes
+ * sem cadastro também são lembrados por um tempo, para não consultar o banco a cada amostra.
+ */
+@Service
+public class RegistroPacientesService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegistroPacientesService.class);
+
+    private final ConcurrentMap<String, Paciente> pacientes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Paciente> pendentes = new ConcurrentHashMap<>();
+    // Pacientes sem cadastro no banco, com o instante da consulta
+    private final ConcurrentMap<String, Long> ausentes = new ConcurrentHashMap<>();
+
+    @Value("${healthgo.cadastro.validade-ausente-ms:60000}")
+    private long validadeAusenteMs;
+
+    @Autowired
+    private PacienteRepository pacienteRepository;
+
+    /**
+     * Carrega o cadastro a partir do banco
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        try {
+            pacienteRepository.findAll().forEach(paciente -> pacientes.put(paciente.getPacienteId(), paciente));
+            logger.info("🪪 Cadastro de pacientes carregado com {} pacientes", pacientes.size());
+        } catch (Exception e) {
+            logger.error("❌ Erro ao carregar cadastro de pacientes: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Registra nome e CPF recebidos com as amostras, gravando apenas o que for novo ou alterado
+     */
+    public void registrarTodos(Collection<DadosPaciente> dados) {
+        for (Paciente pendente : pendentes.values()) {
+            registrar(pendente.getPacienteId(), pendente.getNome(), pendente.getCpf());
+            pendentes.remove(pendente.getPacienteId(), pendente);
+        }
+        for (DadosPaciente dadosPaciente : dados) {
+            registrar(dadosPaciente.getPacienteId(), dadosPaciente.getPacienteNome(), dadosPaciente.getPacienteCpf());
+        }
+    }
+
+    /**
+     * Guarda nome e CPF de uma amostra aceita para gravação assíncrona, sem acessar o banco;
+     * são gravados no cadastro com o próximo lote ({@link #registrarTodos})
+     */
+    public void registrarPendente(String pacienteId, String nome, String cpf) {
+        if ((nome == null && cpf == null) || isRegistrado(pacientes.get(pacienteId), nome, cpf)) {
+            return;
+        }
+        pendentes.put(pacienteId, new Paciente(pacienteId, nome, cpf));
+    }
+
+    private void registrar(String pacienteId, String nome, String cpf) {
+        if ((nome == null && cpf == null) || isRegistrado(pacientes.get(pacienteId), nome, cpf)) {
+            return;
+        }
+        Paciente paciente = pacienteRepository.save(new Paciente(pacienteId, nome, cpf));
+        pacientes.put(paciente.getPacienteId(), paciente);
+        ausentes.remove(paciente.getPacienteId());
+        logger.info("🪪 Paciente {} registrado no cadastro", paciente.getPacienteId());
+    }
+
+    private static boolean isRegistrado(Paciente atual, String nome, String cpf) {
+        return atual != null && Objects.equals(atual.getNome(), nome) && Objects.equals(atual.getCpf(), cpf);
+    }
+
+    /**
+     * Preenche nome e CPF das amostras que não os trazem
+     */
+    public <T extends Collection<DadosPaciente>> T enriquecer(T dados) {
+        dados.forEach(this::enriquecer);
+        return dados;
+    }
+
+    public DadosPaciente enriquecer(DadosPaciente dadosPaciente) {
+        if (dadosPaciente.getPacienteNome() == null) {
+            Paciente paciente = obter(dadosPaciente.getPacienteId());
+            if (paciente != null) {
+                dadosPaciente.setPacienteNome(paciente.getNome());
+                dadosPaciente.setPacienteCpf(paciente.getCpf());
+            }
+        }
+        return dadosPaciente;
+    }
+
+    /**
+     * Todos os pacientes cadastrados, lidos do banco (inclusive os registrados por outras instâncias);
+     * com o banco fora, os que estão em memória
+     */
+    public List<Paciente> listar() {
+        try {
+            pacienteRepository.findAll().forEach(paciente -> {
+                pacientes.put(paciente.getPacienteId(), paciente);
+                ausentes.remove(paciente.getPacienteId());
+            });
+        } catch (Exception e) {
+            logger.warn("⚠️ Cadastro de pacientes lido da memória, banco indisponível: {}", e.getMessage());
+        }
+        List<Paciente> lista = new ArrayList<>(pacientes.values());
+        lista.sort(Comparator.comparing(Paciente::getPacienteId));
+        return lista;
+    }
+
+    public Optional<Paciente> buscar(String pacienteId) {
+        return Optional.ofNullable(obter(pacienteId));
+    }
+
+    // Paciente em memória ou, na falta, no banco (guardado para as próximas consultas)
+    private Paciente obter(String pacienteId) {
+        Paciente paciente = pacientes.get(pacienteId);
+        if (paciente != null || pacienteId == null) {
+            return paciente;
+        }
+        long agora = System.currentTimeMillis();
+        Long consulta = ausentes.get(pacienteId);
+        if (consulta != null && agora - consulta < validadeAusenteMs) {
+            return null;
+        }
+        try {
+            paciente = pacienteRepository.findById(pacienteId).orElse(null);
+        } catch (Exception e) {
+            logger.warn("⚠️ Erro ao buscar paciente {} no cadastro: {}", pacienteId, e.getMessage());
+            ausentes.put(pacienteId, agora);
+            return null;
+        }
+        if (paciente == null) {
+            ausentes.put(pacienteId, agora);
+            return null;
+        }
+        ausentes.remove(pacienteId);
+        Paciente atual = pacientes.putIfAbsent(pacienteId, paciente);
+        return atual != null ? atual : paciente;
+    }
+
+    /**
+     * Descarta o paciente da memória, sem acessar o banco (exclusão feita por outra instância)
+     */
+    public void esquecer(String pacienteId) {
+        pendentes.remove(pacienteId);
+        pacientes.remove(pacienteId);
+        ausentes.put(pacienteId, System.currentTimeMillis());
+    }
+
+    /**
+     * Remove o paciente do cadastro (eliminação LGPD)
+     */
+    public void remover(String pacienteId) {
+        pendentes.remove(pacienteId);
+        pacientes.remove(pacienteId);
+        ausentes.put(pacienteId, System.currentTimeMillis());
+        pacienteRepository.deleteById(pacienteId);
+    }
+}
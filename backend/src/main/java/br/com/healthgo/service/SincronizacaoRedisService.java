@@ -0,0 +1,191 @@
+package br.com.healthgo.service;
+
+import br.com.healthgo.model.AlteracoesRecentes;
+import br.com.healthgo.model.DadosPaciente;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.Map;
+
+/**
+ * Estado compartilhado entre as instâncias do backend via Redis.
+ *
+ * Cada dado recebido é publicado em um canal que todas as instâncias assinam
+ * para repassar às suas sessões web, e o último dado de cada paciente fica
+ * em um hash do Redis, com a versão da última alteração de cada paciente em outro
+ * hash (ver {@link DadosRecentesCache}).
+ */
+@Service
+@ConditionalOnProperty(name = "healthgo.redis.habilitado", havingValue = "true")
+public class SincronizacaoRedisService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SincronizacaoRedisService.class);
+
+    // Um canal por paciente (healthgo:dados:PAC001); as instâncias assinam healthgo:dados:*
+    public static final String PREFIXO_CANAL_DADOS = "healthgo:dados:";
+    public static final String CHAVE_DADOS_RECENTES = "healthgo:dados:recentes";
+    public static final String CANAL_ALERTAS = "healthgo:alertas";
+    public static final String CHAVE_VERSOES_RECENTES = "healthgo:dados:recentes:versoes";
+    public static final String CHAVE_VERSAO_RECENTES = "healthgo:dados:recentes:versao";
+    public static final String CHAVE_VERSAO_INICIAL_RECENTES = "healthgo:dados:recentes:versao-inicial";
+    // Início e fim da exclusão de um paciente, para as demais instâncias; corpo "instância|paciente"
+    public static final String CANAL_EXCLUSAO_INICIO = "healthgo:exclusoes:inicio";
+    public static final String CANAL_EXCLUSAO_FIM = "healthgo:exclusoes:fim";
+    public static final String INSTANCIA = UUID.randomUUID().toString();
+
+    private static final List<String> CHAVES_RECENTES = List.of(
+        CHAVE_DADOS_RECENTES, CHAVE_VERSOES_RECENTES, CHAVE_VERSAO_RECENTES, CHAVE_VERSAO_INICIAL_RECENTES);
+
+    // Grava (ou remove, com valor vazio) os pares paciente/dado de ARGV[2..] e a nova versão de
+    // cada um, atomicamente: nenhuma leitura vê a versão sem os dados dela. ARGV[1] é o relógio
+    // da instância em microssegundos; '%.0f' mantém a versão inteira, sem notação científica
+    private static final RedisScript<String> SALVAR_VERSIONADO = RedisScript.of("""
+        local versao = string.format('%.0f', math.max(tonumber(redis.call('GET', KEYS[3]) or '0') + 1, tonumber(ARGV[1])))
+        for i = 2, #ARGV, 2 do
+          if ARGV[i + 1] == '' then
+            redis.call('HDEL', KEYS[1], ARGV[i])
+          else
+            redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1])
+          end
+          redis.call('HSET', KEYS[2], ARGV[i], versao)
+        end
+        redis.call('SET', KEYS[3], versao)
+        redis.call('SET', KEYS[4], versao, 'NX')
+        return versao
+        """, String.class);
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Avisa as demais instâncias do início ({@code concluida} false) ou do fim de uma exclusão
+     */
+    public void publicarExclusao(String pacienteId, boolean concluida) {
+        redisTemplate.convertAndSend(concluida ? CANAL_EXCLUSAO_FIM : CANAL_EXCLUSAO_INICIO, INSTANCIA + "|" + pacienteId);
+    }
+
+    /**
+     * Publica um dado já serializado para todas as instâncias
+     */
+    public void publicarDados(String pacienteId, String jsonDados) {
+        redisTemplate.convertAndSend(PREFIXO_CANAL_DADOS + pacienteId, jsonDados);
+    }
+
+    /**
+     * Publica um alerta já serializado para todas as instâncias
+     */
+    public void publicarAlerta(String jsonAlerta) {
+        redisTemplate.convertAndSend(CANAL_ALERTAS, jsonAlerta);
+    }
+
+    /**
+     * Grava o último dado de cada paciente, com uma nova versão, em uma única chamada ao Redis
+     */
+    public void salvarUltimos(Collection<DadosPaciente> dados) {
+        Map<String, String> campos = new HashMap<>();
+        for (DadosPaciente dadosPaciente : dados) {
+            try {
+                campos.put(dadosPaciente.getPacienteId(), objectMapper.writeValueAsString(dadosPaciente));
+            } catch (JsonProcessingException e) {
+                logger.error("❌ Erro ao serializar dados do paciente {}: {}", dadosPaciente.getPacienteId(), e.getMessage());
+            }
+        }
+        if (!campos.isEmpty()) {
+            salvarVersionado(campos);
+        }
+    }
+
+    /**
+     * Último dado de cada paciente, de todas as instâncias
+     */
+    public List<DadosPaciente> listarUltimos() {
+        List<Object> valores = redisTemplate.opsForHash().values(CHAVE_DADOS_RECENTES);
+        List<DadosPaciente> dados = new ArrayList<>(valores.size());
+        for (Object valor : valores) {
+            try {
+                dados.add(objectMapper.readValue((String) valor, DadosPaciente.class));
+            } catch (JsonProcessingException e) {
+                logger.error("❌ Erro ao desserializar dados recentes do Redis: {}", e.getMessage());
+            }
+        }
+        return dados;
+    }
+
+    /**
+     * Remove o último dado do paciente
+     */
+    public void removerUltimo(String pacienteId) {
+        salvarVersionado(Map.of(pacienteId, ""));
+    }
+
+    /**
+     * Versão atual dos dados recentes de todas as instâncias (0 antes da primeira gravação)
+     */
+    public long versaoUltimos() {
+        String versao = redisTemplate.opsForValue().get(CHAVE_VERSAO_RECENTES);
+        return versao == null ? 0 : Long.parseLong(versao);
+    }
+
+    /**
+     * Pacientes alterados e removidos depois da versão {@code desde}, de todas as instâncias;
+     * lê as versões de todos os pacientes e só os dados dos alterados
+     */
+    public AlteracoesRecentes alteracoesDesde(long desde) {
+        List<String> marcas = redisTemplate.opsForValue().multiGet(List.of(CHAVE_VERSAO_RECENTES, CHAVE_VERSAO_INICIAL_RECENTES));
+        long atual = marcas.get(0) == null ? 0 : Long.parseLong(marcas.get(0));
+        long inicial = marcas.get(1) == null ? 0 : Long.parseLong(marcas.get(1));
+        if (desde < inicial || desde > atual) {
+            return new AlteracoesRecentes(atual, true, listarUltimos(), List.of());
+        }
+
+        List<Object> alterados = new ArrayList<>();
+        redisTemplate.opsForHash().entries(CHAVE_VERSOES_RECENTES).forEach((pacienteId, versao) -> {
+            if (Long.parseLong((String) versao) > desde) {
+                alterados.add(pacienteId);
+            }
+        });
+        List<DadosPaciente> dados = new ArrayList<>(alterados.size());
+        List<String> removidos = new ArrayList<>();
+        if (!alterados.isEmpty()) {
+            List<Object> valores = redisTemplate.opsForHash().multiGet(CHAVE_DADOS_RECENTES, alterados);
+            for (int i = 0; i < alterados.size(); i++) {
+                if (valores.get(i) == null) {
+                    removidos.add((String) alterados.get(i));
+                    continue;
+                }
+                try {
+                    dados.add(objectMapper.readValue((String) valores.get(i), DadosPaciente.class));
+                } catch (JsonProcessingException e) {
+                    logger.error("❌ Erro ao desserializar dados recentes do Redis: {}", e.getMessage());
+                }
+            }
+        }
+        return new AlteracoesRecentes(atual, false, dados, removidos);
+    }
+
+    private void salvarVersionado(Map<String, String> campos) {
+        Object[] argumentos = new Object[1 + campos.size() * 2];
+        argumentos[0] = Long.toString(System.currentTimeMillis() * 1000);
+        int i = 1;
+        for (Map.Entry<String, String> campo : campos.entrySet()) {
+            argumentos[i++] = campo.getKey();
+            argumentos[i++] = campo.getValue();
+        }
+        redisTemplate.execute(SALVAR_VERSIONADO, CHAVES_RECENTES, argumentos);
+    }
+}
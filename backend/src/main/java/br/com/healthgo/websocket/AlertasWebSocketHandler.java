@@ -0,0 +1,100 @@
+package br.com.healthgo.websocket;
+
+import br.com.healthgo.model.EventoAlerta;
+import br.com.healthgo.service.SincronizacaoRedisService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Canal dedicado de alertas (/ws/alertas): cada {@link EventoAlerta} disparado pelo
+ * motor de regras é enviado como JSON a todas as sessões conectadas, sem a conflação
+ * e sem as inscrições por paciente do canal de dados.
+ */
+@Component
+public class AlertasWebSocketHandler extends TextWebSocketHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertasWebSocketHandler.class);
+
+    // Um cliente lento não segura a thread de ingestão por mais que isso
+    private static final int TEMPO_LIMITE_ENVIO_MS = 1000;
+    private static final int LIMITE_BUFFER_BYTES = 64 * 1024;
+
+    private final ConcurrentMap<String, WebSocketSession> sessoes = new ConcurrentHashMap<>();
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired(required = false)
+    private SincronizacaoRedisService sincronizacaoRedisService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @PostConstruct
+    public void registrarMetricas() {
+        Gauge.builder("healthgo.websocket.sessoes", this, AlertasWebSocketHandler::getNumeroClientes)
+            .tag("tipo", "alertas")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        sessoes.put(session.getId(),
+            new ConcurrentWebSocketSessionDecorator(session, TEMPO_LIMITE_ENVIO_MS, LIMITE_BUFFER_BYTES));
+        logger.info("🚨 Cliente de alertas conectado: {}", session.getId());
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) {
+        sessoes.remove(session.getId());
+        logger.info("🔌 Cliente de alertas desconectado: {} - Status: {}", session.getId(), closeStatus);
+    }
+
+    /**
+     * Distribui o alerta: via Redis, todas as instâncias recebem
+     */
+    @EventListener
+    public void publicar(EventoAlerta evento) {
+        try {
+            String json = objectMapper.writeValueAsString(evento);
+            if (sincronizacaoRedisService != null) {
+                sincronizacaoRedisService.publicarAlerta(json);
+            } else {
+                enviarParaClientes(json);
+            }
+        } catch (Exception e) {
+            logger.error("❌ Erro ao distribuir alerta do paciente {}: {}", evento.pacienteId(), e.getMessage());
+        }
+    }
+
+    // Envia um alerta já serializado para os clientes conectados nesta instância
+    public void enviarParaClientes(String jsonAlerta) {
+        TextMessage mensagem = new TextMessage(jsonAlerta);
+        for (WebSocketSession sessao : sessoes.values()) {
+            try {
+                sessao.sendMessage(mensagem);
+            } catch (Exception e) {
+                logger.warn("⚠️ Erro ao enviar alerta para a sessão {}: {}", sessao.getId(), e.getMessage());
+            }
+        }
+    }
+
+    public int getNumeroClientes() {
+        return sessoes.size();
+    }
+}
@@ -0,0 +1,322 @@
+package br.com.healthgo.websocket;
+
+import br.com.healthgo.model.AmostraSinais;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Codificação dos dados trafegados no WebSocket, em JSON ou no formato binário.
+ *
+ * Os quadros são lidos e escritos diretamente em {@link AmostraSinais}, token a
+ * token no JSON e campo a campo no binário, sem passar pela entidade JPA.
+ *
+ * Formato binário (big-endian, versão 1):
+ * <pre>
+ * u8  versão
+ * u8  status (0 = NORMAL, 1 = ALERTA)
+ * i16 freq. cardíaca, saturação O2, pressão sistólica, pressão diastólica
+ * i16 temperatura em décimos de grau
+ * i16 freq. respiratória
+ * i64 data de criação (epoch em milissegundos, UTC)
+ * i64 id (-1 quando ainda não gravado)
+ * u8 + bytes UTF-8: paciente_id, timestamp, paciente_nome, paciente_cpf
+ * </pre>
+ * Sinais vitais ausentes são codificados como {@link Short#MIN_VALUE}; nome e CPF
+ * com tamanho zero são omitidos.
+ *
+ * Os quadros enviados aos clientes web, em ambos os formatos, não levam nome e CPF:
+ * esses dados vêm do cadastro de pacientes pela API REST.
+ */
+@Component
+public class CodificadorDados {
+
+    private static final byte VERSAO_BINARIO = 1;
+    private static final byte STATUS_NORMAL = 0;
+    private static final byte STATUS_ALERTA = 1;
+    private static final short AUSENTE = Short.MIN_VALUE;
+    private static final int TAMANHO_MAXIMO_QUADRO = 4 + 6 * 2 + 2 * 8 + 4 * 256;
+
+    private static final ThreadLocal<ByteBuffer> bufferCodificacao =
+        ThreadLocal.withInitial(() -> ByteBuffer.allocate(TAMANHO_MAXIMO_QUADRO));
+    private static final ThreadLocal<StringWriter> textoCodificacao =
+        ThreadLocal.withInitial(() -> new StringWriter(256));
+    private static final ThreadLocal<char[]> horarioCodificacao =
+        ThreadLocal.withInitial(() -> new char[11]);
+
+    private final JsonFactory fabricaJson;
+    private final ObjectReader leitorControle;
+
+    public CodificadorDados(ObjectMapper objectMapper) {
+        this.fabricaJson = objectMapper.getFactory();
+        this.leitorControle = objectMapper.readerFor(MensagemControle.class);
+    }
+
+    MensagemControle lerControle(String json) throws IOException {
+        return leitorControle.readValue(json);
+    }
+
+    /**
+     * Lê um quadro JSON com os campos de DadosPaciente; campos desconhecidos são ignorados,
+     * campos ausentes ficam ausentes na amostra e sinal vital não numérico é recusado
+     */
+    public AmostraSinais lerJson(String json) throws IOException {
+        String pacienteId = null;
+        int horario = AmostraSinais.HORARIO_AUSENTE;
+        String timestampTexto = null;
+        int freqCardiaca = AmostraSinais.AUSENTE;
+        int saturacaoO2 = AmostraSinais.AUSENTE;
+        int pressaoSistolica = AmostraSinais.AUSENTE;
+        int pressaoDiastolica = AmostraSinais.AUSENTE;
+        double temperatura = Double.NaN;
+        int freqRespiratoria = AmostraSinais.AUSENTE;
+        boolean alerta = false;
+        long dataCriacaoMs = 0L;
+        String pacienteNome = null;
+        String pacienteCpf = null;
+
+        try (JsonParser parser = fabricaJson.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Quadro JSON deve ser um objeto");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String campo = parser.currentName();
+                JsonToken valor = parser.nextToken();
+                if (valor == JsonToken.VALUE_NULL) {
+                    continue;
+                }
+                switch (campo) {
+                    case "paciente_id" -> pacienteId = parser.getText();
+                    case "timestamp" -> {
+                        horario = AmostraSinais.lerHorario(
+                            parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                        if (horario == AmostraSinais.HORARIO_AUSENTE) {
+                            timestampTexto = parser.getText();
+                        }
+                    }
+                    case "freq_cardiaca" -> freqCardiaca = lerInteiro(parser, campo);
+                    case "saturacao_o2" -> saturacaoO2 = lerInteiro(parser, campo);
+                    case "pressao_sistolica" -> pressaoSistolica = lerInteiro(parser, campo);
+                    case "pressao_diastolica" -> pressaoDiastolica = lerInteiro(parser, campo);
+                    case "temperatura" -> temperatura = lerDecimal(parser, campo);
+                    case "freq_respiratoria" -> freqRespiratoria = lerInteiro(parser, campo);
+                    case "status" -> alerta = "ALERTA".equals(parser.getText());
+                    case "dataCriacao", "data_criacao" -> dataCriacaoMs =
+                        LocalDateTime.parse(parser.getText()).toInstant(ZoneOffset.UTC).toEpochMilli();
+                    case "paciente_nome" -> pacienteNome = parser.getText();
+                    case "paciente_cpf" -> pacienteCpf = parser.getText();
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        return new AmostraSinais(pacienteId, horario, timestampTexto, freqCardiaca, saturacaoO2,
+            pressaoSistolica, pressaoDiastolica, temperatura, freqRespiratoria, alerta,
+            dataCriacaoMs == 0L ? AmostraSinais.agoraMs() : dataCriacaoMs, pacienteNome, pacienteCpf);
+    }
+
+    /**
+     * Codifica o quadro JSON enviado aos clientes web, sem nome e CPF
+     */
+    public String escreverJson(AmostraSinais amostra) throws IOException {
+        StringWriter texto = textoCodificacao.get();
+        texto.getBuffer().setLength(0);
+        try (JsonGenerator gerador = fabricaJson.createGenerator(texto)) {
+            gerador.writeStartObject();
+            if (amostra.horarioCentesimos() != AmostraSinais.HORARIO_AUSENTE) {
+                char[] horario = horarioCodificacao.get();
+                gerador.writeFieldName("timestamp");
+                gerador.writeString(horario, 0, AmostraSinais.escreverHorario(amostra.horarioCentesimos(), horario));
+            } else if (amostra.timestampTexto() != null) {
+                gerador.writeStringField("timestamp", amostra.timestampTexto());
+            }
+            gerador.writeStringField("paciente_id", amostra.pacienteId());
+            escreverInteiro(gerador, "freq_cardiaca", amostra.freqCardiaca());
+            escreverInteiro(gerador, "saturacao_o2", amostra.saturacaoO2());
+            escreverInteiro(gerador, "pressao_sistolica", amostra.pressaoSistolica());
+            escreverInteiro(gerador, "pressao_diastolica", amostra.pressaoDiastolica());
+            if (!Double.isNaN(amostra.temperatura())) {
+                gerador.writeNumberField("temperatura", amostra.temperatura());
+            }
+            escreverInteiro(gerador, "freq_respiratoria", amostra.freqRespiratoria());
+            gerador.writeStringField("status", amostra.status());
+            gerador.writeStringField("dataCriacao", amostra.dataCriacao().toString());
+            gerador.writeEndObject();
+        }
+        return texto.toString();
+    }
+
+    /**
+     * Codifica no formato binário; nome e CPF são incluídos apenas se solicitado
+     */
+    public byte[] escreverBinario(AmostraSinais amostra, boolean incluirIdentificacao) {
+        ByteBuffer buffer = bufferCodificacao.get();
+        buffer.clear();
+        buffer.put(VERSAO_BINARIO);
+        buffer.put(amostra.alerta() ? STATUS_ALERTA : STATUS_NORMAL);
+        buffer.putShort(paraShort(amostra.freqCardiaca()));
+        buffer.putShort(paraShort(amostra.saturacaoO2()));
+        buffer.putShort(paraShort(amostra.pressaoSistolica()));
+        buffer.putShort(paraShort(amostra.pressaoDiastolica()));
+        buffer.putShort(Double.isNaN(amostra.temperatura())
+            ? AUSENTE : (short) Math.round(amostra.temperatura() * 10));
+        buffer.putShort(paraShort(amostra.freqRespiratoria()));
+        buffer.putLong(amostra.dataCriacaoMs());
+        buffer.putLong(-1L);
+        escreverTexto(buffer, amostra.pacienteId());
+        escreverHorario(buffer, amostra);
+        escreverTexto(buffer, incluirIdentificacao ? amostra.pacienteNome() : null);
+        escreverTexto(buffer, incluirIdentificacao ? amostra.pacienteCpf() : null);
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * Lê um quadro binário; versão desconhecida ou quadro truncado geram IllegalArgumentException
+     */
+    public AmostraSinais lerBinario(ByteBuffer buffer) {
+        try {
+            return lerQuadroBinario(buffer);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Quadro binário truncado (" + buffer.limit() + " bytes)");
+        }
+    }
+
+    private AmostraSinais lerQuadroBinario(ByteBuffer buffer) {
+        byte versao = buffer.get();
+        if (versao != VERSAO_BINARIO) {
+            throw new IllegalArgumentException("Versão de quadro binário não suportada: " + versao);
+        }
+        boolean alerta = buffer.get() == STATUS_ALERTA;
+        int freqCardiaca = paraInt(buffer.getShort());
+        int saturacaoO2 = paraInt(buffer.getShort());
+        int pressaoSistolica = paraInt(buffer.getShort());
+        int pressaoDiastolica = paraInt(buffer.getShort());
+        short temperatura = buffer.getShort();
+        int freqRespiratoria = paraInt(buffer.getShort());
+        long dataCriacaoMs = buffer.getLong();
+        buffer.getLong(); // id: quadros recebidos ainda não foram gravados
+        String pacienteId = lerTexto(buffer);
+        int horario = lerHorario(buffer);
+        String timestampTexto = horario == AmostraSinais.HORARIO_AUSENTE ? lerTexto(buffer) : null;
+        return new AmostraSinais(pacienteId, horario, timestampTexto, freqCardiaca, saturacaoO2,
+            pressaoSistolica, pressaoDiastolica, temperatura == AUSENTE ? Double.NaN : temperatura / 10.0,
+            freqRespiratoria, alerta, dataCriacaoMs == 0L ? AmostraSinais.agoraMs() : dataCriacaoMs,
+            lerTexto(buffer), lerTexto(buffer));
+    }
+
+    // Aceita número ou texto numérico ("80"), como a API REST; qualquer outro valor recusa o quadro
+    private static int lerInteiro(JsonParser parser, String campo) throws IOException {
+        if (parser.currentToken().isNumeric()) {
+            return parser.getValueAsInt();
+        }
+        try {
+            if (parser.currentToken() == JsonToken.VALUE_STRING) {
+                return Integer.parseInt(parser.getText().trim());
+            }
+        } catch (NumberFormatException e) {
+            // recusado abaixo
+        }
+        throw new IOException("Valor não numérico em " + campo + ": " + parser.getText());
+    }
+
+    private static double lerDecimal(JsonParser parser, String campo) throws IOException {
+        if (parser.currentToken().isNumeric()) {
+            return parser.getDoubleValue();
+        }
+        try {
+            if (parser.currentToken() == JsonToken.VALUE_STRING) {
+                return Double.parseDouble(parser.getText().trim());
+            }
+        } catch (NumberFormatException e) {
+            // recusado abaixo
+        }
+        throw new IOException("Valor não numérico em " + campo + ": " + parser.getText());
+    }
+
+    private static void escreverInteiro(JsonGenerator gerador, String campo, int valor) throws IOException {
+        if (valor != AmostraSinais.AUSENTE) {
+            gerador.writeNumberField(campo, valor);
+        }
+    }
+
+    private static short paraShort(int valor) {
+        return valor == AmostraSinais.AUSENTE ? AUSENTE : (short) valor;
+    }
+
+    private static int paraInt(short valor) {
+        return valor == AUSENTE ? AmostraSinais.AUSENTE : valor;
+    }
+
+    // Escreve o horário como texto ASCII "HH:mm:ss.cc", sem criar String
+    private static void escreverHorario(ByteBuffer buffer, AmostraSinais amostra) {
+        if (amostra.horarioCentesimos() == AmostraSinais.HORARIO_AUSENTE) {
+            escreverTexto(buffer, amostra.timestampTexto());
+            return;
+        }
+        char[] horario = horarioCodificacao.get();
+        int tamanho = AmostraSinais.escreverHorario(amostra.horarioCentesimos(), horario);
+        buffer.put((byte) tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            buffer.put((byte) horario[i]);
+        }
+    }
+
+    // Lê o horário direto dos bytes; se não estiver no formato esperado, deixa o buffer intacto
+    private static int lerHorario(ByteBuffer buffer) {
+        int posicao = buffer.position();
+        int tamanho = Byte.toUnsignedInt(buffer.get(posicao));
+        char[] horario = horarioCodificacao.get();
+        if (tamanho != 8 && tamanho != 11) {
+            return AmostraSinais.HORARIO_AUSENTE;
+        }
+        for (int i = 0; i < tamanho; i++) {
+            horario[i] = (char) buffer.get(posicao + 1 + i);
+        }
+        int centesimos = AmostraSinais.lerHorario(horario, 0, tamanho);
+        if (centesimos != AmostraSinais.HORARIO_AUSENTE) {
+            buffer.position(posicao + 1 + tamanho);
+        }
+        return centesimos;
+    }
+
+    private static void escreverTexto(ByteBuffer buffer, String texto) {
+        if (texto == null) {
+            buffer.put((byte) 0);
+            return;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 255) {
+            throw new IllegalArgumentException("Campo excede 255 bytes no formato binário");
+        }
+        buffer.put((byte) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String lerTexto(ByteBuffer buffer) {
+        int tamanho = Byte.toUnsignedInt(buffer.get());
+        if (tamanho == 0) {
+            return null;
+        }
+        if (!buffer.hasArray()) {
+            byte[] bytes = new byte[tamanho];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        String texto = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), tamanho,
+            StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + tamanho);
+        return texto;
+    }
+}
@@ -0,0 +1,14 @@
+package br.com.healthgo.websocket;
+
+/**
+ * Formato das mensagens enviadas a um cliente web, escolhido na conexão
+ * pelo parâmetro {@code formato} da URL (ex: /ws?formato=binario)
+ */
+enum FormatoMensagem {
+    JSON,
+    BINARIO;
+
+    static FormatoMensagem deParametro(String parametro) {
+        return "binario".equalsIgnoreCase(parametro) ? BINARIO : JSON;
+    }
+}
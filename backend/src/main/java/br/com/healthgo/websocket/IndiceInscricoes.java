@@ -0,0 +1,81 @@
+package br.com.healthgo.websocket;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+/**
+ * Índice de paciente para sessões web interessadas.
+ *
+ * Sessões sem inscrição recebem todos os pacientes (comportamento original do
+ * dashboard); ao se inscrever, passam a receber apenas os pacientes escolhidos.
+ * O broadcast de um dado percorre somente as sessões interessadas no paciente.
+ * As alterações usam o mesmo monitor, e uma sessão removida (fechada) não volta ao
+ * índice por um controle que ainda estava em processamento.
+ */
+class IndiceInscricoes {
+
+    private final Set<SessaoClienteWeb> sessoesRegistradas = ConcurrentHashMap.newKeySet();
+    private final Set<SessaoClienteWeb> sessoesTodosPacientes = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<String, Set<SessaoClienteWeb>> sessoesPorPaciente = new ConcurrentHashMap<>();
+
+    synchronized void registrar(SessaoClienteWeb sessao) {
+        sessoesRegistradas.add(sessao);
+        sessoesTodosPacientes.add(sessao);
+    }
+
+    synchronized void remover(SessaoClienteWeb sessao) {
+        sessoesRegistradas.remove(sessao);
+        sessoesTodosPacientes.remove(sessao);
+        desinscrever(sessao, sessao.getPacientesInscritos());
+    }
+
+    synchronized void inscrever(SessaoClienteWeb sessao, Collection<String> pacientes) {
+        if (!sessoesRegistradas.contains(sessao)) {
+            return;
+        }
+        sessoesTodosPacientes.remove(sessao);
+        for (String pacienteId : pacientes) {
+            sessao.getPacientesInscritos().add(pacienteId);
+            sessoesPorPaciente.computeIfAbsent(pacienteId, id -> ConcurrentHashMap.newKeySet()).add(sessao);
+        }
+    }
+
+    synchronized void desinscrever(SessaoClienteWeb sessao, Collection<String> pacientes) {
+        for (String pacienteId : Set.copyOf(pacientes)) {
+            sessao.getPacientesInscritos().remove(pacienteId);
+            Set<SessaoClienteWeb> sessoes = sessoesPorPaciente.get(pacienteId);
+            if (sessoes != null) {
+                sessoes.remove(sessao);
+                if (sessoes.isEmpty()) {
+                    sessoesPorPaciente.remove(pacienteId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Volta a receber todos os pacientes
+     */
+    synchronized void inscreverTodos(SessaoClienteWeb sessao) {
+        if (!sessoesRegistradas.contains(sessao)) {
+            return;
+        }
+        desinscrever(sessao, sessao.getPacientesInscritos());
+        sessoesTodosPacientes.add(sessao);
+    }
+
+    void paraCadaInteressado(String pacienteId, Consumer<SessaoClienteWeb> acao) {
+        sessoesTodosPacientes.forEach(acao);
+        Set<SessaoClienteWeb> sessoes = sessoesPorPaciente.get(pacienteId);
+        if (sessoes != null) {
+            sessoes.forEach(acao);
+        }
+    }
+
+    int getNumeroPacientesIndexados() {
+        return sessoesPorPaciente.size();
+    }
+}
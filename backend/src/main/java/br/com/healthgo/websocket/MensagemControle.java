@@ -0,0 +1,21 @@
+package br.com.healthgo.websocket;
+
+import java.util.List;
+
+/**
+ * Mensagem de controle enviada por um cliente web.
+ *
+ * Exemplos:
+ * <pre>
+ * {"acao": "inscrever", "pacientes": ["PAC001", "PAC002"]}
+ * {"acao": "desinscrever", "pacientes": ["PAC002"]}
+ * {"acao": "inscrever_todos"}
+ * {"acao": "taxa_maxima", "hz": 2}
+ * </pre>
+ */
+record MensagemControle(String acao, List<String> pacientes, Double hz) {
+
+    List<String> pacientesOuVazio() {
+        return pacientes == null ? List.of() : pacientes;
+    }
+}
@@ -0,0 +1,91 @@
+package br.com.healthgo.websocket;
+
+import br.com.healthgo.model.AmostraSinais;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Uma amostra de paciente pronta para broadcast.
+ *
+ * Cada formato é codificado no máximo uma vez, na primeira sessão que o pede,
+ * e o resultado é compartilhado por todas as sessões. Usado apenas pela thread
+ * que faz o broadcast.
+ *
+ * O quadro recebido pelo Redis chega em JSON e é lido uma vez por instância, na
+ * primeira chamada a {@link #getAmostra()}: a janela de sinais e o sinal de alerta
+ * da conflação precisam da amostra. O JSON recebido segue para as sessões sem ser
+ * reescrito.
+ */
+final class QuadroDados {
+
+    private final CodificadorDados codificador;
+    private final String pacienteId;
+    private AmostraSinais amostra;
+    private String json;
+    private TextMessage mensagemTexto;
+    private byte[] bytesBinario;
+
+    private QuadroDados(CodificadorDados codificador, String pacienteId, AmostraSinais amostra, String json) {
+        this.codificador = codificador;
+        this.pacienteId = pacienteId;
+        this.amostra = amostra;
+        this.json = json;
+    }
+
+    static QuadroDados deAmostra(CodificadorDados codificador, AmostraSinais amostra) {
+        return new QuadroDados(codificador, amostra.pacienteId(), amostra, null);
+    }
+
+    static QuadroDados deJson(CodificadorDados codificador, String pacienteId, String json) {
+        return new QuadroDados(codificador, pacienteId, null, json);
+    }
+
+    String getPacienteId() {
+        return pacienteId;
+    }
+
+    // Lê o JSON na primeira chamada, quando o quadro veio do Redis
+    boolean isAlerta() {
+        return getAmostra().alerta();
+    }
+
+    AmostraSinais getAmostra() {
+        if (amostra == null) {
+            try {
+                amostra = codificador.lerJson(json);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return amostra;
+    }
+
+    String getJson() {
+        if (json == null) {
+            try {
+                json = codificador.escreverJson(amostra);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return json;
+    }
+
+    WebSocketMessage<?> mensagemPara(FormatoMensagem formato) {
+        if (formato == FormatoMensagem.BINARIO) {
+            if (bytesBinario == null) {
+                bytesBinario = codificador.escreverBinario(getAmostra(), false);
+            }
+            // O ByteBuffer é consumido no envio, então cada sessão recebe o seu, sobre os mesmos bytes
+            return new BinaryMessage(bytesBinario);
+        }
+        if (mensagemTexto == null) {
+            mensagemTexto = new TextMessage(getJson());
+        }
+        return mensagemTexto;
+    }
+}
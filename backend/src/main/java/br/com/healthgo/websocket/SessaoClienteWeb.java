@@ -0,0 +1,244 @@
+package br.com.healthgo.websocket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sessão de um cliente web com fila de envio própria.
+ *
+ * O broadcast apenas enfileira a mensagem; o envio é feito de forma assíncrona
+ * por um executor compartilhado, com no máximo uma drenagem ativa por sessão,
+ * de modo que um cliente lento não atrasa a ingestão nem os demais clientes.
+ *
+ * Dados em status NORMAL são conflacionados: a sessão guarda apenas o último
+ * de cada paciente e o envia respeitando a taxa máxima configurada. Alertas
+ * entram na fila de envio e são entregues imediatamente, sem conflação.
+ *
+ * Alertas nunca são descartados: com a fila cheia, {@code DESCARTAR_MAIS_ANTIGA}
+ * descarta a mensagem mais antiga que não é alerta e, se só houver alertas, a
+ * sessão é desconectada, como em {@code DESCONECTAR}.
+ */
+class SessaoClienteWeb {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessaoClienteWeb.class);
+
+    /**
+     * O que fazer quando a fila de envio da sessão está cheia
+     */
+    enum PoliticaTransbordo {
+        DESCARTAR_MAIS_ANTIGA,
+        DESCONECTAR
+    }
+
+    private record MensagemPendente(WebSocketMessage<?> mensagem, boolean alerta, long enfileiradaEm) {
+    }
+
+    private final WebSocketSession sessao;
+    private final FormatoMensagem formato;
+    private final BlockingQueue<MensagemPendente> fila;
+    private final PoliticaTransbordo politicaTransbordo;
+    private final Executor executorEnvio;
+    private final AtomicBoolean drenando = new AtomicBoolean(false);
+    private final AtomicLong mensagensDescartadas = new AtomicLong();
+    private final Set<String> pacientesInscritos = ConcurrentHashMap.newKeySet();
+
+    // Último dado ainda não enviado de cada paciente, com o instante em que o paciente ficou pendente
+    private final ConcurrentMap<String, MensagemPendente> ultimosPorPaciente = new ConcurrentHashMap<>();
+    // Acessado apenas pela drenagem ativa
+    private final Map<String, Long> ultimoEnvioPorPaciente = new HashMap<>();
+    private final AtomicLong mensagensConflacionadas = new AtomicLong();
+    private volatile long intervaloMinimoNanos;
+
+    SessaoClienteWeb(WebSocketSession sessao, FormatoMensagem formato, int capacidadeFila,
+                     PoliticaTransbordo politicaTransbordo, Executor executorEnvio, double taxaMaximaHz) {
+        this.sessao = sessao;
+        this.formato = formato;
+        this.fila = new ArrayBlockingQueue<>(capacidadeFila);
+        this.politicaTransbordo = politicaTransbordo;
+        this.executorEnvio = executorEnvio;
+        setTaxaMaximaHz(taxaMaximaHz);
+    }
+
+    /**
+     * Enfileira um dado de paciente: alertas vão direto para a fila de envio,
+     * os demais substituem o dado pendente do mesmo paciente
+     */
+    void enfileirarDados(String pacienteId, boolean alerta, WebSocketMessage<?> mensagem) {
+        if (alerta) {
+            // O pendente é mais antigo que o alerta e não deve chegar depois dele
+            if (ultimosPorPaciente.remove(pacienteId) != null) {
+                mensagensConflacionadas.incrementAndGet();
+            }
+            enfileirar(new MensagemPendente(mensagem, true, System.nanoTime()));
+            return;
+        }
+        // O substituto herda o instante do pendente: o atraso conta desde o primeiro dado não enviado
+        long agora = System.nanoTime();
+        ultimosPorPaciente.compute(pacienteId, (id, anterior) -> {
+            if (anterior == null) {
+                return new MensagemPendente(mensagem, false, agora);
+            }
+            mensagensConflacionadas.incrementAndGet();
+            return new MensagemPendente(mensagem, false, anterior.enfileiradaEm());
+        });
+        agendarDrenagem();
+    }
+
+    /**
+     * Agenda o envio dos dados conflacionados cujo intervalo mínimo já passou
+     */
+    void liberarPendentes() {
+        if (!ultimosPorPaciente.isEmpty() && sessao.isOpen()) {
+            agendarDrenagem();
+        }
+    }
+
+    /**
+     * Taxa máxima de atualizações por paciente; zero ou negativo desativa o limite
+     */
+    void setTaxaMaximaHz(double taxaMaximaHz) {
+        this.intervaloMinimoNanos = taxaMaximaHz > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / taxaMaximaHz) : 0L;
+    }
+
+    /**
+     * Enfileira uma mensagem para envio assíncrono.
+     * Retorna false se a sessão foi desconectada por estar lenta demais.
+     */
+    boolean enfileirar(WebSocketMessage<?> mensagem) {
+        return enfileirar(new MensagemPendente(mensagem, false, System.nanoTime()));
+    }
+
+    private boolean enfileirar(MensagemPendente pendente) {
+        while (!fila.offer(pendente)) {
+            if (politicaTransbordo == PoliticaTransbordo.DESCONECTAR || !descartarMaisAntigaSemAlerta()) {
+                logger.warn("🐢 Cliente web {} lento demais, desconectando", sessao.getId());
+                fechar(CloseStatus.SESSION_NOT_RELIABLE);
+                return false;
+            }
+            mensagensDescartadas.incrementAndGet();
+        }
+        agendarDrenagem();
+        return true;
+    }
+
+    // Só com a fila cheia; false quando só há alertas, que não podem ser descartados
+    private boolean descartarMaisAntigaSemAlerta() {
+        for (MensagemPendente pendente : fila) {
+            if (!pendente.alerta() && fila.remove(pendente)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    WebSocketSession getSessao() {
+        return sessao;
+    }
+
+    FormatoMensagem getFormato() {
+        return formato;
+    }
+
+    Set<String> getPacientesInscritos() {
+        return pacientesInscritos;
+    }
+
+    int getMensagensPendentes() {
+        return fila.size() + ultimosPorPaciente.size();
+    }
+
+    long getMensagensConflacionadas() {
+        return mensagensConflacionadas.get();
+    }
+
+    long getMensagensDescartadas() {
+        return mensagensDescartadas.get();
+    }
+
+    /**
+     * Há quanto tempo a mensagem mais antiga aguarda envio, em milissegundos: a primeira da fila
+     * ou o dado conflacionado pendente há mais tempo, descontada a espera imposta pela taxa máxima
+     */
+    double getAtrasoMs() {
+        long agora = System.nanoTime();
+        long atraso = 0;
+        MensagemPendente maisAntiga = fila.peek();
+        if (maisAntiga != null) {
+            atraso = agora - maisAntiga.enfileiradaEm();
+        }
+        for (MensagemPendente pendente : ultimosPorPaciente.values()) {
+            atraso = Math.max(atraso, agora - pendente.enfileiradaEm() - intervaloMinimoNanos);
+        }
+        return atraso / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private void agendarDrenagem() {
+        if (drenando.compareAndSet(false, true)) {
+            executorEnvio.execute(this::drenar);
+        }
+    }
+
+    private void drenar() {
+        try {
+            MensagemPendente pendente;
+            while ((pendente = fila.poll()) != null) {
+                if (!sessao.isOpen()) {
+                    fila.clear();
+                    return;
+                }
+                sessao.sendMessage(pendente.mensagem());
+            }
+            enviarConflacionados();
+        } catch (IOException e) {
+            logger.error("❌ Erro ao enviar dados para cliente web {}: {}", sessao.getId(), e.getMessage());
+            fechar(CloseStatus.SERVER_ERROR);
+        } finally {
+            drenando.set(false);
+            // Uma mensagem pode ter chegado entre o último poll e a liberação da drenagem
+            if (!fila.isEmpty() && sessao.isOpen()) {
+                agendarDrenagem();
+            }
+        }
+    }
+
+    private void enviarConflacionados() throws IOException {
+        long agora = System.nanoTime();
+        for (Map.Entry<String, MensagemPendente> entrada : ultimosPorPaciente.entrySet()) {
+            String pacienteId = entrada.getKey();
+            Long ultimoEnvio = ultimoEnvioPorPaciente.get(pacienteId);
+            if (ultimoEnvio != null && agora - ultimoEnvio < intervaloMinimoNanos) {
+                continue;
+            }
+            if (ultimosPorPaciente.remove(pacienteId, entrada.getValue())) {
+                sessao.sendMessage(entrada.getValue().mensagem());
+                ultimoEnvioPorPaciente.put(pacienteId, agora);
+            }
+        }
+    }
+
+    private void fechar(CloseStatus status) {
+        fila.clear();
+        ultimosPorPaciente.clear();
+        try {
+            sessao.close(status);
+        } catch (IOException e) {
+            logger.error("❌ Erro ao fechar sessão {}: {}", sessao.getId(), e.getMessage());
+        }
+    }
+}
@@ -1,30 +1,115 @@
 package br.com.healthgo.websocket;
 
-import br.com.healthgo.model.DadosPaciente;
-import br.com.healthgo.service.DadosPacienteService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import br.com.healthgo.config.ModoThreads;
+import br.com.healthgo.model.AmostraSinais;
+import br.com.healthgo.service.DeduplicacaoService;
+import br.com.healthgo.service.ExecutorPorPaciente;
+import br.com.healthgo.service.IngestaoDadosService;
+import br.com.healthgo.service.JanelaSinaisService;
+import br.com.healthgo.service.MotorAlertasService;
+import br.com.healthgo.service.SincronizacaoRedisService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.*;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
 
 @Component
 public class WebSocketHandler implements org.springframework.web.socket.WebSocketHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(WebSocketHandler.class);
     
-    private static final CopyOnWriteArraySet<WebSocketSession> sessoesWeb = new CopyOnWriteArraySet<>();
+    private static final ConcurrentMap<String, SessaoClienteWeb> sessoesWeb = new ConcurrentHashMap<>();
     private static final CopyOnWriteArraySet<WebSocketSession> sessoesDesktop = new CopyOnWriteArraySet<>();
+
+    @Value("${healthgo.websocket.capacidade-fila-sessao:256}")
+    private int capacidadeFilaSessao;
+
+    @Value("${healthgo.websocket.politica-transbordo:DESCARTAR_MAIS_ANTIGA}")
+    private SessaoClienteWeb.PoliticaTransbordo politicaTransbordo;
+
+    @Value("${healthgo.websocket.threads-envio:4}")
+    private int threadsEnvio;
+
+    @Value("${healthgo.websocket.taxa-maxima-hz:1}")
+    private double taxaMaximaHz;
+
+    private Executor executorEnvio;
+
+    private Counter quadrosJson;
+    private Counter quadrosBinarios;
+    private Counter quadrosInvalidos;
+    private Timer tempoDecodificacao;
+    private Timer tempoBroadcast;
+
+    // Contadores das sessões já encerradas, para os totais não caírem quando um cliente desconecta
+    private final LongAdder descartadasEncerradas = new LongAdder();
+    private final LongAdder conflacionadasEncerradas = new LongAdder();
+
+    private final IndiceInscricoes indiceInscricoes = new IndiceInscricoes();
     
     @Autowired
-    private DadosPacienteService dadosPacienteService;
+    private IngestaoDadosService ingestaoDadosService;
     
     @Autowired
-    private ObjectMapper objectMapper;
+    private MotorAlertasService motorAlertasService;
+
+    @Autowired
+    private JanelaSinaisService janelaSinaisService;
+
+    @Autowired
+    private ExecutorPorPaciente executorPorPaciente;
+
+    @Autowired
+    private DeduplicacaoService deduplicacaoService;
+
+    @Autowired
+    private CodificadorDados codificadorDados;
+
+    @Autowired(required = false)
+    private SincronizacaoRedisService sincronizacaoRedisService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ModoThreads modoThreads;
+
+    // Com threads virtuais, cada envio ganha a sua thread e threads-envio é ignorado
+    @PostConstruct
+    public void iniciar() {
+        executorEnvio = modoThreads.executor("healthgo-ws-envio-", threadsEnvio);
+        registrarMetricas();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        if (executorEnvio instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
@@ -34,33 +119,84 @@ public class WebSocketHandler implements org.springframework.web.socket.WebSocke
             sessoesDesktop.add(session);
             logger.info("🖥️ Simulador Desktop conectado: {}", session.getId());
         } else {
-            sessoesWeb.add(session);
-            logger.info("🌐 Cliente Web conectado: {}", session.getId());
+            SessaoClienteWeb sessaoWeb = new SessaoClienteWeb(session, obterFormato(session),
+                capacidadeFilaSessao, politicaTransbordo, executorEnvio, obterTaxaMaxima(session));
+            sessoesWeb.put(session.getId(), sessaoWeb);
+            indiceInscricoes.registrar(sessaoWeb);
+            registrarMetricasSessao(sessaoWeb);
+            logger.info("🌐 Cliente Web conectado: {} - Formato: {}", session.getId(), sessaoWeb.getFormato());
         }
     }
 
     @Override
     public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
-        String payload = message.getPayload().toString();
-        logger.info("📨 Mensagem recebida: {}", payload);
+        logger.debug("📨 Mensagem recebida da sessão {}", session.getId());
         
         try {
-            // Deserializa os dados do paciente
-            DadosPaciente dadosPaciente = objectMapper.readValue(payload, DadosPaciente.class);
+            // Clientes web enviam mensagens de controle (inscrição em pacientes)
+            SessaoClienteWeb sessaoWeb = sessoesWeb.get(session.getId());
+            if (sessaoWeb != null && message instanceof TextMessage textMessage
+                    && processarControle(sessaoWeb, textMessage.getPayload())) {
+                return;
+            }
             
-            // Salva no banco de dados
-            dadosPacienteService.salvarDados(dadosPaciente);
+            // Decodifica a amostra direto do quadro, em JSON ou no formato binário
+            long inicio = System.nanoTime();
+            AmostraSinais amostra;
+            if (message instanceof BinaryMessage binaryMessage) {
+                amostra = codificadorDados.lerBinario(binaryMessage.getPayload());
+                quadrosBinarios.increment();
+            } else if (message instanceof TextMessage textMessage) {
+                amostra = codificadorDados.lerJson(textMessage.getPayload());
+                quadrosJson.increment();
+            } else {
+                return;
+            }
+            tempoDecodificacao.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
             
-            // Broadcast para todos os clientes web
-            broadcastParaClientesWeb(dadosPaciente);
+            // Quadro que o banco recusaria não entra na raia nem no diário
+            String motivo = amostra.motivoInvalida();
+            if (motivo != null) {
+                quadrosInvalidos.increment();
+                logger.warn("⚠️ Quadro do paciente {} descartado: {}", amostra.pacienteId(), motivo);
+                return;
+            }
             
-            logger.info("✅ Dados do paciente {} processados e enviados", dadosPaciente.getPacienteId());
+            // O restante segue na raia do paciente, em ordem, fora da thread do WebSocket
+            AmostraSinais decodificada = amostra;
+            if (!executorPorPaciente.executar(amostra.pacienteId(), () -> processarAmostra(decodificada))) {
+                logger.warn("⚠️ Raia de processamento cheia, dados do paciente {} descartados", amostra.pacienteId());
+            }
             
         } catch (Exception e) {
+            quadrosInvalidos.increment();
             logger.error("❌ Erro ao processar mensagem: {}", e.getMessage());
         }
     }
 
+    // Executado na raia do paciente: as amostras de um mesmo paciente chegam aqui em ordem
+    private void processarAmostra(AmostraSinais amostra) {
+        // Reenvios do simulador (reconexão, reinício) param aqui, antes de alertas, gravação e broadcast
+        if (!deduplicacaoService.aceitar(amostra)) {
+            return;
+        }
+        
+        // Regras de alerta avaliadas no servidor; o status ALERTA segue para a gravação e o broadcast
+        amostra = motorAlertasService.avaliar(amostra);
+        // Com o Redis, a janela é preenchida pelo quadro publicado, que chega a todas as instâncias
+        if (sincronizacaoRedisService == null) {
+            janelaSinaisService.registrar(amostra);
+        }
+        
+        // Enfileira para gravação em lote, sem bloquear a raia no banco
+        ingestaoDadosService.enfileirar(amostra);
+        
+        // Broadcast para todos os clientes web
+        broadcastParaClientesWeb(amostra);
+        
+        logger.debug("✅ Dados do paciente {} processados e enviados", amostra.pacienteId());
+    }
+
     @Override
     public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
         logger.error("❌ Erro de transporte na sessão {}: {}", session.getId(), exception.getMessage());
@@ -68,7 +204,13 @@ public class WebSocketHandler implements org.springframework.web.socket.WebSocke
 
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
-        sessoesWeb.remove(session);
+        SessaoClienteWeb sessaoWeb = sessoesWeb.remove(session.getId());
+        if (sessaoWeb != null) {
+            indiceInscricoes.remover(sessaoWeb);
+            removerMetricasSessao(sessaoWeb);
+            descartadasEncerradas.add(sessaoWeb.getMensagensDescartadas());
+            conflacionadasEncerradas.add(sessaoWeb.getMensagensConflacionadas());
+        }
         sessoesDesktop.remove(session);
         logger.info("🔌 Sessão desconectada: {} - Status: {}", session.getId(), closeStatus);
     }
@@ -78,27 +220,99 @@ public class WebSocketHandler implements org.springframework.web.socket.WebSocke
         return false;
     }
 
-    // Envia dados para todos os clientes web
-    private void broadcastParaClientesWeb(DadosPaciente dadosPaciente) {
+    // Distribui os dados para os clientes web: via Redis, todas as instâncias recebem
+    private void broadcastParaClientesWeb(AmostraSinais amostra) {
+        long inicio = System.nanoTime();
         try {
-            String jsonDados = objectMapper.writeValueAsString(dadosPaciente);
-            TextMessage mensagem = new TextMessage(jsonDados);
+            QuadroDados quadro = QuadroDados.deAmostra(codificadorDados, amostra);
             
-            for (WebSocketSession sessao : sessoesWeb) {
-                if (sessao.isOpen()) {
-                    sessao.sendMessage(mensagem);
-                }
+            if (sincronizacaoRedisService != null) {
+                sincronizacaoRedisService.publicarDados(quadro.getPacienteId(), quadro.getJson());
+            } else {
+                distribuir(quadro);
             }
             
-            logger.info("📡 Dados enviados para {} clientes web", sessoesWeb.size());
-            
-        } catch (IOException e) {
-            logger.error("❌ Erro ao enviar dados para clientes web: {}", e.getMessage());
+        } catch (Exception e) {
+            logger.error("❌ Erro ao distribuir dados para clientes web: {}", e.getMessage());
+        } finally {
+            tempoBroadcast.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Quadro publicado por qualquer instância: entra na janela e vai para os clientes web desta instância
+    public void enviarParaClientesWeb(String pacienteId, String jsonDados) {
+        try {
+            QuadroDados quadro = QuadroDados.deJson(codificadorDados, pacienteId, jsonDados);
+            janelaSinaisService.registrar(quadro.getAmostra());
+            distribuir(quadro);
+        } catch (Exception e) {
+            logger.error("❌ Erro ao distribuir dados para clientes web: {}", e.getMessage());
+        }
+    }
+
+    // Cada formato é codificado uma única vez e enfileirado apenas nas sessões interessadas no paciente
+    private void distribuir(QuadroDados quadro) {
+        indiceInscricoes.paraCadaInteressado(quadro.getPacienteId(),
+            sessaoWeb -> sessaoWeb.enfileirarDados(
+                quadro.getPacienteId(), quadro.isAlerta(), quadro.mensagemPara(sessaoWeb.getFormato())));
+    }
+
+    // Envia os dados conflacionados que aguardavam o intervalo mínimo de cada sessão
+    @Scheduled(fixedDelayString = "${healthgo.websocket.intervalo-liberacao-ms:50}")
+    public void liberarDadosConflacionados() {
+        sessoesWeb.values().forEach(SessaoClienteWeb::liberarPendentes);
+    }
+
+    // Retorna false se a mensagem não for de controle (ex: dados enviados por um cliente web)
+    private boolean processarControle(SessaoClienteWeb sessaoWeb, String payload) throws IOException {
+        MensagemControle controle = codificadorDados.lerControle(payload);
+        if (controle.acao() == null) {
+            return false;
+        }
+        
+        switch (controle.acao()) {
+            case "inscrever" -> indiceInscricoes.inscrever(sessaoWeb, controle.pacientesOuVazio());
+            case "desinscrever" -> indiceInscricoes.desinscrever(sessaoWeb, controle.pacientesOuVazio());
+            case "inscrever_todos" -> indiceInscricoes.inscreverTodos(sessaoWeb);
+            case "taxa_maxima" -> sessaoWeb.setTaxaMaximaHz(controle.hz() == null ? taxaMaximaHz : controle.hz());
+            default -> logger.warn("⚠️ Ação de controle desconhecida da sessão {}: {}",
+                sessaoWeb.getSessao().getId(), controle.acao());
+        }
+        logger.info("📌 Sessão {} inscrita em: {}", sessaoWeb.getSessao().getId(),
+            sessaoWeb.getPacientesInscritos().isEmpty() ? "todos" : sessaoWeb.getPacientesInscritos());
+        return true;
+    }
+
+    private FormatoMensagem obterFormato(WebSocketSession session) {
+        if (session.getUri() == null) {
+            return FormatoMensagem.JSON;
+        }
+        String parametro = UriComponentsBuilder.fromUri(session.getUri()).build()
+            .getQueryParams().getFirst("formato");
+        return FormatoMensagem.deParametro(parametro);
+    }
+
+    // Taxa máxima por paciente pedida na URL (ex: /ws?taxa_maxima=2), ou a padrão
+    private double obterTaxaMaxima(WebSocketSession session) {
+        if (session.getUri() == null) {
+            return taxaMaximaHz;
+        }
+        String parametro = UriComponentsBuilder.fromUri(session.getUri()).build()
+            .getQueryParams().getFirst("taxa_maxima");
+        try {
+            return parametro == null ? taxaMaximaHz : Double.parseDouble(parametro);
+        } catch (NumberFormatException e) {
+            return taxaMaximaHz;
         }
     }
 
     // Método para enviar mensagem específica para um cliente
     public void enviarMensagemParaCliente(WebSocketSession session, String mensagem) {
+        SessaoClienteWeb sessaoWeb = sessoesWeb.get(session.getId());
+        if (sessaoWeb != null) {
+            sessaoWeb.enfileirar(new TextMessage(mensagem));
+            return;
+        }
         try {
             session.sendMessage(new TextMessage(mensagem));
         } catch (IOException e) {
@@ -106,6 +320,81 @@ public class WebSocketHandler implements org.springframework.web.socket.WebSocke
         }
     }
 
+    // Métricas do caminho de cada quadro e totais de todas as sessões
+    private void registrarMetricas() {
+        quadrosJson = Counter.builder("healthgo.websocket.quadros.recebidos")
+            .tag("formato", "json")
+            .description("Quadros de dados recebidos dos simuladores/monitores")
+            .register(meterRegistry);
+        quadrosBinarios = Counter.builder("healthgo.websocket.quadros.recebidos")
+            .tag("formato", "binario")
+            .description("Quadros de dados recebidos dos simuladores/monitores")
+            .register(meterRegistry);
+        quadrosInvalidos = Counter.builder("healthgo.websocket.quadros.invalidos")
+            .description("Quadros que não puderam ser processados")
+            .register(meterRegistry);
+        tempoDecodificacao = Timer.builder("healthgo.websocket.decodificacao")
+            .description("Tempo de decodificação de cada quadro recebido")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofNanos(500))
+            .maximumExpectedValue(Duration.ofMillis(50))
+            .register(meterRegistry);
+        tempoBroadcast = Timer.builder("healthgo.websocket.broadcast")
+            .description("Tempo para distribuir cada amostra às sessões interessadas (ou publicar no Redis)")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofNanos(500))
+            .maximumExpectedValue(Duration.ofMillis(500))
+            .register(meterRegistry);
+        Gauge.builder("healthgo.websocket.sessoes", this, WebSocketHandler::getNumeroClientesWeb)
+            .tag("tipo", "web")
+            .register(meterRegistry);
+        Gauge.builder("healthgo.websocket.sessoes", this, WebSocketHandler::getNumeroClientesDesktop)
+            .tag("tipo", "desktop")
+            .register(meterRegistry);
+        Gauge.builder("healthgo.websocket.pendentes", sessoesWeb,
+                sessoes -> sessoes.values().stream().mapToInt(SessaoClienteWeb::getMensagensPendentes).sum())
+            .description("Mensagens aguardando envio em todas as sessões web")
+            .register(meterRegistry);
+        FunctionCounter.builder("healthgo.websocket.descartadas", this,
+                handler -> handler.somarSessoes(SessaoClienteWeb::getMensagensDescartadas, descartadasEncerradas))
+            .description("Mensagens descartadas por fila cheia nas sessões web")
+            .register(meterRegistry);
+        FunctionCounter.builder("healthgo.websocket.conflacionadas", this,
+                handler -> handler.somarSessoes(SessaoClienteWeb::getMensagensConflacionadas, conflacionadasEncerradas))
+            .description("Mensagens substituídas por um dado mais recente do mesmo paciente")
+            .register(meterRegistry);
+    }
+
+    private double somarSessoes(ToLongFunction<SessaoClienteWeb> contador, LongAdder encerradas) {
+        return encerradas.sum() + sessoesWeb.values().stream().mapToLong(contador).sum();
+    }
+
+    // Métricas de atraso por sessão, removidas quando o cliente desconecta
+    private void registrarMetricasSessao(SessaoClienteWeb sessaoWeb) {
+        Tags tags = Tags.of("sessao", sessaoWeb.getSessao().getId());
+        Gauge.builder("healthgo.websocket.sessao.pendentes", sessaoWeb, SessaoClienteWeb::getMensagensPendentes)
+            .tags(tags)
+            .register(meterRegistry);
+        Gauge.builder("healthgo.websocket.sessao.atraso", sessaoWeb, SessaoClienteWeb::getAtrasoMs)
+            .tags(tags)
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+        Gauge.builder("healthgo.websocket.sessao.descartadas", sessaoWeb, SessaoClienteWeb::getMensagensDescartadas)
+            .tags(tags)
+            .register(meterRegistry);
+        Gauge.builder("healthgo.websocket.sessao.conflacionadas", sessaoWeb, SessaoClienteWeb::getMensagensConflacionadas)
+            .tags(tags)
+            .register(meterRegistry);
+    }
+
+    private void removerMetricasSessao(SessaoClienteWeb sessaoWeb) {
+        Tags tags = Tags.of("sessao", sessaoWeb.getSessao().getId());
+        meterRegistry.find("healthgo.websocket.sessao.pendentes").tags(tags).meters().forEach(meterRegistry::remove);
+        meterRegistry.find("healthgo.websocket.sessao.atraso").tags(tags).meters().forEach(meterRegistry::remove);
+        meterRegistry.find("healthgo.websocket.sessao.descartadas").tags(tags).meters().forEach(meterRegistry::remove);
+        meterRegistry.find("healthgo.websocket.sessao.conflacionadas").tags(tags).meters().forEach(meterRegistry::remove);
+    }
+
     // Retorna o número de clientes conectados
     public int getNumeroClientesWeb() {
         return sessoesWeb.size();
@@ -0,0 +1,57 @@
+package br.com.healthgo.carga;
+
+import br.com.healthgo.model.AmostraSinais;
+import br.com.healthgo.websocket.CodificadorDados;
+import org.HdrHistogram.Recorder;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Dashboard simulado: recebe o broadcast de /ws e registra, para cada quadro de um
+ * paciente da carga, o tempo desde o envio pelo monitor.
+ */
+final class ConsumidorDashboard extends AbstractWebSocketHandler {
+
+    private final CodificadorDados codificador;
+    private final RegistroEnvios registroEnvios;
+    private final Recorder latencias;
+    private final LongAdder recebidos;
+    private final LongAdder semCorrespondencia;
+
+    ConsumidorDashboard(CodificadorDados codificador, RegistroEnvios registroEnvios, Recorder latencias,
+                        LongAdder recebidos, LongAdder semCorrespondencia) {
+        this.codificador = codificador;
+        this.registroEnvios = registroEnvios;
+        this.latencias = latencias;
+        this.recebidos = recebidos;
+        this.semCorrespondencia = semCorrespondencia;
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        registrar(codificador.lerJson(message.getPayload()), System.nanoTime());
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
+        registrar(codificador.lerBinario(message.getPayload()), System.nanoTime());
+    }
+
+    private void registrar(AmostraSinais amostra, long recebidoNanos) {
+        int paciente = PacienteSintetico.indice(amostra.pacienteId());
+        if (paciente < 0) {
+            return;
+        }
+        recebidos.increment();
+        long latencia = registroEnvios.latenciaMicros(paciente, amostra.horarioCentesimos(), recebidoNanos);
+        if (latencia == RegistroEnvios.NAO_ENCONTRADO) {
+            semCorrespondencia.increment();
+        } else {
+            latencias.recordValue(Math.max(latencia, 0));
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package br.com.healthgo.carga;
+
+import br.com.healthgo.MonitorBackendApplication;
+import br.com.healthgo.model.AmostraSinais;
+import br.com.healthgo.websocket.CodificadorDados;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Gerador de carga de ponta a ponta: N monitores enviando quadros pelo WebSocket e
+ * M dashboards recebendo o broadcast.
+ *
+ * Sem {@code --url}, sobe o backend em processo com o perfil {@code carga} (H2 em
+ * arquivo no modo PostgreSQL, sem Redis) e inclui no relatório as métricas da ingestão.
+ * Mede a vazão sustentada e a latência entre o envio do quadro pelo monitor e a sua
+ * chegada a cada dashboard (decodificação, alertas, fila, broadcast e envio).
+ *
+ * <pre>
+ * cd backend
+ * mvn -Pcarga test-compile exec:exec -Dcarga.args="--pacientes=1000 --consumidores=10 --duracao=120"
+ * </pre>
+ */
+public class GeradorCarga {
+
+    private static final String USER_AGENT_MONITOR = "HealthGo-Desktop-Simulator";
+    private static final int CONEXOES_POR_LOTE = 50;
+    private static final long TEMPO_LIMITE_CONEXAO_S = 30;
+    private static final Path DIARIO_CARGA = Path.of("target/carga/diario");
+    // Latências de 1 µs a 1 min, com 3 dígitos significativos
+    private static final long LATENCIA_MAXIMA_US = TimeUnit.MINUTES.toMicros(1);
+
+    private final OpcoesCarga opcoes;
+    private final StandardWebSocketClient cliente = new StandardWebSocketClient();
+    private final CodificadorDados codificador = new CodificadorDados(Jackson2ObjectMapperBuilder.json().build());
+    private final RegistroEnvios registroEnvios;
+    private final Recorder latencias = new Recorder(LATENCIA_MAXIMA_US, 3);
+    private final Histogram latenciasMedidas = new Histogram(LATENCIA_MAXIMA_US, 3);
+    private final LongAdder enviados = new LongAdder();
+    private final LongAdder enviosAtrasados = new LongAdder();
+    private final LongAdder errosEnvio = new LongAdder();
+    private final LongAdder recebidos = new LongAdder();
+    private final LongAdder semCorrespondencia = new LongAdder();
+    private final List<WebSocketSession> sessoes = new ArrayList<>();
+
+    private ConfigurableApplicationContext backend;
+    private MeterRegistry meterRegistry;
+    private volatile boolean enviando = true;
+
+    GeradorCarga(OpcoesCarga opcoes) {
+        this.opcoes = opcoes;
+        this.registroEnvios = new RegistroEnvios(opcoes.pacientes());
+    }
+
+    public static void main(String[] args) throws Exception {
+        OpcoesCarga opcoes;
+        try {
+            opcoes = OpcoesCarga.de(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("❌ " + e.getMessage());
+            System.err.println(OpcoesCarga.AJUDA);
+            return;
+        }
+        new GeradorCarga(opcoes).executar();
+    }
+
+    void executar() throws Exception {
+        List<List<String[]>> modelos = PacienteSintetico.lerModelos(opcoes.dados());
+        URI url = opcoes.url() != null ? opcoes.url() : iniciarBackend();
+
+        try {
+            for (int i = 0; i < opcoes.consumidores(); i++) {
+                conectarConsumidor(url);
+            }
+            List<PacienteSintetico> pacientes = new ArrayList<>(opcoes.pacientes());
+            List<WebSocketSession> monitores = conectarMonitores(url, modelos, pacientes);
+            log("🔗 %d monitores e %d dashboards conectados em %s", monitores.size(), opcoes.consumidores(), url);
+
+            List<Thread> threads = iniciarEnvio(pacientes, monitores);
+            acompanhar();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } finally {
+            for (WebSocketSession sessao : sessoes) {
+                try {
+                    sessao.close(CloseStatus.GOING_AWAY);
+                } catch (Exception e) {
+                    // Encerrando: a sessão pode já ter sido fechada pelo servidor
+                }
+            }
+            if (backend != null) {
+                // Tempo para o servidor concluir o fechamento das conexões antes de parar
+                TimeUnit.SECONDS.sleep(1);
+                backend.close();
+            }
+        }
+    }
+
+    private URI iniciarBackend() throws IOException {
+        log("🚀 Iniciando backend em processo (perfil carga, H2) %s", opcoes.argumentosBackend());
+        // O banco é recriado a cada execução; o diário de uma execução anterior não deve ser regravado nele
+        FileSystemUtils.deleteRecursively(DIARIO_CARGA);
+        backend = new SpringApplicationBuilder(MonitorBackendApplication.class)
+            .profiles("carga")
+            .run(opcoes.argumentosBackend().toArray(String[]::new));
+        meterRegistry = backend.getBean(MeterRegistry.class);
+        String porta = backend.getEnvironment().getProperty("local.server.port");
+        return URI.create("ws://localhost:" + porta + "/ws");
+    }
+
+    private void conectarConsumidor(URI url) throws Exception {
+        URI uri = URI.create(url + "?formato=" + opcoes.formatoConsumidor()
+            + "&taxa_maxima=" + opcoes.taxaMaximaConsumidor());
+        ConsumidorDashboard consumidor = new ConsumidorDashboard(codificador, registroEnvios, latencias, recebidos, semCorrespondencia);
+        sessoes.add(cliente.execute(consumidor, new WebSocketHttpHeaders(), uri).get(TEMPO_LIMITE_CONEXAO_S, TimeUnit.SECONDS));
+    }
+
+    // Em lotes, para não estourar a fila de conexões pendentes do servidor
+    private List<WebSocketSession> conectarMonitores(URI url, List<List<String[]>> modelos,
+                                                     List<PacienteSintetico> pacientes) throws Exception {
+        WebSocketHttpHeaders cabecalhos = new WebSocketHttpHeaders();
+        cabecalhos.add("User-Agent", USER_AGENT_MONITOR);
+        List<WebSocketSession> monitores = new ArrayList<>(opcoes.pacientes());
+        for (int inicio = 0; inicio < opcoes.pacientes(); inicio += CONEXOES_POR_LOTE) {
+            List<CompletableFuture<WebSocketSession>> conexoes = new ArrayList<>();
+            for (int i = inicio; i < Math.min(inicio + CONEXOES_POR_LOTE, opcoes.pacientes()); i++) {
+                pacientes.add(new PacienteSintetico(i, modelos.get(i % modelos.size())));
+                conexoes.add(cliente.execute(new TextWebSocketHandler(), cabecalhos, url));
+            }
+            for (CompletableFuture<WebSocketSession> conexao : conexoes) {
+                WebSocketSession sessao = conexao.get(TEMPO_LIMITE_CONEXAO_S, TimeUnit.SECONDS);
+                monitores.add(sessao);
+                sessoes.add(sessao);
+            }
+        }
+        return monitores;
+    }
+
+    /**
+     * Cada thread cuida de uma parte dos monitores, com os envios espaçados igualmente dentro do período
+     */
+    private List<Thread> iniciarEnvio(List<PacienteSintetico> pacientes, List<WebSocketSession> monitores) {
+        long periodoNanos = (long) (TimeUnit.SECONDS.toNanos(1) / opcoes.taxaHz());
+        long inicio = System.nanoTime();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < opcoes.threadsEnvio(); t++) {
+            List<Integer> proprios = new ArrayList<>();
+            for (int i = t; i < pacientes.size(); i += opcoes.threadsEnvio()) {
+                proprios.add(i);
+            }
+            if (proprios.isEmpty()) {
+                continue;
+            }
+            Thread thread = new Thread(() -> enviar(proprios, pacientes, monitores, inicio, periodoNanos),
+                "carga-envio-" + t);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        return threads;
+    }
+
+    private void enviar(List<Integer> proprios, List<PacienteSintetico> pacientes, List<WebSocketSession> monitores,
+                        long inicio, long periodoNanos) {
+        long espacamento = periodoNanos / proprios.size();
+        for (long rodada = 0; enviando; rodada++) {
+            for (int j = 0; j < proprios.size() && enviando; j++) {
+                long alvo = inicio + rodada * periodoNanos + j * espacamento;
+                long espera = alvo - System.nanoTime();
+                if (espera > 0) {
+                    LockSupport.parkNanos(espera);
+                } else if (-espera > periodoNanos) {
+                    // O gerador não acompanha a taxa pedida: a vazão enviada fica abaixo da esperada
+                    enviosAtrasados.increment();
+                }
+
+                PacienteSintetico paciente = pacientes.get(proprios.get(j));
+                int horario = paciente.proximoHorario((int) (AmostraSinais.agoraMs() % TimeUnit.DAYS.toMillis(1) / 10));
+                String quadro = paciente.proximoQuadro(horario);
+                registroEnvios.registrar(paciente.getIndice(), horario, System.nanoTime());
+                try {
+                    monitores.get(proprios.get(j)).sendMessage(new TextMessage(quadro));
+                    enviados.increment();
+                } catch (Exception e) {
+                    errosEnvio.increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * Imprime o progresso a cada intervalo e, ao fim, o resultado do período medido
+     */
+    private void acompanhar() throws InterruptedException {
+        long inicioMedicao = System.nanoTime() + TimeUnit.SECONDS.toNanos(opcoes.segundosAquecimento());
+        long fim = inicioMedicao + TimeUnit.SECONDS.toNanos(opcoes.segundosMedicao());
+        Histogram intervalo = null;
+        Contagens anterior = contar();
+        Contagens noInicioMedicao = null;
+        long anteriorNanos = System.nanoTime();
+        int decorridos = 0;
+
+        while (System.nanoTime() < fim) {
+            long proximo = Math.min(fim, anteriorNanos + TimeUnit.SECONDS.toNanos(opcoes.intervaloRelatorio()));
+            if (noInicioMedicao == null) {
+                proximo = Math.min(proximo, inicioMedicao);
+            }
+            TimeUnit.NANOSECONDS.sleep(Math.max(0, proximo - System.nanoTime()));
+
+            long agora = System.nanoTime();
+            Contagens atual = contar();
+            intervalo = latencias.getIntervalHistogram(intervalo);
+            double segundos = (agora - anteriorNanos) / 1e9;
+            decorridos += (int) Math.round(segundos);
+            boolean medindo = noInicioMedicao != null;
+            if (medindo) {
+                latenciasMedidas.add(intervalo);
+            } else if (agora >= inicioMedicao) {
+                noInicioMedicao = atual;
+            }
+            log("📊 [%4ds]%s enviados %,.0f/s | gravados %s/s | recebidos %,.0f/s | latência p50 %s p99 %s máx %s | fila %s",
+                decorridos, medindo ? "" : " (aquecimento)",
+                (atual.enviados - anterior.enviados) / segundos,
+                formatar((atual.gravados - anterior.gravados) / segundos),
+                (atual.recebidos - anterior.recebidos) / segundos,
+                ms(intervalo.getValueAtPercentile(50)), ms(intervalo.getValueAtPercentile(99)), ms(intervalo.getMaxValue()),
+                formatar(valor("healthgo.ingestao.fila.tamanho")));
+            anterior = atual;
+            anteriorNanos = agora;
+        }
+
+        // A vazão considera só o período medido; quadros ainda em trânsito entram na latência
+        Contagens noFim = contar();
+        enviando = false;
+        TimeUnit.MILLISECONDS.sleep(500);
+        latenciasMedidas.add(latencias.getIntervalHistogram(intervalo));
+        imprimirResultado(noInicioMedicao == null ? noFim : noInicioMedicao, noFim);
+    }
+
+    private void imprimirResultado(Contagens inicio, Contagens fim) {
+        double segundos = opcoes.segundosMedicao();
+        log("✅ Resultado: %d s medidos, %d monitores a %.1f Hz, %d dashboards (%s, taxa_maxima=%s)",
+            opcoes.segundosMedicao(), opcoes.pacientes(), opcoes.taxaHz(), opcoes.consumidores(),
+            opcoes.formatoConsumidor(), opcoes.taxaMaximaConsumidor());
+        log("   Vazão enviada:      %,.0f quadros/s (pedida: %,.0f)", (fim.enviados - inicio.enviados) / segundos,
+            opcoes.pacientes() * opcoes.taxaHz());
+        log("   Vazão gravada:      %s registros/s", formatar((fim.gravados - inicio.gravados) / segundos));
+        log("   Broadcast recebido: %,.0f mensagens/s", (fim.recebidos - inicio.recebidos) / segundos);
+        log("   Latência envio → dashboard (%,d medições): p50 %s | p90 %s | p99 %s | p99.9 %s | máx %s",
+            latenciasMedidas.getTotalCount(),
+            ms(latenciasMedidas.getValueAtPercentile(50)), ms(latenciasMedidas.getValueAtPercentile(90)),
+            ms(latenciasMedidas.getValueAtPercentile(99)), ms(latenciasMedidas.getValueAtPercentile(99.9)),
+            ms(latenciasMedidas.getMaxValue()));
+        Timer atraso = meterRegistry == null ? null : meterRegistry.find("healthgo.ingestao.atraso").timer();
+        if (atraso != null) {
+            log("   Atraso de gravação: média %.1f ms", atraso.mean(TimeUnit.MILLISECONDS));
+        }
+        log("   Alertas disparados: %s", formatar(total("healthgo.alertas.disparados") - inicio.alertas));
+        log("   Descartes: fila de ingestão %s | filas das sessões web %s | conflações %s | repetidas %s",
+            formatar(total("healthgo.ingestao.descartados")), formatar(total("healthgo.websocket.descartadas")),
+            formatar(total("healthgo.websocket.conflacionadas")), formatar(total("healthgo.deduplicacao.duplicadas")));
+        log("   Gerador: %,d envios atrasados, %,d erros de envio, %,d recebidos sem correspondência",
+            enviosAtrasados.sum(), errosEnvio.sum(), semCorrespondencia.sum());
+    }
+
+    private record Contagens(long enviados, double gravados, long recebidos, double alertas) {
+    }
+
+    private Contagens contar() {
+        return new Contagens(enviados.sum(), total("healthgo.ingestao.gravados"), recebidos.sum(),
+            total("healthgo.alertas.disparados"));
+    }
+
+    // Soma de um contador do backend em processo; NaN com backend externo
+    private double total(String nome) {
+        if (meterRegistry == null) {
+            return Double.NaN;
+        }
+        double soma = 0;
+        for (Counter contador : meterRegistry.find(nome).counters()) {
+            soma += contador.count();
+        }
+        for (FunctionCounter contador : meterRegistry.find(nome).functionCounters()) {
+            soma += contador.count();
+        }
+        return soma;
+    }
+
+    private double valor(String nome) {
+        Gauge gauge = meterRegistry == null ? null : meterRegistry.find(nome).gauge();
+        return gauge == null ? Double.NaN : gauge.value();
+    }
+
+    private static String formatar(double valor) {
+        return Double.isNaN(valor) ? "-" : String.format(Locale.ROOT, "%,.0f", valor);
+    }
+
+    private static String ms(long micros) {
+        return String.format(Locale.ROOT, "%.1f ms", micros / 1000.0);
+    }
+
+    private static void log(String formato, Object... argumentos) {
+        System.out.println(String.format(Locale.ROOT, formato, argumentos));
+    }
+}
@@ -0,0 +1,88 @@
+package br.com.healthgo.carga;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Opções do gerador de carga, lidas de argumentos {@code --nome=valor}.
+ *
+ * Argumentos com ponto no nome (ex: {@code --spring.threads.virtual.enabled=true},
+ * {@code --healthgo.ingestao.tamanho-lote=500}) não são do gerador: seguem para o
+ * backend em processo.
+ */
+record OpcoesCarga(
+        int pacientes,
+        double taxaHz,
+        int consumidores,
+        String formatoConsumidor,
+        double taxaMaximaConsumidor,
+        int threadsEnvio,
+        int segundosAquecimento,
+        int segundosMedicao,
+        int intervaloRelatorio,
+        Path dados,
+        URI url,
+        List<String> argumentosBackend) {
+
+    static final String AJUDA = """
+        Uso: GeradorCarga [--opção=valor ...] [--propriedade.do.backend=valor ...]
+          --pacientes=100               monitores simulados, cada um com a sua conexão WebSocket
+          --taxa-hz=5                   quadros por segundo de cada monitor (até 50)
+          --consumidores=5              dashboards conectados recebendo o broadcast
+          --formato-consumidor=json     json ou binario
+          --taxa-maxima-consumidor=0    taxa_maxima pedida pelos dashboards (0 = sem conflação)
+          --threads-envio=4             threads que enviam os quadros dos monitores
+          --aquecimento=10              segundos iniciais fora da medição
+          --duracao=60                  segundos medidos
+          --intervalo-relatorio=10      segundos entre as linhas de progresso
+          --dados=../simulador-desktop/dados   diretório com os CSVs usados como modelo
+          --url=ws://host:8080/ws       backend externo; sem ela, o backend sobe em processo (H2)
+        """;
+
+    static OpcoesCarga de(String[] args) {
+        Map<String, String> valores = new HashMap<>();
+        List<String> argumentosBackend = new ArrayList<>();
+        for (String argumento : args) {
+            if (!argumento.startsWith("--")) {
+                throw new IllegalArgumentException("Argumento inválido: " + argumento);
+            }
+            int igual = argumento.indexOf('=');
+            String nome = argumento.substring(2, igual < 0 ? argumento.length() : igual);
+            if (nome.contains(".")) {
+                argumentosBackend.add(argumento);
+            } else {
+                valores.put(nome, igual < 0 ? "true" : argumento.substring(igual + 1));
+            }
+        }
+
+        OpcoesCarga opcoes = new OpcoesCarga(
+            Integer.parseInt(valores.getOrDefault("pacientes", "100")),
+            Double.parseDouble(valores.getOrDefault("taxa-hz", "5")),
+            Integer.parseInt(valores.getOrDefault("consumidores", "5")),
+            valores.getOrDefault("formato-consumidor", "json"),
+            Double.parseDouble(valores.getOrDefault("taxa-maxima-consumidor", "0")),
+            Integer.parseInt(valores.getOrDefault("threads-envio", "4")),
+            Integer.parseInt(valores.getOrDefault("aquecimento", "10")),
+            Integer.parseInt(valores.getOrDefault("duracao", "60")),
+            Integer.parseInt(valores.getOrDefault("intervalo-relatorio", "10")),
+            Path.of(valores.getOrDefault("dados", "../simulador-desktop/dados")),
+            valores.containsKey("url") ? URI.create(valores.get("url")) : null,
+            argumentosBackend);
+
+        if (opcoes.pacientes < 1 || opcoes.consumidores < 0 || opcoes.threadsEnvio < 1) {
+            throw new IllegalArgumentException("pacientes e threads-envio devem ser positivos e consumidores, não negativo");
+        }
+        // O horário do quadro (centésimos de segundo) identifica o envio na medição de latência
+        if (opcoes.taxaHz <= 0 || opcoes.taxaHz > 50) {
+            throw new IllegalArgumentException("taxa-hz deve estar entre 0 e 50");
+        }
+        if (!opcoes.formatoConsumidor.equals("json") && !opcoes.formatoConsumidor.equals("binario")) {
+            throw new IllegalArgumentException("formato-consumidor deve ser json ou binario");
+        }
+        return opcoes;
+    }
+}
@@ -0,0 +1,126 @@
+package br.com.healthgo.carga;
+
+import br.com.healthgo.model.AmostraSinais;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Monitor simulado: repete as linhas de um CSV do simulador Go com identificação própria.
+ *
+ * Cada paciente começa em uma linha diferente do modelo, para que os monitores não
+ * enviem os mesmos valores ao mesmo tempo. Como no simulador, nome e CPF vão apenas
+ * no primeiro quadro. O timestamp do quadro é o horário do envio, o que permite
+ * reconhecer cada quadro quando ele volta pelo broadcast.
+ */
+final class PacienteSintetico {
+
+    private final int indice;
+    private final String pacienteId;
+    private final String nome;
+    private final String cpf;
+    private final List<String[]> linhas;
+    private final char[] horario = new char[11];
+    private int proximaLinha;
+    private int ultimoHorario = -1;
+    private boolean identificado;
+
+    PacienteSintetico(int indice, List<String[]> linhas) {
+        this.indice = indice;
+        this.pacienteId = pacienteId(indice);
+        this.linhas = linhas;
+        String[] primeira = linhas.get(0);
+        this.nome = primeira[2] + " " + (indice + 1);
+        this.cpf = String.format("%03d.%03d.%03d-%02d", indice / 1_000_000 % 1000, indice / 1000 % 1000, indice % 1000, indice % 97);
+        this.proximaLinha = indice * 7 % linhas.size();
+    }
+
+    static String pacienteId(int indice) {
+        return String.format("PAC%05d", indice + 1);
+    }
+
+    /**
+     * Índice do paciente a partir do id, ou -1 se não foi gerado por esta carga
+     */
+    static int indice(String pacienteId) {
+        if (pacienteId == null || pacienteId.length() != 8 || !pacienteId.startsWith("PAC")) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(pacienteId, 3, 8, 10) - 1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    int getIndice() {
+        return indice;
+    }
+
+    /**
+     * Horário do próximo quadro a partir do relógio: um gerador atrasado envia quadros do
+     * mesmo paciente no mesmo centésimo, que o backend descartaria como repetidos, então o
+     * horário avança pelo menos um centésimo a cada quadro (exceto na virada do dia)
+     */
+    int proximoHorario(int horarioAtual) {
+        boolean viradaDoDia = ultimoHorario - horarioAtual > 4_320_000;
+        ultimoHorario = horarioAtual > ultimoHorario || viradaDoDia ? horarioAtual : ultimoHorario + 1;
+        return ultimoHorario;
+    }
+
+    /**
+     * Próximo quadro JSON, com o horário informado em centésimos de segundo do dia
+     */
+    String proximoQuadro(int horarioCentesimos) {
+        String[] linha = linhas.get(proximaLinha);
+        proximaLinha = proximaLinha + 1 == linhas.size() ? 0 : proximaLinha + 1;
+
+        AmostraSinais.escreverHorario(horarioCentesimos, horario);
+        StringBuilder json = new StringBuilder(256)
+            .append("{\"timestamp\":\"").append(horario)
+            .append("\",\"paciente_id\":\"").append(pacienteId).append('"');
+        if (!identificado) {
+            json.append(",\"paciente_nome\":\"").append(nome)
+                .append("\",\"paciente_cpf\":\"").append(cpf).append('"');
+            identificado = true;
+        }
+        return json.append(",\"freq_cardiaca\":").append(linha[4])
+            .append(",\"saturacao_o2\":").append(linha[5])
+            .append(",\"pressao_sistolica\":").append(linha[6])
+            .append(",\"pressao_diastolica\":").append(linha[7])
+            .append(",\"temperatura\":").append(linha[8])
+            .append(",\"freq_respiratoria\":").append(linha[9])
+            .append(",\"status\":\"").append(linha[10]).append("\"}")
+            .toString();
+    }
+
+    /**
+     * Lê os CSVs do diretório (mesmo layout de simulador-desktop/dados), um modelo por arquivo
+     */
+    static List<List<String[]>> lerModelos(Path diretorio) throws IOException {
+        List<List<String[]>> modelos = new ArrayList<>();
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            for (Path arquivo : arquivos.filter(a -> a.toString().endsWith(".csv")).sorted().toList()) {
+                List<String[]> linhas = new ArrayList<>();
+                for (String linha : Files.readAllLines(arquivo, StandardCharsets.UTF_8)) {
+                    String[] campos = linha.split(",");
+                    if (campos.length == 11 && !campos[0].equals("timestamp")) {
+                        linhas.add(campos);
+                    }
+                }
+                if (!linhas.isEmpty()) {
+                    modelos.add(linhas);
+                }
+            }
+        }
+        if (modelos.isEmpty()) {
+            throw new IOException("Nenhum CSV de sinais encontrado em " + diretorio.toAbsolutePath());
+        }
+        return modelos;
+    }
+}
@@ -0,0 +1,50 @@
+package br.com.healthgo.carga;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Instante de envio dos últimos quadros de cada paciente, para medir a latência até o broadcast.
+ *
+ * Cada posição guarda o horário do quadro (centésimos de segundo do dia) e o instante
+ * do envio em microssegundos desde o início da carga, juntos em um único long; a leitura
+ * confere o horário, então uma posição já sobrescrita não gera medição errada. A 5 Hz,
+ * cobre os últimos ~25 s de cada paciente; quadros mais atrasados contam como sem correspondência.
+ */
+final class RegistroEnvios {
+
+    static final long NAO_ENCONTRADO = -1;
+
+    private static final int POSICOES_POR_PACIENTE = 512;
+    private static final int BITS_MICROS = 40;
+    private static final long MASCARA_MICROS = (1L << BITS_MICROS) - 1;
+
+    private final long inicioNanos = System.nanoTime();
+    private final AtomicLongArray envios;
+
+    RegistroEnvios(int pacientes) {
+        envios = new AtomicLongArray(pacientes * POSICOES_POR_PACIENTE);
+    }
+
+    void registrar(int paciente, int horarioCentesimos, long instanteNanos) {
+        long micros = (instanteNanos - inicioNanos) / 1000;
+        envios.set(posicao(paciente, horarioCentesimos), (long) horarioCentesimos << BITS_MICROS | micros);
+    }
+
+    /**
+     * Microssegundos entre o envio do quadro e {@code instanteNanos}, ou {@link #NAO_ENCONTRADO}
+     */
+    long latenciaMicros(int paciente, int horarioCentesimos, long instanteNanos) {
+        if (paciente >= envios.length() / POSICOES_POR_PACIENTE || horarioCentesimos < 0) {
+            return NAO_ENCONTRADO;
+        }
+        long envio = envios.get(posicao(paciente, horarioCentesimos));
+        if (envio == 0 || envio >>> BITS_MICROS != horarioCentesimos) {
+            return NAO_ENCONTRADO;
+        }
+        return (instanteNanos - inicioNanos) / 1000 - (envio & MASCARA_MICROS);
+    }
+
+    private static int posicao(int paciente, int horarioCentesimos) {
+        return paciente * POSICOES_POR_PACIENTE + horarioCentesimos % POSICOES_POR_PACIENTE;
+    }
+}
@@ -0,0 +1,31 @@
+package br.com.healthgo.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorDadosTest {
+
+    @Test
+    void cursorVoltaDoTextoDoCabecalho() {
+        CursorDados cursor = new CursorDados(LocalDateTime.of(2024, 2, 1, 10, 0, 0, 123_456_000), 4051);
+
+        assertThat(cursor.toString()).isEqualTo("2024-02-01T10:00:00.123456_4051");
+        assertThat(CursorDados.ler(cursor.toString())).isEqualTo(cursor);
+    }
+
+    @Test
+    void semCursorComecaDoInicio() {
+        assertThat(CursorDados.ler(null)).isNull();
+        assertThat(CursorDados.ler("")).isNull();
+    }
+
+    @Test
+    void cursorMalformadoEhRecusado() {
+        assertThatThrownBy(() -> CursorDados.ler("4051")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CursorDados.ler("ontem_4051")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,83 @@
+package br.com.healthgo.service;
+
+import br.com.healthgo.model.DadosPaciente;
+import br.com.healthgo.repository.AgregadosRepository;
+import br.com.healthgo.repository.DadosPacienteRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DadosPacienteServiceTest {
+
+    private final DadosPacienteRepository dadosPacienteRepository = mock(DadosPacienteRepository.class);
+    private final RegistroPacientesService registroPacientesService = mock(RegistroPacientesService.class);
+    private final DadosRecentesCache dadosRecentesCache = mock(DadosRecentesCache.class);
+    private final EstatisticasService estatisticasService = mock(EstatisticasService.class);
+    private final DadosPacienteService dadosPacienteService = new DadosPacienteService();
+    private final AtomicLong sequencia = new AtomicLong(100);
+
+    @BeforeEach
+    void configurar() {
+        ReflectionTestUtils.setField(dadosPacienteService, "dadosPacienteRepository", dadosPacienteRepository);
+        ReflectionTestUtils.setField(dadosPacienteService, "agregadosRepository", mock(AgregadosRepository.class));
+        ReflectionTestUtils.setField(dadosPacienteService, "registroPacientesService", registroPacientesService);
+        ReflectionTestUtils.setField(dadosPacienteService, "dadosRecentesCache", dadosRecentesCache);
+        ReflectionTestUtils.setField(dadosPacienteService, "estatisticasService", estatisticasService);
+        ReflectionTestUtils.setField(dadosPacienteService, "entityManager", mock(EntityManager.class));
+        when(registroPacientesService.enriquecer(anyList())).then(returnsFirstArg());
+        when(registroPacientesService.enriquecer(any(DadosPaciente.class))).then(returnsFirstArg());
+        // O Hibernate atribui o id da sequência a todos, inclusive aos que o ON CONFLICT vai ignorar
+        when(dadosPacienteRepository.saveAll(anyList())).thenAnswer(invocacao -> {
+            List<DadosPaciente> dados = invocacao.getArgument(0);
+            dados.forEach(dadosPaciente -> dadosPaciente.setId(sequencia.incrementAndGet()));
+            return dados;
+        });
+        when(dadosPacienteRepository.save(any())).thenAnswer(invocacao -> {
+            DadosPaciente dadosPaciente = invocacao.getArgument(0);
+            dadosPaciente.setId(sequencia.incrementAndGet());
+            return dadosPaciente;
+        });
+    }
+
+    @Test
+    void registrosIgnoradosPeloBancoFicamForaDoRetornoCacheEEstatisticas() {
+        DadosPaciente novo = dados("PAC001");
+        DadosPaciente repetido = dados("PAC002");
+        when(dadosPacienteRepository.findIdsExistentes(anyList(), any(), any())).thenReturn(List.of(101L));
+
+        List<DadosPaciente> gravados = dadosPacienteService.salvarTodos(List.of(novo, repetido));
+
+        assertThat(gravados).containsExactly(novo);
+        assertThat(repetido.getId()).isNull();
+        verify(dadosRecentesCache).atualizarTodos(List.of(novo));
+        verify(estatisticasService).registrar(List.of(novo));
+    }
+
+    @Test
+    void amostraUnicaJaGravadaNaoAtualizaCacheNemEstatisticas() {
+        when(dadosPacienteRepository.findIdsExistentes(anyList(), any(), any())).thenReturn(List.of());
+
+        DadosPaciente resposta = dadosPacienteService.salvarDados(dados("PAC001"));
+
+        assertThat(resposta.getId()).isNull();
+        verify(dadosRecentesCache, never()).atualizar(any());
+        verify(estatisticasService, never()).registrar(anyList());
+    }
+
+    private static DadosPaciente dados(String pacienteId) {
+        return new DadosPaciente("10:00:00.00", pacienteId, null, null, 80, 98, 120, 80, 36.5, 16, "NORMAL");
+    }
+}
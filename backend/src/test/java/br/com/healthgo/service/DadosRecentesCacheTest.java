@@ -0,0 +1,63 @@
+package br.com.healthgo.service;
+
+import br.com.healthgo.model.AlteracoesRecentes;
+import br.com.healthgo.model.DadosPaciente;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DadosRecentesCacheTest {
+
+    private final DadosRecentesCache cache = new DadosRecentesCache();
+
+    @Test
+    void alteracoesDesdeUmaVersaoTrazemOsAlteradosEOsRemovidos() {
+        ReflectionTestUtils.setField(cache, "retencaoRemovidosMs", 60_000L);
+        cache.atualizar(dados("PAC001"));
+        cache.atualizar(dados("PAC002"));
+        long versao = cache.versao();
+
+        cache.atualizar(dados("PAC001"));
+        cache.remover("PAC002");
+
+        AlteracoesRecentes alteracoes = cache.alteracoesDesde(versao);
+        assertThat(alteracoes.completo()).isFalse();
+        assertThat(alteracoes.dados()).extracting(DadosPaciente::getPacienteId).containsExactly("PAC001");
+        assertThat(alteracoes.removidos()).containsExactly("PAC002");
+        assertThat(cache.alteracoesDesde(alteracoes.versao()).removidos()).isEmpty();
+    }
+
+    @Test
+    void remocaoExpiradaEhEsquecidaEVersaoAnteriorRecebeAListaCompleta() throws Exception {
+        ReflectionTestUtils.setField(cache, "retencaoRemovidosMs", 20L);
+        cache.atualizar(dados("PAC001"));
+        cache.atualizar(dados("PAC002"));
+        long antesDaRemocao = cache.versao();
+        cache.remover("PAC002");
+        long depoisDaRemocao = cache.versao();
+
+        Thread.sleep(40);
+        cache.atualizar(dados("PAC001"));
+
+        Map<?, ?> removidos = (Map<?, ?>) ReflectionTestUtils.getField(cache, "removidos");
+        assertThat(removidos).isEmpty();
+        // Sem o registro da remoção, a versão anterior a ela não sabe que PAC002 saiu: lista completa
+        AlteracoesRecentes anterior = cache.alteracoesDesde(antesDaRemocao);
+        assertThat(anterior.completo()).isTrue();
+        assertThat(anterior.dados()).extracting(DadosPaciente::getPacienteId).containsExactly("PAC001");
+        // Quem já viu a remoção continua recebendo só as alterações
+        AlteracoesRecentes posterior = cache.alteracoesDesde(depoisDaRemocao);
+        assertThat(posterior.completo()).isFalse();
+        assertThat(posterior.dados()).extracting(DadosPaciente::getPacienteId).containsExactly("PAC001");
+    }
+
+    private static DadosPaciente dados(String pacienteId) {
+        DadosPaciente dadosPaciente = new DadosPaciente("10:00:00.00", pacienteId, null, null, 80, 98, 120, 80, 36.5, 16, "NORMAL");
+        dadosPaciente.setDataCriacao(LocalDateTime.now());
+        return dadosPaciente;
+    }
+}
@@ -0,0 +1,139 @@
+package br.com.healthgo.service;
+
+import br.com.healthgo.model.AmostraSinais;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeduplicacaoServiceTest {
+
+    private static final int CHAVES = 4;
+    private static final int MAXIMO_PACIENTES = 20;
+    // 13:00:00.00 em centésimos
+    private static final int TREZE_HORAS = 13 * 60 * 60 * 100;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DeduplicacaoService deduplicacao = new DeduplicacaoService();
+
+    @BeforeEach
+    void configurar() {
+        ReflectionTestUtils.setField(deduplicacao, "chavesPorPaciente", CHAVES);
+        ReflectionTestUtils.setField(deduplicacao, "maximoPacientes", MAXIMO_PACIENTES);
+        ReflectionTestUtils.setField(deduplicacao, "meterRegistry", meterRegistry);
+        deduplicacao.iniciar();
+    }
+
+    @Test
+    void amostraRepetidaEhDescartada() {
+        assertThat(deduplicacao.aceitar(amostra("PAC001", 100))).isTrue();
+        assertThat(deduplicacao.aceitar(amostra("PAC001", 120))).isTrue();
+
+        assertThat(deduplicacao.aceitar(amostra("PAC001", 100))).isFalse();
+        assertThat(deduplicacao.aceitar(amostra("PAC001", 120))).isFalse();
+        // Mesmo horário de outro paciente não é repetição
+        assertThat(deduplicacao.aceitar(amostra("PAC002", 100))).isTrue();
+        assertThat(meterRegistry.counter("healthgo.deduplicacao.duplicadas").count()).isEqualTo(2);
+    }
+
+    @Test
+    void horarioForaDoAnelEhAceitoComoAtrasado() {
+        for (int i = 0; i <= CHAVES; i++) {
+            deduplicacao.aceitar(amostra("PAC001", 100 + i));
+        }
+
+        // O anel guarda só os últimos CHAVES horários: 100 já saiu, 101 ainda está
+        assertThat(deduplicacao.aceitar(amostra("PAC001", 101))).isFalse();
+        assertThat(deduplicacao.aceitar(amostra("PAC001", 100))).isTrue();
+        assertThat(meterRegistry.counter("healthgo.deduplicacao.atrasadas").count()).isEqualTo(1);
+        // Aceito, volta ao anel
+        assertThat(deduplicacao.aceitar(amostra("PAC001", 100))).isFalse();
+    }
+
+    @Test
+    void quedaDeMaisDeMeioDiaEhAViradaDoDia() {
+        deduplicacao.aceitar(amostra("PAC001", TREZE_HORAS));
+        deduplicacao.aceitar(amostra("PAC001", TREZE_HORAS - 1));
+
+        // Um centésimo além de meio dia antes da marca: novo dia, as chaves de ontem são esquecidas
+        int novoDia = TREZE_HORAS - DeduplicacaoService.MEIO_DIA_CENTESIMOS - 1;
+        assertThat(deduplicacao.aceitar(amostra("PAC001", novoDia))).isTrue();
+        assertThat(meterRegistry.counter("healthgo.deduplicacao.atrasadas").count()).isEqualTo(1);
+        assertThat(deduplicacao.aceitar(amostra("PAC001", novoDia))).isFalse();
+        assertThat(deduplicacao.aceitar(amostra("PAC001", TREZE_HORAS - 1))).isTrue();
+    }
+
+    @Test
+    void quedaDeExatamenteMeioDiaAindaEhDoMesmoDia() {
+        deduplicacao.aceitar(amostra("PAC001", TREZE_HORAS));
+
+        int limite = TREZE_HORAS - DeduplicacaoService.MEIO_DIA_CENTESIMOS;
+        assertThat(deduplicacao.aceitar(amostra("PAC001", limite))).isTrue();
+        assertThat(meterRegistry.counter("healthgo.deduplicacao.atrasadas").count()).isEqualTo(1);
+        // A marca d'água não recuou: 13:00 continua no anel
+        assertThat(deduplicacao.aceitar(amostra("PAC001", TREZE_HORAS))).isFalse();
+    }
+
+    @Test
+    void acimaDoLimiteRemoveEmBlocoOsPacientesInativosHaMaisTempo() {
+        for (int i = 0; i < MAXIMO_PACIENTES; i++) {
+            deduplicacao.aceitar(amostra(pacienteId(i), 100));
+        }
+        // O primeiro continua ativo
+        deduplicacao.aceitar(amostra(pacienteId(0), 101));
+
+        deduplicacao.aceitar(amostra("NOVO", 100));
+
+        // 10% do limite saem de uma vez: os próximos pacientes novos entram sem nova varredura
+        assertThat(deduplicacao.getPacientes()).isEqualTo(MAXIMO_PACIENTES - 2);
+        assertThat(deduplicacao.aceitar(amostra(pacienteId(1), 100))).isTrue();
+        assertThat(deduplicacao.aceitar(amostra(pacienteId(2), 100))).isTrue();
+        assertThat(deduplicacao.aceitar(amostra(pacienteId(0), 100))).isFalse();
+        assertThat(deduplicacao.aceitar(amostra("NOVO", 100))).isFalse();
+    }
+
+    @Test
+    void quadrosSimultaneosDeUmPacienteNovoNaoPassamJuntos() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int rodada = 0; rodada < 200; rodada++) {
+                String pacienteId = "CORRIDA" + rodada;
+                CountDownLatch largada = new CountDownLatch(1);
+                List<Future<Boolean>> resultados = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    resultados.add(executor.submit(() -> {
+                        largada.await();
+                        return deduplicacao.aceitar(amostra(pacienteId, 100));
+                    }));
+                }
+                largada.countDown();
+                int aceitas = 0;
+                for (Future<Boolean> resultado : resultados) {
+                    aceitas += resultado.get() ? 1 : 0;
+                }
+                assertThat(aceitas).as("rodada %d", rodada).isEqualTo(1);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String pacienteId(int indice) {
+        return String.format("PAC%03d", indice);
+    }
+
+    private static AmostraSinais amostra(String pacienteId, int horarioCentesimos) {
+        return new AmostraSinais(pacienteId, horarioCentesimos, null, 80, 97, 120, 80, 36.5, 16, false,
+            AmostraSinais.agoraMs(), null, null);
+    }
+}
@@ -0,0 +1,196 @@
+package br.com.healthgo.service;
+
+import br.com.healthgo.model.AmostraSinais;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DiarioIngestaoTest {
+
+    @TempDir
+    Path pasta;
+
+    private DiarioIngestao diario;
+
+    @AfterEach
+    void fechar() throws IOException {
+        if (diario != null) {
+            diario.encerrar();
+        }
+    }
+
+    @Test
+    void recuperaAposCaudaIncompleta() throws Exception {
+        diario = abrir(64);
+        for (int i = 0; i < 3; i++) {
+            diario.anexar(amostra(i));
+        }
+        diario.encerrar();
+
+        // Queda no meio do quarto registro: o tamanho chegou ao disco, os dados não
+        int tamanhoRegistro = 8 + DiarioIngestao.codificar(amostra(3)).length;
+        try (FileChannel canal = FileChannel.open(segmentos().get(0), StandardOpenOption.WRITE)) {
+            canal.write(ByteBuffer.allocate(8).putInt(tamanhoRegistro - 8).putInt(0x12345678).flip(),
+                3L * tamanhoRegistro);
+        }
+
+        diario = abrir(64);
+        assertThat(diario.getRegistrosPendentes()).isEqualTo(3);
+        assertThat(ler(10)).extracting(AmostraSinais::horarioCentesimos).containsExactly(0, 1, 2);
+
+        // A escrita continua onde os dados válidos terminam, sobre o registro incompleto
+        diario.anexar(amostra(3));
+        assertThat(ler(10)).extracting(AmostraSinais::horarioCentesimos).containsExactly(3);
+        diario.encerrar();
+
+        diario = abrir(64);
+        assertThat(diario.getRegistrosPendentes()).isEqualTo(4);
+    }
+
+    @Test
+    void rotacionaSegmentosEApagaOsConfirmados() throws Exception {
+        diario = abrir(64);
+        int total = 2 * (1024 * 1024) / (8 + DiarioIngestao.codificar(amostra(0)).length);
+        for (int i = 0; i < total; i++) {
+            assertThat(diario.anexar(amostra(i))).isTrue();
+        }
+        assertThat(segmentos()).hasSizeGreaterThanOrEqualTo(2);
+
+        List<AmostraSinais> lidas = new ArrayList<>();
+        while (diario.temPendentes()) {
+            lidas.addAll(ler(1000));
+        }
+        assertThat(lidas).hasSize(total);
+        for (int i = 0; i < total; i++) {
+            assertThat(lidas.get(i).horarioCentesimos()).isEqualTo(i);
+        }
+
+        diario.confirmar();
+        assertThat(diario.getRegistrosPendentes()).isZero();
+        assertThat(segmentos()).hasSize(1);
+    }
+
+    @Test
+    void rejeitaQuandoCheio() throws Exception {
+        diario = abrir(1);
+        int aceitas = 0;
+        while (diario.anexar(amostra(aceitas))) {
+            aceitas++;
+        }
+        assertThat(aceitas).isPositive();
+        assertThat(diario.getRegistrosPendentes()).isEqualTo(aceitas);
+        assertThat(segmentos()).hasSize(1);
+    }
+
+    @Test
+    void voltaAoCheckpointEContinuaDepoisDoReinicio() throws Exception {
+        diario = abrir(64);
+        for (int i = 0; i < 10; i++) {
+            diario.anexar(amostra(i));
+        }
+
+        assertThat(ler(4)).extracting(AmostraSinais::horarioCentesimos).containsExactly(0, 1, 2, 3);
+        diario.voltarAoCheckpoint();
+        assertThat(ler(4)).extracting(AmostraSinais::horarioCentesimos).containsExactly(0, 1, 2, 3);
+        diario.confirmar();
+        assertThat(diario.getRegistrosPendentes()).isEqualTo(6);
+
+        // Lido e não confirmado: volta depois do reinício
+        assertThat(ler(2)).extracting(AmostraSinais::horarioCentesimos).containsExactly(4, 5);
+        diario.encerrar();
+
+        diario = abrir(64);
+        assertThat(diario.getRegistrosPendentes()).isEqualTo(6);
+        assertThat(ler(10)).extracting(AmostraSinais::horarioCentesimos).containsExactly(4, 5, 6, 7, 8, 9);
+    }
+
+    @Test
+    void descartadosGuardamORegistroNoMesmoFormato() throws Exception {
+        diario = abrir(64);
+        diario.descartar(amostra(7));
+
+        byte[] conteudo = Files.readAllBytes(pasta.resolve("descartados"));
+        ByteBuffer buffer = ByteBuffer.wrap(conteudo);
+        int tamanho = buffer.getInt();
+        buffer.getInt();
+        byte[] dados = new byte[tamanho];
+        buffer.get(dados);
+        assertThat(buffer.hasRemaining()).isFalse();
+        assertThat(DiarioIngestao.decodificar(dados)).isEqualTo(amostra(7));
+    }
+
+    @Test
+    void exclusaoValeAteOCheckpointPassarDasAmostrasAnexadas() throws Exception {
+        diario = abrir(64);
+        diario.anexar(amostra(0));
+        diario.registrarExclusao("P001", 1234L);
+        diario.encerrar();
+
+        // Depois do reinício a exclusão continua valendo para as amostras pendentes
+        diario = abrir(64);
+        assertThat(diario.instanteExclusao("P001")).isEqualTo(1234L);
+        assertThat(ler(10)).hasSize(1);
+        diario.confirmar();
+        assertThat(diario.instanteExclusao("P001")).isNull();
+        diario.encerrar();
+
+        diario = abrir(64);
+        assertThat(diario.instanteExclusao("P001")).isNull();
+    }
+
+    @Test
+    void nomeECpfNaoVaoParaODisco() {
+        AmostraSinais comIdentificacao = new AmostraSinais("P001", 10, null, 80, 97, 120, 80, 36.5, 16, false,
+            1_700_000_000_000L, "João Silva", "123.456.789-00");
+
+        byte[] registro = DiarioIngestao.codificar(comIdentificacao);
+
+        assertThat(new String(registro, StandardCharsets.ISO_8859_1)).doesNotContain("123.456.789-00");
+        AmostraSinais lida = DiarioIngestao.decodificar(registro);
+        assertThat(lida.pacienteNome()).isNull();
+        assertThat(lida.pacienteCpf()).isNull();
+        assertThat(lida.pacienteId()).isEqualTo("P001");
+    }
+
+    private DiarioIngestao abrir(long tamanhoMaximoMb) throws IOException {
+        DiarioIngestao novo = new DiarioIngestao();
+        ReflectionTestUtils.setField(novo, "diretorio", pasta.toString());
+        ReflectionTestUtils.setField(novo, "tamanhoSegmentoMb", 1);
+        ReflectionTestUtils.setField(novo, "tamanhoMaximoMb", tamanhoMaximoMb);
+        ReflectionTestUtils.setField(novo, "meterRegistry", new SimpleMeterRegistry());
+        novo.iniciar();
+        return novo;
+    }
+
+    private List<AmostraSinais> ler(int maximo) throws InterruptedException {
+        List<AmostraSinais> lote = new ArrayList<>();
+        diario.lerLote(lote, maximo, 0);
+        return lote;
+    }
+
+    private List<Path> segmentos() throws IOException {
+        try (Stream<Path> arquivos = Files.list(pasta)) {
+            return arquivos.filter(a -> a.toString().endsWith(".seg")).sorted().toList();
+        }
+    }
+
+    static AmostraSinais amostra(int sequencia) {
+        return new AmostraSinais("P001", sequencia, null, 80, 97, 120, 80, 36.5, 16, false,
+            1_700_000_000_000L + sequencia, null, null);
+    }
+}
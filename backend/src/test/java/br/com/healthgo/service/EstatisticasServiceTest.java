@@ -0,0 +1,66 @@
+package br.com.healthgo.service;
+
+import br.com.healthgo.model.DadosPaciente;
+import br.com.healthgo.repository.DadosPacienteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EstatisticasServiceTest {
+
+    private final DadosPacienteRepository dadosPacienteRepository = mock(DadosPacienteRepository.class);
+    private final EstatisticasService estatisticas = new EstatisticasService();
+
+    @BeforeEach
+    void configurar() {
+        ReflectionTestUtils.setField(estatisticas, "dadosPacienteRepository", dadosPacienteRepository);
+        ReflectionTestUtils.setField(estatisticas, "minutosRetidos", 1440);
+        when(dadosPacienteRepository.countAgrupadoPorPaciente())
+            .thenReturn(List.<Object[]>of(new Object[]{"PAC001", 5L}));
+        when(dadosPacienteRepository.countAgrupadoPorMinuto(any())).thenReturn(List.of());
+    }
+
+    @Test
+    void recargaSubstituiOQueJaFoiContado() {
+        when(dadosPacienteRepository.countAgrupadoPorStatus())
+            .thenReturn(List.<Object[]>of(new Object[]{"NORMAL", 5L}));
+        estatisticas.registrar(List.of(dados("PAC001", "NORMAL")));
+
+        estatisticas.recarregar();
+
+        assertThat(estatisticas.getTotal()).isEqualTo(5);
+        assertThat(estatisticas.getTotalPorPaciente()).isEqualTo(Map.of("PAC001", 5L));
+    }
+
+    @Test
+    void registrosDuranteARecargaNaoSePerdem() {
+        when(dadosPacienteRepository.countAgrupadoPorStatus()).thenAnswer(invocacao -> {
+            // Gravação concluída enquanto a recarga consulta o banco
+            estatisticas.registrar(List.of(dados("PAC002", "ALERTA")));
+            return List.<Object[]>of(new Object[]{"NORMAL", 5L});
+        });
+
+        estatisticas.recarregar();
+
+        assertThat(estatisticas.getTotal()).isEqualTo(6);
+        assertThat(estatisticas.getTotalPorStatus("ALERTA")).isEqualTo(1);
+        assertThat(estatisticas.getTotalPorPaciente()).isEqualTo(Map.of("PAC001", 5L, "PAC002", 1L));
+    }
+
+    private static DadosPaciente dados(String pacienteId, String status) {
+        DadosPaciente dados = new DadosPaciente();
+        dados.setPacienteId(pacienteId);
+        dados.setStatus(status);
+        dados.setDataCriacao(LocalDateTime.now());
+        return dados;
+    }
+}
@@ -0,0 +1,43 @@
+package br.com.healthgo.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.sql.BatchUpdateException;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FalhasBancoTest {
+
+    @Test
+    void conexaoEBancoOcupadoSaoTransitorios() {
+        assertThat(FalhasBanco.isTransitoria(new QueryTimeoutException("lento"))).isTrue();
+        assertThat(FalhasBanco.isTransitoria(new CannotCreateTransactionException("sem conexão"))).isTrue();
+        assertThat(FalhasBanco.isTransitoria(new CannotGetJdbcConnectionException("sem conexão",
+            new SQLException("recusada", "08001")))).isTrue();
+        assertThat(FalhasBanco.isTransitoria(new RuntimeException(new SQLException("deadlock", "40P01")))).isTrue();
+        assertThat(FalhasBanco.isTransitoria(new RuntimeException(new SQLException("encerrando", "57P01")))).isTrue();
+    }
+
+    @Test
+    void restricaoVioladaEDadoInvalidoSaoRecusas() {
+        // Flush do Hibernate sem tradução do Spring: só o SQLState da causa identifica a recusa
+        RuntimeException naoNulo = new RuntimeException("could not execute batch",
+            new BatchUpdateException("null value in column", "23502", new int[0]));
+        assertThat(FalhasBanco.isRegistroRecusado(naoNulo)).isTrue();
+        assertThat(FalhasBanco.isTransitoria(naoNulo)).isFalse();
+        assertThat(FalhasBanco.isRegistroRecusado(new RuntimeException(new SQLException("too long", "22001")))).isTrue();
+        assertThat(FalhasBanco.isRegistroRecusado(new DataIntegrityViolationException("duplicada"))).isTrue();
+    }
+
+    @Test
+    void erroDesconhecidoNaoEhTransitorioNemRecusa() {
+        IllegalStateException erro = new IllegalStateException("bug");
+        assertThat(FalhasBanco.isTransitoria(erro)).isFalse();
+        assertThat(FalhasBanco.isRegistroRecusado(erro)).isFalse();
+    }
+}
@@ -0,0 +1,96 @@
+package br.com.healthgo.service;
+
+import br.com.healthgo.model.CursorDados;
+import br.com.healthgo.model.DadosPaciente;
+import br.com.healthgo.model.Historico;
+import br.com.healthgo.model.PontoHistorico;
+import br.com.healthgo.model.ResolucaoHistorico;
+import br.com.healthgo.repository.AgregadosRepository;
+import br.com.healthgo.repository.DadosPacienteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HistoricoServiceTest {
+
+    private static final int MAXIMO_PONTOS = 3;
+    private static final LocalDateTime INICIO = LocalDateTime.now().minusHours(1);
+
+    private final DadosPacienteRepository dadosPacienteRepository = mock(DadosPacienteRepository.class);
+    private final HistoricoService historicoService = new HistoricoService();
+
+    @BeforeEach
+    void configurar() {
+        ReflectionTestUtils.setField(historicoService, "maximoPontos", MAXIMO_PONTOS);
+        ReflectionTestUtils.setField(historicoService, "retencaoBrutosDias", 30);
+        ReflectionTestUtils.setField(historicoService, "retencaoMinutoDias", 365);
+        ReflectionTestUtils.setField(historicoService, "dadosPacienteRepository", dadosPacienteRepository);
+        ReflectionTestUtils.setField(historicoService, "agregadosRepository", mock(AgregadosRepository.class));
+    }
+
+    @Test
+    void brutoDeUmPeriodoLongoVemEmPaginasDeMaximoPontos() {
+        LocalDateTime fim = INICIO.plusHours(1);
+        // O banco devolve no máximo o tamanho pedido: maximo-pontos + 1
+        when(dadosPacienteRepository.findPaginaPorPeriodo(eq("PAC001"), eq(INICIO), eq(fim), any(), anyLong(), any()))
+            .thenReturn(dados(0, MAXIMO_PONTOS + 1));
+
+        Historico historico = historicoService.buscarHistorico("PAC001", INICIO, fim, ResolucaoHistorico.BRUTO, null);
+
+        assertThat(historico.resolucao()).isEqualTo(ResolucaoHistorico.BRUTO);
+        assertThat(historico.pontos()).extracting(PontoHistorico::periodo)
+            .containsExactly(INICIO, INICIO.plusSeconds(1), INICIO.plusSeconds(2));
+        assertThat(historico.proximo()).isEqualTo(new CursorDados(INICIO.plusSeconds(2), 2));
+        verify(dadosPacienteRepository).findPaginaPorPeriodo("PAC001", INICIO, fim, INICIO, Long.MIN_VALUE,
+            Pageable.ofSize(MAXIMO_PONTOS + 1));
+    }
+
+    @Test
+    void ultimaPaginaDoBrutoNaoTemCursor() {
+        LocalDateTime fim = INICIO.plusHours(1);
+        CursorDados apos = new CursorDados(INICIO.plusSeconds(2), 2);
+        when(dadosPacienteRepository.findPaginaPorPeriodo(anyString(), any(), any(), any(), anyLong(), any()))
+            .thenReturn(dados(3, 2));
+
+        Historico historico = historicoService.buscarHistorico("PAC001", INICIO, fim, null, apos);
+
+        assertThat(historico.resolucao()).isEqualTo(ResolucaoHistorico.BRUTO);
+        assertThat(historico.pontos()).hasSize(2);
+        assertThat(historico.proximo()).isNull();
+        verify(dadosPacienteRepository).findPaginaPorPeriodo("PAC001", INICIO, fim, apos.dataCriacao(), 2L,
+            Pageable.ofSize(MAXIMO_PONTOS + 1));
+    }
+
+    @Test
+    void cursorComResolucaoAgregadaEhRecusado() {
+        assertThatThrownBy(() -> historicoService.buscarHistorico("PAC001", INICIO, INICIO.plusHours(1),
+            ResolucaoHistorico.HORA, new CursorDados(INICIO, 1)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<DadosPaciente> dados(int primeiro, int quantidade) {
+        List<DadosPaciente> dados = new ArrayList<>();
+        for (int i = primeiro; i < primeiro + quantidade; i++) {
+            DadosPaciente dadosPaciente = new DadosPaciente("10:00:00.00", "PAC001", null, null, 80, 98, 120, 80, 36.5, 16, "NORMAL");
+            dadosPaciente.setId((long) i);
+            dadosPaciente.setDataCriacao(INICIO.plusSeconds(i));
+            dados.add(dadosPaciente);
+        }
+        return dados;
+    }
+}
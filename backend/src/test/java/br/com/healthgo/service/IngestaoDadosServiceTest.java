@@ -0,0 +1,272 @@
+package br.com.healthgo.service;
+
+import br.com.healthgo.config.ModoThreads;
+import br.com.healthgo.model.AmostraSinais;
+import br.com.healthgo.model.DadosPaciente;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IngestaoDadosServiceTest {
+
+    // Valor aceito pela validação, mas recusado pelo banco (ex: restrição CHECK)
+    private static final int FREQUENCIA_RECUSADA = 999;
+
+    @TempDir
+    Path pasta;
+
+    private final DadosPacienteService dadosPacienteService = mock(DadosPacienteService.class);
+    private final RegistroPacientesService registroPacientesService = mock(RegistroPacientesService.class);
+    private final List<Integer> gravadas = new CopyOnWriteArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private DiarioIngestao diario;
+    private IngestaoDadosService ingestao;
+
+    @AfterEach
+    void encerrar() throws Exception {
+        ingestao.encerrar();
+        if (diario != null) {
+            diario.encerrar();
+        }
+    }
+
+    @Test
+    void registroRecusadoVaiParaOsDescartadosSemTravarOsDemais() throws Exception {
+        when(dadosPacienteService.salvarTodos(anyList())).thenAnswer(invocacao -> {
+            List<DadosPaciente> lote = invocacao.getArgument(0);
+            if (lote.stream().anyMatch(d -> d.getFreqCardiaca() == FREQUENCIA_RECUSADA)) {
+                throw new DataIntegrityViolationException("violação de restrição");
+            }
+            lote.forEach(d -> gravadas.add(Integer.parseInt(d.getTimestamp().substring(9))));
+            return lote;
+        });
+        iniciar();
+
+        for (int i = 0; i < 40; i++) {
+            AmostraSinais amostra = DiarioIngestaoTest.amostra(i);
+            if (i == 13 || i == 27) {
+                amostra = new AmostraSinais(amostra.pacienteId(), i, null, FREQUENCIA_RECUSADA, 97, 120, 80,
+                    36.5, 16, false, amostra.dataCriacaoMs(), null, null);
+            }
+            assertThat(ingestao.enfileirar(amostra)).isTrue();
+        }
+
+        aguardarSemPendentes();
+        assertThat(gravadas).hasSize(38).doesNotContain(13, 27);
+        assertThat(Files.size(pasta.resolve("descartados")))
+            .isEqualTo(2L * (8 + DiarioIngestao.codificar(DiarioIngestaoTest.amostra(13)).length));
+    }
+
+    @Test
+    void falhaTransitoriaMantemOLoteNoDiario() throws Exception {
+        AtomicInteger tentativas = new AtomicInteger();
+        when(dadosPacienteService.salvarTodos(anyList())).thenAnswer(invocacao -> {
+            if (tentativas.incrementAndGet() <= 2) {
+                throw new QueryTimeoutException("banco lento");
+            }
+            List<DadosPaciente> lote = invocacao.getArgument(0);
+            lote.forEach(d -> gravadas.add(Integer.parseInt(d.getTimestamp().substring(9))));
+            return lote;
+        });
+        iniciar();
+
+        for (int i = 0; i < 5; i++) {
+            ingestao.enfileirar(DiarioIngestaoTest.amostra(i));
+        }
+
+        aguardarSemPendentes();
+        assertThat(gravadas).containsExactly(0, 1, 2, 3, 4);
+        assertThat(Files.exists(pasta.resolve("descartados")) ? Files.size(pasta.resolve("descartados")) : 0).isZero();
+    }
+
+    @Test
+    void amostrasPendentesDoPacienteExcluidoNaoSaoGravadas() throws Exception {
+        AtomicBoolean bancoFora = new AtomicBoolean(true);
+        when(dadosPacienteService.salvarTodos(anyList())).thenAnswer(invocacao -> {
+            if (bancoFora.get()) {
+                throw new QueryTimeoutException("banco fora");
+            }
+            List<DadosPaciente> lote = invocacao.getArgument(0);
+            lote.forEach(d -> gravadas.add(Integer.parseInt(d.getTimestamp().substring(9))));
+            return lote;
+        });
+        iniciar();
+
+        AmostraSinais comIdentificacao = new AmostraSinais("P002", 50, null, 80, 97, 120, 80, 36.5, 16, false,
+            AmostraSinais.agoraMs() - 1, "Maria Santos", "987.654.321-00");
+        ingestao.enfileirar(comIdentificacao);
+        for (int i = 0; i < 5; i++) {
+            ingestao.enfileirar(DiarioIngestaoTest.amostra(i));
+        }
+        verify(registroPacientesService).registrarPendente("P002", "Maria Santos", "987.654.321-00");
+
+        ingestao.excluirPaciente("P002");
+        bancoFora.set(false);
+
+        aguardarSemPendentes();
+        assertThat(gravadas).containsExactly(0, 1, 2, 3, 4);
+        assertThat(diario.instanteExclusao("P002")).isNull();
+    }
+
+    @Test
+    void semDiarioFalhaTransitoriaRegravaOLote() throws Exception {
+        AtomicInteger tentativas = new AtomicInteger();
+        when(dadosPacienteService.salvarTodos(anyList())).thenAnswer(invocacao -> {
+            if (tentativas.incrementAndGet() <= 2) {
+                throw new QueryTimeoutException("banco lento");
+            }
+            List<DadosPaciente> lote = invocacao.getArgument(0);
+            lote.forEach(d -> gravadas.add(Integer.parseInt(d.getTimestamp().substring(9))));
+            return lote;
+        });
+        iniciarIngestao();
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(ingestao.enfileirar(DiarioIngestaoTest.amostra(i))).isTrue();
+        }
+
+        aguardarContador("healthgo.ingestao.gravados", 5);
+        assertThat(gravadas).containsExactly(0, 1, 2, 3, 4);
+        assertThat(meterRegistry.counter("healthgo.ingestao.falhas").count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("healthgo.ingestao.descartados").count()).isZero();
+    }
+
+    @Test
+    void semDiarioLoteRecusadoEhDescartadoSemRegravar() throws Exception {
+        AtomicInteger tentadas = new AtomicInteger();
+        when(dadosPacienteService.salvarTodos(anyList())).thenAnswer(invocacao -> {
+            tentadas.addAndGet(invocacao.<List<DadosPaciente>>getArgument(0).size());
+            throw new DataIntegrityViolationException("violação de restrição");
+        });
+        iniciarIngestao();
+
+        for (int i = 0; i < 5; i++) {
+            ingestao.enfileirar(DiarioIngestaoTest.amostra(i));
+        }
+
+        aguardarContador("healthgo.ingestao.descartados", 5);
+        assertThat(tentadas).hasValue(5);
+        assertThat(meterRegistry.counter("healthgo.ingestao.gravados").count()).isZero();
+    }
+
+    @Test
+    void semDiarioExclusaoEhEsquecidaDepoisDeResolvidasAsAmostrasPendentes() throws Exception {
+        AtomicBoolean bancoFora = new AtomicBoolean(true);
+        when(dadosPacienteService.salvarTodos(anyList())).thenAnswer(invocacao -> {
+            if (bancoFora.get()) {
+                throw new QueryTimeoutException("banco fora");
+            }
+            List<DadosPaciente> lote = invocacao.getArgument(0);
+            lote.forEach(d -> gravadas.add(Integer.parseInt(d.getTimestamp().substring(9))));
+            return lote;
+        });
+        iniciarIngestao();
+        ReflectionTestUtils.setField(ingestao, "tentativasSemDiario", Integer.MAX_VALUE);
+
+        ingestao.enfileirar(new AmostraSinais("P002", 50, null, 80, 97, 120, 80, 36.5, 16, false,
+            AmostraSinais.agoraMs() - 1, null, null));
+        for (int i = 0; i < 5; i++) {
+            ingestao.enfileirar(DiarioIngestaoTest.amostra(i));
+        }
+        ingestao.excluirPaciente("P002");
+        Map<String, ?> exclusoes = (Map<String, ?>) ReflectionTestUtils.getField(ingestao, "exclusoes");
+        assertThat(exclusoes).containsOnlyKeys("P002");
+
+        bancoFora.set(false);
+
+        aguardarContador("healthgo.ingestao.gravados", 5);
+        assertThat(gravadas).containsExactly(0, 1, 2, 3, 4);
+        long prazo = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!exclusoes.isEmpty() && System.nanoTime() < prazo) {
+            Thread.sleep(5);
+        }
+        assertThat(exclusoes).isEmpty();
+        // Uma amostra nova do mesmo id volta a ser gravada
+        ingestao.enfileirar(new AmostraSinais("P002", 51, null, 80, 97, 120, 80, 36.5, 16, false,
+            AmostraSinais.agoraMs(), null, null));
+        aguardarContador("healthgo.ingestao.gravados", 6);
+    }
+
+    @Test
+    void gravadosContaSoAsAmostrasInseridas() throws Exception {
+        // O ON CONFLICT ignora as amostras pares, já gravadas
+        when(dadosPacienteService.salvarTodos(anyList())).thenAnswer(invocacao -> {
+            List<DadosPaciente> lote = invocacao.getArgument(0);
+            return lote.stream().filter(d -> Integer.parseInt(d.getTimestamp().substring(9)) % 2 == 1).toList();
+        });
+        iniciarIngestao();
+
+        for (int i = 0; i < 6; i++) {
+            ingestao.enfileirar(DiarioIngestaoTest.amostra(i));
+        }
+
+        aguardarContador("healthgo.ingestao.gravados", 3);
+        Thread.sleep(50);
+        assertThat(meterRegistry.counter("healthgo.ingestao.gravados").count()).isEqualTo(3);
+    }
+
+    private void iniciar() throws Exception {
+        diario = new DiarioIngestao();
+        ReflectionTestUtils.setField(diario, "diretorio", pasta.toString());
+        ReflectionTestUtils.setField(diario, "tamanhoSegmentoMb", 1);
+        ReflectionTestUtils.setField(diario, "tamanhoMaximoMb", 64L);
+        ReflectionTestUtils.setField(diario, "meterRegistry", meterRegistry);
+        diario.iniciar();
+        iniciarIngestao();
+    }
+
+    private void iniciarIngestao() {
+        ModoThreads modoThreads = new ModoThreads();
+        ReflectionTestUtils.setField(modoThreads, "environment", new MockEnvironment());
+
+        ingestao = new IngestaoDadosService();
+        ReflectionTestUtils.setField(ingestao, "tamanhoLote", 16);
+        ReflectionTestUtils.setField(ingestao, "intervaloFlushMs", 5L);
+        ReflectionTestUtils.setField(ingestao, "intervaloMaximoRetentativaMs", 20L);
+        ReflectionTestUtils.setField(ingestao, "capacidadeFila", 100);
+        ReflectionTestUtils.setField(ingestao, "politicaFilaCheia", IngestaoDadosService.PoliticaFilaCheia.DESCARTAR);
+        ReflectionTestUtils.setField(ingestao, "tentativasSemDiario", 3);
+        ReflectionTestUtils.setField(ingestao, "dadosPacienteService", dadosPacienteService);
+        ReflectionTestUtils.setField(ingestao, "registroPacientesService", registroPacientesService);
+        ReflectionTestUtils.setField(ingestao, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(ingestao, "modoThreads", modoThreads);
+        ReflectionTestUtils.setField(ingestao, "diarioIngestao", diario);
+        ingestao.iniciar();
+    }
+
+    private void aguardarContador(String nome, double esperado) throws InterruptedException {
+        long prazo = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (meterRegistry.counter(nome).count() < esperado && System.nanoTime() < prazo) {
+            Thread.sleep(5);
+        }
+        assertThat(meterRegistry.counter(nome).count()).isEqualTo(esperado);
+    }
+
+    private void aguardarSemPendentes() throws InterruptedException {
+        long prazo = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (diario.getRegistrosPendentes() > 0 && System.nanoTime() < prazo) {
+            Thread.sleep(5);
+        }
+        assertThat(diario.getRegistrosPendentes()).isZero();
+    }
+}
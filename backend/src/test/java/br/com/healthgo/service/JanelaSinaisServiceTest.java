@@ -0,0 +1,94 @@
+package br.com.healthgo.service;
+
+import br.com.healthgo.model.AmostraSinais;
+import br.com.healthgo.model.DadosPaciente;
+import br.com.healthgo.repository.DadosPacienteRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JanelaSinaisServiceTest {
+
+    private final DadosPacienteRepository dadosPacienteRepository = mock(DadosPacienteRepository.class);
+    private final RegistroPacientesService registroPacientesService = mock(RegistroPacientesService.class);
+    private final JanelaSinaisService janelaSinais = new JanelaSinaisService();
+
+    @BeforeEach
+    void configurar() {
+        ReflectionTestUtils.setField(janelaSinais, "segundosRetidos", 300);
+        ReflectionTestUtils.setField(janelaSinais, "amostrasPorSegundoMax", 5);
+        ReflectionTestUtils.setField(janelaSinais, "maximoPacientes", 10);
+        ReflectionTestUtils.setField(janelaSinais, "intervaloConsultaBancoMs", 60_000L);
+        ReflectionTestUtils.setField(janelaSinais, "dadosPacienteRepository", dadosPacienteRepository);
+        ReflectionTestUtils.setField(janelaSinais, "registroPacientesService", registroPacientesService);
+        ReflectionTestUtils.setField(janelaSinais, "meterRegistry", new SimpleMeterRegistry());
+        janelaSinais.iniciar();
+        when(registroPacientesService.enriquecer(anyList())).then(returnsFirstArg());
+    }
+
+    @Test
+    void amostrasDaJanelaNaoConsultamOBanco() {
+        janelaSinais.registrar(amostra("PAC001"));
+
+        assertThat(janelaSinais.buscar("PAC001", 60)).hasSize(1);
+        verify(dadosPacienteRepository, never()).findByPacienteIdAndPeriodo(any(), any(), any());
+    }
+
+    @Test
+    void pacienteForaDaJanelaEhBuscadoNoBanco() {
+        DadosPaciente gravado = amostra("PAC002").paraDadosPaciente();
+        when(dadosPacienteRepository.findByPacienteIdAndPeriodo(eq("PAC002"), any(), any()))
+            .thenReturn(List.of(gravado));
+
+        assertThat(janelaSinais.buscar("PAC002", 60)).containsExactly(gravado);
+    }
+
+    @Test
+    void amostrasDoBancoPassamPeloCadastroEPreenchemAJanela() {
+        when(dadosPacienteRepository.findByPacienteIdAndPeriodo(eq("PAC002"), any(), any()))
+            .thenReturn(List.of(amostra("PAC002").paraDadosPaciente()));
+        when(registroPacientesService.enriquecer(anyList())).then(invocacao -> {
+            List<DadosPaciente> dados = invocacao.getArgument(0);
+            dados.forEach(d -> d.setPacienteNome("Maria"));
+            return dados;
+        });
+
+        assertThat(janelaSinais.buscar("PAC002", 60)).extracting(DadosPaciente::getPacienteNome).containsExactly("Maria");
+        // Segunda consulta já vem da janela, com o mesmo cadastro
+        assertThat(janelaSinais.buscar("PAC002", 60)).extracting(DadosPaciente::getPacienteNome).containsExactly("Maria");
+        verify(dadosPacienteRepository, times(1)).findByPacienteIdAndPeriodo(eq("PAC002"), any(), any());
+    }
+
+    @Test
+    void pacienteSemDadosNoBancoNaoEhConsultadoDeNovoNoIntervalo() {
+        when(dadosPacienteRepository.findByPacienteIdAndPeriodo(eq("DESCONHECIDO"), any(), any()))
+            .thenReturn(List.of());
+
+        assertThat(janelaSinais.buscar("DESCONHECIDO", 60)).isEmpty();
+        assertThat(janelaSinais.buscar("DESCONHECIDO", 60)).isEmpty();
+        verify(dadosPacienteRepository, times(1)).findByPacienteIdAndPeriodo(eq("DESCONHECIDO"), any(), any());
+
+        // Uma amostra recebida depois é servida pela janela
+        janelaSinais.registrar(amostra("DESCONHECIDO"));
+        assertThat(janelaSinais.buscar("DESCONHECIDO", 60)).hasSize(1);
+    }
+
+    private static AmostraSinais amostra(String pacienteId) {
+        return new AmostraSinais(pacienteId, 0, null, 80, 98, 120, 80, 36.5, 16, false,
+            AmostraSinais.agoraMs(), null, null);
+    }
+}
@@ -0,0 +1,159 @@
+package br.com.healthgo.service;
+
+import br.com.healthgo.model.AmostraSinais;
+import br.com.healthgo.model.DadosPaciente;
+import br.com.healthgo.model.EventoAlerta;
+import br.com.healthgo.model.RegraAlerta;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MotorAlertasServiceTest {
+
+    private static final String REGRAS = """
+        [
+          {"id": "spo2_baixa", "descricao": "SpO2 abaixo de 90% por 10 s", "sinal": "SATURACAO_O2",
+           "tipo": "LIMITE", "operador": "ABAIXO", "limite": 90, "duracao_segundos": 10, "severidade": "CRITICA"},
+          {"id": "fc_subida", "descricao": "FC subiu 20 bpm em 1 min", "sinal": "FREQ_CARDIACA",
+           "tipo": "VARIACAO", "variacao": 20, "janela_segundos": 60}
+        ]
+        """;
+    private static final long INICIO_MS = AmostraSinais.agoraMs();
+
+    @TempDir
+    Path diretorio;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Object> publicados = new ArrayList<>();
+    private final MotorAlertasService motor = new MotorAlertasService();
+    private Path arquivoRegras;
+
+    @BeforeEach
+    void configurar() throws Exception {
+        arquivoRegras = Files.writeString(diretorio.resolve("regras-alerta.json"), REGRAS);
+        ReflectionTestUtils.setField(motor, "arquivoRegras", arquivoRegras.toUri().toString());
+        ReflectionTestUtils.setField(motor, "amostrasPorSegundoMax", 10);
+        ReflectionTestUtils.setField(motor, "maximoEventosRecentes", 3);
+        ReflectionTestUtils.setField(motor, "objectMapper", Jackson2ObjectMapperBuilder.json().build());
+        ReflectionTestUtils.setField(motor, "resourceLoader", new DefaultResourceLoader());
+        ReflectionTestUtils.setField(motor, "eventPublisher", (ApplicationEventPublisher) publicados::add);
+        ReflectionTestUtils.setField(motor, "meterRegistry", meterRegistry);
+        motor.iniciar();
+    }
+
+    @Test
+    void limiteSoDisparaDepoisDaDuracaoEUmaVezPorViolacao() {
+        assertThat(motor.avaliar(amostra("PAC001", 0, 80, 85)).alerta()).isFalse();
+        assertThat(motor.avaliar(amostra("PAC001", 9_999, 80, 85)).alerta()).isFalse();
+        assertThat(publicados).isEmpty();
+
+        assertThat(motor.avaliar(amostra("PAC001", 10_000, 80, 84)).alerta()).isTrue();
+        // Continua em alerta, sem novo evento
+        assertThat(motor.avaliar(amostra("PAC001", 11_000, 80, 85)).alerta()).isTrue();
+
+        assertThat(publicados).singleElement().isInstanceOfSatisfying(EventoAlerta.class, evento -> {
+            assertThat(evento.pacienteId()).isEqualTo("PAC001");
+            assertThat(evento.regra()).isEqualTo("spo2_baixa");
+            assertThat(evento.valor()).isEqualTo(84);
+        });
+        assertThat(meterRegistry.counter("healthgo.alertas.disparados",
+            "regra", "spo2_baixa", "severidade", "CRITICA").count()).isEqualTo(1);
+    }
+
+    @Test
+    void amostraNormalEncerraOAlertaEReiniciaAContagem() {
+        motor.avaliar(amostra("PAC001", 0, 80, 85));
+        assertThat(motor.avaliar(amostra("PAC001", 10_000, 80, 85)).alerta()).isTrue();
+
+        assertThat(motor.avaliar(amostra("PAC001", 11_000, 80, 95)).alerta()).isFalse();
+        // Nova violação: a duração conta de novo a partir da primeira amostra fora do limite
+        assertThat(motor.avaliar(amostra("PAC001", 12_000, 80, 85)).alerta()).isFalse();
+        assertThat(motor.avaliar(amostra("PAC001", 21_000, 80, 85)).alerta()).isFalse();
+        assertThat(motor.avaliar(amostra("PAC001", 22_000, 80, 85)).alerta()).isTrue();
+
+        assertThat(publicados).hasSize(2);
+    }
+
+    @Test
+    void variacaoComparaComOExtremoDaJanela() {
+        assertThat(motor.avaliar(amostra("PAC001", 0, 80, 97)).alerta()).isFalse();
+        assertThat(motor.avaliar(amostra("PAC001", 10_000, 95, 97)).alerta()).isFalse();
+        assertThat(motor.avaliar(amostra("PAC001", 20_000, 100, 97)).alerta()).isTrue();
+        assertThat(motor.avaliar(amostra("PAC001", 30_000, 99, 97)).alerta()).isFalse();
+
+        // O mínimo de 80 saiu da janela de 60 s: a referência agora é 95
+        assertThat(motor.avaliar(amostra("PAC001", 65_000, 114, 97)).alerta()).isFalse();
+        assertThat(publicados).extracting(evento -> ((EventoAlerta) evento).regra()).containsExactly("fc_subida");
+    }
+
+    @Test
+    void estadoDeUmPacienteNaoAfetaOutro() {
+        motor.avaliar(amostra("PAC001", 0, 80, 85));
+        motor.avaliar(amostra("PAC002", 5_000, 80, 85));
+        motor.avaliar(amostra("PAC003", 0, 80, 97));
+
+        assertThat(motor.avaliar(amostra("PAC001", 10_000, 80, 85)).alerta()).isTrue();
+        assertThat(motor.avaliar(amostra("PAC002", 10_000, 80, 85)).alerta()).isFalse();
+        // Variação medida só contra as amostras do próprio paciente
+        assertThat(motor.avaliar(amostra("PAC003", 10_000, 90, 97)).alerta()).isFalse();
+
+        assertThat(motor.listarEventosRecentes()).extracting(EventoAlerta::pacienteId).containsExactly("PAC001");
+    }
+
+    @Test
+    void eventosRecentesGuardamOsUltimosMaisRecentesPrimeiro() {
+        for (int i = 1; i <= 4; i++) {
+            String pacienteId = "PAC00" + i;
+            motor.avaliar(amostra(pacienteId, 0, 80, 97));
+            motor.avaliar(amostra(pacienteId, 1_000, 100, 97));
+        }
+
+        assertThat(motor.listarEventosRecentes()).extracting(EventoAlerta::pacienteId)
+            .containsExactly("PAC004", "PAC003", "PAC002");
+
+        motor.removerPaciente("PAC003");
+        assertThat(motor.listarEventosRecentes()).extracting(EventoAlerta::pacienteId)
+            .containsExactly("PAC004", "PAC002");
+    }
+
+    @Test
+    void alertaDaApiRestMarcaOStatus() {
+        DadosPaciente dados = amostra("PAC001", 0, 80, 97).paraDadosPaciente();
+        motor.avaliar(dados);
+        assertThat(dados.getStatus()).isNotEqualTo("ALERTA");
+
+        DadosPaciente subida = amostra("PAC001", 1_000, 100, 97).paraDadosPaciente();
+        assertThat(motor.avaliar(subida).getStatus()).isEqualTo("ALERTA");
+    }
+
+    @Test
+    void arquivoComRegraDuplicadaMantemAsRegrasAtuais() throws Exception {
+        Files.writeString(arquivoRegras, """
+            [
+              {"id": "dup", "sinal": "TEMPERATURA", "tipo": "LIMITE", "operador": "ACIMA", "limite": 38},
+              {"id": "dup", "sinal": "TEMPERATURA", "tipo": "LIMITE", "operador": "ACIMA", "limite": 39}
+            ]
+            """);
+
+        assertThatThrownBy(motor::recarregar).isInstanceOf(IllegalArgumentException.class);
+        assertThat(motor.listarRegras()).extracting(RegraAlerta::id).containsExactly("spo2_baixa", "fc_subida");
+    }
+
+    private static AmostraSinais amostra(String pacienteId, long deslocamentoMs, int freqCardiaca, int saturacaoO2) {
+        return new AmostraSinais(pacienteId, 0, null, freqCardiaca, saturacaoO2, 120, 80, 36.5, 16, false,
+            INICIO_MS + deslocamentoMs, null, null);
+    }
+}
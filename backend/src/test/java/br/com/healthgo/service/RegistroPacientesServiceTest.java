@@ -0,0 +1,73 @@
+package br.com.healthgo.service;
+
+import br.com.healthgo.model.DadosPaciente;
+import br.com.healthgo.model.Paciente;
+import br.com.healthgo.repository.PacienteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RegistroPacientesServiceTest {
+
+    private final PacienteRepository pacienteRepository = mock(PacienteRepository.class);
+    private final RegistroPacientesService registro = new RegistroPacientesService();
+
+    @BeforeEach
+    void configurar() {
+        ReflectionTestUtils.setField(registro, "pacienteRepository", pacienteRepository);
+        ReflectionTestUtils.setField(registro, "validadeAusenteMs", 60_000L);
+        when(pacienteRepository.save(any())).thenAnswer(invocacao -> invocacao.getArgument(0));
+    }
+
+    @Test
+    void pacienteForaDaMemoriaEhBuscadoNoBancoEGuardado() {
+        when(pacienteRepository.findById("PAC001"))
+            .thenReturn(Optional.of(new Paciente("PAC001", "João Silva", "123.456.789-00")));
+
+        DadosPaciente dados = new DadosPaciente();
+        dados.setPacienteId("PAC001");
+        registro.enriquecer(dados);
+        Optional<Paciente> buscado = registro.buscar("PAC001");
+
+        assertThat(dados.getPacienteNome()).isEqualTo("João Silva");
+        assertThat(buscado).map(Paciente::getCpf).contains("123.456.789-00");
+        verify(pacienteRepository, times(1)).findById("PAC001");
+    }
+
+    @Test
+    void pacienteSemCadastroNaoConsultaOBancoACadaAmostra() {
+        when(pacienteRepository.findById("PAC009")).thenReturn(Optional.empty());
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(registro.buscar("PAC009")).isEmpty();
+        }
+
+        verify(pacienteRepository, times(1)).findById("PAC009");
+    }
+
+    @Test
+    void identificacaoPendenteEhGravadaComOProximoLote() {
+        registro.registrarPendente("PAC002", "Maria Santos", "987.654.321-00");
+        verify(pacienteRepository, never()).save(any());
+
+        registro.registrarTodos(List.of());
+
+        verify(pacienteRepository).save(any());
+        assertThat(registro.buscar("PAC002")).map(Paciente::getNome).contains("Maria Santos");
+
+        // Já gravada: o lote seguinte não grava de novo
+        registro.registrarTodos(List.of());
+        verify(pacienteRepository, times(1)).save(any());
+    }
+}
@@ -0,0 +1,224 @@
+package br.com.healthgo.service;
+
+import br.com.healthgo.config.ModoThreads;
+import br.com.healthgo.config.RedisConfig;
+import br.com.healthgo.model.AlteracoesRecentes;
+import br.com.healthgo.model.DadosPaciente;
+import br.com.healthgo.websocket.AlertasWebSocketHandler;
+import br.com.healthgo.websocket.WebSocketHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Sincronização entre instâncias contra um Redis real (binário embutido): o script Lua
+ * dos dados recentes versionados e a distribuição pelos canais assinados no {@link RedisConfig}.
+ */
+class SincronizacaoRedisServiceTest {
+
+    private static RedisServer redis;
+    private static LettuceConnectionFactory conexoes;
+
+    private final SincronizacaoRedisService sincronizacao = new SincronizacaoRedisService();
+    private final RedisConfig redisConfig = new RedisConfig();
+    private final ModoThreads modoThreads = new ModoThreads();
+    private final ExecutorPorPaciente executorPorPaciente = new ExecutorPorPaciente();
+    private StringRedisTemplate redisTemplate;
+
+    @BeforeAll
+    static void iniciarRedis() throws IOException {
+        int porta;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            porta = socket.getLocalPort();
+        }
+        redis = new RedisServer(porta);
+        redis.start();
+        conexoes = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", porta));
+        conexoes.afterPropertiesSet();
+        conexoes.start();
+    }
+
+    @AfterAll
+    static void pararRedis() throws IOException {
+        conexoes.destroy();
+        redis.stop();
+    }
+
+    @BeforeEach
+    void configurar() {
+        redisTemplate = new StringRedisTemplate(conexoes);
+        ReflectionTestUtils.setField(sincronizacao, "redisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(sincronizacao, "objectMapper", Jackson2ObjectMapperBuilder.json().build());
+        ReflectionTestUtils.setField(redisConfig, "capacidadeFila", 100);
+        ReflectionTestUtils.setField(modoThreads, "environment", new MockEnvironment());
+        ReflectionTestUtils.setField(executorPorPaciente, "quantidadeRaias", 4);
+        ReflectionTestUtils.setField(executorPorPaciente, "capacidadeRaia", 1024);
+        ReflectionTestUtils.setField(executorPorPaciente, "timeoutBloqueioMs", 50L);
+        ReflectionTestUtils.setField(executorPorPaciente, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(executorPorPaciente, "modoThreads", modoThreads);
+        executorPorPaciente.iniciar();
+    }
+
+    @AfterEach
+    void limpar() throws InterruptedException {
+        redisConfig.encerrar();
+        executorPorPaciente.encerrar();
+        redisTemplate.execute(conexao -> {
+            conexao.serverCommands().flushAll();
+            return null;
+        }, true);
+    }
+
+    @Test
+    void ultimosSaoGravadosComVersaoCrescente() {
+        assertThat(sincronizacao.versaoUltimos()).isZero();
+
+        sincronizacao.salvarUltimos(List.of(dados("PAC001", 80), dados("PAC002", 90)));
+        long primeira = sincronizacao.versaoUltimos();
+        sincronizacao.salvarUltimos(List.of(dados("PAC001", 85)));
+        long segunda = sincronizacao.versaoUltimos();
+
+        assertThat(primeira).isPositive();
+        assertThat(segunda).isGreaterThan(primeira);
+        assertThat(sincronizacao.listarUltimos())
+            .extracting(DadosPaciente::getPacienteId, DadosPaciente::getFreqCardiaca)
+            .containsExactlyInAnyOrder(
+                Tuple.tuple("PAC001", 85),
+                Tuple.tuple("PAC002", 90));
+    }
+
+    @Test
+    void alteracoesDesdeUmaVersaoTrazemSoOsPacientesAlteradosEOsRemovidos() {
+        sincronizacao.salvarUltimos(List.of(dados("PAC001", 80), dados("PAC002", 90), dados("PAC003", 70)));
+        long versao = sincronizacao.versaoUltimos();
+
+        sincronizacao.salvarUltimos(List.of(dados("PAC002", 95)));
+        sincronizacao.removerUltimo("PAC003");
+        AlteracoesRecentes alteracoes = sincronizacao.alteracoesDesde(versao);
+
+        assertThat(alteracoes.completo()).isFalse();
+        assertThat(alteracoes.versao()).isGreaterThan(versao);
+        assertThat(alteracoes.dados()).extracting(DadosPaciente::getPacienteId).containsExactly("PAC002");
+        assertThat(alteracoes.removidos()).containsExactly("PAC003");
+        assertThat(sincronizacao.alteracoesDesde(alteracoes.versao()).dados()).isEmpty();
+    }
+
+    @Test
+    void versaoDeOutraSerieDevolveAListaCompleta() {
+        sincronizacao.salvarUltimos(List.of(dados("PAC001", 80)));
+        long versao = sincronizacao.versaoUltimos();
+
+        assertThat(sincronizacao.alteracoesDesde(versao + 1).completo()).isTrue();
+        assertThat(sincronizacao.alteracoesDesde(1).dados()).extracting(DadosPaciente::getPacienteId)
+            .containsExactly("PAC001");
+    }
+
+    @Test
+    void publicacoesChegamAosHandlersDeCadaInstancia() throws Exception {
+        WebSocketHandler webSocketHandler = mock(WebSocketHandler.class);
+        AlertasWebSocketHandler alertasWebSocketHandler = mock(AlertasWebSocketHandler.class);
+        ExclusaoPacienteService exclusaoPacienteService = mock(ExclusaoPacienteService.class);
+        RedisMessageListenerContainer container = redisConfig.redisMessageListenerContainer(
+            conexoes, webSocketHandler, alertasWebSocketHandler, exclusaoPacienteService, executorPorPaciente, modoThreads);
+        container.afterPropertiesSet();
+        container.start();
+        try {
+            sincronizacao.publicarDados("PAC001", "{\"paciente_id\":\"PAC001\"}");
+            sincronizacao.publicarAlerta("{\"regra\":\"FC_ALTA\"}");
+            redisTemplate.convertAndSend(SincronizacaoRedisService.CANAL_EXCLUSAO_FIM, "outra-instancia|PAC002");
+
+            verify(webSocketHandler, timeout(2000)).enviarParaClientesWeb("PAC001", "{\"paciente_id\":\"PAC001\"}");
+            verify(alertasWebSocketHandler, timeout(2000)).enviarParaClientes("{\"regra\":\"FC_ALTA\"}");
+            verify(exclusaoPacienteService, timeout(2000)).aplicarExclusaoRemota("PAC002", true);
+        } finally {
+            container.destroy();
+        }
+    }
+
+    @Test
+    void exclusaoPublicadaPelaPropriaInstanciaEhIgnorada() throws Exception {
+        ExclusaoPacienteService exclusaoPacienteService = mock(ExclusaoPacienteService.class);
+        RedisMessageListenerContainer container = redisConfig.redisMessageListenerContainer(conexoes, mock(WebSocketHandler.class),
+            mock(AlertasWebSocketHandler.class), exclusaoPacienteService, executorPorPaciente, modoThreads);
+        container.afterPropertiesSet();
+        container.start();
+        try {
+            sincronizacao.publicarExclusao("PAC001", false);
+            redisTemplate.convertAndSend(SincronizacaoRedisService.CANAL_EXCLUSAO_INICIO, "outra-instancia|PAC002");
+
+            // A exclusão da outra instância chega, a da própria é descartada
+            verify(exclusaoPacienteService, timeout(2000)).aplicarExclusaoRemota("PAC002", false);
+            verify(exclusaoPacienteService, after(200).never()).aplicarExclusaoRemota(eq("PAC001"), anyBoolean());
+        } finally {
+            container.destroy();
+        }
+    }
+
+    @Test
+    void quadrosDeUmPacienteChegamNaOrdemPublicada() throws Exception {
+        WebSocketHandler webSocketHandler = mock(WebSocketHandler.class);
+        List<String> recebidos = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocacao -> {
+            // Atraso variável: sem a ordem garantida, quadros posteriores passariam à frente
+            Thread.sleep(recebidos.size() % 3);
+            recebidos.add(invocacao.getArgument(0) + ":" + invocacao.getArgument(1));
+            return null;
+        }).when(webSocketHandler).enviarParaClientesWeb(anyString(), anyString());
+        RedisMessageListenerContainer container = redisConfig.redisMessageListenerContainer(conexoes, webSocketHandler,
+            mock(AlertasWebSocketHandler.class), mock(ExclusaoPacienteService.class), executorPorPaciente, modoThreads);
+        container.afterPropertiesSet();
+        container.start();
+        try {
+            List<String> esperados = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String pacienteId = i % 2 == 0 ? "PAC001" : "PAC002";
+                sincronizacao.publicarDados(pacienteId, Integer.toString(i));
+                esperados.add(pacienteId + ":" + i);
+            }
+
+            long prazo = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (recebidos.size() < esperados.size() && System.nanoTime() < prazo) {
+                Thread.sleep(5);
+            }
+            assertThat(recebidos).filteredOn(r -> r.startsWith("PAC001:"))
+                .containsExactlyElementsOf(esperados.stream().filter(r -> r.startsWith("PAC001:")).toList());
+            assertThat(recebidos).filteredOn(r -> r.startsWith("PAC002:"))
+                .containsExactlyElementsOf(esperados.stream().filter(r -> r.startsWith("PAC002:")).toList());
+        } finally {
+            container.destroy();
+        }
+    }
+
+    private static DadosPaciente dados(String pacienteId, int freqCardiaca) {
+        return new DadosPaciente("10:00:00.00", pacienteId, null, null, freqCardiaca, 98, 120, 80, 36.5, 16, "NORMAL");
+    }
+}
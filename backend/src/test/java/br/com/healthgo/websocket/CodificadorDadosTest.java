@@ -0,0 +1,168 @@
+package br.com.healthgo.websocket;
+
+import br.com.healthgo.model.AmostraSinais;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CodificadorDadosTest {
+
+    // 2026-01-15T10:30:45.120 UTC
+    private static final long DATA_CRIACAO_MS = 1_768_473_045_120L;
+
+    private final CodificadorDados codificador = new CodificadorDados(Jackson2ObjectMapperBuilder.json().build());
+
+    @Test
+    void jsonIdaEVoltaPreservaAAmostraSemIdentificacao() throws Exception {
+        AmostraSinais amostra = amostra("10:30:45.12").comAlerta();
+
+        AmostraSinais lida = codificador.lerJson(codificador.escreverJson(amostra));
+
+        assertThat(lida).isEqualTo(semIdentificacao(amostra));
+        assertThat(lida.motivoInvalida()).isNull();
+    }
+
+    @Test
+    void binarioIdaEVoltaPreservaAAmostra() {
+        AmostraSinais amostra = amostra("10:30:45.12");
+
+        assertThat(codificador.lerBinario(ByteBuffer.wrap(codificador.escreverBinario(amostra, true))))
+            .isEqualTo(amostra);
+        assertThat(codificador.lerBinario(ByteBuffer.wrap(codificador.escreverBinario(amostra, false))))
+            .isEqualTo(semIdentificacao(amostra));
+    }
+
+    @Test
+    void horarioForaDoFormatoViajaComoTexto() throws Exception {
+        AmostraSinais amostra = amostra("2026-01-15 10:30");
+        assertThat(amostra.horarioCentesimos()).isEqualTo(AmostraSinais.HORARIO_AUSENTE);
+
+        assertThat(codificador.lerBinario(ByteBuffer.wrap(codificador.escreverBinario(amostra, true))))
+            .isEqualTo(amostra);
+        assertThat(codificador.lerJson(codificador.escreverJson(amostra))).isEqualTo(semIdentificacao(amostra));
+    }
+
+    @Test
+    void binarioTruncadoEhRecusado() {
+        byte[] quadro = codificador.escreverBinario(amostra("10:30:45.12"), true);
+
+        for (int tamanho : new int[] {0, 1, 10, 20, 36, quadro.length - 1}) {
+            ByteBuffer truncado = ByteBuffer.wrap(Arrays.copyOf(quadro, tamanho));
+            assertThatThrownBy(() -> codificador.lerBinario(truncado))
+                .as("%d bytes", tamanho)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("truncado");
+        }
+    }
+
+    @Test
+    void versaoBinariaDesconhecidaEhRecusada() {
+        byte[] quadro = codificador.escreverBinario(amostra("10:30:45.12"), false);
+        quadro[0] = 2;
+
+        assertThatThrownBy(() -> codificador.lerBinario(ByteBuffer.wrap(quadro)))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Versão");
+    }
+
+    @Test
+    void camposDesconhecidosDoJsonSaoIgnorados() throws Exception {
+        AmostraSinais lida = codificador.lerJson("""
+            {"paciente_id": "PAC001", "timestamp": "10:30:45.12", "freq_cardiaca": 80, "saturacao_o2": 97,
+             "pressao_sistolica": 120, "pressao_diastolica": 80, "temperatura": 36.5, "freq_respiratoria": 16,
+             "dispositivo": {"modelo": "X1", "canais": [1, 2]}, "bateria": 88}
+            """);
+
+        assertThat(lida.motivoInvalida()).isNull();
+        assertThat(lida.freqCardiaca()).isEqualTo(80);
+        assertThat(lida.freqRespiratoria()).isEqualTo(16);
+    }
+
+    @Test
+    void campoAusenteNoJsonTornaAAmostraInvalida() throws Exception {
+        AmostraSinais semSaturacao = codificador.lerJson("""
+            {"paciente_id": "PAC001", "timestamp": "10:30:45.12", "freq_cardiaca": 80,
+             "pressao_sistolica": 120, "pressao_diastolica": 80, "temperatura": 36.5, "freq_respiratoria": 16}
+            """);
+        AmostraSinais semPaciente = codificador.lerJson("""
+            {"timestamp": "10:30:45.12", "freq_cardiaca": 80, "saturacao_o2": null}
+            """);
+
+        assertThat(semSaturacao.saturacaoO2()).isEqualTo(AmostraSinais.AUSENTE);
+        assertThat(semSaturacao.motivoInvalida()).isEqualTo("sinal vital ausente");
+        assertThat(semPaciente.motivoInvalida()).startsWith("paciente_id ausente");
+    }
+
+    @Test
+    void sinalVitalNaoNumericoEhRecusado() throws Exception {
+        assertThat(codificador.lerJson("{\"freq_cardiaca\": \"80\", \"temperatura\": \"36.5\"}"))
+            .satisfies(lida -> {
+                assertThat(lida.freqCardiaca()).isEqualTo(80);
+                assertThat(lida.temperatura()).isEqualTo(36.5);
+            });
+
+        assertThatThrownBy(() -> codificador.lerJson("{\"freq_cardiaca\": \"oitenta\"}"))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("freq_cardiaca");
+        assertThatThrownBy(() -> codificador.lerJson("{\"temperatura\": true}"))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("temperatura");
+        assertThatThrownBy(() -> codificador.lerJson("{\"saturacao_o2\": [97]}"))
+            .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void quadroQueNaoEhObjetoEhRecusado() {
+        assertThatThrownBy(() -> codificador.lerJson("[1, 2, 3]")).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> codificador.lerJson("{\"paciente_id\": \"PAC001\"")).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void quadroCodificaCadaFormatoUmaVezECompartilha() {
+        AmostraSinais amostra = amostra("10:30:45.12");
+        QuadroDados quadro = QuadroDados.deAmostra(codificador, amostra);
+
+        TextMessage texto = (TextMessage) quadro.mensagemPara(FormatoMensagem.JSON);
+        assertThat(quadro.mensagemPara(FormatoMensagem.JSON)).isSameAs(texto);
+        BinaryMessage binario = (BinaryMessage) quadro.mensagemPara(FormatoMensagem.BINARIO);
+        BinaryMessage outroBinario = (BinaryMessage) quadro.mensagemPara(FormatoMensagem.BINARIO);
+        // Cada sessão consome o seu ByteBuffer, sobre os mesmos bytes
+        assertThat(outroBinario).isNotSameAs(binario);
+        assertThat(outroBinario.getPayload()).isEqualTo(binario.getPayload());
+        assertThat(codificador.lerBinario(binario.getPayload())).isEqualTo(semIdentificacao(amostra));
+    }
+
+    @Test
+    void quadroDoRedisRepassaOJsonRecebidoELeAAmostraSobDemanda() throws Exception {
+        AmostraSinais amostra = amostra("10:30:45.12").comAlerta();
+        String json = codificador.escreverJson(amostra);
+        QuadroDados quadro = QuadroDados.deJson(codificador, "PAC001", json);
+
+        assertThat(quadro.getJson()).isSameAs(json);
+        assertThat(quadro.isAlerta()).isTrue();
+        assertThat(quadro.getAmostra()).isEqualTo(semIdentificacao(amostra));
+
+        QuadroDados invalido = QuadroDados.deJson(codificador, "PAC001", "{\"freq_cardiaca\": \"x\"}");
+        assertThatThrownBy(invalido::isAlerta).hasCauseInstanceOf(IOException.class);
+    }
+
+    private static AmostraSinais amostra(String timestamp) {
+        int horario = AmostraSinais.lerHorario(timestamp.toCharArray(), 0, timestamp.length());
+        return new AmostraSinais("PAC001", horario, horario == AmostraSinais.HORARIO_AUSENTE ? timestamp : null,
+            80, 97, 120, 80, 36.5, 16, false, DATA_CRIACAO_MS, "Maria Silva", "123.456.789-00");
+    }
+
+    private static AmostraSinais semIdentificacao(AmostraSinais amostra) {
+        return new AmostraSinais(amostra.pacienteId(), amostra.horarioCentesimos(), amostra.timestampTexto(),
+            amostra.freqCardiaca(), amostra.saturacaoO2(), amostra.pressaoSistolica(), amostra.pressaoDiastolica(),
+            amostra.temperatura(), amostra.freqRespiratoria(), amostra.alerta(), amostra.dataCriacaoMs(), null, null);
+    }
+}
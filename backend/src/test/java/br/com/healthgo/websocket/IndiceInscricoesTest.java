@@ -0,0 +1,121 @@
+package br.com.healthgo.websocket;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class IndiceInscricoesTest {
+
+    private final IndiceInscricoes indice = new IndiceInscricoes();
+
+    @Test
+    void sessaoSemInscricaoRecebeTodosOsPacientes() {
+        SessaoClienteWeb sessao = sessao();
+        indice.registrar(sessao);
+
+        assertThat(interessados("PAC001")).containsExactly(sessao);
+        assertThat(interessados("PAC002")).containsExactly(sessao);
+        assertThat(indice.getNumeroPacientesIndexados()).isZero();
+    }
+
+    @Test
+    void inscricaoLimitaAosPacientesEscolhidos() {
+        SessaoClienteWeb sessao = sessao();
+        SessaoClienteWeb outra = sessao();
+        indice.registrar(sessao);
+        indice.registrar(outra);
+
+        indice.inscrever(sessao, List.of("PAC001", "PAC002"));
+
+        assertThat(interessados("PAC001")).containsExactlyInAnyOrder(sessao, outra);
+        assertThat(interessados("PAC003")).containsExactly(outra);
+        assertThat(sessao.getPacientesInscritos()).containsExactlyInAnyOrder("PAC001", "PAC002");
+        assertThat(indice.getNumeroPacientesIndexados()).isEqualTo(2);
+    }
+
+    @Test
+    void desinscricaoRetiraOPacienteDoIndice() {
+        SessaoClienteWeb sessao = sessao();
+        indice.registrar(sessao);
+        indice.inscrever(sessao, List.of("PAC001", "PAC002"));
+
+        indice.desinscrever(sessao, List.of("PAC001"));
+
+        assertThat(interessados("PAC001")).isEmpty();
+        assertThat(interessados("PAC002")).containsExactly(sessao);
+        assertThat(indice.getNumeroPacientesIndexados()).isEqualTo(1);
+
+        indice.inscreverTodos(sessao);
+        assertThat(interessados("PAC001")).containsExactly(sessao);
+        assertThat(indice.getNumeroPacientesIndexados()).isZero();
+    }
+
+    @Test
+    void sessaoFechadaSaiDoIndiceENaoVoltaPorInscricaoAtrasada() {
+        SessaoClienteWeb sessao = sessao();
+        indice.registrar(sessao);
+        indice.inscrever(sessao, List.of("PAC001"));
+
+        indice.remover(sessao);
+        // Controle recebido antes do fechamento e processado depois dele
+        indice.inscrever(sessao, List.of("PAC002"));
+        indice.inscreverTodos(sessao);
+
+        assertThat(interessados("PAC001")).isEmpty();
+        assertThat(interessados("PAC002")).isEmpty();
+        assertThat(indice.getNumeroPacientesIndexados()).isZero();
+    }
+
+    @Test
+    void fechamentoConcorrenteComInscricaoNaoDeixaSessaoNoIndice() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int rodada = 0; rodada < 500; rodada++) {
+                SessaoClienteWeb sessao = sessao();
+                indice.registrar(sessao);
+                CountDownLatch largada = new CountDownLatch(1);
+                List<Future<?>> tarefas = new ArrayList<>();
+                tarefas.add(executor.submit(() -> {
+                    largada.await();
+                    indice.inscrever(sessao, List.of("PAC001", "PAC002", "PAC003"));
+                    return null;
+                }));
+                tarefas.add(executor.submit(() -> {
+                    largada.await();
+                    indice.remover(sessao);
+                    return null;
+                }));
+                largada.countDown();
+                for (Future<?> tarefa : tarefas) {
+                    tarefa.get();
+                }
+                assertThat(indice.getNumeroPacientesIndexados()).as("rodada %d", rodada).isZero();
+                assertThat(interessados("PAC001")).as("rodada %d", rodada).isEmpty();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Set<SessaoClienteWeb> interessados(String pacienteId) {
+        Set<SessaoClienteWeb> interessados = new HashSet<>();
+        indice.paraCadaInteressado(pacienteId, interessados::add);
+        return interessados;
+    }
+
+    private static SessaoClienteWeb sessao() {
+        return new SessaoClienteWeb(mock(WebSocketSession.class), FormatoMensagem.JSON, 16,
+            SessaoClienteWeb.PoliticaTransbordo.DESCARTAR_MAIS_ANTIGA, Runnable::run, 0);
+    }
+}
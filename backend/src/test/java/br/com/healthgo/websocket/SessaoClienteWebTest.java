@@ -0,0 +1,105 @@
+package br.com.healthgo.websocket;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SessaoClienteWebTest {
+
+    private final WebSocketSession sessao = mock(WebSocketSession.class);
+    private final List<WebSocketMessage<?>> enviadas = new ArrayList<>();
+    // Drenagens agendadas e ainda não executadas: o cliente fica parado até executarDrenagens()
+    private final List<Runnable> drenagens = new ArrayList<>();
+    private final Executor executorEnvio = drenagens::add;
+
+    @BeforeEach
+    void configurar() throws Exception {
+        when(sessao.getId()).thenReturn("web-1");
+        when(sessao.isOpen()).thenReturn(true);
+        doAnswer(invocacao -> enviadas.add(invocacao.getArgument(0))).when(sessao).sendMessage(any());
+    }
+
+    @Test
+    void filaCheiaDescartaOQueNaoEhAlertaENuncaUmAlerta() throws Exception {
+        SessaoClienteWeb sessaoWeb = new SessaoClienteWeb(sessao, FormatoMensagem.JSON, 3,
+            SessaoClienteWeb.PoliticaTransbordo.DESCARTAR_MAIS_ANTIGA, executorEnvio, 0);
+
+        sessaoWeb.enfileirar(new TextMessage("controle"));
+        sessaoWeb.enfileirarDados("PAC001", true, new TextMessage("alerta-1"));
+        sessaoWeb.enfileirarDados("PAC002", true, new TextMessage("alerta-2"));
+        // Conflacionado, fora da fila: não compete com os alertas
+        sessaoWeb.enfileirarDados("PAC003", false, new TextMessage("normal"));
+        sessaoWeb.enfileirarDados("PAC001", true, new TextMessage("alerta-3"));
+
+        assertThat(sessaoWeb.getMensagensDescartadas()).isEqualTo(1);
+        verify(sessao, never()).close(any());
+        executarDrenagens();
+        assertThat(enviadas).extracting(mensagem -> (Object) mensagem.getPayload())
+            .containsExactly("alerta-1", "alerta-2", "alerta-3", "normal");
+    }
+
+    @Test
+    void filaCheiaSoDeAlertasDesconectaEmVezDeDescartar() throws Exception {
+        SessaoClienteWeb sessaoWeb = new SessaoClienteWeb(sessao, FormatoMensagem.JSON, 2,
+            SessaoClienteWeb.PoliticaTransbordo.DESCARTAR_MAIS_ANTIGA, executorEnvio, 0);
+
+        sessaoWeb.enfileirarDados("PAC001", true, new TextMessage("alerta-1"));
+        sessaoWeb.enfileirarDados("PAC002", true, new TextMessage("alerta-2"));
+        sessaoWeb.enfileirarDados("PAC003", true, new TextMessage("alerta-3"));
+
+        verify(sessao).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertThat(sessaoWeb.getMensagensDescartadas()).isZero();
+    }
+
+    @Test
+    void atrasoContaODadoConflacionadoPendenteMaisAntigo() throws Exception {
+        SessaoClienteWeb sessaoWeb = new SessaoClienteWeb(sessao, FormatoMensagem.JSON, 16,
+            SessaoClienteWeb.PoliticaTransbordo.DESCARTAR_MAIS_ANTIGA, executorEnvio, 0);
+        assertThat(sessaoWeb.getAtrasoMs()).isZero();
+
+        sessaoWeb.enfileirarDados("PAC001", false, new TextMessage("normal-1"));
+        Thread.sleep(50);
+        // O dado mais novo substitui o pendente, mas o cliente continua atrasado desde o primeiro
+        sessaoWeb.enfileirarDados("PAC001", false, new TextMessage("normal-2"));
+
+        assertThat(sessaoWeb.getAtrasoMs()).isGreaterThanOrEqualTo(50);
+        assertThat(sessaoWeb.getMensagensConflacionadas()).isEqualTo(1);
+
+        executarDrenagens();
+        assertThat(enviadas).extracting(mensagem -> (Object) mensagem.getPayload()).containsExactly("normal-2");
+        assertThat(sessaoWeb.getAtrasoMs()).isZero();
+    }
+
+    @Test
+    void atrasoDescontaAEsperaDaTaxaMaxima() throws Exception {
+        // 1 Hz: um dado pendente há menos de 1 s está só aguardando a vez
+        SessaoClienteWeb sessaoWeb = new SessaoClienteWeb(sessao, FormatoMensagem.JSON, 16,
+            SessaoClienteWeb.PoliticaTransbordo.DESCARTAR_MAIS_ANTIGA, executorEnvio, 1);
+
+        sessaoWeb.enfileirarDados("PAC001", false, new TextMessage("normal-1"));
+        Thread.sleep(20);
+
+        assertThat(sessaoWeb.getAtrasoMs()).isZero();
+    }
+
+    private void executarDrenagens() {
+        while (!drenagens.isEmpty()) {
+            drenagens.remove(0).run();
+        }
+    }
+}
@@ -7,13 +7,38 @@
 -- Conectar ao banco
 \c healthgo;
 
--- Criar tabela de dados dos pacientes
+-- Migração de bancos existentes: a tabela não particionada é renomeada e seus
+-- dados são copiados para a tabela particionada mais abaixo
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_class WHERE relname = 'dados_pacientes' AND relkind = 'r') THEN
+        DROP VIEW IF EXISTS dados_recentes;
+        DROP INDEX IF EXISTS idx_paciente_id, idx_data_criacao, idx_status;
+        ALTER TABLE dados_pacientes RENAME TO dados_pacientes_legado;
+        ALTER TABLE dados_pacientes_legado RENAME CONSTRAINT dados_pacientes_pkey TO dados_pacientes_legado_pkey;
+        ALTER SEQUENCE IF EXISTS dados_pacientes_id_seq OWNED BY NONE;
+    END IF;
+END $$;
+
+-- Cadastro de pacientes: nome e CPF ficam aqui, e não em cada amostra
+CREATE TABLE IF NOT EXISTS pacientes (
+    paciente_id VARCHAR(20) PRIMARY KEY,
+    nome VARCHAR(100),
+    cpf VARCHAR(20),
+    data_atualizacao TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Sequência dos dados dos pacientes
+-- Incremento de 50 para o otimizador pooled do Hibernate (allocationSize = 50),
+-- que reserva blocos de IDs e permite inserções em batch JDBC
+CREATE SEQUENCE IF NOT EXISTS dados_pacientes_id_seq INCREMENT BY 50;
+
+-- Criar tabela de dados dos pacientes, particionada por dia de data_criacao
+-- A chave de partição precisa fazer parte da chave primária
 CREATE TABLE IF NOT EXISTS dados_pacientes (
-    id BIGSERIAL PRIMARY KEY,
+    id BIGINT NOT NULL DEFAULT nextval('dados_pacientes_id_seq'),
     timestamp VARCHAR(20) NOT NULL,
     paciente_id VARCHAR(20) NOT NULL,
-    paciente_nome VARCHAR(100) NOT NULL,
-    paciente_cpf VARCHAR(20) NOT NULL,
     freq_cardiaca INTEGER NOT NULL,
     saturacao_o2 INTEGER NOT NULL,
     pressao_sistolica INTEGER NOT NULL,
@@ -21,14 +46,157 @@ CREATE TABLE IF NOT EXISTS dados_pacientes (
     temperatura DOUBLE PRECISION NOT NULL,
     freq_respiratoria INTEGER NOT NULL,
     status VARCHAR(10) NOT NULL,
-    data_criacao TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-);
+    data_criacao TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, data_criacao)
+) PARTITION BY RANGE (data_criacao);
+
+-- Migração de bancos existentes: nome e CPF das amostras passam para o cadastro
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'dados_pacientes' AND column_name = 'paciente_nome') THEN
+        INSERT INTO pacientes (paciente_id, nome, cpf, data_atualizacao)
+        SELECT DISTINCT ON (paciente_id) paciente_id, paciente_nome, paciente_cpf, data_criacao
+        FROM dados_pacientes
+        ORDER BY paciente_id, data_criacao DESC
+        ON CONFLICT (paciente_id) DO NOTHING;
+
+        DROP VIEW IF EXISTS dados_recentes;
+        ALTER TABLE dados_pacientes DROP COLUMN paciente_nome, DROP COLUMN paciente_cpf;
+    END IF;
+END $$;
 
--- Criar índices para performance
+-- Partição padrão: recebe registros fora das partições diárias (deve permanecer vazia)
+CREATE TABLE IF NOT EXISTS dados_pacientes_padrao PARTITION OF dados_pacientes DEFAULT;
+
+-- Índice único da amostra (paciente_id, timestamp) em uma partição: o backend grava com
+-- ON CONFLICT DO NOTHING, então um reenvio do mesmo horário no mesmo dia é ignorado.
+-- Não pode ficar na tabela particionada, que exigiria data_criacao (diferente a cada reenvio)
+-- na chave. Repetições já gravadas são removidas antes, mantendo o menor id
+CREATE OR REPLACE FUNCTION criar_indice_amostra(particao TEXT)
+RETURNS VOID AS $$
+BEGIN
+    IF to_regclass(particao || '_amostra') IS NULL THEN
+        EXECUTE format(
+            'DELETE FROM %I a USING %I b WHERE a.paciente_id = b.paciente_id AND a.timestamp = b.timestamp AND a.id > b.id',
+            particao, particao);
+        EXECUTE format('CREATE UNIQUE INDEX %I ON %I (paciente_id, timestamp)', particao || '_amostra', particao);
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+-- A partição padrão fica sem o índice: ela mistura dias diferentes, e o mesmo horário de
+-- um paciente em dias diferentes colidiria. Bancos criados com ele o perdem aqui; as
+-- repetições são removidas quando os registros do dia vão para a partição diária
+DROP INDEX IF EXISTS dados_pacientes_padrao_amostra;
+
+ALTER SEQUENCE dados_pacientes_id_seq OWNED BY dados_pacientes.id;
+
+-- Migração de bancos existentes criados com BIGSERIAL (incremento 1)
+ALTER SEQUENCE dados_pacientes_id_seq INCREMENT BY 50;
+
+-- Cria a partição diária de um dia (dados_pacientes_pAAAAMMDD)
+-- Também chamada periodicamente pelo backend para os dias seguintes. Registros do dia
+-- que caíram na partição padrão (dia sem partição na hora da gravação) são movidos para
+-- a nova partição; sem isso, o PostgreSQL recusaria criá-la
+CREATE OR REPLACE FUNCTION criar_particao_dados(dia DATE)
+RETURNS VOID AS $$
+DECLARE
+    particao TEXT := 'dados_pacientes_p' || to_char(dia, 'YYYYMMDD');
+BEGIN
+    IF to_regclass(particao) IS NULL AND EXISTS (
+            SELECT 1 FROM dados_pacientes_padrao WHERE data_criacao >= dia AND data_criacao < dia + 1) THEN
+        -- Bloqueia novas gravações na partição padrão até o fim da transação
+        LOCK TABLE dados_pacientes_padrao IN SHARE ROW EXCLUSIVE MODE;
+        EXECUTE format('CREATE TABLE %I (LIKE dados_pacientes INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', particao);
+        EXECUTE format(
+            'WITH movidos AS (DELETE FROM dados_pacientes_padrao WHERE data_criacao >= %L AND data_criacao < %L RETURNING *) '
+            'INSERT INTO %I SELECT * FROM movidos',
+            dia, dia + 1, particao);
+        EXECUTE format('ALTER TABLE dados_pacientes ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+            particao, dia, dia + 1);
+    ELSE
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF dados_pacientes FOR VALUES FROM (%L) TO (%L)',
+            particao, dia, dia + 1);
+    END IF;
+    PERFORM criar_indice_amostra(particao);
+END;
+$$ LANGUAGE plpgsql;
+
+-- Partições de hoje e dos próximos dias
+SELECT criar_particao_dados(CURRENT_DATE + n) FROM generate_series(0, 3) AS n;
+
+-- Migração de bancos existentes: índice único da amostra nas partições diárias criadas antes dele
+SELECT criar_indice_amostra(inhrelid::regclass::text)
+FROM pg_inherits
+WHERE inhparent = 'dados_pacientes'::regclass
+  AND inhrelid <> 'dados_pacientes_padrao'::regclass;
+
+-- Criar índices para performance (propagados para cada partição)
 CREATE INDEX IF NOT EXISTS idx_paciente_id ON dados_pacientes(paciente_id);
+CREATE INDEX IF NOT EXISTS idx_paciente_data ON dados_pacientes(paciente_id, data_criacao);
 CREATE INDEX IF NOT EXISTS idx_data_criacao ON dados_pacientes(data_criacao);
 CREATE INDEX IF NOT EXISTS idx_status ON dados_pacientes(status);
 
+-- Cópia dos dados da tabela não particionada, criando as partições necessárias antes
+DO $$
+DECLARE
+    dia DATE;
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_class WHERE relname = 'dados_pacientes_legado') THEN
+        FOR dia IN
+            SELECT DISTINCT COALESCE(data_criacao, CURRENT_TIMESTAMP)::DATE FROM dados_pacientes_legado
+        LOOP
+            PERFORM criar_particao_dados(dia);
+        END LOOP;
+
+        INSERT INTO pacientes (paciente_id, nome, cpf, data_atualizacao)
+        SELECT DISTINCT ON (paciente_id) paciente_id, paciente_nome, paciente_cpf, data_criacao
+        FROM dados_pacientes_legado
+        ORDER BY paciente_id, data_criacao DESC
+        ON CONFLICT (paciente_id) DO NOTHING;
+
+        INSERT INTO dados_pacientes (id, timestamp, paciente_id, freq_cardiaca,
+                                     saturacao_o2, pressao_sistolica, pressao_diastolica, temperatura,
+                                     freq_respiratoria, status, data_criacao)
+        SELECT id, timestamp, paciente_id, freq_cardiaca,
+               saturacao_o2, pressao_sistolica, pressao_diastolica, temperatura,
+               freq_respiratoria, status, COALESCE(data_criacao, CURRENT_TIMESTAMP)
+        FROM dados_pacientes_legado
+        ON CONFLICT DO NOTHING;
+
+        DROP TABLE dados_pacientes_legado;
+    END IF;
+END $$;
+
+-- Agregados por minuto e por hora (mínimo, máximo e média de cada sinal vital),
+-- mantidos pelo backend e usados nas consultas de histórico de períodos longos
+CREATE TABLE IF NOT EXISTS dados_pacientes_1m (
+    paciente_id VARCHAR(20) NOT NULL,
+    periodo TIMESTAMP NOT NULL,
+    quantidade INTEGER NOT NULL,
+    alertas INTEGER NOT NULL,
+    freq_cardiaca_min INTEGER, freq_cardiaca_max INTEGER, freq_cardiaca_media DOUBLE PRECISION,
+    saturacao_o2_min INTEGER, saturacao_o2_max INTEGER, saturacao_o2_media DOUBLE PRECISION,
+    pressao_sistolica_min INTEGER, pressao_sistolica_max INTEGER, pressao_sistolica_media DOUBLE PRECISION,
+    pressao_diastolica_min INTEGER, pressao_diastolica_max INTEGER, pressao_diastolica_media DOUBLE PRECISION,
+    temperatura_min DOUBLE PRECISION, temperatura_max DOUBLE PRECISION, temperatura_media DOUBLE PRECISION,
+    freq_respiratoria_min INTEGER, freq_respiratoria_max INTEGER, freq_respiratoria_media DOUBLE PRECISION,
+    PRIMARY KEY (paciente_id, periodo)
+);
+
+CREATE INDEX IF NOT EXISTS idx_dados_1m_periodo ON dados_pacientes_1m(periodo);
+
+CREATE TABLE IF NOT EXISTS dados_pacientes_1h (LIKE dados_pacientes_1m INCLUDING ALL);
+
+-- Períodos a reagregar: amostras gravadas depois de a agregação ter passado pelo minuto delas
+-- (ex: replay do diário de ingestão), marcadas na mesma transação e consumidas pelo backend
+CREATE TABLE IF NOT EXISTS dados_pacientes_reagregar (
+    inicio TIMESTAMP NOT NULL,
+    fim TIMESTAMP NOT NULL
+);
+
 -- Criar tabela de auditoria de acessos
 CREATE TABLE IF NOT EXISTS auditoria_acessos (
     id BIGSERIAL PRIMARY KEY,
@@ -59,18 +227,27 @@ CREATE INDEX IF NOT EXISTS idx_incidente_tipo ON incidentes_seguranca(tipo_incid
 CREATE INDEX IF NOT EXISTS idx_incidente_status ON incidentes_seguranca(status);
 
 -- Inserir dados de exemplo (opcional)
-INSERT INTO dados_pacientes (timestamp, paciente_id, paciente_nome, paciente_cpf, freq_cardiaca, saturacao_o2, pressao_sistolica, pressao_diastolica, temperatura, freq_respiratoria, status) VALUES
-('12:00:01.20', 'PAC001', 'João Silva', '123.456.789-00', 87, 96, 130, 85, 36.7, 18, 'NORMAL'),
-('12:00:01.20', 'PAC002', 'Maria Santos', '987.654.321-00', 72, 98, 120, 80, 36.5, 16, 'NORMAL'),
-('12:00:01.20', 'PAC003', 'Pedro Oliveira', '456.789.123-00', 105, 92, 140, 95, 37.2, 24, 'ALERTA');
+INSERT INTO pacientes (paciente_id, nome, cpf) VALUES
+('PAC001', 'João Silva', '123.456.789-00'),
+('PAC002', 'Maria Santos', '987.654.321-00'),
+('PAC003', 'Pedro Oliveira', '456.789.123-00')
+ON CONFLICT (paciente_id) DO NOTHING;
+
+INSERT INTO dados_pacientes (timestamp, paciente_id, freq_cardiaca, saturacao_o2, pressao_sistolica, pressao_diastolica, temperatura, freq_respiratoria, status) VALUES
+('12:00:01.20', 'PAC001', 87, 96, 130, 85, 36.7, 18, 'NORMAL'),
+('12:00:01.20', 'PAC002', 72, 98, 120, 80, 36.5, 16, 'NORMAL'),
+('12:00:01.20', 'PAC003', 105, 92, 140, 95, 37.2, 24, 'ALERTA')
+ON CONFLICT DO NOTHING;
 
 -- Criar view para dados recentes
 CREATE OR REPLACE VIEW dados_recentes AS
-SELECT DISTINCT ON (paciente_id) *
-FROM dados_pacientes
-ORDER BY paciente_id, data_criacao DESC;
+SELECT DISTINCT ON (d.paciente_id) d.*, p.nome AS paciente_nome, p.cpf AS paciente_cpf
+FROM dados_pacientes d
+LEFT JOIN pacientes p ON p.paciente_id = d.paciente_id
+ORDER BY d.paciente_id, d.data_criacao DESC;
 
 -- Criar função para limpeza automática de dados antigos
+-- A retenção usual é feita pelo backend, descartando partições inteiras
 CREATE OR REPLACE FUNCTION limpar_dados_antigos()
 RETURNS INTEGER AS $$
 DECLARE
@@ -91,9 +268,12 @@ GRANT ALL PRIVILEGES ON ALL SEQUENCES IN SCHEMA public TO healthgo_user;
 
 -- Comentários sobre as tabelas
 COMMENT ON TABLE dados_pacientes IS 'Tabela principal para armazenar dados de monitoramento dos pacientes';
+COMMENT ON TABLE dados_pacientes_1m IS 'Agregados por minuto dos dados de monitoramento';
+COMMENT ON TABLE dados_pacientes_1h IS 'Agregados por hora dos dados de monitoramento';
 COMMENT ON TABLE auditoria_acessos IS 'Tabela para auditoria de acessos ao sistema';
 COMMENT ON TABLE incidentes_seguranca IS 'Tabela para registro de incidentes de segurança';
 
-COMMENT ON COLUMN dados_pacientes.paciente_cpf IS 'CPF pseudoanonimizado do paciente';
+COMMENT ON TABLE pacientes IS 'Cadastro dos pacientes monitorados';
+COMMENT ON COLUMN pacientes.cpf IS 'CPF pseudoanonimizado do paciente';
 COMMENT ON COLUMN dados_pacientes.status IS 'Status do paciente: NORMAL ou ALERTA';
 COMMENT ON COLUMN auditoria_acessos.ip_origem IS 'IP de origem do acesso para auditoria LGPD'; 
\ No newline at end of file
@@ -1,4 +1,4 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import {
   Box,
   Grid,
@@ -47,8 +47,8 @@ interface DadosPaciente {
   id?: number;
   timestamp: string;
   paciente_id: string; // Mapeia para pacienteId
-  paciente_nome: string; // Mapeia para pacienteNome
-  paciente_cpf: string; // Mapeia para pacienteCpf
+  paciente_nome?: string; // Mapeia para pacienteNome (ausente nos dados do WebSocket)
+  paciente_cpf?: string; // Mapeia para pacienteCpf (ausente nos dados do WebSocket)
   freq_cardiaca: number; // Mapeia para freqCardiaca
   saturacao_o2: number; // Mapeia para saturacaoO2
   pressao_sistolica: number; // Mapeia para pressaoSistolica
@@ -59,17 +59,27 @@ interface DadosPaciente {
   data_criacao?: string; // Mapeia para dataCriacao
 }
 
+// Resposta de /dados/recentes?desde=<versao>: só os pacientes alterados depois da versão
+interface AlteracoesRecentes {
+  versao: number;
+  completo: boolean; // dados traz todos os pacientes e substitui a lista
+  dados: DadosPaciente[];
+  removidos: string[];
+}
+
 const Dashboard: React.FC = () => {
   const [pacientes, setPacientes] = useState<DadosPaciente[]>([]);
   const [conectado, setConectado] = useState(false);
   const [mensagem, setMensagem] = useState('');
   const [tipoMensagem, setTipoMensagem] = useState<'success' | 'error'>('success');
+  // Última versão recebida da API; 0 pede a lista completa
+  const versaoRef = useRef(0);
 
   useEffect(() => {
     conectarWebSocket();
     carregarDadosRecentes();
     
-    // Atualiza dados a cada 5 segundos
+    // Confere alterações a cada 5 segundos; sem alterações, o backend responde 304 sem corpo
     const interval = setInterval(carregarDadosRecentes, 5000);
     
     return () => {
@@ -103,20 +113,50 @@ const Dashboard: React.FC = () => {
 
   const carregarDadosRecentes = async () => {
     try {
-      const response = await fetch('http://localhost:8080/api/pacientes/dados/recentes');
-      const dados = await response.json();
-      setPacientes(dados);
+      const versao = versaoRef.current;
+      const response = await fetch(`http://localhost:8080/api/pacientes/dados/recentes?desde=${versao}`, {
+        headers: versao ? { 'If-None-Match': `"${versao}"` } : {}
+      });
+      if (response.status === 304 || !response.ok) {
+        return;
+      }
+      const alteracoes: AlteracoesRecentes = await response.json();
+      versaoRef.current = alteracoes.versao;
+      if (alteracoes.completo) {
+        setPacientes(alteracoes.dados);
+      } else {
+        setPacientes(prev => mesclarAlteracoes(prev, alteracoes));
+      }
     } catch (error) {
       console.error('Erro ao carregar dados:', error);
     }
   };
 
+  const atualizarLista = () => {
+    versaoRef.current = 0;
+    carregarDadosRecentes();
+  };
+
+  const mesclarAlteracoes = (atuais: DadosPaciente[], alteracoes: AlteracoesRecentes) => {
+    const alterados = new Map(alteracoes.dados.map(d => [d.paciente_id, d] as [string, DadosPaciente]));
+    const mesclados = atuais
+      .filter(p => !alteracoes.removidos.includes(p.paciente_id))
+      .map(p => alterados.get(p.paciente_id) ?? p);
+    const conhecidos = new Set(atuais.map(p => p.paciente_id));
+    return [...mesclados, ...alteracoes.dados.filter(d => !conhecidos.has(d.paciente_id))];
+  };
+
   const atualizarDadosPaciente = (novosDados: DadosPaciente) => {
     setPacientes(prev => {
       const index = prev.findIndex(p => p.paciente_id === novosDados.paciente_id);
       if (index >= 0) {
         const atualizados = [...prev];
-        atualizados[index] = novosDados;
+        // Nome e CPF vêm da API REST; os dados do WebSocket trazem só os sinais vitais
+        atualizados[index] = {
+          ...novosDados,
+          paciente_nome: novosDados.paciente_nome ?? prev[index].paciente_nome,
+          paciente_cpf: novosDados.paciente_cpf ?? prev[index].paciente_cpf
+        };
         return atualizados;
       } else {
         return [...prev, novosDados];
@@ -190,7 +230,7 @@ const Dashboard: React.FC = () => {
             color={conectado ? 'success' : 'error'}
             size="small"
           />
-          <IconButton color="inherit" onClick={carregarDadosRecentes}>
+          <IconButton color="inherit" onClick={atualizarLista}>
             <Refresh />
           </IconButton>
         </Toolbar>
@@ -204,7 +244,7 @@ const Dashboard: React.FC = () => {
                 <CardContent>
                   <Box display="flex" justifyContent="space-between" alignItems="center" mb={2}>
                     <Typography variant="h6" component="div">
-                      {paciente.paciente_nome}
+                      {paciente.paciente_nome ?? paciente.paciente_id}
                     </Typography>
                     <Chip
                       icon={obterIconeStatus(paciente.status)}
@@ -39,6 +39,11 @@ export class ApiService {
     return this.request<DadosPaciente[]>(`/api/pacientes/${pacienteId}/dados`);
   }
 
+  // Últimos segundos do paciente, servidos da memória do backend
+  static async getJanela(pacienteId: string, segundos: number = 60): Promise<DadosPaciente[]> {
+    return this.request<DadosPaciente[]>(`/api/pacientes/${pacienteId}/janela?segundos=${segundos}`);
+  }
+
   static async getEstatisticas(): Promise<Estatisticas> {
     return this.request<Estatisticas>('/api/pacientes/estatisticas');
   }
@@ -104,6 +109,20 @@ export class WebSocketService {
     }
   }
 
+  // Passa a receber apenas os pacientes informados
+  inscrever(pacientes: string[]): void {
+    this.ws?.send(JSON.stringify({ acao: 'inscrever', pacientes }));
+  }
+
+  desinscrever(pacientes: string[]): void {
+    this.ws?.send(JSON.stringify({ acao: 'desinscrever', pacientes }));
+  }
+
+  // Volta a receber todos os pacientes
+  inscreverTodos(): void {
+    this.ws?.send(JSON.stringify({ acao: 'inscrever_todos' }));
+  }
+
   disconnect(): void {
     if (this.ws) {
       this.ws.close();
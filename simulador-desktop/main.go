@@ -18,8 +18,8 @@ import (
 type DadosPaciente struct {
 	Timestamp    string  `json:"timestamp"`
 	PacienteID   string  `json:"paciente_id"`
-	PacienteNome string  `json:"paciente_nome"`
-	PacienteCPF  string  `json:"paciente_cpf"`
+	PacienteNome string  `json:"paciente_nome,omitempty"`
+	PacienteCPF  string  `json:"paciente_cpf,omitempty"`
 	FreqCardiaca int     `json:"freq_cardiaca"`
 	SaturacaoO2  int     `json:"saturacao_o2"`
 	PressaoSist  int     `json:"pressao_sistolica"`
@@ -76,14 +76,8 @@ func simularPaciente(arquivoCSV string, config ConfiguracaoSimulador, numeroPaci
 	headers := http.Header{}
 	headers.Add("User-Agent", "HealthGo-Desktop-Simulator")
 
-	conn, _, err := websocket.DefaultDialer.Dial(u.String(), headers)
-	if err != nil {
-		log.Printf("❌ Erro ao conectar WebSocket para paciente %d: %v", numeroPaciente, err)
-		return
-	}
-	defer conn.Close()
-
-	log.Printf("✅ WebSocket conectado para paciente %d", numeroPaciente)
+	conn := conectarWebSocket(u, headers, numeroPaciente)
+	defer func() { conn.Close() }()
 
 	// Abre o arquivo CSV
 	arquivo, err := os.Open(arquivoCSV)
@@ -110,14 +104,25 @@ func simularPaciente(arquivoCSV string, config ConfiguracaoSimulador, numeroPaci
 	log.Printf("📈 Enviando %d registros do paciente %d", len(registros)-inicio, numeroPaciente)
 
 	// Processa cada linha do CSV
+	identificacaoEnviada := false
 	for i, registro := range registros[inicio:] {
 		dados := parsearDadosPaciente(registro)
 
-		// Envia dados via WebSocket
+		// Nome e CPF vão no primeiro envio de cada conexão; o backend os guarda no cadastro de pacientes
+		if identificacaoEnviada {
+			dados.PacienteNome = ""
+			dados.PacienteCPF = ""
+		}
+
+		// Envia dados via WebSocket; com a conexão perdida, reconecta e reenvia a identificação
 		err := enviarDadosWebSocket(conn, dados)
 		if err != nil {
 			log.Printf("❌ Erro ao enviar dados do paciente %d: %v", numeroPaciente, err)
+			conn.Close()
+			conn = conectarWebSocket(u, headers, numeroPaciente)
+			identificacaoEnviada = false
 		} else {
+			identificacaoEnviada = true
 			jsonDados, _ := json.Marshal(dados)
 			log.Printf("✅ Paciente %d - Registro %d/%d enviado: %s - %s",
 				numeroPaciente, i+1, len(registros)-inicio, dados.Timestamp, string(jsonDados))
@@ -130,6 +135,23 @@ func simularPaciente(arquivoCSV string, config ConfiguracaoSimulador, numeroPaci
 	log.Printf("🎯 Simulação do paciente %d concluída", numeroPaciente)
 }
 
+// conectarWebSocket conecta ao backend, tentando de novo com intervalo crescente até conseguir
+func conectarWebSocket(u *url.URL, headers http.Header, numeroPaciente int) *websocket.Conn {
+	espera := time.Second
+	for {
+		conn, _, err := websocket.DefaultDialer.Dial(u.String(), headers)
+		if err == nil {
+			log.Printf("✅ WebSocket conectado para paciente %d", numeroPaciente)
+			return conn
+		}
+		log.Printf("❌ Erro ao conectar WebSocket para paciente %d: %v (nova tentativa em %v)", numeroPaciente, err, espera)
+		time.Sleep(espera)
+		if espera < 30*time.Second {
+			espera *= 2
+		}
+	}
+}
+
 // parsearDadosPaciente converte uma linha do CSV em DadosPaciente
 func parsearDadosPaciente(registro []string) DadosPaciente {
 	freqCardiaca, _ := strconv.Atoi(registro[4])